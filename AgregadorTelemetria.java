@@ -0,0 +1,326 @@
+// AgregadorTelemetria.java
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.zip.Inflater;
+
+/**
+ * Resume os ficheiros da TelemetriaLancamentos por nível: taxa de cesto
+ * (também por força do arrasto), toques no aro e na tabela e percentis da
+ * força do arrasto, da velocidade de saída, dos ressaltos e do tempo até a
+ * bola parar.
+ *
+ * Primeiro indexa os blocos (só lê os cabeçalhos) e agrupa-os em janelas de
+ * até TAMANHO_JANELA; depois um ForkJoinPool reparte as janelas, e cada
+ * tarefa mapeia a sua em memória e descomprime os blocos para um Bloco
+ * reutilizado da thread. Os parciais juntam-se no fim: a memória não depende
+ * do tamanho dos ficheiros.
+ *
+ * Uso: java AgregadorTelemetria [ficheiro|diretório ...]  (por omissão, o diretório "telemetria")
+ */
+public class AgregadorTelemetria {
+
+    static final String EXTENSAO = ".bqt";
+    // Bytes mapeados por tarefa (blocos inteiros; um bloco maior fica sozinho)
+    private static final long TAMANHO_JANELA = 8L * 1024 * 1024;
+
+    // --- Distribuições (por nível) ---
+    static final int DIST_ARRASTO = 0;     // px
+    static final int DIST_VELOCIDADE = 1;  // centésimos de px por passo
+    static final int DIST_RESSALTOS = 2;
+    static final int DIST_PASSOS = 3;
+    static final int DISTRIBUICOES = 4;
+    // Faixas de força do arrasto para a taxa de cesto (FAIXA_ARRASTO px cada, a última sem limite)
+    static final int FAIXA_ARRASTO = 50;
+    static final int FAIXAS = 10;
+
+    /**
+     * Blocos seguidos de um ficheiro, mapeados de uma vez por uma tarefa.
+     */
+    static final class Janela {
+        final FileChannel canal;
+        final long posicao;
+        long tamanho;
+
+        Janela(FileChannel canal, long posicao) {
+            this.canal = canal;
+            this.posicao = posicao;
+        }
+    }
+
+    /**
+     * Contagens e histogramas (baldes do Histograma) por nível.
+     */
+    static final class Resumo {
+        static final int NIVEIS = NivelDificuldade.values().length;
+
+        final long[] lancamentos = new long[NIVEIS];
+        final long[] cestas = new long[NIVEIS];
+        final long[] aro = new long[NIVEIS];
+        final long[] tabela = new long[NIVEIS];
+        final long[] parados = new long[NIVEIS];
+        final long[][] lancamentosPorFaixa = new long[NIVEIS][FAIXAS];
+        final long[][] cestasPorFaixa = new long[NIVEIS][FAIXAS];
+        final long[][][] histogramas = new long[NIVEIS][DISTRIBUICOES][Histograma.NUMERO_BALDES];
+        long blocos = 0;
+        long blocosInvalidos = 0;
+
+        void acrescentar(TelemetriaLancamentos.Bloco bloco) {
+            blocos++;
+            for (int i = 0; i < bloco.registos; i++) {
+                int nivel = bloco.niveis[i];
+                if (nivel < 0 || nivel >= NIVEIS) continue;
+                boolean cesta = (bloco.eventos[i] & Simulacao.EVENTO_PONTO) != 0;
+                double arrasto = Math.sqrt(bloco.dx[i] * bloco.dx[i] + bloco.dy[i] * bloco.dy[i]);
+                double velocidade = Math.sqrt(bloco.velX[i] * bloco.velX[i] + bloco.velY[i] * bloco.velY[i]);
+                int faixa = Math.min(FAIXAS - 1, (int) (arrasto / FAIXA_ARRASTO));
+
+                lancamentos[nivel]++;
+                lancamentosPorFaixa[nivel][faixa]++;
+                if (cesta) {
+                    cestas[nivel]++;
+                    cestasPorFaixa[nivel][faixa]++;
+                }
+                if ((bloco.eventos[i] & Simulacao.EVENTO_ARO) != 0) aro[nivel]++;
+                if ((bloco.eventos[i] & Simulacao.EVENTO_TABELA) != 0) tabela[nivel]++;
+                if (bloco.parou[i] != 0) parados[nivel]++;
+
+                long[][] h = histogramas[nivel];
+                h[DIST_ARRASTO][Histograma.indice((long) arrasto)]++;
+                h[DIST_VELOCIDADE][Histograma.indice((long) (velocidade * 100))]++;
+                h[DIST_RESSALTOS][Histograma.indice(Math.max(0, bloco.ressaltos[i]))]++;
+                h[DIST_PASSOS][Histograma.indice(Math.max(0, bloco.passos[i]))]++;
+            }
+        }
+
+        void juntar(Resumo outro) {
+            blocos += outro.blocos;
+            blocosInvalidos += outro.blocosInvalidos;
+            for (int n = 0; n < NIVEIS; n++) {
+                lancamentos[n] += outro.lancamentos[n];
+                cestas[n] += outro.cestas[n];
+                aro[n] += outro.aro[n];
+                tabela[n] += outro.tabela[n];
+                parados[n] += outro.parados[n];
+                for (int f = 0; f < FAIXAS; f++) {
+                    lancamentosPorFaixa[n][f] += outro.lancamentosPorFaixa[n][f];
+                    cestasPorFaixa[n][f] += outro.cestasPorFaixa[n][f];
+                }
+                for (int d = 0; d < DISTRIBUICOES; d++) {
+                    long[] destino = histogramas[n][d], origem = outro.histogramas[n][d];
+                    for (int i = 0; i < destino.length; i++) destino[i] += origem[i];
+                }
+            }
+        }
+
+        long totalLancamentos() {
+            long total = 0;
+            for (long n : lancamentos) total += n;
+            return total;
+        }
+    }
+
+    // Bloco e Inflater de cada thread do pool (reutilizados entre janelas)
+    private static final ThreadLocal<TelemetriaLancamentos.Bloco> BLOCOS =
+        ThreadLocal.withInitial(TelemetriaLancamentos.Bloco::new);
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private static class TarefaJanelas extends RecursiveTask<Resumo> {
+        private final List<Janela> janelas;
+        private final int inicio, fim;
+
+        TarefaJanelas(List<Janela> janelas, int inicio, int fim) {
+            this.janelas = janelas;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected Resumo compute() {
+            if (fim - inicio > 1) {
+                int meio = (inicio + fim) >>> 1;
+                TarefaJanelas esquerda = new TarefaJanelas(janelas, inicio, meio);
+                esquerda.fork();
+                Resumo resumo = new TarefaJanelas(janelas, meio, fim).compute();
+                resumo.juntar(esquerda.join());
+                return resumo;
+            }
+            Resumo resumo = new Resumo();
+            Janela janela = janelas.get(inicio);
+            TelemetriaLancamentos.Bloco bloco = BLOCOS.get();
+            Inflater inflater = INFLATERS.get();
+            MappedByteBuffer dados;
+            try {
+                dados = janela.canal.map(FileChannel.MapMode.READ_ONLY, janela.posicao, janela.tamanho);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            while (dados.remaining() >= TelemetriaLancamentos.TAMANHO_CABECALHO_BLOCO) {
+                // O índice já validou os tamanhos: um bloco estragado salta-se sem perder os seguintes
+                int posicao = dados.position();
+                int proximo = posicao + TelemetriaLancamentos.TAMANHO_CABECALHO_BLOCO + dados.getInt(posicao + 4);
+                try {
+                    bloco.descodificar(dados, inflater);
+                    resumo.acrescentar(bloco);
+                } catch (IOException | RuntimeException e) {
+                    resumo.blocosInvalidos++;
+                }
+                dados.position(proximo);
+            }
+            return resumo;
+        }
+    }
+
+    /**
+     * Lê os cabeçalhos dos blocos do ficheiro e acrescenta as suas janelas.
+     * Um ficheiro truncado (o jogo morreu a meio de um bloco) fica até ao último bloco completo.
+     */
+    static void indexar(Path ficheiro, FileChannel canal, List<Janela> janelas) throws IOException {
+        long tamanhoFicheiro = canal.size();
+        ByteBuffer cabecalho = ByteBuffer.allocate(TelemetriaLancamentos.TAMANHO_CABECALHO_BLOCO);
+        if (!lerTudo(canal, cabecalho, 0, TelemetriaLancamentos.TAMANHO_CABECALHO)
+                || cabecalho.getInt(0) != TelemetriaLancamentos.MAGIA
+                || cabecalho.get(4) != TelemetriaLancamentos.VERSAO) {
+            System.err.println("Não é um ficheiro de telemetria: " + ficheiro);
+            return;
+        }
+        Janela janela = null;
+        long posicao = TelemetriaLancamentos.TAMANHO_CABECALHO;
+        while (lerTudo(canal, cabecalho, posicao, TelemetriaLancamentos.TAMANHO_CABECALHO_BLOCO)) {
+            int registos = cabecalho.getInt(0);
+            int tamanho = cabecalho.getInt(4);
+            long tamanhoBloco = TelemetriaLancamentos.TAMANHO_CABECALHO_BLOCO + (long) tamanho;
+            if (registos < 0 || tamanho < 0 || posicao + tamanhoBloco > tamanhoFicheiro) {
+                System.err.println("Bloco incompleto em " + ficheiro + " (posição " + posicao + "): ignorado o resto");
+                break;
+            }
+            if (janela == null || janela.tamanho + tamanhoBloco > TAMANHO_JANELA) {
+                janela = new Janela(canal, posicao);
+                janelas.add(janela);
+            }
+            janela.tamanho += tamanhoBloco;
+            posicao += tamanhoBloco;
+        }
+    }
+
+    // Lê exatamente n bytes na posição dada (false se o ficheiro acabar antes)
+    private static boolean lerTudo(FileChannel canal, ByteBuffer destino, long posicao, int n) throws IOException {
+        destino.clear().limit(n);
+        while (destino.hasRemaining()) {
+            if (canal.read(destino, posicao + destino.position()) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Os ficheiros .bqt dos argumentos (diretórios percorridos recursivamente).
+     */
+    static List<Path> ficheiros(String[] caminhos) throws IOException {
+        List<Path> ficheiros = new ArrayList<>();
+        for (String caminho : caminhos) {
+            Path p = Paths.get(caminho);
+            if (Files.isDirectory(p)) {
+                try (Stream<Path> arvore = Files.walk(p)) {
+                    arvore.filter(f -> f.toString().endsWith(EXTENSAO) && Files.isRegularFile(f))
+                        .sorted().forEach(ficheiros::add);
+                }
+            } else {
+                ficheiros.add(p);
+            }
+        }
+        return ficheiros;
+    }
+
+    static Resumo agregar(List<Janela> janelas, ForkJoinPool pool) {
+        if (janelas.isEmpty()) return new Resumo();
+        return pool.invoke(new TarefaJanelas(janelas, 0, janelas.size()));
+    }
+
+    static void imprimir(Resumo resumo) {
+        NivelDificuldade[] niveis = NivelDificuldade.values();
+        System.out.printf(Locale.ROOT, "%-8s %12s %8s %8s %8s %8s%n", "Nível", "lançamentos", "cesto", "aro", "tabela", "parou");
+        for (NivelDificuldade nivel : niveis) {
+            int n = nivel.ordinal();
+            long total = resumo.lancamentos[n];
+            if (total == 0) continue;
+            System.out.printf(Locale.ROOT, "%-8s %12d %7.1f%% %7.1f%% %7.1f%% %7.1f%%%n", nivel, total,
+                100.0 * resumo.cestas[n] / total, 100.0 * resumo.aro[n] / total,
+                100.0 * resumo.tabela[n] / total, 100.0 * resumo.parados[n] / total);
+        }
+
+        System.out.println();
+        System.out.println("Taxa de cesto por força do arrasto (px):");
+        StringBuilder titulo = new StringBuilder(String.format(Locale.ROOT, "%-8s", ""));
+        for (int f = 0; f < FAIXAS; f++) {
+            titulo.append(String.format(Locale.ROOT, " %7s", f == FAIXAS - 1 ? f * FAIXA_ARRASTO + "+" : f * FAIXA_ARRASTO + "-"));
+        }
+        System.out.println(titulo);
+        for (NivelDificuldade nivel : niveis) {
+            int n = nivel.ordinal();
+            if (resumo.lancamentos[n] == 0) continue;
+            StringBuilder linha = new StringBuilder(String.format(Locale.ROOT, "%-8s", nivel));
+            for (int f = 0; f < FAIXAS; f++) {
+                long total = resumo.lancamentosPorFaixa[n][f];
+                linha.append(total == 0 ? String.format(Locale.ROOT, " %7s", "-")
+                    : String.format(Locale.ROOT, " %6.1f%%", 100.0 * resumo.cestasPorFaixa[n][f] / total));
+            }
+            System.out.println(linha);
+        }
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-8s %-22s %9s %9s %9s %9s%n", "Nível", "distribuição", "p50", "p90", "p99", "máx");
+        String[] nomes = {"arrasto (px)", "velocidade (px/passo)", "ressaltos", "até parar (s)"};
+        double[] escalas = {1, 0.01, 1, 1.0 / Simulacao.PASSOS_POR_SEGUNDO};
+        for (NivelDificuldade nivel : niveis) {
+            int n = nivel.ordinal();
+            if (resumo.lancamentos[n] == 0) continue;
+            for (int d = 0; d < DISTRIBUICOES; d++) {
+                long[] h = resumo.histogramas[n][d];
+                double e = escalas[d];
+                System.out.printf(Locale.ROOT, "%-8s %-22s %9.2f %9.2f %9.2f %9.2f%n", d == 0 ? nivel.toString() : "",
+                    nomes[d], Histograma.percentil(h, 50) * e, Histograma.percentil(h, 90) * e,
+                    Histograma.percentil(h, 99) * e, Histograma.maximo(h) * e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> ficheiros = ficheiros(args.length > 0 ? args : new String[] {"telemetria"});
+        List<FileChannel> canais = new ArrayList<>();
+        List<Janela> janelas = new ArrayList<>();
+        long bytes = 0;
+        long inicio = System.nanoTime();
+        try {
+            for (Path ficheiro : ficheiros) {
+                FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.READ);
+                canais.add(canal);
+                bytes += canal.size();
+                indexar(ficheiro, canal, janelas);
+            }
+            Resumo resumo = agregar(janelas, ForkJoinPool.commonPool());
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            imprimir(resumo);
+            System.out.println();
+            System.out.printf(Locale.ROOT, "%d ficheiros, %d blocos (%d inválidos), %d lançamentos, %.1f MB em %.2f s "
+                    + "(%.0f MB/s, %.1f M lançamentos/s, %d threads)%n",
+                ficheiros.size(), resumo.blocos, resumo.blocosInvalidos, resumo.totalLancamentos(), bytes / 1e6, segundos,
+                bytes / 1e6 / segundos, resumo.totalLancamentos() / 1e6 / segundos, ForkJoinPool.commonPool().getParallelism());
+        } finally {
+            for (FileChannel canal : canais) canal.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+// AmbienteBasquete.java
+
+/**
+ * Ambiente headless para treinar bots de lançamento, no estilo reset/step.
+ * Cada passo do ambiente é um lançamento completo: a ação é o vetor de
+ * arrasto do rato (interpretado como no MeuMouseListener.mouseReleased) e a
+ * recompensa são as cestas marcadas (Cesto.verificarPontuacao). Sem atrito no
+ * chão a bola pode rolar durante muitos segundos, por isso o lançamento acaba
+ * logo que fica decidido (a bola já não consegue voltar acima do aro) e a bola
+ * é apanhada onde estiver: o lançamento seguinte parte daí. Um episódio tem um número fixo de lançamentos.
+ *
+ * Para muitos ambientes em paralelo, ver AmbienteBasqueteVetorizado.
+ */
+public class AmbienteBasquete {
+
+    // Dimensão da observação: x, y, velX, velY da bola
+    public static final int DIMENSAO_OBSERVACAO = 4;
+    static final int LANCAMENTOS_POR_EPISODIO = 10;
+    private static final double POS_LINHA_CESTO = Cesto.Y_ARO + Cesto.ALTURA_ARO / 2.0;
+
+    /**
+     * Resultado de um passo. O objeto é reutilizado: é válido até ao passo seguinte.
+     */
+    public static class Transicao {
+        public final double[] observacao = new double[DIMENSAO_OBSERVACAO];
+        public double recompensa;
+        public boolean terminado;
+    }
+
+    private final Simulacao simulacao;
+    private final int lancamentosPorEpisodio;
+    private final Transicao transicao = new Transicao();
+    private int lancamentos = 0;
+
+    public AmbienteBasquete(NivelDificuldade nivel, boolean colisaoContinua, int lancamentosPorEpisodio) {
+        this.simulacao = new Simulacao(PainelJogo.LARGURA, PainelJogo.ALTURA, nivel, new GeradorAleatorio(0));
+        this.simulacao.setColisaoContinua(colisaoContinua);
+        this.lancamentosPorEpisodio = lancamentosPorEpisodio;
+    }
+
+    /**
+     * Ambiente com a física do jogo (colisão contínua) e episódios de LANCAMENTOS_POR_EPISODIO.
+     */
+    public AmbienteBasquete(NivelDificuldade nivel) {
+        this(nivel, true, LANCAMENTOS_POR_EPISODIO);
+    }
+
+    /**
+     * Começa um episódio novo. A mesma semente dá sempre o mesmo episódio para
+     * as mesmas ações (e o mesmo que o ambiente 0 de um AmbienteBasqueteVetorizado).
+     * @return A observação inicial (copiada para o array da transição).
+     */
+    public double[] reset(long semente) {
+        simulacao.getRandom().setEstado(GeradorAleatorio.derivarSemente(semente, 0));
+        simulacao.reiniciarBola();
+        simulacao.zerarPontuacao();
+        lancamentos = 0;
+        transicao.recompensa = 0;
+        transicao.terminado = false;
+        observar(transicao.observacao);
+        return transicao.observacao;
+    }
+
+    /**
+     * Lança a bola com o vetor de arrasto e simula até o lançamento ficar decidido.
+     * Um arrasto sem força suficiente conta como lançamento falhado (recompensa 0).
+     */
+    public Transicao step(double dxArrasto, double dyArrasto) {
+        transicao.recompensa = lancar(dxArrasto, dyArrasto);
+        lancamentos++;
+        transicao.terminado = lancamentos >= lancamentosPorEpisodio;
+        observar(transicao.observacao);
+        return transicao;
+    }
+
+    /**
+     * Um lançamento a partir do estado atual da simulação, sem contar para o
+     * episódio (o AmbienteBasqueteVetorizado usa-o sobre o estado de cada ambiente).
+     * @return As cestas marcadas.
+     */
+    int lancar(double dxArrasto, double dyArrasto) {
+        return lancar(simulacao, dxArrasto, dyArrasto);
+    }
+
+    /**
+     * Lança na simulação dada e simula até o lançamento ficar decidido
+     * (também usado pelo CalibradorDificuldade).
+     * @return As cestas marcadas.
+     */
+    static int lancar(Simulacao simulacao, double dxArrasto, double dyArrasto) {
+        int pontosAntes = simulacao.getPontuacao();
+        if (simulacao.lancarArrasto(dxArrasto, dyArrasto)) {
+            Bola bola = simulacao.getBola();
+            int alturaChao = simulacao.getAlturaChao();
+            double coefRestituicaoChao = simulacao.getCoefRestituicaoMapa();
+            for (int i = 0; i < Simulacao.MAX_PASSOS_LANCAMENTO && bola.emMovimento; i++) {
+                simulacao.passo();
+                if (lancamentoDecidido(bola.y, bola.velY, alturaChao, coefRestituicaoChao)) break;
+            }
+            pararBola(bola);
+        }
+        return simulacao.getPontuacao() - pontosAntes;
+    }
+
+    /**
+     * true se a bola já não pode marcar: está abaixo da linha do cesto e nem a
+     * subir agora nem depois de ressaltar no chão chega lá acima. Paredes, aro
+     * e tabela só tiram energia, por isso a conta com a gravidade basta.
+     */
+    static boolean lancamentoDecidido(double y, double velY, int alturaChao, double coefRestituicaoChao) {
+        if (y <= POS_LINHA_CESTO) return false;
+        double yChao = alturaChao - Bola.RAIO_BOLA;
+        double g2 = 2 * FisicaUtil.GRAVIDADE;
+        // A subir, sem chegar à linha
+        if (velY < 0 && velY * velY >= g2 * (y - POS_LINHA_CESTO)) return false;
+        // Velocidade ao chegar ao chão e altura depois do ressalto
+        double velChao2 = velY * velY + g2 * Math.max(0, yChao - y);
+        return coefRestituicaoChao * coefRestituicaoChao * velChao2 < g2 * (yChao - POS_LINHA_CESTO);
+    }
+
+    // A bola é apanhada onde estiver (lançamento decidido ou limite de passos)
+    static void pararBola(Bola bola) {
+        if (bola.emMovimento) {
+            bola.emMovimento = false;
+            bola.velX = 0;
+            bola.velY = 0;
+        }
+    }
+
+    private void observar(double[] observacao) {
+        Bola bola = simulacao.getBola();
+        observacao[0] = bola.x;
+        observacao[1] = bola.y;
+        observacao[2] = bola.velX;
+        observacao[3] = bola.velY;
+    }
+
+    public int getLancamentos() { return lancamentos; }
+    public Simulacao getSimulacao() { return simulacao; }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+// AmbienteBasqueteVetorizado.java
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * N ambientes AmbienteBasquete independentes avançados em conjunto, para
+ * treino com muitos episódios em paralelo. O estado de cada ambiente (posição
+ * da bola, gerador, lançamentos do episódio) fica em arrays primitivos; cada
+ * bloco de AMBIENTES_POR_BLOCO ambientes tem um AmbienteBasquete reutilizado
+ * como motor, onde o estado é carregado, o lançamento simulado e o resultado
+ * guardado. Os blocos correm em paralelo num ForkJoinPool e um passo não cria
+ * objetos por ambiente.
+ *
+ * Os ambientes avançam em conjunto ao nível do passo (um lançamento cada), mas
+ * não ao nível do tick: cada lançamento corre até ficar decidido sem esperar
+ * pelos outros, o que evita simular bolas já paradas. Os ambientes cujo
+ * episódio termina são recomeçados logo (como nos ambientes vetorizados
+ * habituais): a observação devolvida já é a do início do episódio seguinte.
+ */
+public class AmbienteBasqueteVetorizado {
+
+    private static final int AMBIENTES_POR_BLOCO = 256;
+    private static final int D = AmbienteBasquete.DIMENSAO_OBSERVACAO;
+
+    private final int quantidade;
+    private final ForkJoinPool pool;
+    private final int lancamentosPorEpisodio;
+    private final double yInicial;
+    // Um motor por bloco de ambientes
+    private final AmbienteBasquete[] motores;
+
+    // --- Estado por Ambiente ---
+    private final double[] x, y;
+    private final boolean[] passouPeloAroTopo;
+    private final long[] estadoGerador;
+    private final int[] lancamentos;
+
+    // --- Resultado do Último Passo ---
+    private final double[] observacoes;
+    private final double[] recompensas;
+    private final boolean[] terminados;
+
+    // Ações do passo em curso (lidas pelas tarefas)
+    private double[] dxAtual, dyAtual;
+
+    public AmbienteBasqueteVetorizado(int quantidade, NivelDificuldade nivel, boolean colisaoContinua,
+            int lancamentosPorEpisodio, ForkJoinPool pool) {
+        this.quantidade = quantidade;
+        this.pool = pool;
+        this.lancamentosPorEpisodio = lancamentosPorEpisodio;
+        this.yInicial = PainelJogo.ALTURA - 10 - Bola.RAIO_BOLA;
+        this.motores = new AmbienteBasquete[(quantidade + AMBIENTES_POR_BLOCO - 1) / AMBIENTES_POR_BLOCO];
+        for (int b = 0; b < motores.length; b++) {
+            motores[b] = new AmbienteBasquete(nivel, colisaoContinua, lancamentosPorEpisodio);
+        }
+        this.x = new double[quantidade];
+        this.y = new double[quantidade];
+        this.passouPeloAroTopo = new boolean[quantidade];
+        this.estadoGerador = new long[quantidade];
+        this.lancamentos = new int[quantidade];
+        this.observacoes = new double[quantidade * D];
+        this.recompensas = new double[quantidade];
+        this.terminados = new boolean[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            recomecar(i);
+        }
+    }
+
+    public AmbienteBasqueteVetorizado(int quantidade, NivelDificuldade nivel) {
+        this(quantidade, nivel, true, AmbienteBasquete.LANCAMENTOS_POR_EPISODIO, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Recomeça todos os ambientes. O ambiente i usa a semente derivada (semente, i),
+     * por isso o ambiente 0 repete um AmbienteBasquete com a mesma semente.
+     * @return As observações, DIMENSAO_OBSERVACAO valores por ambiente.
+     */
+    public double[] reset(long semente) {
+        for (int i = 0; i < quantidade; i++) {
+            estadoGerador[i] = GeradorAleatorio.derivarSemente(semente, i);
+            recomecar(i);
+            recompensas[i] = 0;
+            terminados[i] = false;
+        }
+        return observacoes;
+    }
+
+    /**
+     * Um lançamento em cada ambiente, com os vetores de arrasto dados.
+     * Os resultados ficam em getObservacoes, getRecompensas e getTerminados.
+     */
+    public void step(double[] dxArrasto, double[] dyArrasto) {
+        this.dxAtual = dxArrasto;
+        this.dyAtual = dyArrasto;
+        pool.invoke(new TarefaBlocos(0, motores.length));
+    }
+
+    private class TarefaBlocos extends RecursiveAction {
+        private final int inicio, fim;
+
+        TarefaBlocos(int inicio, int fim) {
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio > 1) {
+                int meio = (inicio + fim) >>> 1;
+                invokeAll(new TarefaBlocos(inicio, meio), new TarefaBlocos(meio, fim));
+                return;
+            }
+            simularBloco(inicio);
+        }
+    }
+
+    // Carrega cada ambiente do bloco no motor, lança e guarda o estado de volta
+    private void simularBloco(int bloco) {
+        AmbienteBasquete motor = motores[bloco];
+        Simulacao simulacao = motor.getSimulacao();
+        GeradorAleatorio random = simulacao.getRandom();
+        Cesto cesto = simulacao.getCesto();
+        Bola bola = simulacao.getBola();
+        final double[] dx = dxAtual, dy = dyAtual;
+
+        int fim = Math.min(quantidade, (bloco + 1) * AMBIENTES_POR_BLOCO);
+        for (int i = bloco * AMBIENTES_POR_BLOCO; i < fim; i++) {
+            bola.x = x[i];
+            bola.y = y[i];
+            cesto.passouPeloAroTopo = passouPeloAroTopo[i];
+            random.setEstado(estadoGerador[i]);
+
+            recompensas[i] = motor.lancar(dx[i], dy[i]);
+
+            x[i] = bola.x;
+            y[i] = bola.y;
+            passouPeloAroTopo[i] = cesto.passouPeloAroTopo;
+            estadoGerador[i] = random.getEstado();
+
+            terminados[i] = ++lancamentos[i] >= lancamentosPorEpisodio;
+            if (terminados[i]) {
+                recomecar(i);
+            } else {
+                observar(i);
+            }
+        }
+    }
+
+    // Bola no ponto de partida e episódio novo (o gerador continua)
+    private void recomecar(int i) {
+        x[i] = Simulacao.X_INICIAL;
+        y[i] = yInicial;
+        passouPeloAroTopo[i] = false;
+        lancamentos[i] = 0;
+        observar(i);
+    }
+
+    // Entre lançamentos a bola está sempre parada
+    private void observar(int i) {
+        int base = i * D;
+        observacoes[base] = x[i];
+        observacoes[base + 1] = y[i];
+        observacoes[base + 2] = 0;
+        observacoes[base + 3] = 0;
+    }
+
+    public int getQuantidade() { return quantidade; }
+    public double[] getObservacoes() { return observacoes; }
+    public double[] getRecompensas() { return recompensas; }
+    public boolean[] getTerminados() { return terminados; }
+
+    // --- Medição: java AmbienteBasqueteVetorizado [ambientes] [passos] [NIVEL] [discreta] ---
+    public static void main(String[] args) {
+        int ambientes = args.length > 0 ? Integer.parseInt(args[0]) : 16_384;
+        int passos = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        NivelDificuldade nivel = args.length > 2 ? NivelDificuldade.valueOf(args[2].toUpperCase()) : NivelDificuldade.MEDIO;
+        boolean continua = !(args.length > 3 && "discreta".equals(args[3]));
+
+        AmbienteBasqueteVetorizado ambiente = new AmbienteBasqueteVetorizado(ambientes, nivel, continua,
+            AmbienteBasquete.LANCAMENTOS_POR_EPISODIO, ForkJoinPool.commonPool());
+        ambiente.reset(42L);
+
+        // Política aleatória à volta dos arrastos que costumam chegar ao cesto
+        GeradorAleatorio politica = new GeradorAleatorio(7);
+        double[] dx = new double[ambientes];
+        double[] dy = new double[ambientes];
+        double cestas = 0;
+        long inicio = System.nanoTime();
+        for (int p = 0; p < passos; p++) {
+            for (int i = 0; i < ambientes; i++) {
+                dx[i] = (200 + politica.proximoDouble() * 300) / nivel.fatorMira;
+                dy[i] = -(150 + politica.proximoDouble() * 350) / nivel.fatorMira;
+            }
+            ambiente.step(dx, dy);
+            for (double r : ambiente.getRecompensas()) cestas += r;
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long total = (long) ambientes * passos;
+        System.out.printf(Locale.ROOT, "%d ambientes x %d passos (%s, %s): %.2f s, %.0f lancamentos/s, %.3f cestas/lancamento%n",
+            ambientes, passos, nivel, continua ? "continua" : "discreta", segundos, total / segundos, cestas / total);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,199 @@
+// AvaliadorLancamentos.java
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Avaliador Monte Carlo em lote: simula uma grelha de vetores de arrasto num
+ * NivelDificuldade e devolve o mapa de probabilidade de cesto. O trabalho é
+ * dividido num ForkJoinPool e cada célula tem a sua própria semente, por isso o
+ * resultado é o mesmo qualquer que seja o número de threads.
+ */
+public class AvaliadorLancamentos {
+
+    // Número de células abaixo do qual uma tarefa deixa de se dividir
+    private static final int CELULAS_POR_TAREFA = 8;
+
+    private final ForkJoinPool pool;
+
+    public AvaliadorLancamentos(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public AvaliadorLancamentos() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Grelha retangular de vetores de arrasto (em pixels, como no MeuMouseListener).
+     */
+    public static class GrelhaArrasto {
+        final double dxMin, dxMax, dyMin, dyMax;
+        final int colunas, linhas;
+
+        public GrelhaArrasto(double dxMin, double dxMax, int colunas, double dyMin, double dyMax, int linhas) {
+            this.dxMin = dxMin;
+            this.dxMax = dxMax;
+            this.colunas = colunas;
+            this.dyMin = dyMin;
+            this.dyMax = dyMax;
+            this.linhas = linhas;
+        }
+
+        public double dx(int coluna) {
+            return colunas == 1 ? dxMin : dxMin + (dxMax - dxMin) * coluna / (colunas - 1);
+        }
+
+        public double dy(int linha) {
+            return linhas == 1 ? dyMin : dyMin + (dyMax - dyMin) * linha / (linhas - 1);
+        }
+
+        public int totalCelulas() {
+            return colunas * linhas;
+        }
+    }
+
+    /**
+     * Resultado da avaliação: probabilidade de cesto por célula da grelha.
+     */
+    public static class MapaAcerto {
+        private static final String TONS = " .:-=+*#%@";
+
+        final GrelhaArrasto grelha;
+        final NivelDificuldade nivel;
+        final int lancamentosPorCelula;
+        final int[] cestas;
+        // Lançamentos realmente simulados (sem erro de lançamento, um por célula)
+        final LongAdder lancamentosSimulados = new LongAdder();
+
+        MapaAcerto(GrelhaArrasto grelha, NivelDificuldade nivel, int lancamentosPorCelula) {
+            this.grelha = grelha;
+            this.nivel = nivel;
+            this.lancamentosPorCelula = lancamentosPorCelula;
+            this.cestas = new int[grelha.totalCelulas()];
+        }
+
+        public double getProbabilidade(int linha, int coluna) {
+            return cestas[linha * grelha.colunas + coluna] / (double) lancamentosPorCelula;
+        }
+
+        public long totalLancamentos() {
+            return lancamentosSimulados.sum();
+        }
+
+        /**
+         * Imprime o mapa de calor em ASCII (linhas = dy, colunas = dx).
+         */
+        public void imprimir(PrintStream saida) {
+            saida.printf(Locale.ROOT, "Nivel %s, %d lancamentos por celula (dx %.0f..%.0f, dy %.0f..%.0f)%n",
+                nivel, lancamentosPorCelula, grelha.dxMin, grelha.dxMax, grelha.dyMin, grelha.dyMax);
+            StringBuilder linhaTexto = new StringBuilder(grelha.colunas);
+            for (int linha = 0; linha < grelha.linhas; linha++) {
+                linhaTexto.setLength(0);
+                for (int coluna = 0; coluna < grelha.colunas; coluna++) {
+                    double p = getProbabilidade(linha, coluna);
+                    linhaTexto.append(TONS.charAt((int) Math.min(TONS.length() - 1, p * TONS.length())));
+                }
+                saida.printf(Locale.ROOT, "%7.1f |%s|%n", grelha.dy(linha), linhaTexto);
+            }
+        }
+
+        /**
+         * Escreve o mapa em CSV (dx, dy, probabilidade).
+         */
+        public void escreverCsv(PrintStream saida) {
+            saida.println("dx,dy,probabilidade");
+            for (int linha = 0; linha < grelha.linhas; linha++) {
+                for (int coluna = 0; coluna < grelha.colunas; coluna++) {
+                    saida.printf(Locale.ROOT, "%.2f,%.2f,%.6f%n",
+                        grelha.dx(coluna), grelha.dy(linha), getProbabilidade(linha, coluna));
+                }
+            }
+        }
+    }
+
+    /**
+     * Avalia todas as células da grelha.
+     * @param nivel Nível de dificuldade (mira, força máxima, erro, restituição).
+     * @param grelha Vetores de arrasto a testar.
+     * @param lancamentosPorCelula Lançamentos simulados por célula.
+     * @param semente Semente base; a mesma semente dá sempre o mesmo mapa.
+     */
+    public MapaAcerto avaliar(NivelDificuldade nivel, GrelhaArrasto grelha, int lancamentosPorCelula, long semente) {
+        MapaAcerto mapa = new MapaAcerto(grelha, nivel, lancamentosPorCelula);
+        pool.invoke(new TarefaCelulas(mapa, semente, 0, grelha.totalCelulas()));
+        return mapa;
+    }
+
+    private static class TarefaCelulas extends RecursiveAction {
+        private final MapaAcerto mapa;
+        private final long semente;
+        private final int inicio, fim;
+
+        TarefaCelulas(MapaAcerto mapa, long semente, int inicio, int fim) {
+            this.mapa = mapa;
+            this.semente = semente;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio > CELULAS_POR_TAREFA) {
+                int meio = (inicio + fim) >>> 1;
+                invokeAll(new TarefaCelulas(mapa, semente, inicio, meio),
+                          new TarefaCelulas(mapa, semente, meio, fim));
+                return;
+            }
+
+            GrelhaArrasto grelha = mapa.grelha;
+            GeradorAleatorio random = new GeradorAleatorio(semente);
+            Simulacao simulacao = new Simulacao(PainelJogo.LARGURA, PainelJogo.ALTURA, mapa.nivel, random);
+
+            // Sem erro de lançamento o resultado é determinístico: basta um lançamento por célula
+            int lancamentos = mapa.nivel.erroLancamento > 0 ? mapa.lancamentosPorCelula : 1;
+
+            for (int celula = inicio; celula < fim; celula++) {
+                random.setEstado(GeradorAleatorio.derivarSemente(semente, celula));
+                double dx = grelha.dx(celula % grelha.colunas);
+                double dy = grelha.dy(celula / grelha.colunas);
+
+                int cestas = 0;
+                for (int i = 0; i < lancamentos; i++) {
+                    simulacao.reiniciarBola();
+                    // Só até o lançamento ficar decidido (nos níveis sem atrito a bola nunca pára)
+                    if (AmbienteBasquete.lancar(simulacao, dx, dy) > 0) {
+                        cestas++;
+                    }
+                }
+                mapa.cestas[celula] = cestas * (mapa.lancamentosPorCelula / lancamentos);
+            }
+            mapa.lancamentosSimulados.add((long) lancamentos * (fim - inicio));
+        }
+    }
+
+    // --- Ferramenta de linha de comando ---
+    // Uso: java AvaliadorLancamentos [NIVEL] [lancamentosPorCelula] [semente]
+    public static void main(String[] args) {
+        NivelDificuldade nivel = args.length > 0 ? NivelDificuldade.valueOf(args[0].toUpperCase()) : NivelDificuldade.DIFICIL;
+        int lancamentos = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long semente = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        // A grelha cobre o mesmo espaço de alvos em todos os níveis (o arrasto é escalado pela mira)
+        double alcanceX = 1.5 * (Cesto.X_ARO_FIM - Simulacao.X_INICIAL) / nivel.fatorMira;
+        double alcanceY = PainelJogo.ALTURA / nivel.fatorMira;
+        GrelhaArrasto grelha = new GrelhaArrasto(0, alcanceX, 64, -alcanceY, 0, 32);
+        AvaliadorLancamentos avaliador = new AvaliadorLancamentos();
+
+        long inicio = System.nanoTime();
+        MapaAcerto mapa = avaliador.avaliar(nivel, grelha, lancamentos, semente);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        mapa.imprimir(System.out);
+        System.out.printf(Locale.ROOT, "%d lancamentos simulados em %.2f s (%.0f lancamentos/s)%n",
+            mapa.totalLancamentos(), segundos, mapa.totalLancamentos() / segundos);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,233 @@
+// BarramentoEventos.java
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Barramento dos eventos da física (ressalto no chão, parede, tabela, aro,
+ * cesta, bola parada) para quem reage a eles: áudio, placar, métricas e efeitos.
+ *
+ * É um buffer circular sem locks com um único produtor (a thread que corre a
+ * Simulacao) e vários leitores, cada um com o seu cursor: todos veem todos os
+ * eventos, como num disruptor. Os campos vivem em arrays primitivos paralelos,
+ * por isso publicar não aloca nada. O produtor nunca espera: se o leitor mais
+ * atrasado ainda não libertou o lugar, o evento é descartado e contado.
+ *
+ * Os leitores com thread própria (iniciarConsumidor) dormem até o produtor
+ * chamar sinalizar, normalmente uma vez por frame, e tratam em lote tudo o
+ * que chegou entretanto.
+ */
+public final class BarramentoEventos implements AutoCloseable {
+
+    // Capacidade por omissão: vários segundos de eventos, mesmo com o chão a ressaltar a cada passo
+    public static final int CAPACIDADE = 1 << 12;
+    // Máximo de eventos por lote (o cursor do leitor avança no fim de cada lote)
+    private static final int MAXIMO_LOTE = 256;
+    // Espera máxima de um consumidor sem sinal (eventos publicados sem sinalizar a seguir)
+    private static final long ESPERA_MAXIMA_NANOS = 50_000_000L;
+
+    /**
+     * Quem trata os eventos. Os argumentos são os campos do evento, para não
+     * haver objetos por evento.
+     */
+    public interface Tratador {
+        /**
+         * @param eventos Bitmask Simulacao.EVENTO_* do passo.
+         * @param nivel Ordinal do NivelDificuldade em que o passo correu.
+         */
+        void tratar(int eventos, long tick, double x, double y, double velX, double velY, int pontuacao, int nivel);
+
+        /**
+         * Chamado depois de cada lote não vazio (ex: tocar um só som por lote).
+         */
+        default void fimDoLote() {}
+    }
+
+    // --- Anel (um índice por evento) ---
+    private final int mascara;
+    private final int[] eventos;
+    private final long[] ticks;
+    private final double[] x, y;
+    private final double[] velX, velY;
+    private final int[] pontuacoes;
+    private final int[] niveis;
+
+    // Próxima sequência a publicar (só o produtor escreve; os leitores leem com acquire)
+    private final AtomicLong publicado = new AtomicLong();
+    // Leitores registados (copiado a cada registo, que só acontece no arranque)
+    private volatile Leitor[] leitores = new Leitor[0];
+    // Menor cursor dos leitores visto pelo produtor (só é recalculado quando o anel parece cheio)
+    private long limiteCache = 0;
+    private final AtomicLong descartados = new AtomicLong();
+    private volatile boolean fechado = false;
+
+    public BarramentoEventos() {
+        this(CAPACIDADE);
+    }
+
+    /**
+     * @param capacidade Número de eventos no anel (arredondado para uma potência de 2).
+     */
+    public BarramentoEventos(int capacidade) {
+        int tamanho = Integer.highestOneBit(Math.max(2, capacidade - 1)) << 1;
+        this.mascara = tamanho - 1;
+        this.eventos = new int[tamanho];
+        this.ticks = new long[tamanho];
+        this.x = new double[tamanho];
+        this.y = new double[tamanho];
+        this.velX = new double[tamanho];
+        this.velY = new double[tamanho];
+        this.pontuacoes = new int[tamanho];
+        this.niveis = new int[tamanho];
+    }
+
+    // --- Produtor ---
+
+    /**
+     * Publica o evento de um passo. Só pode ser chamado pela thread produtora.
+     * @return false se o anel estava cheio e o evento foi descartado.
+     */
+    public boolean publicar(int tipoEventos, long tick, double px, double py, double vx, double vy, int pontuacao, int nivel) {
+        long seq = publicado.get();
+        if (seq - limiteCache > mascara) {
+            limiteCache = menorCursor(seq);
+            if (seq - limiteCache > mascara) {
+                descartados.incrementAndGet();
+                return false;
+            }
+        }
+        int i = (int) seq & mascara;
+        eventos[i] = tipoEventos;
+        ticks[i] = tick;
+        x[i] = px;
+        y[i] = py;
+        velX[i] = vx;
+        velY[i] = vy;
+        pontuacoes[i] = pontuacao;
+        niveis[i] = nivel;
+        // Release: os campos acima ficam visíveis a quem ler o cursor com acquire
+        publicado.lazySet(seq + 1);
+        return true;
+    }
+
+    /**
+     * Acorda os consumidores que estão à espera (uma vez por frame, não por evento).
+     */
+    public void sinalizar() {
+        // As publicações (lazySet) ficam ordenadas antes da leitura do aEsperar: com o
+        // reteste do consumidor depois de o marcar, nenhum fica a dormir com eventos
+        VarHandle.fullFence();
+        for (Leitor leitor : leitores) {
+            Thread t = leitor.consumidor;
+            if (t != null && leitor.aEsperar) LockSupport.unpark(t);
+        }
+    }
+
+    private long menorCursor(long seq) {
+        long menor = seq;
+        for (Leitor leitor : leitores) {
+            menor = Math.min(menor, leitor.cursor.get());
+        }
+        return menor;
+    }
+
+    // --- Leitores ---
+
+    /**
+     * Regista um leitor que começa nos eventos publicados a partir de agora.
+     * Deve ser chamado antes de a simulação arrancar.
+     */
+    public synchronized Leitor novoLeitor() {
+        Leitor leitor = new Leitor(publicado.get());
+        Leitor[] atuais = leitores;
+        Leitor[] novos = Arrays.copyOf(atuais, atuais.length + 1);
+        novos[atuais.length] = leitor;
+        leitores = novos;
+        return leitor;
+    }
+
+    /**
+     * Cria um leitor com uma thread própria (daemon) que entrega os eventos ao tratador em lotes.
+     */
+    public Leitor iniciarConsumidor(String nome, Tratador tratador) {
+        Leitor leitor = novoLeitor();
+        Thread t = new Thread(() -> {
+            while (!fechado) {
+                if (leitor.drenar(tratador) == 0) {
+                    leitor.aEsperar = true;
+                    // Reconfirma depois de anunciar a espera, para não dormir com eventos por ler
+                    if (leitor.pendentes() == 0 && !fechado) LockSupport.parkNanos(ESPERA_MAXIMA_NANOS);
+                    leitor.aEsperar = false;
+                }
+            }
+            leitor.drenar(tratador);
+        }, nome);
+        t.setDaemon(true);
+        leitor.consumidor = t;
+        t.start();
+        return leitor;
+    }
+
+    /**
+     * Um cursor de leitura no anel. drenar só pode ser chamado por uma thread.
+     */
+    public final class Leitor {
+        // Próxima sequência a ler (o produtor lê-a para saber que lugares já pode reutilizar)
+        private final AtomicLong cursor;
+        private volatile boolean aEsperar = false;
+        private volatile Thread consumidor;
+
+        private Leitor(long inicio) {
+            this.cursor = new AtomicLong(inicio);
+        }
+
+        /**
+         * Entrega ao tratador os eventos disponíveis, em lotes de até MAXIMO_LOTE.
+         * @return O número de eventos tratados.
+         */
+        public int drenar(Tratador tratador) {
+            int total = 0;
+            long proximo = cursor.get();
+            long disponivel;
+            while ((disponivel = publicado.get()) > proximo) {
+                long fim = Math.min(disponivel, proximo + MAXIMO_LOTE);
+                for (long seq = proximo; seq < fim; seq++) {
+                    int i = (int) seq & mascara;
+                    tratador.tratar(eventos[i], ticks[i], x[i], y[i], velX[i], velY[i], pontuacoes[i], niveis[i]);
+                }
+                tratador.fimDoLote();
+                total += (int) (fim - proximo);
+                proximo = fim;
+                cursor.lazySet(proximo);
+            }
+            return total;
+        }
+
+        public long pendentes() {
+            return publicado.get() - cursor.get();
+        }
+    }
+
+    public long getDescartados() { return descartados.get(); }
+
+    /**
+     * Pára as threads dos consumidores depois de tratarem o que falta.
+     */
+    @Override
+    public void close() {
+        fechado = true;
+        for (Leitor leitor : leitores) {
+            Thread t = leitor.consumidor;
+            if (t == null) continue;
+            LockSupport.unpark(t);
+            try {
+                t.join(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -6,28 +6,63 @@ import javax.swing.JPanel;
 import javax.swing.JComboBox; 
 import javax.swing.JLabel;    
 import java.awt.BorderLayout;
+import java.awt.Component;
 import java.awt.FlowLayout;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Classe principal que configura a janela do jogo (JFrame) e adiciona os botões.
  */
 public class BasqueteFrame extends JFrame {
     
+    // Tamanho da quadra padrão
     public static final int LARGURA = 800;
     public static final int ALTURA = 600;
 
     private PainelJogo painel; 
+    // Só existe no modo de renderização ativa (ver TelaAtiva)
+    private TelaAtiva telaAtiva;
+    // Quanto o fecho da janela espera que a thread do loop termine a gravação
+    private static final long ESPERA_FIM_MS = 1000;
+    // O componente onde o jogo aparece: o próprio painel ou a TelaAtiva
+    private Component componenteJogo;
 
     public BasqueteFrame() {
+        this(null, 0);
+    }
+
+    /**
+     * @param modoAtivo Modo do loop de renderização ativa, ou null para o Timer do Swing.
+     * @param fps       Frames por segundo no modo LIMITADO.
+     */
+    public BasqueteFrame(TelaAtiva.ModoSincronizacao modoAtivo, int fps) {
         
         this.setTitle("Basquete Java 2D - O Nosso Novo Jogo!");
         this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); 
-        this.setResizable(false); 
+        // Os listeners correm antes do EXIT_ON_CLOSE: a gravação fecha-se com o estado de um passo completo
+        this.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                terminarSessao();
+            }
+        });
+        // A janela pode ter qualquer tamanho: a quadra é escalada para caber
         
         // O PainelJogo inicia as variáveis de física no nível MÉDIO
-        this.painel = new PainelJogo();
+        this.painel = new PainelJogo(modoAtivo == null);
+        if (modoAtivo != null) {
+            this.telaAtiva = new TelaAtiva(painel, modoAtivo, fps);
+            this.componenteJogo = telaAtiva;
+        } else {
+            this.componenteJogo = painel;
+        }
         
         // --- Configuração dos Botões e Dificuldade ---
         JPanel painelControle = new JPanel();
@@ -47,8 +82,8 @@ public class BasqueteFrame extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 String nivelSelecionado = (String) comboDificuldade.getSelectedItem();
                 // Passa a string (ex: "Médio") para o PainelJogo, que irá tratar a conversão segura.
-                BasqueteFrame.this.painel.setDificuldade(nivelSelecionado);
-                BasqueteFrame.this.painel.requestFocusInWindow();
+                executarNoJogo(() -> BasqueteFrame.this.painel.setDificuldade(nivelSelecionado));
+                BasqueteFrame.this.componenteJogo.requestFocusInWindow();
             }
         });
         
@@ -58,14 +93,14 @@ public class BasqueteFrame extends JFrame {
         // 2. Botões de Reset (existentes)
         JButton btnResetPosicao = new JButton("Reset Posição (R)");
         btnResetPosicao.addActionListener(e -> {
-            this.painel.reiniciarBola(); 
-            this.painel.requestFocusInWindow(); 
+            executarNoJogo(this.painel::reiniciarBola); 
+            this.componenteJogo.requestFocusInWindow(); 
         });
 
         JButton btnReiniciarTudo = new JButton("Reiniciar Jogo");
         btnReiniciarTudo.addActionListener(e -> {
-            this.painel.reiniciarTudo(); 
-            this.painel.requestFocusInWindow();
+            executarNoJogo(this.painel::reiniciarTudo); 
+            this.componenteJogo.requestFocusInWindow();
         });
 
         painelControle.add(btnResetPosicao);
@@ -74,18 +109,73 @@ public class BasqueteFrame extends JFrame {
         // --- Adicionar Componentes ---
         this.setLayout(new BorderLayout());
         this.add(painelControle, BorderLayout.NORTH); 
-        this.add(this.painel, BorderLayout.CENTER);  
+        this.add(this.componenteJogo, BorderLayout.CENTER);  
         
         this.pack(); 
+        // Quadras maiores do que o ecrã começam reduzidas à área útil
+        Rectangle areaUtil = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        this.setSize(Math.min(getWidth(), areaUtil.width), Math.min(getHeight(), areaUtil.height));
         this.setLocationRelativeTo(null); 
         this.setVisible(true); 
 
-        this.painel.requestFocusInWindow();
+        if (this.telaAtiva != null) {
+            this.telaAtiva.iniciar();
+        }
+        this.componenteJogo.requestFocusInWindow();
+    }
+
+    // Com o loop ativo, o estado do jogo só é mexido na thread do loop
+    private void executarNoJogo(Runnable acao) {
+        if (telaAtiva != null) {
+            telaAtiva.executarNoJogo(acao);
+        } else {
+            acao.run();
+        }
+    }
+
+    // Na thread do jogo; com o loop ativo, espera por ele (pouco: se já parou, sai sem o evento de fim)
+    private void terminarSessao() {
+        if (telaAtiva == null) {
+            painel.terminarSessao();
+            return;
+        }
+        CountDownLatch feito = new CountDownLatch(1);
+        telaAtiva.executarNoJogo(() -> {
+            try {
+                painel.terminarSessao();
+            } finally {
+                feito.countDown();
+            }
+        });
+        try {
+            feito.await(ESPERA_FIM_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
+    // Renderização: -Dbasquete.render=swing (padrão) | vsync | ilimitado | <fps>
     public static void main(String[] args) {
+        String render = System.getProperty("basquete.render", "swing").trim().toLowerCase();
         javax.swing.SwingUtilities.invokeLater(() -> {
-            new BasqueteFrame();
+            switch (render) {
+                case "swing":
+                    new BasqueteFrame();
+                    break;
+                case "vsync":
+                    new BasqueteFrame(TelaAtiva.ModoSincronizacao.VSYNC, 0);
+                    break;
+                case "ilimitado":
+                    new BasqueteFrame(TelaAtiva.ModoSincronizacao.ILIMITADO, 0);
+                    break;
+                default:
+                    try {
+                        new BasqueteFrame(TelaAtiva.ModoSincronizacao.LIMITADO, Integer.parseInt(render));
+                    } catch (NumberFormatException e) {
+                        System.err.println("Modo de renderização desconhecido: " + render + " (a usar swing)");
+                        new BasqueteFrame();
+                    }
+            }
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,448 @@
+// BenchmarkBasquete.java
+
+import java.awt.Graphics2D;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Micro-benchmarks dos caminhos quentes (física, colisão, mira e desenho),
+ * ao estilo do JMH: iterações de aquecimento e de medição com duração fixa,
+ * resultado consumido por um "buraco negro" e alocação por operação medida
+ * pelo ThreadMXBean. Os resultados podem ser guardados em CSV e comparados
+ * com uma base anterior, para apanhar regressões pelos números.
+ *
+ * Uso: java BenchmarkBasquete [filtro|todos] [saida.csv] [base.csv]
+ */
+public class BenchmarkBasquete {
+
+    private static final int ITERACOES_AQUECIMENTO = 5;
+    private static final int ITERACOES_MEDICAO = 10;
+    private static final long NANOS_POR_ITERACAO = 500_000_000L;
+    // Operações entre leituras do relógio (reduz o peso do nanoTime nas operações curtas)
+    private static final int LOTE = 64;
+    // Abrandamento acima do qual a comparação com a base falha
+    private static final double TOLERANCIA_REGRESSAO = 0.10;
+
+    // Impede o JIT de eliminar o trabalho cujo resultado não é usado
+    private static volatile long buracoNegro;
+
+    /**
+     * Uma operação medida. Devolve um valor que depende do trabalho feito.
+     */
+    interface Operacao {
+        long executar();
+    }
+
+    /**
+     * Resultado de um benchmark (média e desvio padrão entre iterações de medição).
+     */
+    static class Resultado {
+        final String nome;
+        final double nsPorOp;
+        final double desvioNsPorOp;
+        final double bytesPorOp;
+
+        Resultado(String nome, double nsPorOp, double desvioNsPorOp, double bytesPorOp) {
+            this.nome = nome;
+            this.nsPorOp = nsPorOp;
+            this.desvioNsPorOp = desvioNsPorOp;
+            this.bytesPorOp = bytesPorOp;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // --- Benchmarks ---
+
+    /**
+     * Um passo de uma bola em voo: Bola.atualizarPosicao, paredes e Cesto.verificarColisao.
+     * Quando a bola para, é relançada no mesmo objeto (sem alocar).
+     */
+    static Operacao passoBola() {
+        Cesto cesto = new Cesto();
+        Bola bola = new Bola(Simulacao.X_INICIAL, PainelJogo.ALTURA - 10 - Bola.RAIO_BOLA,
+            NivelDificuldade.MEDIO.coefRestituicaoMapa);
+        int alturaChao = PainelJogo.ALTURA - 10;
+        return () -> {
+            if (!bola.emMovimento) {
+                bola.x = Simulacao.X_INICIAL;
+                bola.y = alturaChao - Bola.RAIO_BOLA;
+                bola.lancar(12.5, -22);
+            }
+            bola.atualizarPosicao(alturaChao);
+            bola.verificarColisaoMapa(PainelJogo.LARGURA, PainelJogo.ALTURA, NivelDificuldade.MEDIO.coefRestituicaoMapa);
+            cesto.verificarColisao(bola);
+            return cesto.verificarPontuacao(bola) ? 1 : Double.doubleToRawLongBits(bola.y);
+        };
+    }
+
+    /**
+     * Um lançamento completo, do arrasto até a bola parar, com vetores de arrasto variados.
+     */
+    static Operacao lancamentoCompleto() {
+        Simulacao simulacao = new Simulacao(NivelDificuldade.MEDIO, 42L);
+        int[] contador = new int[1];
+        return () -> {
+            int i = contador[0]++;
+            simulacao.reiniciarBola();
+            simulacao.lancarArrasto(180 + (i & 63), -220 - ((i >> 6) & 63));
+            return simulacao.simularAteRepouso(Simulacao.MAX_PASSOS_LANCAMENTO) + simulacao.getTick();
+        };
+    }
+
+    /**
+     * Um lançamento completo numa quadra com um cesto móvel e obstáculos
+     * (colisão contínua, o caminho que o servidor usa para verificar sessões).
+     */
+    static Operacao lancamentoQuadraMovel() {
+        Quadra quadra;
+        try {
+            quadra = Quadra.ler("tamanho 1200 700\npartida 100\ncesto 1050 380\ncesto 330 120 direita 0 80 4\n"
+                + "retangulo 560 430 140 20\ncirculo 820 250 18\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Simulacao simulacao = new Simulacao(quadra, NivelDificuldade.MEDIO, new GeradorAleatorio(42L));
+        int[] contador = new int[1];
+        return () -> {
+            int i = contador[0]++;
+            simulacao.reiniciarBola();
+            simulacao.lancarArrasto(120 + (i & 127), -200 - ((i >> 7) & 127));
+            return simulacao.simularAteRepouso(Simulacao.MAX_PASSOS_LANCAMENTO) + simulacao.getTick();
+        };
+    }
+
+    /**
+     * Uma correção do PreditorCliente que recua 30 ticks e volta a simular as
+     * duas bolas em voo (colisão contínua). O "servidor" é uma Partida 30
+     * ticks atrás, com um desvio na bola do adversário para a previsão
+     * discordar sempre. Quando a partida acaba começa outra.
+     */
+    static Operacao correcao30() {
+        int atraso = 30;
+        Partida[] servidor = new Partida[1];
+        PreditorCliente[] preditor = new PreditorCliente[1];
+        EstadoJogo estado = new EstadoJogo();
+        InstantaneoRede instantaneo = new InstantaneoRede();
+        int[] contador = new int[1];
+        return () -> {
+            int i = contador[0]++;
+            if (servidor[0] == null || servidor[0].isTerminada()) {
+                servidor[0] = new Partida(1, NivelDificuldade.MEDIO, true, i);
+                preditor[0] = new PreditorCliente(new Partida(1, NivelDificuldade.MEDIO, true, i), 0);
+                for (int k = 0; k < atraso; k++) preditor[0].avancar();
+            }
+            for (int j = 0; j < Partida.JOGADORES; j++) {
+                if (!servidor[0].getBola(j).emMovimento) servidor[0].lancar(j, 180 + (i & 63), -220 - ((i >> 6) & 63));
+            }
+            servidor[0].passo();
+            preditor[0].avancar();
+            servidor[0].guardarEstado(estado);
+            instantaneo.capturar(estado);
+            instantaneo.valores[InstantaneoRede.CAMPOS + InstantaneoRede.X] += (i & 1) == 0 ? 16 : -16;
+            preditor[0].reconciliar(instantaneo);
+            return preditor[0].getPassosResimulados();
+        };
+    }
+
+    /**
+     * Um passo do MundoColisao com 1000 bolas num campo dez ecrãs de largura
+     * (grelha e contactos entre bolas). As bolas paradas são substituídas por novas.
+     */
+    static Operacao passoColisaoBolas() {
+        int bolas = 1000;
+        int largura = 10 * PainelJogo.LARGURA;
+        MundoColisao mundo = new MundoColisao(bolas, largura, PainelJogo.ALTURA, NivelDificuldade.MEDIO);
+        GeradorAleatorio random = new GeradorAleatorio(1);
+        return () -> {
+            mundo.removerParadas();
+            while (mundo.getQuantidade() < bolas) {
+                mundo.adicionar(Bola.RAIO_BOLA + random.proximoDouble() * (largura - 2 * Bola.RAIO_BOLA),
+                    100 + random.proximoDouble() * 400,
+                    8 + random.proximoDouble() * 10, -12 - random.proximoDouble() * 12);
+            }
+            return mundo.passo() + mundo.getContactos();
+        };
+    }
+
+    /**
+     * Os pontos da linha de mira (o cálculo do desenharLinhaMira, sem desenhar).
+     */
+    static Operacao previewMira() {
+        int[] contador = new int[1];
+        double x0 = Simulacao.X_INICIAL;
+        double y0 = PainelJogo.ALTURA - 10 - Bola.RAIO_BOLA;
+        int alturaChao = PainelJogo.ALTURA - 10;
+        double forcaMaxima = NivelDificuldade.MEDIO.forcaMaxima;
+        List<Cesto> cestos = Quadra.padrao().getCestos();
+        return () -> {
+            int i = contador[0]++;
+            double xAlvo = x0 + (200 + (i & 255)) * NivelDificuldade.MEDIO.fatorMira;
+            double yAlvo = Math.max(Simulacao.Y_ALVO_MINIMO, y0 - (150 + ((i >> 8) & 255)) * NivelDificuldade.MEDIO.fatorMira);
+            double vx = FisicaUtil.velocidadeXParaAlvo(x0, xAlvo, Simulacao.TEMPO_DE_VOO);
+            double vy = FisicaUtil.velocidadeYParaAlvo(y0, yAlvo, Simulacao.TEMPO_DE_VOO);
+            double forcaTotal = Math.sqrt(vx * vx + vy * vy);
+            if (forcaTotal > forcaMaxima) {
+                vx *= forcaMaxima / forcaTotal;
+                vy *= forcaMaxima / forcaTotal;
+            }
+
+            int passosMundo = FisicaUtil.passosAteDescer(y0, vy, alturaChao - Bola.RAIO_BOLA);
+            passosMundo = Math.min(passosMundo, FisicaUtil.passosAteX(x0, vx, vx > 0 ? PainelJogo.LARGURA : 0));
+            passosMundo = Math.min(passosMundo, FisicaUtil.passosAteSubir(y0, vy, 0));
+
+            int passosCesto = FisicaUtil.SEM_IMPACTO;
+            boolean cesta = false;
+            for (int c = 0; c < cestos.size(); c++) {
+                Cesto cesto = cestos.get(c);
+                int toque = Math.min(FisicaUtil.passosAteAro(cesto, i, x0, y0, vx, vy, passosMundo),
+                                     FisicaUtil.passosAteTabela(cesto, i, x0, y0, vx, vy, passosMundo));
+                int passosCesta = FisicaUtil.passosAteCesta(cesto, i, x0, y0, vx, vy, PainelJogo.LARGURA, alturaChao);
+                if (Math.min(toque, passosCesta) < passosCesto) {
+                    passosCesto = Math.min(toque, passosCesta);
+                    cesta = passosCesta < toque;
+                }
+            }
+            int passos = Math.min(Simulacao.TEMPO_DE_VOO, Math.min(passosMundo, passosCesto));
+
+            long soma = cesta ? 1 : 0;
+            for (int n = 1; n <= passos; n += 3) {
+                soma += (int) FisicaUtil.posicaoX(x0, vx, n) * 31 + (int) FisicaUtil.posicaoY(y0, vy, n);
+            }
+            return soma;
+        };
+    }
+
+    /**
+     * O cálculo de velocidade antigo, que devolve um Point2D novo a cada chamada.
+     */
+    static Operacao velocidadeParaAlvo() {
+        int[] contador = new int[1];
+        return () -> {
+            int i = contador[0]++;
+            Point2D.Double v = FisicaUtil.calcularVelocidadeParaAlvo(100, 570, 300 + (i & 255), 100 + ((i >> 8) & 255),
+                Simulacao.TEMPO_DE_VOO);
+            return Double.doubleToRawLongBits(v.x + v.y);
+        };
+    }
+
+    /**
+     * Só a bola (sprite e sombra) num BufferedImage.
+     */
+    static Operacao desenharBola() {
+        BufferedImage imagem = new BufferedImage(PainelJogo.LARGURA, PainelJogo.ALTURA, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagem.createGraphics();
+        Bola bola = new Bola(400, 300, NivelDificuldade.MEDIO.coefRestituicaoMapa);
+        int[] contador = new int[1];
+        return () -> {
+            bola.x = 200 + (contador[0]++ & 255);
+            bola.desenhar(g, PainelJogo.ALTURA);
+            return imagem.getRGB(399, 299);
+        };
+    }
+
+    /**
+     * Um frame completo do paintComponent num BufferedImage fora do ecrã, com a
+     * bola em voo (sombra incluída): a simulação avança um passo por frame e a
+     * bola é relançada quando para.
+     */
+    static Operacao desenharFrame() {
+        PainelJogo painel = criarPainel();
+        Simulacao simulacao = painel.getSimulacao();
+        BufferedImage imagem = new BufferedImage(PainelJogo.LARGURA, PainelJogo.ALTURA, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagem.createGraphics();
+        int[] contador = new int[1];
+        return () -> {
+            if (!simulacao.getBola().emMovimento) {
+                int i = contador[0]++;
+                simulacao.reiniciarBola();
+                simulacao.lancarArrasto(180 + (i & 63), -220 - ((i >> 6) & 63));
+            }
+            simulacao.passo();
+            painel.paintComponent(g);
+            return imagem.getRGB(400, 300);
+        };
+    }
+
+    /**
+     * Um frame completo com a bola parada e a linha de mira ativa (um arrasto em curso).
+     */
+    static Operacao desenharFrameMira() {
+        PainelJogo painel = criarPainel();
+        Bola bola = painel.getSimulacao().getBola();
+        painel.getEntradaRato().mousePressed(new MouseEvent(painel, MouseEvent.MOUSE_PRESSED, 0, 0,
+            (int) bola.x, (int) bola.y, 1, false));
+        painel.getEntradaRato().mouseDragged(new MouseEvent(painel, MouseEvent.MOUSE_DRAGGED, 0, 0,
+            (int) bola.x + 120, (int) bola.y - 150, 1, false));
+
+        BufferedImage imagem = new BufferedImage(PainelJogo.LARGURA, PainelJogo.ALTURA, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagem.createGraphics();
+        return () -> {
+            painel.paintComponent(g);
+            return imagem.getRGB(400, 300);
+        };
+    }
+
+    // Um PainelJogo com o placar e a gravação numa pasta temporária (apagada à saída):
+    // o benchmark não pode mexer no placar nem no highscore.txt da pasta de trabalho
+    private static PainelJogo criarPainel() {
+        Path pasta;
+        try {
+            pasta = Files.createTempDirectory("benchmark");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pasta.toFile().deleteOnExit();
+        for (String nome : new String[] {PainelJogo.FICHEIRO_PLACAR, PainelJogo.FICHEIRO_GRAVACAO}) {
+            pasta.resolve(Paths.get(nome).getFileName()).toFile().deleteOnExit();
+        }
+        PainelJogo painel = new PainelJogo(false, pasta);
+        painel.setSize(PainelJogo.LARGURA, PainelJogo.ALTURA);
+        return painel;
+    }
+
+    // --- Execução ---
+
+    static Resultado medir(String nome, Operacao operacao) {
+        for (int i = 0; i < ITERACOES_AQUECIMENTO; i++) {
+            iteracao(operacao, null);
+        }
+
+        double[] nsPorOp = new double[ITERACOES_MEDICAO];
+        long bytes = 0;
+        long operacoes = 0;
+        long[] alocado = new long[1];
+        for (int i = 0; i < ITERACOES_MEDICAO; i++) {
+            long n = iteracao(operacao, alocado);
+            nsPorOp[i] = (double) NANOS_POR_ITERACAO / n;
+            bytes += alocado[0];
+            operacoes += n;
+        }
+
+        double media = 0;
+        for (double v : nsPorOp) media += v;
+        media /= nsPorOp.length;
+        double variancia = 0;
+        for (double v : nsPorOp) variancia += (v - media) * (v - media);
+        double desvio = Math.sqrt(variancia / (nsPorOp.length - 1));
+
+        return new Resultado(nome, media, desvio, (double) bytes / operacoes);
+    }
+
+    // Corre a operação durante NANOS_POR_ITERACAO; devolve o número de operações
+    private static long iteracao(Operacao operacao, long[] alocado) {
+        long bytesAntes = alocado != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+
+        long acumulado = 0;
+        long operacoes = 0;
+        long inicio = System.nanoTime();
+        long fim = inicio + NANOS_POR_ITERACAO;
+        long agora;
+        do {
+            for (int i = 0; i < LOTE; i++) {
+                acumulado += operacao.executar();
+            }
+            operacoes += LOTE;
+            agora = System.nanoTime();
+        } while (agora < fim);
+
+        if (alocado != null) {
+            alocado[0] = THREADS.getCurrentThreadAllocatedBytes() - bytesAntes;
+        }
+        buracoNegro = acumulado;
+        // Normaliza para a duração nominal (a última volta do lote passa um pouco do fim)
+        return Math.max(1, operacoes * NANOS_POR_ITERACAO / (agora - inicio));
+    }
+
+    // --- CSV e Comparação ---
+
+    static void escreverCsv(List<Resultado> resultados, Path ficheiro) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(ficheiro))) {
+            out.println("benchmark,ns_op,desvio_ns_op,bytes_op");
+            for (Resultado r : resultados) {
+                out.printf(Locale.ROOT, "%s,%.3f,%.3f,%.1f%n", r.nome, r.nsPorOp, r.desvioNsPorOp, r.bytesPorOp);
+            }
+        }
+    }
+
+    static Map<String, Double> lerBase(Path ficheiro) throws IOException {
+        Map<String, Double> base = new HashMap<>();
+        try (BufferedReader in = Files.newBufferedReader(ficheiro)) {
+            in.readLine(); // cabeçalho
+            String linha;
+            while ((linha = in.readLine()) != null) {
+                String[] campos = linha.split(",");
+                if (campos.length >= 2) {
+                    base.put(campos[0], Double.parseDouble(campos[1]));
+                }
+            }
+        }
+        return base;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filtro = args.length > 0 ? args[0] : "todos";
+        Path saida = args.length > 1 ? Paths.get(args[1]) : null;
+        Path ficheiroBase = args.length > 2 ? Paths.get(args[2]) : null;
+
+        // Os frames usam um PainelJogo, sem ecrã (e com os ficheiros numa pasta temporária)
+        System.setProperty("java.awt.headless", "true");
+
+        Map<String, Supplier<Operacao>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("passoBola", BenchmarkBasquete::passoBola);
+        benchmarks.put("passoColisaoBolas", BenchmarkBasquete::passoColisaoBolas);
+        benchmarks.put("lancamentoCompleto", BenchmarkBasquete::lancamentoCompleto);
+        benchmarks.put("lancamentoQuadraMovel", BenchmarkBasquete::lancamentoQuadraMovel);
+        benchmarks.put("correcao30", BenchmarkBasquete::correcao30);
+        benchmarks.put("previewMira", BenchmarkBasquete::previewMira);
+        benchmarks.put("velocidadeParaAlvo", BenchmarkBasquete::velocidadeParaAlvo);
+        benchmarks.put("desenharBola", BenchmarkBasquete::desenharBola);
+        benchmarks.put("desenharFrame", BenchmarkBasquete::desenharFrame);
+        benchmarks.put("desenharFrameMira", BenchmarkBasquete::desenharFrameMira);
+
+        List<Resultado> resultados = new ArrayList<>();
+        System.out.printf(Locale.ROOT, "%-20s %14s %12s %10s%n", "Benchmark", "ns/op", "± desvio", "B/op");
+        for (Map.Entry<String, Supplier<Operacao>> b : benchmarks.entrySet()) {
+            if (!filtro.equals("todos") && !b.getKey().contains(filtro)) continue;
+            Resultado r = medir(b.getKey(), b.getValue().get());
+            resultados.add(r);
+            System.out.printf(Locale.ROOT, "%-20s %14.2f %12.2f %10.1f%n", r.nome, r.nsPorOp, r.desvioNsPorOp, r.bytesPorOp);
+        }
+
+        if (saida != null) {
+            escreverCsv(resultados, saida);
+        }
+
+        boolean regressao = false;
+        if (ficheiroBase != null) {
+            Map<String, Double> base = lerBase(ficheiroBase);
+            for (Resultado r : resultados) {
+                Double anterior = base.get(r.nome);
+                if (anterior == null) continue;
+                double variacao = r.nsPorOp / anterior - 1;
+                boolean pior = variacao > TOLERANCIA_REGRESSAO;
+                regressao |= pior;
+                System.out.printf(Locale.ROOT, "%-20s %+7.1f%% face à base%s%n", r.nome, variacao * 100,
+                    pior ? "  REGRESSÃO" : "");
+            }
+        }
+        System.exit(regressao ? 1 : 0);
+    }
+}
\ No newline at end of file
@@ -3,6 +3,7 @@
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D; // Importação necessária para RadialGradientPaint
+import java.awt.image.BufferedImage;
 
 /**
  * Representa o objeto Bola, gerenciando sua posição, velocidade e desenho.
@@ -13,12 +14,20 @@ public class Bola {
     public static final int RAIO_BOLA = 20;
     private static final double GRAVIDADE = 0.5;
     
-    // Novas cores para o Gradiente da Bola
-    private final Color LARANJA_CLARO = new Color(255, 165, 0); 
-    private final Color LARANJA_ESCURO = new Color(204, 85, 0); 
-    private final Color BRILHO = new Color(255, 255, 255, 180); // Branco semi-transparente
-    private final Color SOMBRA_BOLA = new Color(0, 0, 0, 150);
-    private final Color PRETO = new Color(0, 0, 0);
+    // Novas cores para o Gradiente da Bola (estáticas: uma Bola nova não aloca cores)
+    private static final Color LARANJA_CLARO = new Color(255, 165, 0); 
+    private static final Color LARANJA_ESCURO = new Color(204, 85, 0); 
+    private static final Color BRILHO = new Color(255, 255, 255, 180); // Branco semi-transparente
+    private static final Color SOMBRA_BOLA = new Color(0, 0, 0, 150);
+    private static final Color PRETO = new Color(0, 0, 0);
+
+    // Sprite pré-renderizado do corpo da bola (gradiente, brilho e contorno).
+    // O contorno de 1px sai meio pixel do raio, daí a margem.
+    private static final int MARGEM_SPRITE = 1;
+    private static final BufferedImage SPRITE = criarSprite();
+    // Sombras pré-renderizadas, uma por largura em pixels (encolhe com a altura
+    // da bola): o fillOval de uma elipse aloca a cada chamada
+    private static final BufferedImage[] SOMBRAS = criarSombras();
 
     // Variáveis de Estado
     public double x, y;
@@ -42,8 +51,12 @@ public class Bola {
         this.emMovimento = true;
     }
 
-    public void atualizarPosicao(int alturaChao) {
-        if (!emMovimento) return;
+    /**
+     * Um passo de integração com o ressalto no chão.
+     * @return Os eventos do passo: Simulacao.EVENTO_CHAO, mais EVENTO_REPOUSO se a bola parou.
+     */
+    public int atualizarPosicao(int alturaChao) {
+        if (!emMovimento) return 0;
 
         // 1. Aplicar Gravidade
         velY += GRAVIDADE;
@@ -63,70 +76,112 @@ public class Bola {
                 emMovimento = false;
                 velX = 0;
                 velY = 0;
+                return Simulacao.EVENTO_CHAO | Simulacao.EVENTO_REPOUSO;
             }
+            return Simulacao.EVENTO_CHAO;
         }
+        return 0;
     }
     
-    // Método para tratar colisões laterais (Barreiras Invisíveis)
-    public void verificarColisaoMapa(int larguraTela, int alturaTela, double coefRestituicaoMapa) {
+    // Método para tratar colisões laterais (Barreiras Invisíveis); devolve EVENTO_PAREDE se bateu
+    public int verificarColisaoMapa(int larguraTela, int alturaTela, double coefRestituicaoMapa) {
+        int eventos = 0;
         // Colisão Esquerda (X = 0)
         if (x - RAIO_BOLA <= 0) {
             x = RAIO_BOLA;
             velX *= -coefRestituicaoMapa;
+            eventos = Simulacao.EVENTO_PAREDE;
         }
 
         // Colisão Superior (Y = 0)
         if (y - RAIO_BOLA <= 0) {
             y = RAIO_BOLA;
             velY *= -coefRestituicaoMapa;
+            eventos = Simulacao.EVENTO_PAREDE;
         }
         
         // Colisão Direita (X = LARGURA)
         if (x + RAIO_BOLA >= larguraTela) {
             x = larguraTela - RAIO_BOLA;
             velX *= -coefRestituicaoMapa;
+            eventos = Simulacao.EVENTO_PAREDE;
         }
+        return eventos;
     }
 
     public void desenhar(Graphics2D g, int ALTURA) {
+        desenhar(g, ALTURA, x, y);
+    }
+
+    /**
+     * Desenha a bola numa posição arbitrária (ex: interpolada entre dois passos da simulação).
+     * Não aloca nada: a sombra e o corpo são sprites pré-renderizados.
+     */
+    public void desenhar(Graphics2D g, int ALTURA, double x, double y) {
         // 1. Sombra projetada no chão
         if (y < ALTURA - RAIO_BOLA - 20) {
             double distChao = ALTURA - y - RAIO_BOLA - 10;
             double raioSombra = RAIO_BOLA * (1 - distChao / (double)ALTURA * 0.5);
             double deslocamentoSombra = Math.min(20, distChao / 4);
             
-            g.setColor(SOMBRA_BOLA); 
-            g.fill(new Ellipse2D.Double(
-                x - raioSombra + deslocamentoSombra, 
-                ALTURA - 10 - raioSombra/4, 
-                raioSombra * 2, raioSombra / 2
-            ));
+            int largura = (int) Math.round(raioSombra * 2);
+            g.drawImage(SOMBRAS[Math.max(0, Math.min(SOMBRAS.length - 1, largura))],
+                (int) Math.round(x - raioSombra + deslocamentoSombra), 
+                (int) Math.round(ALTURA - 10 - raioSombra/4), null);
         }
 
-        // 2. Corpo da Bola com Gradiente Radial (Dá volume 3D)
-        
-        // Ponto de luz
-        Point2D centroGradiente = new Point2D.Double(x - RAIO_BOLA / 3, y - RAIO_BOLA / 3);
+        // 2. Corpo, brilho e costura (sprite)
+        int origem = RAIO_BOLA + MARGEM_SPRITE;
+        g.drawImage(SPRITE, (int) Math.round(x) - origem, (int) Math.round(y) - origem, null);
+    }
+
+    /**
+     * Pinta uma vez o corpo da bola (o antigo desenho por frame) numa imagem translúcida.
+     */
+    private static BufferedImage criarSprite() {
+        int origem = RAIO_BOLA + MARGEM_SPRITE;
+        BufferedImage sprite = new BufferedImage(origem * 2, origem * 2, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sprite.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.translate(origem, origem);
+
+        // Corpo da Bola com Gradiente Radial (Dá volume 3D), ponto de luz em cima à esquerda
+        Point2D centroGradiente = new Point2D.Double(-RAIO_BOLA / 3, -RAIO_BOLA / 3);
         float[] fracoes = {0.0f, 1.0f};
         Color[] cores = {LARANJA_CLARO, LARANJA_ESCURO};
-        
-        RadialGradientPaint rgp = new RadialGradientPaint(
-            centroGradiente, 
-            RAIO_BOLA * 1.5f, 
-            fracoes, 
-            cores
-        );
-        
-        g.setPaint(rgp);
-        g.fill(new Ellipse2D.Double(x - RAIO_BOLA, y - RAIO_BOLA, RAIO_BOLA * 2, RAIO_BOLA * 2));
+        g.setPaint(new RadialGradientPaint(centroGradiente, RAIO_BOLA * 1.5f, fracoes, cores));
+        g.fill(new Ellipse2D.Double(-RAIO_BOLA, -RAIO_BOLA, RAIO_BOLA * 2, RAIO_BOLA * 2));
 
-        // 3. Brilho/Destaque (Reflexo de luz)
+        // Brilho/Destaque (Reflexo de luz)
         g.setColor(BRILHO);
-        g.fillOval((int) (x - RAIO_BOLA * 0.5), (int) (y - RAIO_BOLA * 0.7), (int) (RAIO_BOLA * 0.4), (int) (RAIO_BOLA * 0.4));
-        
-        // 4. Linhas de costura (Opcional, para detalhe)
+        g.fillOval((int) (-RAIO_BOLA * 0.5), (int) (-RAIO_BOLA * 0.7), (int) (RAIO_BOLA * 0.4), (int) (RAIO_BOLA * 0.4));
+
+        // Linhas de costura
         g.setColor(PRETO);
         g.setStroke(new BasicStroke(1.0f));
-        g.draw(new Ellipse2D.Double(x - RAIO_BOLA, y - RAIO_BOLA, RAIO_BOLA * 2, RAIO_BOLA * 2));
+        g.draw(new Ellipse2D.Double(-RAIO_BOLA, -RAIO_BOLA, RAIO_BOLA * 2, RAIO_BOLA * 2));
+
+        g.dispose();
+        return sprite;
+    }
+
+    /**
+     * Pinta a sombra (elipse 4:1) em todas as larguras possíveis, até ao diâmetro da bola.
+     */
+    private static BufferedImage[] criarSombras() {
+        BufferedImage[] sombras = new BufferedImage[RAIO_BOLA * 2 + 1];
+        for (int largura = 0; largura < sombras.length; largura++) {
+            int altura = Math.round(largura / 4f);
+            BufferedImage sombra = new BufferedImage(Math.max(1, largura), Math.max(1, altura), BufferedImage.TYPE_INT_ARGB);
+            if (altura > 0) {
+                Graphics2D g = sombra.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setColor(SOMBRA_BOLA);
+                g.fillOval(0, 0, largura, altura);
+                g.dispose();
+            }
+            sombras[largura] = sombra;
+        }
+        return sombras;
     }
 }
\ No newline at end of file
@@ -0,0 +1,467 @@
+// CalibradorDificuldade.java
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Calibra os NivelDificuldade para uma probabilidade de cesto alvo. Em vez de
+ * afinar as constantes à mão, escolhe-se um eixo (mira, força, erro ou quique)
+ * e resolve-se esse parâmetro por bisseção, mantendo os outros do nível.
+ *
+ * O jogador é modelado como alguém que mira no arrasto com mais margem (o
+ * máximo do mapa de acerto suavizado pelo seu ruído) e falha a mão com um
+ * ruído gaussiano em pixels de arrasto. Cada ponto da bisseção é avaliado com
+ * lançamentos simulados em paralelo, em lotes, e pára assim que o intervalo
+ * de Wilson da taxa de acerto fica todo de um lado do alvo. Os lançamentos
+ * usam as mesmas sementes em todos os pontos (números aleatórios comuns), o
+ * que torna as comparações entre pontos muito menos ruidosas.
+ *
+ * Uso: java CalibradorDificuldade [eixo] [ruido] [NIVEL=alvo ...] [discreta]
+ *   ex: java CalibradorDificuldade erro 15 FACIL=0.35 MEDIO=0.3 DIFICIL=0.4
+ *
+ * Só os níveis que chegam ao alvo dão uma linha para o NivelDificuldade.
+ * Cada eixo só alcança uma faixa de taxas com os outros parâmetros do nível:
+ * no ERRO (com ruído de 15 px) o FACIL fica entre 0.32 e 0.41, o MEDIO entre
+ * 0.08 e 0.68 e o DIFICIL entre 0.37 e 0.56 (o FACIL, com mira 3.0, já é o
+ * mais difícil para este jogador). Os alvos por omissão estão dentro dessas faixas.
+ */
+public class CalibradorDificuldade {
+
+    // --- Avaliação ---
+    private static final int LANCAMENTOS_POR_LOTE = 2048;
+    private static final int MAX_LANCAMENTOS_POR_PONTO = 64 * LANCAMENTOS_POR_LOTE;
+    private static final int LANCAMENTOS_POR_TAREFA = 128;
+    // z de 99% para o intervalo de Wilson
+    private static final double Z = 2.576;
+    // Meia largura do intervalo abaixo da qual o ponto conta como "no alvo"
+    private static final double TOLERANCIA_TAXA = 0.005;
+    // Diferença máxima entre a taxa final e o alvo para o nível contar como calibrado
+    private static final double TOLERANCIA_ATINGIDO = 0.02;
+    private static final int PONTOS_VARRIMENTO = 16;
+    private static final int MAX_ITERACOES = 30;
+
+    // --- Mapa de Mira (arrastos possíveis dentro do ecrã) ---
+    private static final int COLUNAS_MIRA = 65;
+    private static final int LINHAS_MIRA = 49;
+    private static final double PASSO_MIRA_X = PainelJogo.LARGURA / (double) (COLUNAS_MIRA - 1);
+    private static final double PASSO_MIRA_Y = PainelJogo.ALTURA / (double) (LINHAS_MIRA - 1);
+
+    /**
+     * Parâmetro resolvido pela bisseção, com o intervalo de procura.
+     */
+    enum Eixo {
+        MIRA(0.2, 6.0),
+        FORCA(10, 60),
+        ERRO(0.0, 1.0),
+        QUIQUE(0.1, 0.99);
+
+        final double minimo;
+        final double maximo;
+
+        Eixo(double minimo, double maximo) {
+            this.minimo = minimo;
+            this.maximo = maximo;
+        }
+    }
+
+    /**
+     * Um conjunto de parâmetros de dificuldade (os mesmos do NivelDificuldade).
+     */
+    static final class Parametros {
+        final double fatorMira;
+        final double forcaMaxima;
+        final double erroLancamento;
+        final double coefRestituicaoMapa;
+
+        Parametros(double fatorMira, double forcaMaxima, double erroLancamento, double coefRestituicaoMapa) {
+            this.fatorMira = fatorMira;
+            this.forcaMaxima = forcaMaxima;
+            this.erroLancamento = erroLancamento;
+            this.coefRestituicaoMapa = coefRestituicaoMapa;
+        }
+
+        static Parametros de(NivelDificuldade nivel) {
+            return new Parametros(nivel.fatorMira, nivel.forcaMaxima, nivel.erroLancamento, nivel.coefRestituicaoMapa);
+        }
+
+        Parametros com(Eixo eixo, double valor) {
+            switch (eixo) {
+                case MIRA: return new Parametros(valor, forcaMaxima, erroLancamento, coefRestituicaoMapa);
+                case FORCA: return new Parametros(fatorMira, valor, erroLancamento, coefRestituicaoMapa);
+                case ERRO: return new Parametros(fatorMira, forcaMaxima, valor, coefRestituicaoMapa);
+                default: return new Parametros(fatorMira, forcaMaxima, erroLancamento, valor);
+            }
+        }
+
+        double valor(Eixo eixo) {
+            switch (eixo) {
+                case MIRA: return fatorMira;
+                case FORCA: return forcaMaxima;
+                case ERRO: return erroLancamento;
+                default: return coefRestituicaoMapa;
+            }
+        }
+
+        void aplicar(Simulacao simulacao) {
+            simulacao.setParametros(fatorMira, forcaMaxima, erroLancamento, coefRestituicaoMapa);
+        }
+    }
+
+    /**
+     * Resultado da calibração de um nível.
+     */
+    static final class Resultado {
+        final NivelDificuldade nivel;
+        final Parametros parametros;
+        final double taxa;
+        final long lancamentos;
+        final boolean atingido;
+
+        Resultado(NivelDificuldade nivel, Parametros parametros, double taxa, long lancamentos, boolean atingido) {
+            this.nivel = nivel;
+            this.parametros = parametros;
+            this.taxa = taxa;
+            this.lancamentos = lancamentos;
+            this.atingido = atingido;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final double ruidoMao;
+    private final boolean colisaoContinua;
+    private final long semente;
+    private long lancamentosSimulados = 0;
+
+    /**
+     * @param ruidoMao Desvio padrão do erro da mão do jogador, em pixels de arrasto.
+     */
+    public CalibradorDificuldade(ForkJoinPool pool, double ruidoMao, boolean colisaoContinua, long semente) {
+        this.pool = pool;
+        this.ruidoMao = ruidoMao;
+        this.colisaoContinua = colisaoContinua;
+        this.semente = semente;
+    }
+
+    // --- Bisseção ---
+
+    /**
+     * Resolve o eixo do nível para a taxa de acerto alvo. A taxa não é
+     * monótona em todos os eixos (abaixo da força que chega ao cesto cai a
+     * pique), por isso primeiro varre o intervalo em PONTOS_VARRIMENTO passos
+     * e só depois bisseta o troço onde a taxa passa pelo alvo. Entre vários
+     * troços fica o mais próximo do valor atual do nível.
+     */
+    public Resultado calibrar(NivelDificuldade nivel, Eixo eixo, double alvo) {
+        Parametros base = Parametros.de(nivel);
+        double atual = base.valor(eixo);
+        long antes = lancamentosSimulados;
+
+        double passo = (eixo.maximo - eixo.minimo) / PONTOS_VARRIMENTO;
+        int[] lados = new int[PONTOS_VARRIMENTO + 1];
+        for (int k = 0; k <= PONTOS_VARRIMENTO; k++) {
+            lados[k] = comparar(base.com(eixo, eixo.minimo + k * passo), alvo);
+        }
+
+        // Ponto já no alvo ou troço com mudança de lado, o mais perto do valor atual
+        int melhor = -1;
+        boolean troco = false;
+        double distancia = Double.POSITIVE_INFINITY;
+        for (int k = 0; k <= PONTOS_VARRIMENTO; k++) {
+            double valor = eixo.minimo + k * passo;
+            if (lados[k] == 0 && Math.abs(valor - atual) < distancia) {
+                melhor = k;
+                troco = false;
+                distancia = Math.abs(valor - atual);
+            }
+            if (k < PONTOS_VARRIMENTO && lados[k] * lados[k + 1] < 0
+                    && Math.abs(valor + passo / 2 - atual) < distancia) {
+                melhor = k;
+                troco = true;
+                distancia = Math.abs(valor + passo / 2 - atual);
+            }
+        }
+        if (melhor < 0) {
+            // O alvo não é atingido em nenhum ponto: fica o de taxa mais próxima
+            double erroMinimo = Double.POSITIVE_INFINITY;
+            for (int k = 0; k <= PONTOS_VARRIMENTO; k++) {
+                double erro = Math.abs(taxaAcerto(base.com(eixo, eixo.minimo + k * passo), 4 * LANCAMENTOS_POR_LOTE) - alvo);
+                if (erro < erroMinimo) {
+                    erroMinimo = erro;
+                    melhor = k;
+                }
+            }
+            return resultado(nivel, base.com(eixo, eixo.minimo + melhor * passo), alvo, antes);
+        }
+        if (!troco) {
+            return resultado(nivel, base.com(eixo, eixo.minimo + melhor * passo), alvo, antes);
+        }
+
+        double a = eixo.minimo + melhor * passo, b = a + passo;
+        int ladoA = lados[melhor];
+        double tolerancia = (eixo.maximo - eixo.minimo) * 1e-3;
+        for (int i = 0; i < MAX_ITERACOES && b - a > tolerancia; i++) {
+            double meio = (a + b) / 2;
+            int lado = comparar(base.com(eixo, meio), alvo);
+            if (lado == 0) {
+                return resultado(nivel, base.com(eixo, meio), alvo, antes);
+            }
+            if (lado == ladoA) {
+                a = meio;
+            } else {
+                b = meio;
+            }
+        }
+        // Se o troço tiver um degrau, fica o lado com a taxa mais próxima do alvo
+        double taxaA = taxaAcerto(base.com(eixo, a), 4 * LANCAMENTOS_POR_LOTE);
+        double taxaB = taxaAcerto(base.com(eixo, b), 4 * LANCAMENTOS_POR_LOTE);
+        return resultado(nivel, base.com(eixo, Math.abs(taxaA - alvo) <= Math.abs(taxaB - alvo) ? a : b), alvo, antes);
+    }
+
+    // Mede a taxa final; num degrau (descontinuidade) a bisseção converge sem chegar ao alvo
+    private Resultado resultado(NivelDificuldade nivel, Parametros parametros, double alvo, long antes) {
+        double taxa = taxaAcerto(parametros, MAX_LANCAMENTOS_POR_PONTO / 4);
+        boolean atingido = Math.abs(taxa - alvo) <= TOLERANCIA_ATINGIDO;
+        return new Resultado(nivel, parametros, taxa, lancamentosSimulados - antes, atingido);
+    }
+
+    /**
+     * Avalia em lotes até o intervalo de Wilson decidir de que lado do alvo está a taxa.
+     * @return -1 se a taxa está abaixo do alvo, 1 se está acima, 0 se é indistinguível.
+     */
+    int comparar(Parametros parametros, double alvo) {
+        double[] mira = miraIdeal(parametros);
+        long cestas = 0, lancamentos = 0;
+        while (lancamentos < MAX_LANCAMENTOS_POR_PONTO) {
+            cestas += simularLote(parametros, mira, lancamentos, LANCAMENTOS_POR_LOTE);
+            lancamentos += LANCAMENTOS_POR_LOTE;
+
+            double[] intervalo = wilson(cestas, lancamentos);
+            if (intervalo[1] < alvo) return -1;
+            if (intervalo[0] > alvo) return 1;
+            if ((intervalo[1] - intervalo[0]) / 2 < TOLERANCIA_TAXA) return 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Taxa de acerto com um número fixo de lançamentos.
+     */
+    double taxaAcerto(Parametros parametros, int lancamentos) {
+        double[] mira = miraIdeal(parametros);
+        return simularLote(parametros, mira, 0, lancamentos) / (double) lancamentos;
+    }
+
+    /**
+     * Intervalo de confiança de Wilson para uma proporção.
+     * @return {inferior, superior}
+     */
+    static double[] wilson(long sucessos, long n) {
+        double p = sucessos / (double) n;
+        double z2 = Z * Z;
+        double denominador = 1 + z2 / n;
+        double centro = (p + z2 / (2 * n)) / denominador;
+        double margem = Z * Math.sqrt(p * (1 - p) / n + z2 / (4.0 * n * n)) / denominador;
+        return new double[] {centro - margem, centro + margem};
+    }
+
+    // --- Modelo do Jogador ---
+
+    /**
+     * O arrasto onde um jogador com este ruído acerta mais: mapa de acerto
+     * sem ruído (e sem erro de lançamento) numa grelha de arrastos possíveis
+     * no ecrã, suavizado por uma gaussiana do tamanho do ruído.
+     * @return {dx, dy}
+     */
+    double[] miraIdeal(Parametros parametros) {
+        Parametros semErro = parametros.com(Eixo.ERRO, 0);
+        int[] acerto = pool.invoke(new TarefaMapa(semErro, 0, COLUNAS_MIRA * LINHAS_MIRA));
+
+        double sigmaX = Math.max(ruidoMao / PASSO_MIRA_X, 0.5);
+        double sigmaY = Math.max(ruidoMao / PASSO_MIRA_Y, 0.5);
+        int raioX = (int) Math.ceil(3 * sigmaX);
+        int raioY = (int) Math.ceil(3 * sigmaY);
+        double melhor = -1;
+        int melhorCelula = 0;
+        for (int linha = 0; linha < LINHAS_MIRA; linha++) {
+            for (int coluna = 0; coluna < COLUNAS_MIRA; coluna++) {
+                double soma = 0;
+                for (int dl = -raioY; dl <= raioY; dl++) {
+                    int l = linha + dl;
+                    if (l < 0 || l >= LINHAS_MIRA) continue;
+                    for (int dc = -raioX; dc <= raioX; dc++) {
+                        int c = coluna + dc;
+                        if (c < 0 || c >= COLUNAS_MIRA || acerto[l * COLUNAS_MIRA + c] == 0) continue;
+                        soma += Math.exp(-0.5 * (dc * dc / (sigmaX * sigmaX) + dl * dl / (sigmaY * sigmaY)));
+                    }
+                }
+                if (soma > melhor) {
+                    melhor = soma;
+                    melhorCelula = linha * COLUNAS_MIRA + coluna;
+                }
+            }
+        }
+        return new double[] {dxMira(melhorCelula), dyMira(melhorCelula)};
+    }
+
+    private static double dxMira(int celula) {
+        return (celula % COLUNAS_MIRA) * PASSO_MIRA_X;
+    }
+
+    private static double dyMira(int celula) {
+        return -(celula / COLUNAS_MIRA) * PASSO_MIRA_Y;
+    }
+
+    private Simulacao novaSimulacao(Parametros parametros, GeradorAleatorio random) {
+        Simulacao simulacao = new Simulacao(PainelJogo.LARGURA, PainelJogo.ALTURA, NivelDificuldade.MEDIO, random);
+        simulacao.setColisaoContinua(colisaoContinua);
+        parametros.aplicar(simulacao);
+        return simulacao;
+    }
+
+    // Um lançamento sem ruído por célula do mapa de mira (1 se marcou)
+    private class TarefaMapa extends RecursiveTask<int[]> {
+        private final Parametros parametros;
+        private final int inicio, fim;
+
+        TarefaMapa(Parametros parametros, int inicio, int fim) {
+            this.parametros = parametros;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (fim - inicio > LANCAMENTOS_POR_TAREFA) {
+                int meio = (inicio + fim) >>> 1;
+                TarefaMapa esquerda = new TarefaMapa(parametros, inicio, meio);
+                esquerda.fork();
+                int[] direita = new TarefaMapa(parametros, meio, fim).compute();
+                int[] resultado = esquerda.join();
+                System.arraycopy(direita, meio, resultado, meio, fim - meio);
+                return resultado;
+            }
+            int[] acerto = new int[COLUNAS_MIRA * LINHAS_MIRA];
+            Simulacao simulacao = novaSimulacao(parametros, new GeradorAleatorio(semente));
+            for (int celula = inicio; celula < fim; celula++) {
+                simulacao.reiniciarBola();
+                acerto[celula] = AmbienteBasquete.lancar(simulacao, dxMira(celula), dyMira(celula)) > 0 ? 1 : 0;
+            }
+            return acerto;
+        }
+    }
+
+    // --- Lançamentos com Ruído ---
+
+    /**
+     * Simula os lançamentos [primeiro, primeiro + quantidade). O lançamento k
+     * usa sempre a semente derivada (semente, k), seja qual for o ponto avaliado.
+     * @return O número de lançamentos que marcaram.
+     */
+    long simularLote(Parametros parametros, double[] mira, long primeiro, int quantidade) {
+        lancamentosSimulados += quantidade;
+        return pool.invoke(new TarefaLancamentos(parametros, mira, primeiro, primeiro + quantidade));
+    }
+
+    private class TarefaLancamentos extends RecursiveTask<Long> {
+        private final Parametros parametros;
+        private final double[] mira;
+        private final long inicio, fim;
+
+        TarefaLancamentos(Parametros parametros, double[] mira, long inicio, long fim) {
+            this.parametros = parametros;
+            this.mira = mira;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected Long compute() {
+            if (fim - inicio > LANCAMENTOS_POR_TAREFA) {
+                long meio = (inicio + fim) >>> 1;
+                TarefaLancamentos esquerda = new TarefaLancamentos(parametros, mira, inicio, meio);
+                esquerda.fork();
+                long direita = new TarefaLancamentos(parametros, mira, meio, fim).compute();
+                return esquerda.join() + direita;
+            }
+            GeradorAleatorio random = new GeradorAleatorio(0);
+            Simulacao simulacao = novaSimulacao(parametros, random);
+            long cestas = 0;
+            for (long k = inicio; k < fim; k++) {
+                random.setEstado(GeradorAleatorio.derivarSemente(semente, k));
+                simulacao.reiniciarBola();
+                double dx = mira[0] + ruidoMao * random.proximoGaussiano();
+                double dy = mira[1] + ruidoMao * random.proximoGaussiano();
+                if (AmbienteBasquete.lancar(simulacao, dx, dy) > 0) cestas++;
+            }
+            return cestas;
+        }
+    }
+
+    public long getLancamentosSimulados() { return lancamentosSimulados; }
+
+    // --- Ferramenta de linha de comando ---
+
+    static String linhaEnum(NivelDificuldade nivel, Parametros p) {
+        return String.format(Locale.ROOT, "%s(%s, %s, %s, %s),", nivel,
+            numero(p.fatorMira), numero(p.forcaMaxima), numero(p.erroLancamento), numero(p.coefRestituicaoMapa));
+    }
+
+    private static String numero(double valor) {
+        String texto = String.format(Locale.ROOT, "%.3f", valor);
+        return texto.replaceAll("0+$", "").replaceAll("\\.$", ".0");
+    }
+
+    public static void main(String[] args) {
+        Eixo eixo = Eixo.ERRO;
+        double ruido = 15;
+        boolean continua = true;
+        Map<NivelDificuldade, Double> alvos = new EnumMap<>(NivelDificuldade.class);
+        for (String arg : args) {
+            if (arg.contains("=")) {
+                String[] partes = arg.split("=", 2);
+                alvos.put(NivelDificuldade.valueOf(partes[0].toUpperCase()), Double.parseDouble(partes[1]));
+            } else if ("discreta".equals(arg)) {
+                continua = false;
+            } else if (Character.isDigit(arg.charAt(0))) {
+                ruido = Double.parseDouble(arg);
+            } else {
+                eixo = Eixo.valueOf(arg.toUpperCase());
+            }
+        }
+        if (alvos.isEmpty()) {
+            alvos.put(NivelDificuldade.FACIL, 0.35);
+            alvos.put(NivelDificuldade.MEDIO, 0.3);
+            alvos.put(NivelDificuldade.DIFICIL, 0.4);
+        }
+
+        CalibradorDificuldade calibrador = new CalibradorDificuldade(ForkJoinPool.commonPool(), ruido, continua, 42L);
+        System.out.printf(Locale.ROOT, "Eixo %s, ruido da mao %.1f px, colisao %s%n", eixo, ruido, continua ? "continua" : "discreta");
+
+        long inicio = System.nanoTime();
+        StringBuilder linhas = new StringBuilder();
+        for (Map.Entry<NivelDificuldade, Double> entrada : alvos.entrySet()) {
+            NivelDificuldade nivel = entrada.getKey();
+            double atual = calibrador.taxaAcerto(Parametros.de(nivel), LANCAMENTOS_POR_LOTE * 4);
+            Resultado resultado = calibrador.calibrar(nivel, eixo, entrada.getValue());
+            System.out.printf(Locale.ROOT, "%-8s alvo %.3f | atual %.3f | %s %.4f -> taxa %.3f (%d lancamentos)%s%n",
+                nivel, entrada.getValue(), atual, eixo, resultado.parametros.valor(eixo), resultado.taxa,
+                resultado.lancamentos, resultado.atingido ? "" : "  [alvo nao atingido neste eixo]");
+            // Um nível fora do alcance do eixo fica como está (noutro eixo pode chegar lá)
+            if (resultado.atingido) {
+                linhas.append("    ").append(linhaEnum(nivel, resultado.parametros)).append(System.lineSeparator());
+            } else {
+                linhas.append("    // ").append(nivel).append(": alvo nao atingido no eixo ").append(eixo)
+                    .append(", sem valores").append(System.lineSeparator());
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.println();
+        System.out.println("// Valores para o NivelDificuldade:");
+        System.out.print(linhas);
+        System.out.printf(Locale.ROOT, "%d lancamentos simulados em %.1f s%n", calibrador.getLancamentosSimulados(), segundos);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+// CamadaEstatica.java
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * Camada de desenho que não muda entre frames (céu, chão, poste, tabela, aro e rede).
+ * É pré-renderizada uma vez numa VolatileImage (acelerada quando possível) e
+ * depois apenas copiada em cada frame. Se a imagem perder o conteúdo (ex: mudança
+ * de modo de ecrã) ou a janela mudar de tamanho, é recriada e pintada de novo.
+ */
+public class CamadaEstatica {
+
+    /**
+     * Quem sabe pintar o conteúdo da camada.
+     */
+    public interface Pintor {
+        void pintar(Graphics2D g);
+    }
+
+    private int largura;
+    private int altura;
+    private final Pintor pintor;
+
+    private VolatileImage imagem;
+    // Alternativa sem GraphicsConfiguration (ex: desenho para um BufferedImage fora do ecrã)
+    private BufferedImage imagemSoftware;
+
+    public CamadaEstatica(int largura, int altura, Pintor pintor) {
+        this.largura = largura;
+        this.altura = altura;
+        this.pintor = pintor;
+    }
+
+    /**
+     * Muda o tamanho da camada (ex: janela redimensionada). Só repinta se o tamanho mudar.
+     */
+    public void setTamanho(int largura, int altura) {
+        if (largura == this.largura && altura == this.altura) return;
+        this.largura = largura;
+        this.altura = altura;
+        invalidar();
+    }
+
+    /**
+     * Copia a camada para o destino, recriando-a se o conteúdo se perdeu.
+     * @param gc Configuração do dispositivo de destino (pode ser null).
+     */
+    public void desenhar(Graphics2D destino, GraphicsConfiguration gc) {
+        if (gc == null) {
+            desenharSoftware(destino);
+            return;
+        }
+
+        do {
+            if (imagem == null) {
+                criar(gc);
+            }
+            int estado = imagem.validate(gc);
+            if (estado == VolatileImage.IMAGE_INCOMPATIBLE) {
+                imagem.flush();
+                criar(gc);
+            } else if (estado == VolatileImage.IMAGE_RESTORED) {
+                renderizar(imagem.createGraphics());
+            }
+            destino.drawImage(imagem, 0, 0, null);
+        } while (imagem.contentsLost());
+    }
+
+    /**
+     * Força a nova pintura da camada no próximo frame (ex: se o cenário mudar).
+     */
+    public void invalidar() {
+        if (imagem != null) {
+            imagem.flush();
+            imagem = null;
+        }
+        imagemSoftware = null;
+    }
+
+    private void criar(GraphicsConfiguration gc) {
+        imagem = gc.createCompatibleVolatileImage(largura, altura, Transparency.OPAQUE);
+        renderizar(imagem.createGraphics());
+    }
+
+    private void desenharSoftware(Graphics2D destino) {
+        if (imagemSoftware == null) {
+            imagemSoftware = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+            renderizar(imagemSoftware.createGraphics());
+        }
+        destino.drawImage(imagemSoftware, 0, 0, null);
+    }
+
+    private void renderizar(Graphics2D g) {
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            pintor.pintar(g);
+        } finally {
+            g.dispose();
+        }
+    }
+}
\ No newline at end of file
@@ -5,6 +5,9 @@ import java.awt.geom.Rectangle2D;
 
 /**
  * Representa o objeto Cesto, gerenciando sua geometria, desenho e colisões.
+ * As constantes estáticas são a geometria do cesto padrão (o da quadra de
+ * 800x600); uma Quadra carregada de ficheiro cria cestos noutras posições,
+ * com o aro de qualquer dos lados da tabela e, opcionalmente, em movimento.
  */
 public class Cesto {
     
@@ -14,8 +17,10 @@ public class Cesto {
     private static final Color MADEIRA_ESCURA = new Color(139, 69, 19);
     private static final Color PRETO = new Color(0, 0, 0);
     private static final Color BRANCO = new Color(255, 255, 255);
+    private static final BasicStroke TRACO_SOMBRA = new BasicStroke(2);
+    private static final BasicStroke TRACO_REDE = new BasicStroke(1);
     
-    // Geometria (Aro Aumentado para 70)
+    // Geometria do cesto padrão (Aro Aumentado para 70)
     public static final int LARGURA_ARO = 70; 
     public static final int ALTURA_ARO = 5;
     public static final int X_CESTO_POSTE = PainelJogo.LARGURA - 150;
@@ -23,25 +28,89 @@ public class Cesto {
     public static final int Y_ARO = Y_CESTO_TOPO + 80;
     public static final int X_ARO_FIM = X_CESTO_POSTE - 1;
     public static final int X_ARO_INICIO = X_ARO_FIM - LARGURA_ARO;
+    public static final int LARGURA_TABELA = 10;
+    public static final int ALTURA_TABELA = 100;
+
+    // --- Geometria deste Cesto ---
+    // Canto superior esquerdo da tabela
+    final int xTabela;
+    final int yTabela;
+    // true se o aro fica à direita da tabela (a bola chega pela direita)
+    final boolean aroADireita;
+    final int xAroInicio;
+    final int xAroFim;
+    final int yAro;
+
+    // --- Movimento (oscilação sinusoidal; amplitude zero = cesto fixo) ---
+    final double amplitudeX;
+    final double amplitudeY;
+    final int periodoPassos;
+    // sin(2π·passo/período) de cada passo do período, calculado uma vez com o StrictMath:
+    // o Math.sin pode diferir no último bit entre JVMs e CPUs, a tabela não
+    private final double[] oscilacao;
 
     // Retângulos de Colisão (Objetos de Colisão)
-    private final Rectangle2D TABELA_RECT = new Rectangle2D.Double(X_CESTO_POSTE, Y_CESTO_TOPO, 10, 100);
-    private final Rectangle2D TOPO_ARO_RECT = new Rectangle2D.Double(X_ARO_INICIO, Y_ARO, LARGURA_ARO, ALTURA_ARO);
+    private final Rectangle2D TABELA_RECT;
+    private final Rectangle2D TOPO_ARO_RECT;
     
     // Variável para pontuação
     public boolean passouPeloAroTopo = false;
 
     // Colisão Aro Topo simplificada
-    private static final double COEF_RESTITUICAO = 0.7;
+    static final double COEF_RESTITUICAO = 0.7;
 
-    public Cesto() {}
+    /**
+     * O cesto padrão (constantes X_CESTO_POSTE, Y_CESTO_TOPO, ...).
+     */
+    public Cesto() {
+        this(X_CESTO_POSTE, Y_CESTO_TOPO, false, 0, 0, 0);
+    }
+
+    /**
+     * @param xTabela       Lado esquerdo da tabela.
+     * @param yTabela       Topo da tabela (o aro fica 80px abaixo, como no cesto padrão).
+     * @param periodoPassos Período da oscilação em passos da simulação (ignorado sem amplitude).
+     */
+    public Cesto(int xTabela, int yTabela, boolean aroADireita, double amplitudeX, double amplitudeY, int periodoPassos) {
+        this.xTabela = xTabela;
+        this.yTabela = yTabela;
+        this.aroADireita = aroADireita;
+        this.xAroInicio = aroADireita ? xTabela + LARGURA_TABELA + 1 : xTabela - 1 - LARGURA_ARO;
+        this.xAroFim = xAroInicio + LARGURA_ARO;
+        this.yAro = yTabela + (Y_ARO - Y_CESTO_TOPO);
+        this.amplitudeX = amplitudeX;
+        this.amplitudeY = amplitudeY;
+        this.periodoPassos = periodoPassos;
+        this.oscilacao = new double[isMovel() ? periodoPassos : 0];
+        for (int i = 0; i < oscilacao.length; i++) {
+            oscilacao[i] = StrictMath.sin(2 * Math.PI * i / periodoPassos);
+        }
+        this.TABELA_RECT = new Rectangle2D.Double(xTabela, yTabela, LARGURA_TABELA, ALTURA_TABELA);
+        this.TOPO_ARO_RECT = new Rectangle2D.Double(xAroInicio, yAro, LARGURA_ARO, ALTURA_ARO);
+    }
+
+    public boolean isMovel() {
+        return periodoPassos > 0 && (amplitudeX != 0 || amplitudeY != 0);
+    }
+
+    // Deslocamento do cesto no passo indicado (função do tick, não do passo anterior)
+    public double deslocamentoX(long tick) {
+        return isMovel() ? amplitudeX * oscilacao[(int) (tick % periodoPassos)] : 0;
+    }
+
+    public double deslocamentoY(long tick) {
+        return isMovel() ? amplitudeY * oscilacao[(int) (tick % periodoPassos)] : 0;
+    }
 
     /**
      * Tenta resolver a colisão da bola com os elementos do cesto (tabela e aro).
+     * Regras discretas originais: só servem para um cesto fixo com o aro à esquerda.
      * @param bola O objeto Bola.
+     * @return EVENTO_TABELA ou EVENTO_ARO (com EVENTO_COLISAO) se houve impacto, senão 0.
      */
-    public void verificarColisao(Bola bola) {
-        if (!bola.emMovimento) return;
+    public int verificarColisao(Bola bola) {
+        if (!bola.emMovimento) return 0;
+        int eventos = 0;
 
         // Colisão com a Tabela (Lateral)
         if (bola.x + Bola.RAIO_BOLA > TABELA_RECT.getX() && bola.x < TABELA_RECT.getMaxX() 
@@ -50,6 +119,7 @@ public class Cesto {
             if (bola.velX > 0) { 
                 bola.x = TABELA_RECT.getX() - Bola.RAIO_BOLA; 
                 bola.velX *= -COEF_RESTITUICAO;
+                eventos |= Simulacao.EVENTO_TABELA | Simulacao.EVENTO_COLISAO;
             }
         }
         
@@ -61,8 +131,10 @@ public class Cesto {
                 bola.y = TOPO_ARO_RECT.getY() - Bola.RAIO_BOLA;
                 bola.velY *= -COEF_RESTITUICAO; 
                 bola.velX *= COEF_RESTITUICAO; 
+                eventos |= Simulacao.EVENTO_ARO | Simulacao.EVENTO_COLISAO;
             }
         }
+        return eventos;
     }
 
     /**
@@ -73,8 +145,8 @@ public class Cesto {
     public boolean verificarPontuacao(Bola bola) {
         if (!bola.emMovimento) return false;
         
-        boolean estaSobreAroX = (bola.x > X_ARO_INICIO) && (bola.x < X_ARO_FIM);
-        double POS_LINHA_CESTO = Y_ARO + ALTURA_ARO / 2.0;
+        boolean estaSobreAroX = (bola.x > xAroInicio) && (bola.x < xAroFim);
+        double POS_LINHA_CESTO = yAro + ALTURA_ARO / 2.0;
 
         if (estaSobreAroX && bola.y < POS_LINHA_CESTO) {
             passouPeloAroTopo = true;
@@ -88,9 +160,12 @@ public class Cesto {
     }
 
     public void desenhar(Graphics2D g, int ALTURA) {
-        // Poste
-        g.setColor(MADEIRA_ESCURA);
-        g.fillRect(X_CESTO_POSTE - 5, Y_CESTO_TOPO + 100, 10, ALTURA - (Y_CESTO_TOPO + 100) - 10);
+        // Poste (os cestos móveis não o têm)
+        if (!isMovel()) {
+            int xPoste = aroADireita ? xTabela + LARGURA_TABELA : xTabela;
+            g.setColor(MADEIRA_ESCURA);
+            g.fillRect(xPoste - 5, yTabela + ALTURA_TABELA, 10, ALTURA - (yTabela + ALTURA_TABELA) - 10);
+        }
         
         // Tabela
         g.setColor(CINZA_TABELA);
@@ -104,15 +179,26 @@ public class Cesto {
         
         // Sombra do Aro
         g.setColor(PRETO);
-        g.setStroke(new BasicStroke(2));
-        g.drawLine(X_ARO_INICIO, Y_ARO + 5, X_ARO_FIM, Y_ARO + 5);
+        g.setStroke(TRACO_SOMBRA);
+        g.drawLine(xAroInicio, yAro + 5, xAroFim, yAro + 5);
         
         // Rede Simples
         g.setColor(BRANCO);
-        g.setStroke(new BasicStroke(1));
+        g.setStroke(TRACO_REDE);
         for (int i = 0; i < 5; i++) {
-            int x1 = X_ARO_INICIO + i * (LARGURA_ARO / 5);
-            g.drawLine(x1, Y_ARO + ALTURA_ARO, x1 + LARGURA_ARO / 10, Y_ARO + ALTURA_ARO + 30);
+            int x1 = xAroInicio + i * (LARGURA_ARO / 5);
+            g.drawLine(x1, yAro + ALTURA_ARO, x1 + LARGURA_ARO / 10, yAro + ALTURA_ARO + 30);
         }
     }
+
+    /**
+     * Desenha o cesto deslocado para a posição do tick (cestos móveis, fora da camada estática).
+     */
+    public void desenhar(Graphics2D g, int ALTURA, long tick) {
+        double dx = deslocamentoX(tick);
+        double dy = deslocamentoY(tick);
+        g.translate(dx, dy);
+        desenhar(g, ALTURA);
+        g.translate(-dx, -dy);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+// ClienteRede.java
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A ligação do jogo ao ServidorJogo, sem threads: o PainelJogo chama
+ * atualizar a cada frame, que lê o que chegou (sem bloquear), avança a
+ * previsão em passos fixos e reconcilia-a com os instantâneos do servidor.
+ * Os lançamentos do jogador entram logo na previsão e seguem para o servidor
+ * com o tick em que aconteceram.
+ */
+public final class ClienteRede implements AutoCloseable {
+
+    // Limite de passos por frame (como na Simulacao: sem "espiral da morte" depois de uma pausa)
+    private static final int MAX_PASSOS_POR_ATUALIZACAO = 5;
+
+    private final SocketChannel canal;
+    private final ByteBuffer entrada = ByteBuffer.allocate(16 * 1024);
+    private final ByteBuffer saida = ByteBuffer.allocate(ProtocoloRede.TAMANHO_MAXIMO * 4);
+    // Último estado do servidor (a base dos deltas)
+    private final InstantaneoRede servidor = new InstantaneoRede();
+    private PreditorCliente preditor;
+    private double acumulador = 0;
+    private boolean terminada = false;
+    private boolean ligada = true;
+    private final int[] pontosFinais = new int[Partida.JOGADORES];
+
+    /**
+     * Liga ao servidor (bloqueia só durante a ligação) e pede uma partida.
+     */
+    public ClienteRede(InetSocketAddress endereco, NivelDificuldade nivel, boolean colisaoContinua) throws IOException {
+        this.canal = SocketChannel.open(endereco);
+        canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        canal.configureBlocking(false);
+        int inicio = ProtocoloRede.iniciar(saida, ProtocoloRede.ENTRAR);
+        saida.put((byte) ProtocoloRede.VERSAO).put((byte) nivel.ordinal()).put((byte) (colisaoContinua ? 1 : 0));
+        ProtocoloRede.terminar(saida, inicio);
+        despejar();
+    }
+
+    /**
+     * "anfitrião" ou "anfitrião:porta".
+     */
+    public static InetSocketAddress endereco(String texto) {
+        int doisPontos = texto.lastIndexOf(':');
+        if (doisPontos < 0) return new InetSocketAddress(texto, ProtocoloRede.PORTA_PADRAO);
+        return new InetSocketAddress(texto.substring(0, doisPontos), Integer.parseInt(texto.substring(doisPontos + 1)));
+    }
+
+    /**
+     * Trata as mensagens que chegaram e avança a previsão pelo tempo decorrido.
+     * @return Os passos avançados.
+     */
+    public int atualizar(double segundos) {
+        if (ligada) {
+            try {
+                receber();
+                despejar();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Ligação ao servidor perdida: " + e.getMessage());
+                fechar();
+            }
+        }
+        if (preditor == null || terminada) return 0;
+
+        acumulador += Math.min(segundos, MAX_PASSOS_POR_ATUALIZACAO * Simulacao.DT);
+        int passos = 0;
+        while (acumulador >= Simulacao.DT) {
+            preditor.avancar();
+            acumulador -= Simulacao.DT;
+            passos++;
+        }
+        return passos;
+    }
+
+    /**
+     * Lança a bola do jogador: já na previsão e, se foi aceite, também no servidor.
+     * @return true se o lançamento foi aceite.
+     */
+    public boolean lancar(int dxArrasto, int dyArrasto) {
+        if (preditor == null || terminada || !ligada) return false;
+        long tick = preditor.lancar(dxArrasto, dyArrasto);
+        if (tick < 0) return false;
+        int inicio = ProtocoloRede.iniciar(saida, ProtocoloRede.LANCAR);
+        saida.putShort((short) dxArrasto).putShort((short) dyArrasto);
+        ProtocoloRede.escreverVarint(saida, tick);
+        ProtocoloRede.terminar(saida, inicio);
+        try {
+            despejar();
+        } catch (IOException e) {
+            fechar();
+        }
+        return true;
+    }
+
+    private void receber() throws IOException {
+        if (canal.read(entrada) < 0) {
+            fechar();
+            return;
+        }
+        entrada.flip();
+        int comprimento;
+        while ((comprimento = ProtocoloRede.proximaMensagem(entrada)) >= 0) {
+            int fim = entrada.position() + 1 + comprimento;
+            entrada.get();
+            tratarMensagem(entrada.get(), entrada);
+            entrada.position(fim);
+        }
+        entrada.compact();
+    }
+
+    private void tratarMensagem(byte tipo, ByteBuffer conteudo) {
+        switch (tipo) {
+            case ProtocoloRede.PARTIDA: {
+                int id = conteudo.getInt();
+                int lado = conteudo.get();
+                NivelDificuldade nivel = NivelDificuldade.values()[conteudo.get()];
+                boolean continua = conteudo.get() != 0;
+                long semente = conteudo.getLong();
+                preditor = new PreditorCliente(new Partida(id, nivel, continua, semente), lado);
+                // Os deltas do servidor começam num estado zerado no tick -1
+                servidor.zerar();
+                servidor.tick = -1;
+                acumulador = 0;
+                break;
+            }
+            case ProtocoloRede.INSTANTANEO:
+                servidor.lerDelta(conteudo);
+                if (preditor != null) preditor.reconciliar(servidor);
+                break;
+            case ProtocoloRede.FIM:
+                pontosFinais[0] = conteudo.getShort() & 0xFFFF;
+                pontosFinais[1] = conteudo.getShort() & 0xFFFF;
+                terminada = true;
+                break;
+            default:
+                throw new IllegalStateException("Mensagem desconhecida: " + tipo);
+        }
+    }
+
+    private void despejar() throws IOException {
+        if (saida.position() == 0) return;
+        saida.flip();
+        canal.write(saida);
+        saida.compact();
+    }
+
+    private void fechar() {
+        ligada = false;
+        try {
+            canal.close();
+        } catch (IOException e) {
+            // Nada a fazer
+        }
+    }
+
+    // --- Acesso ao Estado ---
+
+    /**
+     * A previsão da partida em curso (null até o servidor encontrar adversário).
+     */
+    public PreditorCliente getPreditor() { return preditor; }
+    public InstantaneoRede getServidor() { return servidor; }
+    public double getAlfa() { return acumulador / Simulacao.DT; }
+    public boolean isLigada() { return ligada; }
+    public boolean isTerminada() { return terminada; }
+    public int getPontosFinais(int jogador) { return pontosFinais[jogador]; }
+
+    @Override
+    public void close() {
+        fechar();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,262 @@
+// ClienteScriptado.java
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Locale;
+
+/**
+ * Teste de carga do ServidorJogo: abre muitas ligações num só Selector, cada
+ * uma um jogador automático que entra numa partida, lança com um arrasto
+ * aleatório sempre que a sua bola está parada, reconstrói o estado a partir
+ * dos instantâneos e, no FIM, confere os pontos anunciados com os que
+ * descodificou. No fim mostra as partidas completas, as divergências e a
+ * largura de banda média por cliente.
+ *
+ * Uso: java ClienteScriptado [clientes] [local|anfitrião:porta] [nível] [contínua]
+ *      ("local" arranca um servidor nesta JVM, numa porta livre)
+ */
+public class ClienteScriptado {
+
+    // Espera mínima entre lançamentos (o tempo de o servidor tratar o anterior)
+    private static final int PASSOS_ENTRE_LANCAMENTOS = 30;
+    private static final long ESPERA_MAXIMA_NANOS = 10 * 60 * 1_000_000_000L;
+
+    /**
+     * Um jogador automático.
+     */
+    private static final class Jogador {
+        final SocketChannel canal;
+        final ByteBuffer entrada = ByteBuffer.allocate(16 * 1024);
+        final ByteBuffer saida = ByteBuffer.allocate(ProtocoloRede.TAMANHO_MAXIMO * 4);
+        final InstantaneoRede estado = new InstantaneoRede();
+        final GeradorAleatorio random;
+        SelectionKey chave;
+        int lado = -1;
+        long tickInicial = -1;
+        long ultimoLancamento = Long.MIN_VALUE / 2;
+        long bytesRecebidos = 0;
+        boolean terminado = false;
+
+        Jogador(SocketChannel canal, long semente) {
+            this.canal = canal;
+            this.random = new GeradorAleatorio(semente);
+        }
+    }
+
+    private final Selector selector;
+    private final Jogador[] jogadores;
+    private final NivelDificuldade nivel;
+    private final boolean continua;
+    private int ativos;
+
+    // --- Resultados ---
+    private int partidasCompletas = 0;
+    private int divergencias = 0;
+    private int falhas = 0;
+    private long bytesRecebidos = 0;
+    private long passosJogados = 0;
+    private long lancamentosEnviados = 0;
+
+    public ClienteScriptado(InetSocketAddress endereco, int clientes, NivelDificuldade nivel, boolean continua)
+            throws IOException {
+        this.selector = Selector.open();
+        this.jogadores = new Jogador[clientes];
+        this.nivel = nivel;
+        this.continua = continua;
+        for (int i = 0; i < clientes; i++) {
+            SocketChannel canal = SocketChannel.open();
+            canal.configureBlocking(false);
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Jogador jogador = new Jogador(canal, GeradorAleatorio.derivarSemente(42L, i));
+            jogador.chave = canal.register(selector, SelectionKey.OP_CONNECT, jogador);
+            canal.connect(endereco);
+            jogadores[i] = jogador;
+        }
+        this.ativos = clientes;
+    }
+
+    /**
+     * Joga até todas as ligações terminarem (ou ESPERA_MAXIMA_NANOS).
+     */
+    public void executar() throws IOException {
+        long limite = System.nanoTime() + ESPERA_MAXIMA_NANOS;
+        while (ativos > 0 && System.nanoTime() - limite < 0) {
+            selector.select(this::tratarChave, 100);
+        }
+        for (Jogador jogador : jogadores) {
+            if (!jogador.terminado) terminar(jogador, true);
+        }
+        selector.close();
+    }
+
+    private void tratarChave(SelectionKey chave) {
+        Jogador jogador = (Jogador) chave.attachment();
+        try {
+            if (chave.isConnectable()) {
+                jogador.canal.finishConnect();
+                chave.interestOps(SelectionKey.OP_READ);
+                int inicio = ProtocoloRede.iniciar(jogador.saida, ProtocoloRede.ENTRAR);
+                jogador.saida.put((byte) ProtocoloRede.VERSAO).put((byte) nivel.ordinal()).put((byte) (continua ? 1 : 0));
+                ProtocoloRede.terminar(jogador.saida, inicio);
+                despejar(jogador);
+                return;
+            }
+            if (chave.isReadable()) ler(jogador);
+            if (!jogador.terminado && chave.isWritable()) despejar(jogador);
+        } catch (IOException | RuntimeException e) {
+            terminar(jogador, true);
+        }
+    }
+
+    private void ler(Jogador jogador) throws IOException {
+        int lidos = jogador.canal.read(jogador.entrada);
+        if (lidos < 0) {
+            // O servidor fecha depois do FIM; antes disso é uma falha
+            terminar(jogador, !jogador.terminado);
+            return;
+        }
+        jogador.bytesRecebidos += lidos;
+        ByteBuffer entrada = jogador.entrada;
+        entrada.flip();
+        int comprimento;
+        while (!jogador.terminado && (comprimento = ProtocoloRede.proximaMensagem(entrada)) >= 0) {
+            int fim = entrada.position() + 1 + comprimento;
+            entrada.get();
+            tratarMensagem(jogador, entrada.get(), entrada);
+            entrada.position(fim);
+        }
+        entrada.compact();
+        if (!jogador.terminado) despejar(jogador);
+    }
+
+    private void tratarMensagem(Jogador jogador, byte tipo, ByteBuffer conteudo) {
+        InstantaneoRede estado = jogador.estado;
+        switch (tipo) {
+            case ProtocoloRede.PARTIDA:
+                conteudo.getInt();
+                jogador.lado = conteudo.get();
+                // O servidor começa os deltas de um estado zerado no tick -1
+                estado.zerar();
+                estado.tick = -1;
+                break;
+            case ProtocoloRede.INSTANTANEO:
+                estado.lerDelta(conteudo);
+                if (jogador.tickInicial < 0) jogador.tickInicial = estado.tick;
+                talvezLancar(jogador);
+                break;
+            case ProtocoloRede.FIM: {
+                int p0 = conteudo.getShort() & 0xFFFF;
+                int p1 = conteudo.getShort() & 0xFFFF;
+                if (p0 != estado.get(0, InstantaneoRede.PONTOS) || p1 != estado.get(1, InstantaneoRede.PONTOS)) {
+                    divergencias++;
+                }
+                boolean completa = estado.get(0, InstantaneoRede.RESTANTES) == 0 && estado.get(1, InstantaneoRede.RESTANTES) == 0;
+                if (completa) partidasCompletas++;
+                passosJogados += estado.tick - jogador.tickInicial;
+                terminar(jogador, false);
+                break;
+            }
+            default:
+                throw new IllegalStateException("Mensagem desconhecida: " + tipo);
+        }
+    }
+
+    private void talvezLancar(Jogador jogador) {
+        InstantaneoRede estado = jogador.estado;
+        int lado = jogador.lado;
+        if (lado < 0 || estado.get(lado, InstantaneoRede.MOVIMENTO) != 0) return;
+        if (estado.get(lado, InstantaneoRede.RESTANTES) == 0) return;
+        if (estado.tick - jogador.ultimoLancamento < PASSOS_ENTRE_LANCAMENTOS) return;
+
+        // Arrasto à volta do que costuma acertar na quadra padrão (como no BenchmarkBasquete)
+        int dx = 170 + (int) (jogador.random.proximoDouble() * 80);
+        int dy = -210 - (int) (jogador.random.proximoDouble() * 80);
+        int inicio = ProtocoloRede.iniciar(jogador.saida, ProtocoloRede.LANCAR);
+        jogador.saida.putShort((short) dx).putShort((short) dy);
+        ProtocoloRede.escreverVarint(jogador.saida, estado.tick);
+        ProtocoloRede.terminar(jogador.saida, inicio);
+        jogador.ultimoLancamento = estado.tick;
+        lancamentosEnviados++;
+    }
+
+    private void despejar(Jogador jogador) throws IOException {
+        ByteBuffer saida = jogador.saida;
+        if (saida.position() == 0) return;
+        saida.flip();
+        jogador.canal.write(saida);
+        saida.compact();
+        jogador.chave.interestOps(saida.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void terminar(Jogador jogador, boolean falhou) {
+        if (!jogador.terminado) {
+            jogador.terminado = true;
+            ativos--;
+            bytesRecebidos += jogador.bytesRecebidos;
+            if (falhou) falhas++;
+        }
+        jogador.chave.cancel();
+        try {
+            jogador.canal.close();
+        } catch (IOException e) {
+            // Nada a fazer
+        }
+    }
+
+    public void imprimirResumo() {
+        int clientes = jogadores.length;
+        double segundosPorCliente = passosJogados / (double) Simulacao.PASSOS_POR_SEGUNDO / Math.max(1, clientes - falhas);
+        System.out.printf(Locale.ROOT, "%d clientes, %d lançamentos, %d partidas completas (por cliente), %d divergências, %d falhas%n",
+            clientes, lancamentosEnviados, partidasCompletas, divergencias, falhas);
+        System.out.printf(Locale.ROOT, "%.1f s de jogo por cliente, %.0f bytes/s recebidos por cliente%n",
+            segundosPorCliente, bytesRecebidos / (double) clientes / Math.max(1e-9, segundosPorCliente));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        String destino = args.length > 1 ? args[1] : "local";
+        NivelDificuldade nivel = args.length > 2 ? NivelDificuldade.valueOf(args[2].toUpperCase()) : NivelDificuldade.FACIL;
+        boolean continua = args.length > 3 && Boolean.parseBoolean(args[3]);
+        if (clientes % 2 != 0) throw new IllegalArgumentException("O número de clientes tem de ser par");
+
+        ServidorJogo servidor = null;
+        Thread threadServidor = null;
+        InetSocketAddress endereco;
+        if (destino.equals("local")) {
+            servidor = new ServidorJogo(0);
+            ServidorJogo s = servidor;
+            threadServidor = new Thread(() -> {
+                try {
+                    s.executar();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "servidor-jogo");
+            threadServidor.start();
+            endereco = new InetSocketAddress("127.0.0.1", servidor.getPorta());
+        } else {
+            int doisPontos = destino.lastIndexOf(':');
+            endereco = doisPontos < 0
+                ? new InetSocketAddress(destino, ProtocoloRede.PORTA_PADRAO)
+                : new InetSocketAddress(destino.substring(0, doisPontos), Integer.parseInt(destino.substring(doisPontos + 1)));
+        }
+
+        long inicio = System.nanoTime();
+        ClienteScriptado cliente = new ClienteScriptado(endereco, clientes, nivel, continua);
+        cliente.executar();
+        System.out.printf(Locale.ROOT, "Terminado em %.1f s%n", (System.nanoTime() - inicio) / 1e9);
+        cliente.imprimirResumo();
+
+        if (servidor != null) {
+            servidor.parar();
+            threadServidor.join();
+            System.out.println("Servidor: " + servidor.getEstatisticas());
+            servidor.close();
+        }
+    }
+}
\ No newline at end of file
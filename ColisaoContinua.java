@@ -0,0 +1,318 @@
+// ColisaoContinua.java
+
+/**
+ * Deteção contínua de colisões para um passo da bola. Em vez de mover a bola
+ * e depois corrigir sobreposições (o que deixa lançamentos rápidos atravessar
+ * o aro de 5px ou a tabela entre dois ticks), varre o segmento do passo,
+ * calcula o instante exato do primeiro impacto, resolve-o e continua com o
+ * tempo que sobra, até MAX_IMPACTOS por passo.
+ *
+ * Como o integrador aplica a gravidade antes de mover, o movimento dentro de
+ * um passo é retilíneo e o varrimento é exato. Formas:
+ *   - chão, teto e paredes: planos;
+ *   - cestos e obstáculos: as primitivas do LayoutColisao da quadra (a tabela
+ *     é uma face de um só lado e dois cantos; o aro são as duas pontas, círculos
+ *     de raio ALTURA_ARO/2, com o meio aberto).
+ *
+ * Não aloca nada: guarda o estado num objeto reutilizável, que cada thread
+ * deve ter o seu (carregar, avancar, descarregar).
+ */
+public final class ColisaoContinua {
+
+    private static final double RAIO = Bola.RAIO_BOLA;
+    // Limite de impactos resolvidos num passo (o resto do passo é descartado)
+    static final int MAX_IMPACTOS = 8;
+    // Velocidade abaixo da qual a bola pára no chão (Bola.atualizarPosicao)
+    private static final double VELOCIDADE_REPOUSO = 1;
+
+    // --- Tipos de Impacto (planos do mundo; o resto são primitivas do layout) ---
+    private static final int NENHUM = 0;
+    private static final int CHAO = 1;
+    private static final int TETO = 2;
+    private static final int PAREDE_ESQUERDA = 3;
+    private static final int PAREDE_DIREITA = 4;
+    private static final int PRIMITIVA = 5;
+
+    // --- Estado da Bola ---
+    public double x, y;
+    public double velX, velY;
+    public boolean emMovimento;
+
+    // --- Parâmetros do Mundo ---
+    private final LayoutColisao layout;
+    private final int largura;
+    private final int alturaChao;
+    private double coefRestituicaoChao;
+    private double coefRestituicaoMapa;
+
+    // Arrays do layout (o laço lê-os diretamente; os cestos móveis reescrevem-nos entre passos)
+    private final int quantidadeBlocos;
+    private final int[] inicioBloco;
+    private final double[] caixas;
+    private final int[] tipos;
+    private final int[] eventosPrimitiva;
+    private final double[] dados;
+    // Resultado de primeiraPrimitiva
+    private int primitivaEncontrada;
+
+    public ColisaoContinua(LayoutColisao layout, double coefRestituicaoChao, double coefRestituicaoMapa) {
+        this.layout = layout;
+        this.largura = layout.largura;
+        this.alturaChao = layout.alturaChao;
+        this.quantidadeBlocos = layout.quantidadeBlocos;
+        this.inicioBloco = layout.inicioBloco;
+        this.caixas = layout.caixas;
+        this.tipos = layout.tipos;
+        this.eventosPrimitiva = layout.eventos;
+        this.dados = layout.dados;
+        setCoeficientes(coefRestituicaoChao, coefRestituicaoMapa);
+    }
+
+    public void setCoeficientes(double coefRestituicaoChao, double coefRestituicaoMapa) {
+        this.coefRestituicaoChao = coefRestituicaoChao;
+        this.coefRestituicaoMapa = coefRestituicaoMapa;
+    }
+
+    public void carregar(Bola bola) {
+        x = bola.x;
+        y = bola.y;
+        velX = bola.velX;
+        velY = bola.velY;
+        emMovimento = bola.emMovimento;
+    }
+
+    public void descarregar(Bola bola) {
+        bola.x = x;
+        bola.y = y;
+        bola.velX = velX;
+        bola.velY = velY;
+        bola.emMovimento = emMovimento;
+    }
+
+    /**
+     * Executa um passo completo (gravidade, movimento e impactos).
+     * @return Os eventos (bitmask Simulacao.EVENTO_*) ocorridos no passo.
+     */
+    public int avancar() {
+        if (!emMovimento) return 0;
+
+        velY += FisicaUtil.GRAVIDADE;
+
+        int eventos = 0;
+        double restante = 1.0;
+        for (int impactos = 0; impactos <= MAX_IMPACTOS; impactos++) {
+            // Procura o primeiro impacto no que resta do passo
+            int tipo = NENHUM;
+            double t = restante;
+
+            if (velY > 0) {
+                double ti = tempoPlano(y, velY, alturaChao - RAIO);
+                if (ti <= t) { t = ti; tipo = CHAO; }
+            } else if (velY < 0) {
+                double ti = tempoPlano(y, velY, RAIO);
+                if (ti <= t) { t = ti; tipo = TETO; }
+            }
+            if (velX < 0) {
+                double ti = tempoPlano(x, velX, RAIO);
+                if (ti <= t) { t = ti; tipo = PAREDE_ESQUERDA; }
+            } else if (velX > 0) {
+                double ti = tempoPlano(x, velX, largura - RAIO);
+                if (ti <= t) { t = ti; tipo = PAREDE_DIREITA; }
+            }
+            int primitiva = -1;
+            double tPrimitiva = primeiraPrimitiva(t);
+            if (primitivaEncontrada >= 0) { t = tPrimitiva; tipo = PRIMITIVA; primitiva = primitivaEncontrada; }
+
+            if (impactos == MAX_IMPACTOS && tipo != NENHUM) {
+                // Demasiados impactos: pára no ponto de contacto e perde o resto do passo
+                tipo = NENHUM;
+            }
+
+            // Avança até ao impacto (ou ao fim do passo), verificando a linha do cesto
+            double xNovo = x + velX * t;
+            double yNovo = y + velY * t;
+            if (layout.cruzaLinhaCesto(x, y, xNovo, yNovo)) {
+                eventos |= Simulacao.EVENTO_PONTO;
+            }
+            x = xNovo;
+            y = yNovo;
+            restante -= t;
+
+            if (tipo == NENHUM) break;
+            eventos |= tipo == PRIMITIVA ? resolverPrimitiva(primitiva) : resolver(tipo);
+            if (!emMovimento) break;
+        }
+        return eventos;
+    }
+
+    /**
+     * Procura a primitiva do layout com o primeiro impacto até ao instante t
+     * (empates para a última, como os planos), só nos blocos cuja caixa o
+     * segmento atravessa. Deixa o índice em primitivaEncontrada (-1 se nenhuma).
+     * Separado do avancar para o JIT o compilar com os testes inlined.
+     */
+    private double primeiraPrimitiva(double t) {
+        primitivaEncontrada = -1;
+        double xFim = x + velX * t, yFim = y + velY * t;
+        double xMin = Math.min(x, xFim), xMax = Math.max(x, xFim);
+        double yMin = Math.min(y, yFim), yMax = Math.max(y, yFim);
+        for (int b = 0; b < quantidadeBlocos; b++) {
+            int caixa = b * LayoutColisao.DADOS_POR_CAIXA;
+            if (xMax < caixas[caixa] || xMin > caixas[caixa + 1]
+                    || yMax < caixas[caixa + 2] || yMin > caixas[caixa + 3]) continue;
+            for (int p = inicioBloco[b]; p < inicioBloco[b + 1]; p++) {
+                int base = p * LayoutColisao.DADOS_POR_PRIMITIVA;
+                double ti;
+                switch (tipos[p]) {
+                    case LayoutColisao.FACE_X:
+                        ti = tempoFace(x, velX, y, velY, base);
+                        break;
+                    case LayoutColisao.FACE_Y:
+                        ti = tempoFace(y, velY, x, velX, base);
+                        break;
+                    default:
+                        ti = tempoPonto(base);
+                }
+                if (ti <= t) { t = ti; primitivaEncontrada = p; }
+            }
+        }
+        return t;
+    }
+
+    // Aplica a resposta do impacto à velocidade e devolve o evento correspondente
+    private int resolver(int tipo) {
+        switch (tipo) {
+            case CHAO:
+                y = alturaChao - RAIO;
+                velY *= -coefRestituicaoChao;
+                if (Math.abs(velY) < VELOCIDADE_REPOUSO && Math.abs(velX) < VELOCIDADE_REPOUSO) {
+                    emMovimento = false;
+                    velX = 0;
+                    velY = 0;
+                    return Simulacao.EVENTO_CHAO | Simulacao.EVENTO_REPOUSO;
+                }
+                return Simulacao.EVENTO_CHAO;
+            case TETO:
+                y = RAIO;
+                velY *= -coefRestituicaoMapa;
+                return Simulacao.EVENTO_PAREDE;
+            case PAREDE_ESQUERDA:
+                x = RAIO;
+                velX *= -coefRestituicaoMapa;
+                return Simulacao.EVENTO_PAREDE;
+            case PAREDE_DIREITA:
+                x = largura - RAIO;
+                velX *= -coefRestituicaoMapa;
+                return Simulacao.EVENTO_PAREDE;
+            default:
+                return 0;
+        }
+    }
+
+    // Resposta de uma primitiva do layout
+    private int resolverPrimitiva(int p) {
+        int base = p * LayoutColisao.DADOS_POR_PRIMITIVA;
+        double coef = dados[base + LayoutColisao.COEF];
+        switch (tipos[p]) {
+            case LayoutColisao.FACE_X:
+                x = dados[base + LayoutColisao.C];
+                velX *= -coef;
+                return eventosPrimitiva[p];
+            case LayoutColisao.FACE_Y:
+                y = dados[base + LayoutColisao.C];
+                velY *= -coef;
+                // Em cima de um obstáculo aplica-se a regra de repouso do chão
+                if (dados[base + LayoutColisao.SENTIDO] > 0
+                        && Math.abs(velY) < VELOCIDADE_REPOUSO && Math.abs(velX) < VELOCIDADE_REPOUSO) {
+                    emMovimento = false;
+                    velX = 0;
+                    velY = 0;
+                    return eventosPrimitiva[p] | Simulacao.EVENTO_REPOUSO;
+                }
+                return eventosPrimitiva[p];
+            case LayoutColisao.PONTO_ARO:
+                refletir(dados[base + LayoutColisao.CX], dados[base + LayoutColisao.CY], coef, true);
+                return eventosPrimitiva[p];
+            default:
+                refletir(dados[base + LayoutColisao.CX], dados[base + LayoutColisao.CY], coef, false);
+                return eventosPrimitiva[p];
+        }
+    }
+
+    // Instante em que a coordenada p, com velocidade v (não nula), chega ao plano
+    private static double tempoPlano(double p, double v, double plano) {
+        double t = (plano - p) / v;
+        return t < 0 ? 0 : t;
+    }
+
+    /**
+     * Instante em que o centro chega a uma face (p e v na coordenada normal à
+     * face, q e vq na outra), ou infinito se não houver: só conta a aproximação
+     * pelo lado do sentido e com o ponto de impacto dentro da face.
+     */
+    private double tempoFace(double p, double v, double q, double vq, int base) {
+        double c = dados[base + LayoutColisao.C];
+        double sentido = dados[base + LayoutColisao.SENTIDO];
+        if (v * sentido <= 0 || (c - p) * sentido < 0) return Double.POSITIVE_INFINITY;
+        double t = (c - p) / v;
+        double qImpacto = q + vq * t;
+        if (qImpacto > dados[base + LayoutColisao.MINIMO] && qImpacto < dados[base + LayoutColisao.MAXIMO]) return t;
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Instante do impacto do centro da bola com um círculo de contacto do
+     * layout, ou infinito se não houver. Só conta a aproximação e fora do lado
+     * excluído: a tabela só pelo lado do aro, o aro só pela metade de cima
+     * (deixa passar a bola que sobe por dentro), os obstáculos de todos os lados.
+     */
+    private double tempoPonto(int base) {
+        double cx = dados[base + LayoutColisao.CX];
+        double cy = dados[base + LayoutColisao.CY];
+        double r = dados[base + LayoutColisao.R];
+        double dx = x - cx;
+        double dy = y - cy;
+        double b = dx * velX + dy * velY;
+        if (b >= 0) return Double.POSITIVE_INFINITY; // a afastar-se
+
+        double a = velX * velX + velY * velY;
+        double c = dx * dx + dy * dy - r * r;
+        double t;
+        if (c <= 0) {
+            t = 0; // já em contacto
+        } else {
+            double discriminante = b * b - a * c;
+            if (discriminante < 0) return Double.POSITIVE_INFINITY;
+            t = (-b - Math.sqrt(discriminante)) / a;
+        }
+
+        // Lado do contacto
+        double nx = dx + velX * t;
+        double ny = dy + velY * t;
+        if (nx * dados[base + LayoutColisao.AX] + ny * dados[base + LayoutColisao.AY] > 0) return Double.POSITIVE_INFINITY;
+        return t;
+    }
+
+    /**
+     * Resposta num contacto com um ponto: a componente normal inverte com o
+     * coeficiente e. Com atrito (aro) a tangencial também é reduzida, o que no
+     * topo do aro dá as mesmas regras do Cesto (velY *= -0.7, velX *= 0.7).
+     */
+    private void refletir(double cx, double cy, double e, boolean comAtrito) {
+        double nx = x - cx;
+        double ny = y - cy;
+        double comprimento = Math.sqrt(nx * nx + ny * ny);
+        if (comprimento == 0) return;
+        nx /= comprimento;
+        ny /= comprimento;
+
+        double vn = velX * nx + velY * ny;
+        if (comAtrito) {
+            velX = e * (velX - 2 * vn * nx);
+            velY = e * (velY - 2 * vn * ny);
+        } else {
+            velX -= (1 + e) * vn * nx;
+            velY -= (1 + e) * vn * ny;
+        }
+    }
+}
\ No newline at end of file
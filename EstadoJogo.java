@@ -0,0 +1,64 @@
+// EstadoJogo.java
+
+/**
+ * Tudo o que define uma Partida num tick, em dois arrays primitivos: copiar
+ * um estado são duas cópias de arrays, sem objetos nem alocações. O
+ * PreditorCliente guarda um por tick para poder voltar atrás e voltar a
+ * simular quando o servidor discorda da previsão.
+ *
+ * Os campos de cada jogador estão em reais[jogador * REAIS + campo] e
+ * inteiros[jogador * INTEIROS + campo], como no InstantaneoRede.
+ */
+public final class EstadoJogo {
+
+    public static final int JOGADORES = Partida.JOGADORES;
+
+    // --- Campos Reais (por jogador) ---
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int VEL_X = 2;
+    public static final int VEL_Y = 3;
+    // Posição no passo anterior (interpolação do desenho)
+    public static final int X_ANTERIOR = 4;
+    public static final int Y_ANTERIOR = 5;
+    public static final int REAIS = 6;
+
+    // --- Campos Inteiros (por jogador) ---
+    public static final int MOVIMENTO = 0;
+    public static final int PASSOU_ARO_TOPO = 1;
+    public static final int PONTOS = 2;
+    public static final int RESTANTES = 3;
+    // Passos do lançamento em curso (-1 sem lançamento) e tick em que a bola voltou à linha
+    public static final int PASSOS_LANCAMENTO = 4;
+    public static final int TICK_PARADA = 5;
+    public static final int GERADOR = 6;
+    public static final int INTEIROS = 7;
+
+    public long tick;
+    public boolean abandonada;
+    public final double[] reais = new double[JOGADORES * REAIS];
+    public final long[] inteiros = new long[JOGADORES * INTEIROS];
+
+    public double getReal(int jogador, int campo) {
+        return reais[jogador * REAIS + campo];
+    }
+
+    public void setReal(int jogador, int campo, double valor) {
+        reais[jogador * REAIS + campo] = valor;
+    }
+
+    public long getInteiro(int jogador, int campo) {
+        return inteiros[jogador * INTEIROS + campo];
+    }
+
+    public void setInteiro(int jogador, int campo, long valor) {
+        inteiros[jogador * INTEIROS + campo] = valor;
+    }
+
+    public void copiarDe(EstadoJogo outro) {
+        tick = outro.tick;
+        abandonada = outro.abandonada;
+        System.arraycopy(outro.reais, 0, reais, 0, reais.length);
+        System.arraycopy(outro.inteiros, 0, inteiros, 0, inteiros.length);
+    }
+}
\ No newline at end of file
@@ -29,4 +29,205 @@ public class FisicaUtil {
         
         return new Point2D.Double(vx, vy);
     }
+
+    /**
+     * Componente X de calcularVelocidadeParaAlvo, sem alocar um Point2D.
+     */
+    public static double velocidadeXParaAlvo(double xBola, double xAlvo, int tempoPassagem) {
+        return (xAlvo - xBola) / tempoPassagem;
+    }
+
+    /**
+     * Componente Y de calcularVelocidadeParaAlvo, sem alocar um Point2D.
+     */
+    public static double velocidadeYParaAlvo(double yBola, double yAlvo, int tempoPassagem) {
+        double t = tempoPassagem;
+        return ((yAlvo - yBola) / t) - (0.5 * GRAVIDADE * t);
+    }
+
+    // --- Solucionadores Analíticos da Parábola Discreta ---
+    // O passo de Euler da Bola faz vy += g e depois y += vy. Após n passos:
+    //   x(n) = x0 + n*vx
+    //   y(n) = y0 + n*vy0 + g*n*(n+1)/2
+    // Os métodos seguintes respondem "em que passo" sem simular passo a passo.
+
+    /** Valor devolvido quando o impacto nunca acontece. */
+    public static final int SEM_IMPACTO = Integer.MAX_VALUE;
+
+    public static double posicaoX(double x0, double vx, int n) {
+        return x0 + n * vx;
+    }
+
+    public static double posicaoY(double y0, double vy0, int n) {
+        return y0 + n * vy0 + GRAVIDADE * n * (n + 1) / 2.0;
+    }
+
+    public static double velocidadeY(double vy0, int n) {
+        return vy0 + n * GRAVIDADE;
+    }
+
+    /**
+     * Primeiro passo (>= 1) em que a bola está em y >= yLimite a descer (ex: o chão).
+     * Se começar abaixo do limite a subir, devolve o passo em que volta a atingi-lo.
+     */
+    public static int passosAteDescer(double y0, double vy0, double yLimite) {
+        double a = GRAVIDADE / 2.0, b = vy0 + GRAVIDADE / 2.0, c = y0 - yLimite;
+        double disc = b * b - 4 * a * c;
+        int n;
+        if (disc < 0) {
+            // Nunca sobe acima do limite: basta começar a descer
+            n = (int) Math.floor(-vy0 / GRAVIDADE) + 1;
+        } else {
+            n = (int) Math.ceil((-b + Math.sqrt(disc)) / (2 * a));
+        }
+        n = Math.max(1, n);
+        // Ajuste contra erros de arredondamento da raiz
+        while (n > 1 && posicaoY(y0, vy0, n - 1) >= yLimite && velocidadeY(vy0, n - 1) > 0) n--;
+        while (posicaoY(y0, vy0, n) < yLimite) n++;
+        return n;
+    }
+
+    /**
+     * Primeiro passo (>= 1) em que a bola está em y <= yLimite (ex: o teto), ou SEM_IMPACTO.
+     */
+    public static int passosAteSubir(double y0, double vy0, double yLimite) {
+        double a = GRAVIDADE / 2.0, b = vy0 + GRAVIDADE / 2.0, c = y0 - yLimite;
+        double disc = b * b - 4 * a * c;
+        if (disc < 0) return SEM_IMPACTO;
+        double raiz = Math.sqrt(disc);
+        double rMaior = (-b + raiz) / (2 * a);
+        int n = Math.max(1, (int) Math.ceil((-b - raiz) / (2 * a)));
+        if (n > rMaior) return SEM_IMPACTO;
+        while (n > 1 && posicaoY(y0, vy0, n - 1) <= yLimite) n--;
+        return posicaoY(y0, vy0, n) <= yLimite ? n : SEM_IMPACTO;
+    }
+
+    /**
+     * Primeiro passo (>= 1) em que x atinge ou ultrapassa xLimite no sentido de vx, ou SEM_IMPACTO.
+     */
+    public static int passosAteX(double x0, double vx, double xLimite) {
+        if (vx == 0) return SEM_IMPACTO;
+        double t = (xLimite - x0) / vx;
+        if (t <= 0) return 1;
+        return Math.max(1, (int) Math.ceil(t));
+    }
+
+    // --- Cestos (regras discretas do Cesto.verificarColisao e do Cesto.verificarPontuacao) ---
+    // A geometria vem do cesto dado (qualquer posição, aro de qualquer dos lados),
+    // e um cesto móvel é tomado na posição de cada passo: o passo n de um
+    // lançamento feito no tick t é o tick t + n. Os testes só correm nos passos
+    // em que a bola está na faixa horizontal do cesto, que sai da forma fechada
+    // de x(n): uma dúzia de passos, sem simular o voo todo.
+
+    /**
+     * Primeiro passo em que a bola toca no aro do cesto (a base da bola na faixa
+     * do aro, a descer), até ao passo limite (ex: o do chão), ou SEM_IMPACTO.
+     */
+    public static int passosAteAro(Cesto cesto, long tick, double x0, double y0, double vx, double vy0, int limite) {
+        int fim = ultimoPassoNaFaixa(cesto, x0, vx, limite);
+        for (int n = primeiroPassoNaFaixa(cesto, x0, vx); n <= fim; n++) {
+            if (tocaAro(cesto, tick + n, posicaoX(x0, vx, n), posicaoY(y0, vy0, n), velocidadeY(vy0, n))) return n;
+        }
+        return SEM_IMPACTO;
+    }
+
+    /**
+     * Primeiro passo em que a bola bate na face da tabela virada para o aro,
+     * até ao passo limite (ex: o do chão), ou SEM_IMPACTO.
+     */
+    public static int passosAteTabela(Cesto cesto, long tick, double x0, double y0, double vx, double vy0, int limite) {
+        int fim = ultimoPassoNaFaixa(cesto, x0, vx, limite);
+        for (int n = primeiroPassoNaFaixa(cesto, x0, vx); n <= fim; n++) {
+            if (tocaTabela(cesto, tick + n, posicaoX(x0, vx, n), posicaoY(y0, vy0, n), vx)) return n;
+        }
+        return SEM_IMPACTO;
+    }
+
+    /**
+     * Passo em que um lançamento feito no tick dado marca no cesto sem tocar
+     * em nada antes (cesta limpa), ou SEM_IMPACTO.
+     * @param largura Largura do mundo (paredes).
+     * @param alturaChao Altura do chão.
+     */
+    public static int passosAteCesta(Cesto cesto, long tick, double x0, double y0, double vx, double vy0,
+                                     int largura, int alturaChao) {
+        int r = Bola.RAIO_BOLA;
+        // O chão, o teto e as paredes (Bola.atualizarPosicao e verificarColisaoMapa) só depois da cesta
+        int limite = passosAteDescer(y0, vy0, alturaChao - r);
+        limite = Math.min(limite, passosAteSubir(y0, vy0, r));
+        limite = Math.min(limite, passosAteX(x0, vx, vx > 0 ? largura - r : r));
+
+        // passouPeloAroTopo só muda com a bola sobre o aro, e o aro está dentro da faixa
+        boolean passouPeloAroTopo = false;
+        int fim = ultimoPassoNaFaixa(cesto, x0, vx, limite - 1);
+        for (int n = primeiroPassoNaFaixa(cesto, x0, vx); n <= fim; n++) {
+            long t = tick + n;
+            double x = posicaoX(x0, vx, n);
+            double y = posicaoY(y0, vy0, n);
+            double vy = velocidadeY(vy0, n);
+            if (tocaTabela(cesto, t, x, y, vx) || tocaAro(cesto, t, x, y, vy)) return SEM_IMPACTO;
+
+            double dx = cesto.deslocamentoX(t);
+            if (x > cesto.xAroInicio + dx && x < cesto.xAroFim + dx) {
+                double linhaCesto = cesto.yAro + cesto.deslocamentoY(t) + Cesto.ALTURA_ARO / 2.0;
+                if (y < linhaCesto) {
+                    passouPeloAroTopo = true;
+                } else if (passouPeloAroTopo && y > linhaCesto && vy > 0) {
+                    return n;
+                }
+            }
+        }
+        return SEM_IMPACTO;
+    }
+
+    /**
+     * Indica se o lançamento com velocidade (vx, vy0), feito no tick dado, marca cesto limpo.
+     */
+    public static boolean acertaCesto(Cesto cesto, long tick, double x0, double y0, double vx, double vy0,
+                                      int largura, int alturaChao) {
+        return passosAteCesta(cesto, tick, x0, y0, vx, vy0, largura, alturaChao) != SEM_IMPACTO;
+    }
+
+    private static boolean tocaAro(Cesto cesto, long tick, double x, double y, double vy) {
+        double xAro = cesto.xAroInicio + cesto.deslocamentoX(tick);
+        double yAro = cesto.yAro + cesto.deslocamentoY(tick);
+        return x + Bola.RAIO_BOLA > xAro && x - Bola.RAIO_BOLA < xAro + Cesto.LARGURA_ARO
+            && y + Bola.RAIO_BOLA > yAro && y + Bola.RAIO_BOLA < yAro + Cesto.ALTURA_ARO && vy > 0;
+    }
+
+    // A face da tabela virada para o aro, só para uma bola a ir contra ela
+    private static boolean tocaTabela(Cesto cesto, long tick, double x, double y, double vx) {
+        double xTabela = cesto.xTabela + cesto.deslocamentoX(tick);
+        double yTabela = cesto.yTabela + cesto.deslocamentoY(tick);
+        if (y <= yTabela || y >= yTabela + Cesto.ALTURA_TABELA) return false;
+        if (cesto.aroADireita) {
+            return x - Bola.RAIO_BOLA < xTabela + Cesto.LARGURA_TABELA && x > xTabela && vx < 0;
+        }
+        return x + Bola.RAIO_BOLA > xTabela && x < xTabela + Cesto.LARGURA_TABELA && vx > 0;
+    }
+
+    // Extremos da faixa horizontal que a bola pode tocar (tabela, aro e o curso de um cesto móvel)
+    private static double xMinimoFaixa(Cesto cesto) {
+        return Math.min(cesto.xTabela, cesto.xAroInicio) - Bola.RAIO_BOLA - Math.abs(cesto.amplitudeX);
+    }
+
+    private static double xMaximoFaixa(Cesto cesto) {
+        return Math.max(cesto.xTabela + Cesto.LARGURA_TABELA, cesto.xAroFim) + Bola.RAIO_BOLA + Math.abs(cesto.amplitudeX);
+    }
+
+    // Primeiro passo (>= 1) com a bola na faixa, com um passo de folga para os arredondamentos
+    private static int primeiroPassoNaFaixa(Cesto cesto, double x0, double vx) {
+        if (vx == 0) return 1;
+        double borda = vx > 0 ? xMinimoFaixa(cesto) : xMaximoFaixa(cesto);
+        return (int) Math.max(1, Math.ceil((borda - x0) / vx) - 1);
+    }
+
+    // Último passo com a bola na faixa, até ao limite (uma bola parada em x fica lá até ao limite)
+    private static int ultimoPassoNaFaixa(Cesto cesto, double x0, double vx, int limite) {
+        if (vx == 0) {
+            return x0 >= xMinimoFaixa(cesto) && x0 <= xMaximoFaixa(cesto) ? limite : 0;
+        }
+        double borda = vx > 0 ? xMaximoFaixa(cesto) : xMinimoFaixa(cesto);
+        return (int) Math.max(0, Math.min(limite, Math.floor((borda - x0) / vx) + 1));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+// GeradorAleatorio.java
+
+/**
+ * Gerador pseudoaleatório SplitMix64: pequeno, rápido, semeável e divisível.
+ * Cada simulação (ou cada thread) tem o seu próprio gerador, o que torna os
+ * resultados reprodutíveis independentemente da ordem de execução.
+ */
+public final class GeradorAleatorio {
+
+    private static final long GAMA_DOURADA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIDADE = 0x1.0p-53;
+
+    private long estado;
+
+    public GeradorAleatorio(long semente) {
+        this.estado = semente;
+    }
+
+    public GeradorAleatorio() {
+        this(misturar(System.nanoTime()));
+    }
+
+    public long proximoLong() {
+        return misturar(estado += GAMA_DOURADA);
+    }
+
+    /**
+     * @return Um double uniforme em [0, 1).
+     */
+    public double proximoDouble() {
+        return (proximoLong() >>> 11) * DOUBLE_UNIDADE;
+    }
+
+    /**
+     * @return Um double com distribuição normal padrão (método polar de Marsaglia).
+     * O segundo valor do par é descartado, para o estado continuar a ser só o long.
+     */
+    public double proximoGaussiano() {
+        double u, v, s;
+        do {
+            u = 2 * proximoDouble() - 1;
+            v = 2 * proximoDouble() - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        // StrictMath: a mesma sequência em qualquer JVM (o Math.log pode variar no último bit)
+        return u * Math.sqrt(-2 * StrictMath.log(s) / s);
+    }
+
+    /**
+     * Cria um gerador independente a partir deste (ex: um por tarefa paralela).
+     */
+    public GeradorAleatorio dividir() {
+        return new GeradorAleatorio(proximoLong());
+    }
+
+    /**
+     * Deriva uma semente independente para o índice dado, sem estado partilhado.
+     */
+    public static long derivarSemente(long semente, long indice) {
+        return misturar(semente + GAMA_DOURADA * (indice + 1));
+    }
+
+    /**
+     * Junta um valor a um hash acumulado (para os hashes de estado da simulação).
+     */
+    public static long combinar(long hash, long valor) {
+        return misturar((hash ^ valor) + GAMA_DOURADA);
+    }
+
+    public long getEstado() {
+        return estado;
+    }
+
+    public void setEstado(long estado) {
+        this.estado = estado;
+    }
+
+    // Função de finalização do SplitMix64 (Stafford, variante 13)
+    private static long misturar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+// GerenciadorAudio.java
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.sound.sampled.*;
+
+/**
+ * Gerencia os efeitos sonoros do jogo. Os ficheiros WAV são descodificados uma
+ * única vez no arranque para buffers PCM, e cada som tem um pequeno conjunto
+ * fixo de Clips já abertos que são reutilizados em rotação. A reprodução corre
+ * numa thread dedicada, fora da EDT e do game loop.
+ *
+ * Os sons da física vêm do BarramentoEventos: o consumidor junta cada lote e
+ * pede no máximo um som de cada tipo por lote (vários ressaltos no aro no
+ * mesmo frame soam uma vez).
+ */
+public class GerenciadorAudio implements AutoCloseable, BarramentoEventos.Tratador {
+
+    /**
+     * Os sons do jogo e os respetivos ficheiros.
+     */
+    public enum Som {
+        COLISAO("colisao.wav"),
+        PONTO("ponto.wav"),
+        REINICIAR("reiniciar.wav");
+
+        final String ficheiro;
+
+        Som(String ficheiro) {
+            this.ficheiro = ficheiro;
+        }
+    }
+
+    // Clips por som: permite sobrepor ressaltos rápidos no aro sem abrir novas linhas
+    private static final int CLIPS_POR_SOM = 4;
+    // Tempo máximo à espera dos sons já pedidos ao fechar
+    private static final long ESPERA_FECHO_MS = 500;
+
+    private final Clip[][] clips = new Clip[Som.values().length][];
+    private final int[] proximoClip = new int[Som.values().length];
+    // Uma tarefa pré-criada por som (evita alocar um Runnable por evento)
+    private final Runnable[] tarefas = new Runnable[Som.values().length];
+    private final ExecutorService executor;
+    // Contagem de sons tocados (opcional)
+    private volatile MetricasJogo metricas;
+    // Eventos do lote em curso (thread do consumidor de eventos)
+    private int eventosNoLote = 0;
+
+    public GerenciadorAudio() {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "audio");
+            t.setDaemon(true);
+            return t;
+        });
+        for (Som som : Som.values()) {
+            clips[som.ordinal()] = carregar(som);
+            tarefas[som.ordinal()] = () -> tocarAgora(som);
+        }
+    }
+
+    public void setMetricas(MetricasJogo metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Pede a reprodução do som. Retorna imediatamente; o som toca na thread de áudio.
+     */
+    public void tocar(Som som) {
+        if (clips[som.ordinal()] == null) return;
+        try {
+            executor.execute(tarefas[som.ordinal()]);
+        } catch (RejectedExecutionException e) {
+            // Já a fechar: o som perde-se
+        }
+    }
+
+    @Override
+    public void tratar(int eventos, long tick, double x, double y, double velX, double velY, int pontuacao, int nivel) {
+        eventosNoLote |= eventos;
+    }
+
+    @Override
+    public void fimDoLote() {
+        // Ressaltos no cesto (tabela e aro) e nos obstáculos; o chão e as paredes não têm som
+        if ((eventosNoLote & Simulacao.EVENTO_COLISAO) != 0) tocar(Som.COLISAO);
+        if ((eventosNoLote & Simulacao.EVENTO_PONTO) != 0) tocar(Som.PONTO);
+        eventosNoLote = 0;
+    }
+
+    // Corre na thread de áudio: reinicia o próximo Clip do conjunto
+    private void tocarAgora(Som som) {
+        Clip[] conjunto = clips[som.ordinal()];
+        int i = proximoClip[som.ordinal()];
+        proximoClip[som.ordinal()] = (i + 1) % conjunto.length;
+
+        Clip clip = conjunto[i];
+        clip.stop();
+        clip.setFramePosition(0);
+        clip.start();
+
+        MetricasJogo m = metricas;
+        if (m != null) m.contarSom();
+    }
+
+    /**
+     * Descodifica o ficheiro para PCM e abre o conjunto de Clips com esse buffer.
+     * @return Os Clips, ou null se o som não estiver disponível.
+     */
+    private static Clip[] carregar(Som som) {
+        File somFile = new File(som.ficheiro);
+        if (!somFile.exists()) return null;
+
+        Clip[] conjunto = new Clip[CLIPS_POR_SOM];
+        try (AudioInputStream original = AudioSystem.getAudioInputStream(somFile);
+             AudioInputStream pcm = paraPcm(original)) {
+            AudioFormat formato = pcm.getFormat();
+            byte[] dados = pcm.readAllBytes();
+
+            for (int i = 0; i < CLIPS_POR_SOM; i++) {
+                conjunto[i] = AudioSystem.getClip();
+                conjunto[i].open(formato, dados, 0, dados.length);
+            }
+            return conjunto;
+        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException | IllegalArgumentException e) {
+            // Silencioso se o ficheiro não puder ser usado (ex: sem dispositivo de áudio)
+            for (Clip clip : conjunto) {
+                if (clip != null) clip.close();
+            }
+            return null;
+        }
+    }
+
+    private static AudioInputStream paraPcm(AudioInputStream entrada) {
+        AudioFormat formato = entrada.getFormat();
+        if (formato.getEncoding() == AudioFormat.Encoding.PCM_SIGNED
+            || formato.getEncoding() == AudioFormat.Encoding.PCM_UNSIGNED) {
+            return entrada;
+        }
+        AudioFormat alvo = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, formato.getSampleRate(), 16,
+            formato.getChannels(), formato.getChannels() * 2, formato.getSampleRate(), false);
+        return AudioSystem.getAudioInputStream(alvo, entrada);
+    }
+
+    /**
+     * Espera que a thread de áudio acabe os sons pedidos e só depois fecha os Clips
+     * (se a fila não esvaziar a tempo, descarta o resto e espera pelo som em curso).
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(ESPERA_FECHO_MS, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+                executor.awaitTermination(ESPERA_FECHO_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Clip[] conjunto : clips) {
+            if (conjunto == null) continue;
+            for (Clip clip : conjunto) {
+                clip.close();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+// GravadorSessao.java
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Grava as entradas de uma sessão num ficheiro binário compacto, só de
+ * acrescento, através de um FileChannel com buffer. Cada evento leva o tick
+ * da Simulacao em que foi aplicado, o que permite ao ReprodutorSessao
+ * repetir a sessão sem ninguém ao rato. Os lançamentos e o fim levam também
+ * o Simulacao.hashEstado desse tick, que o ReprodutorSessao compara bit a bit.
+ * Com uma chave de verificação (dada por quem vai verificar a sessão, e que
+ * não fica no ficheiro) os hashes vão selados com HMAC-SHA256: sem a chave não
+ * se consegue refazê-los depois de mexer na gravação.
+ *
+ * Formato (big-endian):
+ *   Cabeçalho: "BASQ" | versão (byte) | semente (long) | nível inicial (byte) | opções (byte)
+ *              [ tamanho (int) | texto da Quadra (UTF-8) ]  só com OPCAO_QUADRA
+ *   Evento:    tipo (byte) | tick (int) | dados do tipo
+ */
+public class GravadorSessao implements AutoCloseable {
+
+    // --- Formato do Ficheiro ---
+    static final int MAGIA = 0x42415351; // "BASQ"
+    static final byte VERSAO = 4;
+    // A versão 3 não tem os hashes de estado
+    static final byte VERSAO_SEM_HASH = 3;
+    // A versão 2 tem o byte de opções, mas nunca a quadra
+    static final byte VERSAO_SEM_QUADRA = 2;
+    // A versão 1 não tem o byte de opções (sempre colisão discreta)
+    static final byte VERSAO_SEM_OPCOES = 1;
+
+    // Opções da simulação (bitmask no cabeçalho)
+    static final byte OPCAO_COLISAO_CONTINUA = 1;
+    // A sessão usa uma quadra carregada de ficheiro (o texto vai no cabeçalho)
+    static final byte OPCAO_QUADRA = 2;
+    // Os hashes de estado estão selados com a chave de verificação
+    static final byte OPCAO_HASH_SELADO = 4;
+
+    static final byte EVENTO_LANCAMENTO = 1;      // dx (int) | dy (int) | estado do gerador (long) | hash (long)
+    static final byte EVENTO_DIFICULDADE = 2;     // nível (byte)
+    static final byte EVENTO_REINICIAR_BOLA = 3;  // sem dados
+    static final byte EVENTO_ZERAR_PONTUACAO = 4; // sem dados
+    static final byte EVENTO_FIM = 5;             // pontuação final (int) | hash (long)
+
+    private static final int TAMANHO_BUFFER = 8 * 1024;
+    private static final String ALGORITMO_SELO = "HmacSHA256";
+
+    private final FileChannel canal;
+    // null = hashes sem chave
+    private final Mac selo;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    private boolean fechado = false;
+
+    /**
+     * @param quadra A quadra da sessão; a padrão não é gravada.
+     * @param chave  Chave de verificação para selar os hashes (null = sem selo).
+     */
+    public GravadorSessao(Path ficheiro, long semente, NivelDificuldade nivelInicial, boolean colisaoContinua,
+            Quadra quadra, byte[] chave) throws IOException {
+        this.selo = chave == null ? null : criarSelo(chave);
+        byte[] textoQuadra = quadra.isPadrao() ? null : quadra.getTexto().getBytes(StandardCharsets.UTF_8);
+        if (textoQuadra != null && textoQuadra.length > TAMANHO_BUFFER - 64) {
+            throw new IOException("Quadra demasiado grande para gravar (" + textoQuadra.length + " bytes)");
+        }
+        this.canal = FileChannel.open(ficheiro,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        byte opcoes = (byte) ((colisaoContinua ? OPCAO_COLISAO_CONTINUA : 0) | (textoQuadra != null ? OPCAO_QUADRA : 0)
+            | (selo != null ? OPCAO_HASH_SELADO : 0));
+        buffer.putInt(MAGIA).put(VERSAO).putLong(semente).put((byte) nivelInicial.ordinal()).put(opcoes);
+        if (textoQuadra != null) {
+            buffer.putInt(textoQuadra.length).put(textoQuadra);
+        }
+    }
+
+    /**
+     * @param hashEstado O Simulacao.hashEstado antes do lançamento.
+     */
+    public synchronized void registarLancamento(long tick, int dxArrasto, int dyArrasto, long estadoGerador,
+            long hashEstado) {
+        if (!reservar(29)) return;
+        buffer.put(EVENTO_LANCAMENTO).putInt((int) tick).putInt(dxArrasto).putInt(dyArrasto).putLong(estadoGerador)
+            .putLong(selar(selo, hashEstado));
+    }
+
+    public synchronized void registarDificuldade(long tick, NivelDificuldade nivel) {
+        if (!reservar(6)) return;
+        buffer.put(EVENTO_DIFICULDADE).putInt((int) tick).put((byte) nivel.ordinal());
+    }
+
+    public synchronized void registarReiniciarBola(long tick) {
+        if (!reservar(5)) return;
+        buffer.put(EVENTO_REINICIAR_BOLA).putInt((int) tick);
+    }
+
+    public synchronized void registarZerarPontuacao(long tick) {
+        if (!reservar(5)) return;
+        buffer.put(EVENTO_ZERAR_PONTUACAO).putInt((int) tick);
+    }
+
+    /**
+     * Escreve o evento de fim com a pontuação e o hash finais e fecha o ficheiro.
+     */
+    public synchronized void terminar(long tick, int pontuacaoFinal, long hashEstado) {
+        if (reservar(17)) {
+            buffer.put(EVENTO_FIM).putInt((int) tick).putInt(pontuacaoFinal).putLong(selar(selo, hashEstado));
+        }
+        close();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (fechado) return;
+        fechado = true;
+        try {
+            despejar();
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar gravação: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prepara o HMAC da chave de verificação (o mesmo no GravadorSessao e no ReprodutorSessao).
+     */
+    static Mac criarSelo(byte[] chave) {
+        if (chave.length == 0) throw new IllegalArgumentException("Chave de verificação vazia");
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO_SELO);
+            mac.init(new SecretKeySpec(chave, ALGORITMO_SELO));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC indisponível: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * O valor gravado para um hash de estado: o próprio hash sem selo, ou os
+     * primeiros 8 bytes do seu HMAC.
+     */
+    static long selar(Mac selo, long hashEstado) {
+        if (selo == null) return hashEstado;
+        for (int i = 56; i >= 0; i -= 8) {
+            selo.update((byte) (hashEstado >>> i));
+        }
+        return ByteBuffer.wrap(selo.doFinal()).getLong();
+    }
+
+    // Garante espaço no buffer, escrevendo-o no canal se necessário
+    private boolean reservar(int bytes) {
+        if (fechado) return false;
+        if (buffer.remaining() < bytes) {
+            try {
+                despejar();
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar sessão: " + e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void despejar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+// InstantaneoRede.java
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Estado de uma Partida quantizado para a rede: por jogador, a posição em
+ * 1/8 de pixel, a velocidade em 1/64 de pixel por passo, se a bola está em
+ * movimento, os pontos e os lançamentos que faltam.
+ *
+ * Cada INSTANTANEO é o delta em relação ao anterior que os dois lados já têm.
+ * A posição e a velocidade não são comparadas com o valor anterior, mas com a
+ * sua extrapolação (o mesmo integrador da Bola, em aritmética inteira, igual
+ * nos dois lados): em voo livre só a gravidade atua e o resíduo é zero, por
+ * isso um instantâneo de uma bola a voar cabe em poucos bytes. Os campos sem
+ * resíduo nem entram: uma máscara por jogador diz quais vêm a seguir.
+ */
+public final class InstantaneoRede {
+
+    public static final int JOGADORES = Partida.JOGADORES;
+
+    // --- Campos (por jogador) ---
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int VEL_X = 2;
+    public static final int VEL_Y = 3;
+    public static final int MOVIMENTO = 4;
+    public static final int PONTOS = 5;
+    public static final int RESTANTES = 6;
+    public static final int CAMPOS = 7;
+
+    // --- Quantização ---
+    public static final int ESCALA_POSICAO = 8;
+    public static final int ESCALA_VELOCIDADE = 64;
+    // Gravidade por passo em unidades de velocidade (0,5 px/passo² * 64)
+    private static final int GRAVIDADE = (int) (FisicaUtil.GRAVIDADE * ESCALA_VELOCIDADE);
+
+    public long tick;
+    public final int[] valores = new int[JOGADORES * CAMPOS];
+    // Extrapolação da base (reutilizada, sem alocar)
+    private final int[] previsto = new int[JOGADORES * CAMPOS];
+
+    public int get(int jogador, int campo) {
+        return valores[jogador * CAMPOS + campo];
+    }
+
+    /**
+     * Quantiza um estado da partida (o atual no servidor, o previsto no cliente).
+     */
+    public void capturar(EstadoJogo estado) {
+        tick = estado.tick;
+        for (int j = 0; j < JOGADORES; j++) {
+            int base = j * CAMPOS;
+            valores[base + X] = (int) Math.round(estado.getReal(j, EstadoJogo.X) * ESCALA_POSICAO);
+            valores[base + Y] = (int) Math.round(estado.getReal(j, EstadoJogo.Y) * ESCALA_POSICAO);
+            valores[base + VEL_X] = (int) Math.round(estado.getReal(j, EstadoJogo.VEL_X) * ESCALA_VELOCIDADE);
+            valores[base + VEL_Y] = (int) Math.round(estado.getReal(j, EstadoJogo.VEL_Y) * ESCALA_VELOCIDADE);
+            valores[base + MOVIMENTO] = (int) estado.getInteiro(j, EstadoJogo.MOVIMENTO);
+            valores[base + PONTOS] = (int) estado.getInteiro(j, EstadoJogo.PONTOS);
+            valores[base + RESTANTES] = (int) estado.getInteiro(j, EstadoJogo.RESTANTES);
+        }
+    }
+
+    public void copiarDe(InstantaneoRede outro) {
+        tick = outro.tick;
+        System.arraycopy(outro.valores, 0, valores, 0, valores.length);
+    }
+
+    public void zerar() {
+        tick = 0;
+        Arrays.fill(valores, 0);
+    }
+
+    public double getX(int jogador) { return get(jogador, X) / (double) ESCALA_POSICAO; }
+    public double getY(int jogador) { return get(jogador, Y) / (double) ESCALA_POSICAO; }
+    public double getVelX(int jogador) { return get(jogador, VEL_X) / (double) ESCALA_VELOCIDADE; }
+    public double getVelY(int jogador) { return get(jogador, VEL_Y) / (double) ESCALA_VELOCIDADE; }
+
+    // --- Delta ---
+
+    /**
+     * Escreve o conteúdo de um INSTANTANEO com o delta de base para este
+     * (este tem de ser mais recente que a base).
+     * @return false se o delta não muda nada além do tick (tudo igual à
+     *         extrapolação): quem envia pode descartá-lo.
+     */
+    public boolean escreverDelta(InstantaneoRede base, ByteBuffer destino) {
+        int passos = (int) (tick - base.tick);
+        base.extrapolar(passos, previsto);
+
+        boolean mudou = false;
+        ProtocoloRede.escreverVarint(destino, passos);
+        for (int j = 0; j < JOGADORES; j++) {
+            int base0 = j * CAMPOS;
+            int mascara = 0;
+            for (int c = 0; c < CAMPOS; c++) {
+                if (valores[base0 + c] != previsto[base0 + c]) mascara |= 1 << c;
+            }
+            destino.put((byte) mascara);
+            for (int c = 0; c < CAMPOS; c++) {
+                if ((mascara & (1 << c)) != 0) {
+                    ProtocoloRede.escreverVarintComSinal(destino, valores[base0 + c] - previsto[base0 + c]);
+                }
+            }
+            mudou |= mascara != 0;
+        }
+        return mudou;
+    }
+
+    /**
+     * Aplica a este estado (a base) o delta de um INSTANTANEO.
+     */
+    public void lerDelta(ByteBuffer origem) {
+        int passos = (int) ProtocoloRede.lerVarint(origem);
+        extrapolar(passos, previsto);
+        tick += passos;
+        for (int j = 0; j < JOGADORES; j++) {
+            int base0 = j * CAMPOS;
+            int mascara = origem.get() & 0xFF;
+            for (int c = 0; c < CAMPOS; c++) {
+                int residuo = (mascara & (1 << c)) != 0 ? (int) ProtocoloRede.lerVarintComSinal(origem) : 0;
+                valores[base0 + c] = previsto[base0 + c] + residuo;
+            }
+        }
+    }
+
+    /**
+     * Estado previsto daqui a n passos se nada bater (gravidade aplicada antes
+     * do movimento, como na Bola): só a posição e a velocidade vertical mudam.
+     */
+    private void extrapolar(int n, int[] destino) {
+        System.arraycopy(valores, 0, destino, 0, valores.length);
+        for (int j = 0; j < JOGADORES; j++) {
+            int base = j * CAMPOS;
+            if (valores[base + MOVIMENTO] == 0) continue;
+            int vx = valores[base + VEL_X];
+            int vy = valores[base + VEL_Y];
+            // Velocidade em 1/64 px e posição em 1/8 px: deslocamento = v * n / 8
+            long somaVy = (long) vy * n + (long) GRAVIDADE * n * (n + 1) / 2;
+            destino[base + X] = valores[base + X] + (int) Math.floorDiv((long) vx * n, ESCALA_VELOCIDADE / ESCALA_POSICAO);
+            destino[base + Y] = valores[base + Y] + (int) Math.floorDiv(somaVy, ESCALA_VELOCIDADE / ESCALA_POSICAO);
+            destino[base + VEL_Y] = vy + GRAVIDADE * n;
+        }
+    }
+}
\ No newline at end of file
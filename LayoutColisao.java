@@ -0,0 +1,307 @@
+// LayoutColisao.java
+
+import java.util.Arrays;
+
+/**
+ * Geometria de uma Quadra compilada para a fase de colisão: um array plano
+ * de primitivas (tipo inteiro + DADOS_POR_PRIMITIVA doubles seguidos), que a
+ * ColisaoContinua percorre com um switch, sem objetos nem chamadas virtuais
+ * no laço do passo. As primitivas são:
+ *   - FACE_X / FACE_Y: face de um só lado, como plano do centro da bola
+ *     (c, mínimo e máximo na outra coordenada, sentido de aproximação);
+ *   - PONTO / PONTO_ARO: círculo de contacto (centro, raio já somado ao da
+ *     bola, e direção do lado que não conta; o aro tem atrito).
+ * A ordem conta para os empates: primeiro a tabela, depois os cantos e as pontas do aro.
+ *
+ * As primitivas estão agrupadas em blocos (um por cesto ou obstáculo), cada
+ * um com a caixa que contém todas as posições de contacto do centro da bola:
+ * o kernel só olha para as primitivas dos blocos cuja caixa o passo atravessa.
+ *
+ * Os cestos móveis formam grupos: atualizar(tick) reescreve as posições das
+ * suas primitivas a partir das posições base, antes do passo.
+ */
+public final class LayoutColisao {
+
+    private static final double RAIO = Bola.RAIO_BOLA;
+
+    // --- Tipos de Primitiva ---
+    static final int FACE_X = 1;
+    static final int FACE_Y = 2;
+    static final int PONTO = 3;
+    static final int PONTO_ARO = 4;
+
+    // --- Dados de cada Primitiva (deslocamentos dentro do bloco) ---
+    static final int DADOS_POR_PRIMITIVA = 6;
+    // Faces: plano, mínimo e máximo na outra coordenada, sentido (+1 ou -1)
+    static final int C = 0, MINIMO = 1, MAXIMO = 2, SENTIDO = 3;
+    // Pontos: centro, raio de contacto, lado excluído (o contacto não conta se n·(ax, ay) > 0)
+    static final int CX = 0, CY = 1, R = 2, AX = 3, AY = 4;
+    // Ambos: coeficiente de restituição
+    static final int COEF = 5;
+
+    // --- Linhas de Cesto (y, x mínimo, x máximo) ---
+    static final int DADOS_POR_LINHA = 3;
+
+    // --- Caixas dos Blocos (x mínimo, x máximo, y mínimo, y máximo) ---
+    static final int DADOS_POR_CAIXA = 4;
+    // Folga das caixas: cobre os arredondamentos do ponto de contacto
+    private static final double FOLGA_CAIXA = 1.0;
+
+    final int largura;
+    final int alturaChao;
+
+    final int quantidade;
+    final int[] tipos;
+    final int[] eventos;
+    final double[] dados;
+    final int quantidadeLinhas;
+    final double[] linhas;
+    final int quantidadeBlocos;
+    // Primitivas do bloco b: [inicioBloco[b], inicioBloco[b + 1])
+    final int[] inicioBloco;
+    final double[] caixas;
+
+    // --- Movimento (grupo 0 = fixo; grupo g = cesto móvel g - 1) ---
+    private final Cesto[] cestosMoveis;
+    private final int[] grupos;
+    private final int[] gruposLinha;
+    private final double[] dadosBase;
+    private final double[] linhasBase;
+    private final int[] gruposBloco;
+    private final double[] caixasBase;
+    private long tickAtual = Long.MIN_VALUE;
+
+    // Construção incremental (só no construtor)
+    private int n = 0, nLinhas = 0, nBlocos = 0;
+
+    LayoutColisao(Quadra quadra) {
+        this.largura = quadra.getLargura();
+        this.alturaChao = quadra.getAlturaChao();
+
+        int maximoPrimitivas = 5 * quadra.getCestos().size() + 8 * quadra.getObstaculos().size();
+        this.tipos = new int[maximoPrimitivas];
+        this.eventos = new int[maximoPrimitivas];
+        this.grupos = new int[maximoPrimitivas];
+        this.dados = new double[maximoPrimitivas * DADOS_POR_PRIMITIVA];
+        this.linhas = new double[quadra.getCestos().size() * DADOS_POR_LINHA];
+        this.gruposLinha = new int[quadra.getCestos().size()];
+        int maximoBlocos = quadra.getCestos().size() + quadra.getObstaculos().size();
+        this.inicioBloco = new int[maximoBlocos + 1];
+        this.gruposBloco = new int[maximoBlocos];
+        this.caixas = new double[maximoBlocos * DADOS_POR_CAIXA];
+
+        int moveis = 0;
+        for (Cesto cesto : quadra.getCestos()) {
+            if (cesto.isMovel()) moveis++;
+        }
+        this.cestosMoveis = new Cesto[moveis];
+        moveis = 0;
+        for (Cesto cesto : quadra.getCestos()) {
+            int grupo = 0;
+            if (cesto.isMovel()) {
+                cestosMoveis[moveis] = cesto;
+                grupo = ++moveis;
+            }
+            compilarCesto(cesto, grupo);
+            fecharBloco(grupo);
+        }
+        for (Quadra.Obstaculo obstaculo : quadra.getObstaculos()) {
+            compilarObstaculo(obstaculo);
+            fecharBloco(0);
+        }
+        this.quantidade = n;
+        this.quantidadeLinhas = nLinhas;
+        this.quantidadeBlocos = nBlocos;
+        this.dadosBase = Arrays.copyOf(dados, dados.length);
+        this.linhasBase = Arrays.copyOf(linhas, linhas.length);
+        this.caixasBase = Arrays.copyOf(caixas, caixas.length);
+    }
+
+    // Fecha o bloco com as primitivas acrescentadas desde o anterior e calcula a sua caixa
+    private void fecharBloco(int grupo) {
+        int inicio = inicioBloco[nBlocos];
+        double xMin = Double.POSITIVE_INFINITY, xMax = Double.NEGATIVE_INFINITY;
+        double yMin = Double.POSITIVE_INFINITY, yMax = Double.NEGATIVE_INFINITY;
+        for (int i = inicio; i < n; i++) {
+            int base = i * DADOS_POR_PRIMITIVA;
+            switch (tipos[i]) {
+                case FACE_X:
+                    xMin = Math.min(xMin, dados[base + C]);
+                    xMax = Math.max(xMax, dados[base + C]);
+                    yMin = Math.min(yMin, dados[base + MINIMO]);
+                    yMax = Math.max(yMax, dados[base + MAXIMO]);
+                    break;
+                case FACE_Y:
+                    yMin = Math.min(yMin, dados[base + C]);
+                    yMax = Math.max(yMax, dados[base + C]);
+                    xMin = Math.min(xMin, dados[base + MINIMO]);
+                    xMax = Math.max(xMax, dados[base + MAXIMO]);
+                    break;
+                default:
+                    double r = dados[base + R];
+                    xMin = Math.min(xMin, dados[base + CX] - r);
+                    xMax = Math.max(xMax, dados[base + CX] + r);
+                    yMin = Math.min(yMin, dados[base + CY] - r);
+                    yMax = Math.max(yMax, dados[base + CY] + r);
+            }
+        }
+        int caixa = nBlocos * DADOS_POR_CAIXA;
+        caixas[caixa] = xMin - FOLGA_CAIXA;
+        caixas[caixa + 1] = xMax + FOLGA_CAIXA;
+        caixas[caixa + 2] = yMin - FOLGA_CAIXA;
+        caixas[caixa + 3] = yMax + FOLGA_CAIXA;
+        gruposBloco[nBlocos] = grupo;
+        inicioBloco[++nBlocos] = n;
+    }
+
+    // Tabela (face e dois cantos, só do lado do aro), pontas do aro e linha do cesto
+    private void compilarCesto(Cesto cesto, int grupo) {
+        double e = Cesto.COEF_RESTITUICAO;
+        double sentido = cesto.aroADireita ? -1 : 1;
+        double xFace = cesto.aroADireita ? cesto.xTabela + Cesto.LARGURA_TABELA : cesto.xTabela;
+        double yTopo = cesto.yTabela;
+        double yBase = cesto.yTabela + Cesto.ALTURA_TABELA;
+        int eventoTabela = Simulacao.EVENTO_TABELA | Simulacao.EVENTO_COLISAO;
+        int eventoAro = Simulacao.EVENTO_ARO | Simulacao.EVENTO_COLISAO;
+
+        face(FACE_X, xFace - sentido * RAIO, yTopo, yBase, sentido, e, eventoTabela, grupo);
+        ponto(PONTO, xFace, yTopo, RAIO, sentido, 0, e, eventoTabela, grupo);
+        ponto(PONTO, xFace, yBase, RAIO, sentido, 0, e, eventoTabela, grupo);
+
+        double raioPonta = Cesto.ALTURA_ARO / 2.0;
+        double yPonta = cesto.yAro + raioPonta;
+        ponto(PONTO_ARO, cesto.xAroInicio + raioPonta, yPonta, RAIO + raioPonta, 0, 1, e, eventoAro, grupo);
+        ponto(PONTO_ARO, cesto.xAroFim - raioPonta, yPonta, RAIO + raioPonta, 0, 1, e, eventoAro, grupo);
+
+        int base = nLinhas * DADOS_POR_LINHA;
+        linhas[base] = cesto.yAro + Cesto.ALTURA_ARO / 2.0;
+        linhas[base + 1] = cesto.xAroInicio;
+        linhas[base + 2] = cesto.xAroFim;
+        gruposLinha[nLinhas++] = grupo;
+    }
+
+    // Retângulo: quatro faces e quatro cantos; círculo: um ponto sem lado excluído
+    private void compilarObstaculo(Quadra.Obstaculo o) {
+        double e = Quadra.COEF_RESTITUICAO_OBSTACULO;
+        int evento = Simulacao.EVENTO_OBSTACULO | Simulacao.EVENTO_COLISAO;
+        if (o.circulo) {
+            ponto(PONTO, o.x, o.y, RAIO + o.raio, 0, 0, e, evento, 0);
+            return;
+        }
+        double x0 = o.x, x1 = o.x + o.largura, y0 = o.y, y1 = o.y + o.altura;
+        face(FACE_Y, y0 - RAIO, x0, x1, 1, e, evento, 0);
+        face(FACE_Y, y1 + RAIO, x0, x1, -1, e, evento, 0);
+        face(FACE_X, x0 - RAIO, y0, y1, 1, e, evento, 0);
+        face(FACE_X, x1 + RAIO, y0, y1, -1, e, evento, 0);
+        ponto(PONTO, x0, y0, RAIO, 0, 0, e, evento, 0);
+        ponto(PONTO, x1, y0, RAIO, 0, 0, e, evento, 0);
+        ponto(PONTO, x0, y1, RAIO, 0, 0, e, evento, 0);
+        ponto(PONTO, x1, y1, RAIO, 0, 0, e, evento, 0);
+    }
+
+    private void face(int tipo, double c, double minimo, double maximo, double sentido, double coef, int evento, int grupo) {
+        int base = adicionar(tipo, evento, grupo);
+        dados[base + C] = c;
+        dados[base + MINIMO] = minimo;
+        dados[base + MAXIMO] = maximo;
+        dados[base + SENTIDO] = sentido;
+        dados[base + COEF] = coef;
+    }
+
+    private void ponto(int tipo, double cx, double cy, double r, double ax, double ay, double coef, int evento, int grupo) {
+        int base = adicionar(tipo, evento, grupo);
+        dados[base + CX] = cx;
+        dados[base + CY] = cy;
+        dados[base + R] = r;
+        dados[base + AX] = ax;
+        dados[base + AY] = ay;
+        dados[base + COEF] = coef;
+    }
+
+    private int adicionar(int tipo, int evento, int grupo) {
+        tipos[n] = tipo;
+        eventos[n] = evento;
+        grupos[n] = grupo;
+        return n++ * DADOS_POR_PRIMITIVA;
+    }
+
+    /**
+     * Coloca os cestos móveis na posição do tick. A posição é função do tick
+     * (não do passo anterior), por isso saltar ticks (Simulacao.simularAteTick)
+     * dá o mesmo resultado. Sem cestos móveis não faz nada e o layout pode ser
+     * partilhado entre threads.
+     */
+    public void atualizar(long tick) {
+        if (cestosMoveis.length == 0 || tick == tickAtual) return;
+        reposicionar(tick);
+    }
+
+    // Parte pesada do atualizar, fora dele para o teste de cima ser inlined no passo
+    private void reposicionar(long tick) {
+        tickAtual = tick;
+
+        for (int i = 0; i < quantidade; i++) {
+            int g = grupos[i];
+            if (g == 0) continue;
+            double dx = cestosMoveis[g - 1].deslocamentoX(tick);
+            double dy = cestosMoveis[g - 1].deslocamentoY(tick);
+            int base = i * DADOS_POR_PRIMITIVA;
+            switch (tipos[i]) {
+                case FACE_X:
+                    dados[base + C] = dadosBase[base + C] + dx;
+                    dados[base + MINIMO] = dadosBase[base + MINIMO] + dy;
+                    dados[base + MAXIMO] = dadosBase[base + MAXIMO] + dy;
+                    break;
+                case FACE_Y:
+                    dados[base + C] = dadosBase[base + C] + dy;
+                    dados[base + MINIMO] = dadosBase[base + MINIMO] + dx;
+                    dados[base + MAXIMO] = dadosBase[base + MAXIMO] + dx;
+                    break;
+                default:
+                    dados[base + CX] = dadosBase[base + CX] + dx;
+                    dados[base + CY] = dadosBase[base + CY] + dy;
+            }
+        }
+        for (int b = 0; b < quantidadeBlocos; b++) {
+            int g = gruposBloco[b];
+            if (g == 0) continue;
+            int caixa = b * DADOS_POR_CAIXA;
+            double dx = cestosMoveis[g - 1].deslocamentoX(tick);
+            double dy = cestosMoveis[g - 1].deslocamentoY(tick);
+            caixas[caixa] = caixasBase[caixa] + dx;
+            caixas[caixa + 1] = caixasBase[caixa + 1] + dx;
+            caixas[caixa + 2] = caixasBase[caixa + 2] + dy;
+            caixas[caixa + 3] = caixasBase[caixa + 3] + dy;
+        }
+        for (int i = 0; i < quantidadeLinhas; i++) {
+            int g = gruposLinha[i];
+            if (g == 0) continue;
+            int base = i * DADOS_POR_LINHA;
+            double dx = cestosMoveis[g - 1].deslocamentoX(tick);
+            linhas[base] = linhasBase[base] + cestosMoveis[g - 1].deslocamentoY(tick);
+            linhas[base + 1] = linhasBase[base + 1] + dx;
+            linhas[base + 2] = linhasBase[base + 2] + dx;
+        }
+    }
+
+    /**
+     * Versão varrida da pontuação: verifica se o segmento percorrido pelo
+     * centro da bola cruza alguma linha de cesto a descer, entre as pontas do
+     * aro. Não precisa de estado, por isso um lançamento rápido que atravessa
+     * a linha num só passo também conta.
+     */
+    public boolean cruzaLinhaCesto(double x0, double y0, double x1, double y1) {
+        for (int i = 0; i < quantidadeLinhas; i++) {
+            int base = i * DADOS_POR_LINHA;
+            double y = linhas[base];
+            if (y0 > y || y1 <= y) continue;
+
+            double xCruzamento = x0 + (x1 - x0) * (y - y0) / (y1 - y0);
+            if (xCruzamento > linhas[base + 1] && xCruzamento < linhas[base + 2]) return true;
+        }
+        return false;
+    }
+
+    public boolean temMovimento() { return cestosMoveis.length > 0; }
+    public int getQuantidade() { return quantidade; }
+}
\ No newline at end of file
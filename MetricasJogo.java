@@ -0,0 +1,298 @@
+// MetricasJogo.java
+
+import java.awt.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentação leve do jogo: durações de atualização, desenho e colisão do
+ * cesto em Histogramas sem locks, e contadores de frames perdidos, colisões,
+ * pontos e sons. Pode mostrar um overlay no ecrã e despejar periodicamente
+ * (CSV ou linhas JSON) as estatísticas de cada intervalo, incluindo o GC.
+ * As colisões e os pontos chegam como consumidor do BarramentoEventos.
+ */
+public class MetricasJogo implements AutoCloseable, BarramentoEventos.Tratador {
+
+    // Duração nominal de um frame (um passo de física)
+    private static final long PERIODO_NOMINAL_NANOS = 1_000_000_000L / Simulacao.PASSOS_POR_SEGUNDO;
+    // O overlay só recalcula o texto de tempos a tempos (evita alocar em todos os frames)
+    private static final long INTERVALO_OVERLAY_NANOS = 500_000_000L;
+
+    private static final String CABECALHO_CSV = "instante_ms,frames,frames_perdidos,fps,"
+        + "atualizar_p50_us,atualizar_p99_us,atualizar_max_us,"
+        + "desenhar_p50_us,desenhar_p99_us,desenhar_max_us,"
+        + "colisao_p99_ns,colisoes,pontos,sons,gc_colecoes,gc_ms";
+
+    private static final Font FONTE_OVERLAY = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color FUNDO_OVERLAY = new Color(0, 0, 0, 160);
+
+    // --- Histogramas (nanossegundos) ---
+    final Histograma atualizacao = new Histograma();
+    final Histograma desenho = new Histograma();
+    final Histograma colisao = new Histograma();
+
+    // --- Contadores ---
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder framesPerdidos = new LongAdder();
+    private final LongAdder colisoes = new LongAdder();
+    private final LongAdder pontos = new LongAdder();
+    private final LongAdder sons = new LongAdder();
+    // Só escrito pela thread que atualiza o jogo
+    private long ultimoFrameNanos = 0;
+    // Contagens do lote em curso (thread do consumidor de eventos)
+    private int colisoesNoLote = 0, pontosNoLote = 0;
+
+    private final List<GarbageCollectorMXBean> coletores = ManagementFactory.getGarbageCollectorMXBeans();
+
+    // --- Overlay (thread de desenho) ---
+    private final long[] baldesOverlay = new long[Histograma.NUMERO_BALDES];
+    private String[] linhasOverlay = new String[0];
+    private long overlayCalculadoNanos = 0;
+    private long framesNoOverlay = 0;
+
+    // --- Despejo Periódico (thread "metricas") ---
+    private ScheduledExecutorService despejo;
+    private Path ficheiroDespejo;
+    private final Intervalo intervaloAtualizacao = new Intervalo(atualizacao);
+    private final Intervalo intervaloDesenho = new Intervalo(desenho);
+    private final Intervalo intervaloColisao = new Intervalo(colisao);
+    private final long[] contadoresAnteriores = new long[7];
+    private long despejoAnteriorNanos = System.nanoTime();
+
+    // --- Registo ---
+
+    /**
+     * Regista um frame de atualização. Um intervalo desde o frame anterior acima
+     * de 1,5 frames nominais conta os frames em falta como perdidos.
+     */
+    public void registarAtualizacao(long inicioNanos, long fimNanos) {
+        atualizacao.registar(fimNanos - inicioNanos);
+        frames.increment();
+        if (ultimoFrameNanos != 0) {
+            long emFalta = (inicioNanos - ultimoFrameNanos + PERIODO_NOMINAL_NANOS / 2) / PERIODO_NOMINAL_NANOS - 1;
+            if (emFalta > 0) framesPerdidos.add(emFalta);
+        }
+        ultimoFrameNanos = inicioNanos;
+    }
+
+    public void registarDesenho(long nanos) {
+        desenho.registar(nanos);
+    }
+
+    public void registarColisao(long nanos) {
+        colisao.registar(nanos);
+    }
+
+    @Override
+    public void tratar(int eventos, long tick, double x, double y, double velX, double velY, int pontuacao, int nivel) {
+        if ((eventos & Simulacao.EVENTO_COLISAO) != 0) colisoesNoLote++;
+        if ((eventos & Simulacao.EVENTO_PONTO) != 0) pontosNoLote++;
+    }
+
+    @Override
+    public void fimDoLote() {
+        if (colisoesNoLote > 0) colisoes.add(colisoesNoLote);
+        if (pontosNoLote > 0) pontos.add(pontosNoLote);
+        colisoesNoLote = 0;
+        pontosNoLote = 0;
+    }
+
+    public void contarSom() {
+        sons.increment();
+    }
+
+    // --- Overlay ---
+
+    /**
+     * Desenha o resumo (desde o arranque) num quadro semitransparente.
+     * @param x, y Canto inferior esquerdo do quadro.
+     */
+    public void desenharOverlay(Graphics2D g, int x, int y) {
+        long agora = System.nanoTime();
+        if (agora - overlayCalculadoNanos >= INTERVALO_OVERLAY_NANOS) {
+            recalcularOverlay(agora);
+        }
+
+        g.setFont(FONTE_OVERLAY);
+        FontMetrics fm = g.getFontMetrics();
+        int altura = linhasOverlay.length * fm.getHeight() + 10;
+        int largura = 0;
+        for (String linha : linhasOverlay) {
+            largura = Math.max(largura, fm.stringWidth(linha));
+        }
+
+        g.setColor(FUNDO_OVERLAY);
+        g.fillRect(x, y - altura, largura + 12, altura);
+        g.setColor(Color.WHITE);
+        int yLinha = y - altura + 5 + fm.getAscent();
+        for (String linha : linhasOverlay) {
+            g.drawString(linha, x + 6, yLinha);
+            yLinha += fm.getHeight();
+        }
+    }
+
+    private void recalcularOverlay(long agora) {
+        long totalFrames = frames.sum();
+        double fps = overlayCalculadoNanos == 0 ? 0
+            : (totalFrames - framesNoOverlay) * 1e9 / (agora - overlayCalculadoNanos);
+        overlayCalculadoNanos = agora;
+        framesNoOverlay = totalFrames;
+
+        atualizacao.copiar(baldesOverlay);
+        String linhaAtualizar = String.format(Locale.ROOT, "atualizar p50 %6.2f  p99 %6.2f  max %6.2f ms",
+            Histograma.percentil(baldesOverlay, 50) / 1e6, Histograma.percentil(baldesOverlay, 99) / 1e6,
+            atualizacao.getMaximo() / 1e6);
+        desenho.copiar(baldesOverlay);
+        String linhaDesenhar = String.format(Locale.ROOT, "desenhar  p50 %6.2f  p99 %6.2f  max %6.2f ms",
+            Histograma.percentil(baldesOverlay, 50) / 1e6, Histograma.percentil(baldesOverlay, 99) / 1e6,
+            desenho.getMaximo() / 1e6);
+        colisao.copiar(baldesOverlay);
+
+        linhasOverlay = new String[] {
+            String.format(Locale.ROOT, "fps %5.1f  frames %d  perdidos %d", fps, totalFrames, framesPerdidos.sum()),
+            linhaAtualizar,
+            linhaDesenhar,
+            String.format(Locale.ROOT, "colisao   p99 %d ns", Histograma.percentil(baldesOverlay, 99)),
+            String.format(Locale.ROOT, "colisoes %d  pontos %d  sons %d", colisoes.sum(), pontos.sum(), sons.sum()),
+            String.format(Locale.ROOT, "gc %d colecoes, %d ms", contarColecoesGc(), tempoGcMs()),
+        };
+    }
+
+    // --- Despejo Periódico ---
+
+    /**
+     * Começa a acrescentar ao ficheiro, a cada intervalo, uma linha com as
+     * estatísticas desse intervalo. Ficheiros ".json" recebem uma linha JSON por
+     * intervalo; os restantes, CSV com cabeçalho. Faz um último despejo ao sair.
+     */
+    public synchronized void iniciarDespejo(Path ficheiro, long intervaloSegundos) {
+        if (despejo != null) return;
+        this.ficheiroDespejo = ficheiro;
+        this.despejo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metricas");
+            t.setDaemon(true);
+            return t;
+        });
+        despejo.scheduleAtFixedRate(this::despejar, intervaloSegundos, intervaloSegundos, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (despejo == null) return;
+        despejo.shutdownNow();
+        despejo = null;
+        despejar();
+    }
+
+    private synchronized void despejar() {
+        long agora = System.nanoTime();
+        double segundos = (agora - despejoAnteriorNanos) / 1e9;
+        despejoAnteriorNanos = agora;
+
+        intervaloAtualizacao.avancar();
+        intervaloDesenho.avancar();
+        intervaloColisao.avancar();
+        long[] atuais = {
+            frames.sum(), framesPerdidos.sum(), colisoes.sum(), pontos.sum(), sons.sum(),
+            contarColecoesGc(), tempoGcMs()
+        };
+        long[] delta = new long[atuais.length];
+        for (int i = 0; i < atuais.length; i++) {
+            delta[i] = atuais[i] - contadoresAnteriores[i];
+            contadoresAnteriores[i] = atuais[i];
+        }
+        double fps = segundos > 0 ? delta[0] / segundos : 0;
+
+        boolean json = ficheiroDespejo.toString().endsWith(".json");
+        String linha;
+        if (json) {
+            linha = String.format(Locale.ROOT, "{\"instante_ms\":%d,\"frames\":%d,\"frames_perdidos\":%d,\"fps\":%.1f,"
+                    + "\"atualizar_us\":{\"p50\":%.1f,\"p99\":%.1f,\"max\":%.1f},"
+                    + "\"desenhar_us\":{\"p50\":%.1f,\"p99\":%.1f,\"max\":%.1f},"
+                    + "\"colisao_p99_ns\":%d,\"colisoes\":%d,\"pontos\":%d,\"sons\":%d,"
+                    + "\"gc_colecoes\":%d,\"gc_ms\":%d}",
+                System.currentTimeMillis(), delta[0], delta[1], fps,
+                intervaloAtualizacao.p50 / 1e3, intervaloAtualizacao.p99 / 1e3, intervaloAtualizacao.max / 1e3,
+                intervaloDesenho.p50 / 1e3, intervaloDesenho.p99 / 1e3, intervaloDesenho.max / 1e3,
+                intervaloColisao.p99, delta[2], delta[3], delta[4], delta[5], delta[6]);
+        } else {
+            linha = String.format(Locale.ROOT, "%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%d,%d,%d,%d,%d,%d",
+                System.currentTimeMillis(), delta[0], delta[1], fps,
+                intervaloAtualizacao.p50 / 1e3, intervaloAtualizacao.p99 / 1e3, intervaloAtualizacao.max / 1e3,
+                intervaloDesenho.p50 / 1e3, intervaloDesenho.p99 / 1e3, intervaloDesenho.max / 1e3,
+                intervaloColisao.p99, delta[2], delta[3], delta[4], delta[5], delta[6]);
+        }
+
+        try {
+            boolean novo = !Files.exists(ficheiroDespejo) || Files.size(ficheiroDespejo) == 0;
+            try (BufferedWriter out = Files.newBufferedWriter(ficheiroDespejo, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (novo && !json) {
+                    out.write(CABECALHO_CSV);
+                    out.newLine();
+                }
+                out.write(linha);
+                out.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao escrever métricas: " + e.getMessage());
+        }
+    }
+
+    // --- GC ---
+
+    private long contarColecoesGc() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : coletores) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private long tempoGcMs() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : coletores) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Percentis de um histograma só no intervalo desde a última chamada a avancar().
+     */
+    private static final class Intervalo {
+        private final Histograma histograma;
+        private final long[] anterior = new long[Histograma.NUMERO_BALDES];
+        private final long[] baldes = new long[Histograma.NUMERO_BALDES];
+        long p50, p99, max;
+
+        Intervalo(Histograma histograma) {
+            this.histograma = histograma;
+        }
+
+        void avancar() {
+            histograma.copiar(baldes);
+            for (int i = 0; i < baldes.length; i++) {
+                long atual = baldes[i];
+                baldes[i] = atual - anterior[i];
+                anterior[i] = atual;
+            }
+            p50 = Histograma.percentil(baldes, 50);
+            p99 = Histograma.percentil(baldes, 99);
+            max = Histograma.maximo(baldes);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,283 @@
+// MundoBolas.java
+
+import java.awt.Graphics2D;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mundo com milhares de bolas guardadas em arrays primitivos paralelos
+ * (structure-of-arrays), para os modos de lançamento rápido e treino.
+ * Aplica a mesma física da Bola e do Cesto, mas num laço sem alocações:
+ * a integração é um laço reto que o JIT consegue vetorizar e as colisões
+ * ficam num segundo laço escalar. A Bola passa a ser apenas uma vista para desenho.
+ */
+public class MundoBolas {
+
+    private static final int RAIO = Bola.RAIO_BOLA;
+
+    // --- Estado das Bolas (um índice por bola) ---
+    final double[] x, y;
+    final double[] velX, velY;
+    // 1.0 se a bola está em movimento, 0.0 se está parada (máscara da gravidade)
+    final double[] mascara;
+    final boolean[] passouPeloAroTopo;
+    int quantidade = 0;
+
+    // --- Parâmetros do Mundo ---
+    private final int largura;
+    private final int altura;
+    private final int alturaChao;
+    private final double coefRestituicaoChao;
+    private final double coefRestituicaoMapa;
+    // Usa a ColisaoContinua (laço escalar por bola) em vez das regras discretas
+    private boolean colisaoContinua = false;
+    // --- Geometria do Cesto da quadra (mesmas regras do Cesto.verificarColisao) ---
+    private final double tabelaX, tabelaXMax, tabelaY, tabelaYMax;
+    private final double aroX, aroXMax, aroY, aroYMax;
+    private final double linhaCesto;
+    // Quadra padrão compilada (sem cestos móveis: partilhada pelos kernels de todas as threads)
+    private final LayoutColisao layout;
+    // Um kernel da colisão contínua por thread, criado na primeira vez que a thread o usa
+    private final ThreadLocal<ColisaoContinua> kernels;
+    // Somado por todas as threads que avançam intervalos
+    private final LongAdder cestas = new LongAdder();
+
+    public MundoBolas(int capacidade, int largura, int altura, NivelDificuldade nivel) {
+        this.x = new double[capacidade];
+        this.y = new double[capacidade];
+        this.velX = new double[capacidade];
+        this.velY = new double[capacidade];
+        this.mascara = new double[capacidade];
+        this.passouPeloAroTopo = new boolean[capacidade];
+        this.largura = largura;
+        this.altura = altura;
+        this.alturaChao = altura - 10;
+        // Tal como na Simulacao, o chão usa o coeficiente do mapa do nível
+        this.coefRestituicaoChao = nivel.coefRestituicaoMapa;
+        this.coefRestituicaoMapa = nivel.coefRestituicaoMapa;
+        Quadra quadra = Quadra.padrao(largura, altura);
+        Cesto cesto = quadra.getCestos().get(0);
+        this.tabelaX = cesto.xTabela;
+        this.tabelaXMax = cesto.xTabela + Cesto.LARGURA_TABELA;
+        this.tabelaY = cesto.yTabela;
+        this.tabelaYMax = cesto.yTabela + Cesto.ALTURA_TABELA;
+        this.aroX = cesto.xAroInicio;
+        this.aroXMax = cesto.xAroFim;
+        this.aroY = cesto.yAro;
+        this.aroYMax = cesto.yAro + Cesto.ALTURA_ARO;
+        this.linhaCesto = cesto.yAro + Cesto.ALTURA_ARO / 2.0;
+        this.layout = quadra.compilar();
+        this.kernels = ThreadLocal.withInitial(() -> new ColisaoContinua(layout, coefRestituicaoChao, coefRestituicaoMapa));
+    }
+
+    public MundoBolas(int capacidade, NivelDificuldade nivel) {
+        this(capacidade, PainelJogo.LARGURA, PainelJogo.ALTURA, nivel);
+    }
+
+    /**
+     * Liga a colisão contínua. Mais lenta (sem laço de integração vetorizável),
+     * mas nenhuma bola atravessa o aro ou a tabela, seja qual for a velocidade.
+     */
+    public void setColisaoContinua(boolean ligada) {
+        this.colisaoContinua = ligada;
+    }
+
+    /**
+     * Adiciona uma bola já lançada.
+     * @return O índice da bola, ou -1 se o mundo estiver cheio.
+     */
+    public int adicionar(double xInicial, double yInicial, double vx, double vy) {
+        if (quantidade == x.length) return -1;
+        int i = quantidade++;
+        x[i] = xInicial;
+        y[i] = yInicial;
+        velX[i] = vx;
+        velY[i] = vy;
+        mascara[i] = 1.0;
+        passouPeloAroTopo[i] = false;
+        return i;
+    }
+
+    /**
+     * Remove as bolas paradas, compactando os arrays (troca com a última).
+     * @return O número de bolas removidas.
+     */
+    public int removerParadas() {
+        int removidas = 0;
+        for (int i = quantidade - 1; i >= 0; i--) {
+            if (mascara[i] == 0.0) {
+                int ultima = --quantidade;
+                x[i] = x[ultima];
+                y[i] = y[ultima];
+                velX[i] = velX[ultima];
+                velY[i] = velY[ultima];
+                mascara[i] = mascara[ultima];
+                passouPeloAroTopo[i] = passouPeloAroTopo[ultima];
+                removidas++;
+            }
+        }
+        return removidas;
+    }
+
+    /**
+     * Avança todas as bolas um passo fixo.
+     * @return O número de cestas marcadas neste passo.
+     */
+    public int passo() {
+        return passo(0, quantidade);
+    }
+
+    /**
+     * Avança as bolas no intervalo [inicio, fim) um passo fixo. Intervalos
+     * disjuntos podem ser avançados em threads diferentes.
+     * @return O número de cestas marcadas neste passo.
+     */
+    public int passo(int inicio, int fim) {
+        if (colisaoContinua) return passoContinuo(inicio, fim);
+
+        final double[] x = this.x, y = this.y, velX = this.velX, velY = this.velY, mascara = this.mascara;
+
+        // 1. Integração (laço reto, sem ramos: as bolas paradas têm velocidade e máscara zero)
+        for (int i = inicio; i < fim; i++) {
+            velY[i] += FisicaUtil.GRAVIDADE * mascara[i];
+            x[i] += velX[i];
+            y[i] += velY[i];
+        }
+
+        // 2. Colisões e pontuação (apenas bolas em movimento)
+        int pontos = 0;
+        for (int i = inicio; i < fim; i++) {
+            if (mascara[i] == 0.0) continue;
+            double bx = x[i], by = y[i], vx = velX[i], vy = velY[i];
+
+            // Chão (Bola.atualizarPosicao)
+            if (by + RAIO >= alturaChao) {
+                by = alturaChao - RAIO;
+                vy *= -coefRestituicaoChao;
+                if (Math.abs(vy) < 1 && Math.abs(vx) < 1) {
+                    mascara[i] = 0.0;
+                    x[i] = bx;
+                    y[i] = by;
+                    velX[i] = 0;
+                    velY[i] = 0;
+                    continue;
+                }
+            }
+
+            // Paredes e teto (Bola.verificarColisaoMapa)
+            if (bx - RAIO <= 0) {
+                bx = RAIO;
+                vx *= -coefRestituicaoMapa;
+            }
+            if (by - RAIO <= 0) {
+                by = RAIO;
+                vy *= -coefRestituicaoMapa;
+            }
+            if (bx + RAIO >= largura) {
+                bx = largura - RAIO;
+                vx *= -coefRestituicaoMapa;
+            }
+
+            // Tabela e topo do aro (Cesto.verificarColisao)
+            if (bx + RAIO > tabelaX && bx < tabelaXMax && by > tabelaY && by < tabelaYMax && vx > 0) {
+                bx = tabelaX - RAIO;
+                vx *= -Cesto.COEF_RESTITUICAO;
+            }
+            if (bx + RAIO > aroX && bx - RAIO < aroXMax && by + RAIO > aroY && by + RAIO < aroYMax && vy > 0) {
+                by = aroY - RAIO;
+                vy *= -Cesto.COEF_RESTITUICAO;
+                vx *= Cesto.COEF_RESTITUICAO;
+            }
+
+            // Pontuação (Cesto.verificarPontuacao)
+            boolean estaSobreAroX = bx > aroX && bx < aroXMax;
+            if (estaSobreAroX) {
+                if (by < linhaCesto) {
+                    passouPeloAroTopo[i] = true;
+                } else if (passouPeloAroTopo[i] && by > linhaCesto && vy > 0) {
+                    passouPeloAroTopo[i] = false;
+                    pontos++;
+                }
+            }
+
+            x[i] = bx;
+            y[i] = by;
+            velX[i] = vx;
+            velY[i] = vy;
+        }
+        if (pontos != 0) cestas.add(pontos);
+        return pontos;
+    }
+
+    // O kernel é o da thread: intervalos em threads diferentes não partilham estado
+    private int passoContinuo(int inicio, int fim) {
+        ColisaoContinua kernel = kernels.get();
+        int pontos = 0;
+        for (int i = inicio; i < fim; i++) {
+            if (mascara[i] == 0.0) continue;
+            kernel.x = x[i];
+            kernel.y = y[i];
+            kernel.velX = velX[i];
+            kernel.velY = velY[i];
+            kernel.emMovimento = true;
+
+            int eventos = kernel.avancar();
+            if ((eventos & Simulacao.EVENTO_PONTO) != 0) pontos++;
+            if (!kernel.emMovimento) mascara[i] = 0.0;
+
+            x[i] = kernel.x;
+            y[i] = kernel.y;
+            velX[i] = kernel.velX;
+            velY[i] = kernel.velY;
+        }
+        if (pontos != 0) cestas.add(pontos);
+        return pontos;
+    }
+
+    /**
+     * Copia o estado da bola i para uma Bola usada apenas como vista de desenho.
+     */
+    public void copiarPara(int i, Bola vista) {
+        vista.x = x[i];
+        vista.y = y[i];
+        vista.velX = velX[i];
+        vista.velY = velY[i];
+        vista.emMovimento = mascara[i] != 0.0;
+    }
+
+    /**
+     * Desenha todas as bolas reutilizando a mesma vista.
+     */
+    public void desenhar(Graphics2D g, Bola vista) {
+        for (int i = 0; i < quantidade; i++) {
+            copiarPara(i, vista);
+            vista.desenhar(g, altura);
+        }
+    }
+
+    public int getQuantidade() { return quantidade; }
+    public long getCestas() { return cestas.sum(); }
+    public boolean estaEmMovimento(int i) { return mascara[i] != 0.0; }
+
+    // --- Medição rápida: java MundoBolas [bolas] [passos] [continua] ---
+    public static void main(String[] args) {
+        int bolas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int passos = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+
+        MundoBolas mundo = new MundoBolas(bolas, NivelDificuldade.MEDIO);
+        mundo.setColisaoContinua(args.length > 2 && "continua".equals(args[2]));
+        GeradorAleatorio random = new GeradorAleatorio(1);
+        double yInicial = PainelJogo.ALTURA - 10 - RAIO;
+        for (int i = 0; i < bolas; i++) {
+            mundo.adicionar(Simulacao.X_INICIAL, yInicial, 8 + random.proximoDouble() * 10, -12 - random.proximoDouble() * 12);
+        }
+
+        long inicio = System.nanoTime();
+        for (int p = 0; p < passos; p++) {
+            mundo.passo();
+        }
+        double ms = (System.nanoTime() - inicio) / 1e6;
+        System.out.printf(Locale.ROOT, "%d bolas, %d passos: %.3f ms/passo, %d cestas%n",
+            bolas, passos, ms / passos, mundo.getCestas());
+    }
+}
\ No newline at end of file
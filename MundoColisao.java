@@ -0,0 +1,248 @@
+// MundoColisao.java
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Mundo de colisões para o modo "shootout" com muitas bolas: junta ao
+ * MundoBolas (que trata das formas estáticas: chão, paredes, tabela e aro)
+ * as colisões elásticas entre bolas.
+ *
+ * A fase larga é uma grelha uniforme com células do tamanho do diâmetro da
+ * bola, por isso cada bola só pode tocar nas bolas da sua célula e das 8
+ * vizinhas. As listas de cada célula são intrusivas (arrays de índices, sem
+ * objetos) e atualizadas incrementalmente: a cada passo só mudam de lista as
+ * bolas que mudaram de célula. O custo cresce com o número de bolas e não
+ * com o número de pares.
+ */
+public class MundoColisao {
+
+    private static final int RAIO = Bola.RAIO_BOLA;
+    private static final double DIAMETRO = 2.0 * RAIO;
+    // Lado da célula: com o diâmetro, os contactos ficam sempre entre células vizinhas
+    static final int TAMANHO_CELULA = 2 * RAIO;
+    // Fim de lista (célula vazia ou última bola)
+    private static final int NENHUMA = -1;
+    // Coeficiente de restituição entre bolas (1 = perfeitamente elástico)
+    static final double COEF_RESTITUICAO_BOLAS = 1.0;
+    // Abaixo desta velocidade de aproximação o contacto é de repouso (sem ressalto):
+    // evita que os montes de bolas ganhem energia com a gravidade e a separação
+    private static final double VELOCIDADE_CONTACTO_REPOUSO = 2 * FisicaUtil.GRAVIDADE;
+    // Sobreposição ignorada entre duas bolas paradas (deixa os montes assentar)
+    private static final double FOLGA_REPOUSO = 0.5;
+
+    private final MundoBolas mundo;
+
+    // --- Grelha ---
+    private final int colunas;
+    private final int linhas;
+    // Primeira bola de cada célula
+    private final int[] cabeca;
+    // Listas duplamente ligadas por bola (remoção em O(1) quando muda de célula)
+    private final int[] proxima;
+    private final int[] anterior;
+    private final int[] celula;
+
+    private long contactos = 0;
+
+    public MundoColisao(int capacidade, int largura, int altura, NivelDificuldade nivel) {
+        this.mundo = new MundoBolas(capacidade, largura, altura, nivel);
+        this.colunas = largura / TAMANHO_CELULA + 1;
+        this.linhas = altura / TAMANHO_CELULA + 1;
+        this.cabeca = new int[colunas * linhas];
+        this.proxima = new int[capacidade];
+        this.anterior = new int[capacidade];
+        this.celula = new int[capacidade];
+        Arrays.fill(cabeca, NENHUMA);
+    }
+
+    public MundoColisao(int capacidade, NivelDificuldade nivel) {
+        this(capacidade, PainelJogo.LARGURA, PainelJogo.ALTURA, nivel);
+    }
+
+    /**
+     * Adiciona uma bola já lançada e coloca-a na grelha.
+     * @return O índice da bola, ou -1 se o mundo estiver cheio.
+     */
+    public int adicionar(double xInicial, double yInicial, double vx, double vy) {
+        int i = mundo.adicionar(xInicial, yInicial, vx, vy);
+        if (i >= 0) {
+            inserir(i, celulaDe(xInicial, yInicial));
+        }
+        return i;
+    }
+
+    /**
+     * Remove as bolas paradas. A compactação do MundoBolas troca índices,
+     * por isso a grelha é reconstruída (acontece raramente, fora do passo).
+     * @return O número de bolas removidas.
+     */
+    public int removerParadas() {
+        int removidas = mundo.removerParadas();
+        if (removidas > 0) {
+            reconstruirGrelha();
+        }
+        return removidas;
+    }
+
+    /**
+     * Avança um passo: formas estáticas no MundoBolas, atualização da grelha
+     * e resolução dos contactos entre bolas.
+     * @return O número de cestas marcadas neste passo.
+     */
+    public int passo() {
+        int pontos = mundo.passo();
+        atualizarGrelha();
+        resolverContactos();
+        return pontos;
+    }
+
+    // --- Grelha ---
+
+    private int celulaDe(double x, double y) {
+        int cx = Math.max(0, Math.min(colunas - 1, (int) (x / TAMANHO_CELULA)));
+        int cy = Math.max(0, Math.min(linhas - 1, (int) (y / TAMANHO_CELULA)));
+        return cy * colunas + cx;
+    }
+
+    private void inserir(int i, int c) {
+        int primeira = cabeca[c];
+        proxima[i] = primeira;
+        anterior[i] = NENHUMA;
+        if (primeira != NENHUMA) anterior[primeira] = i;
+        cabeca[c] = i;
+        celula[i] = c;
+    }
+
+    private void retirar(int i) {
+        int c = celula[i];
+        if (anterior[i] != NENHUMA) {
+            proxima[anterior[i]] = proxima[i];
+        } else {
+            cabeca[c] = proxima[i];
+        }
+        if (proxima[i] != NENHUMA) anterior[proxima[i]] = anterior[i];
+    }
+
+    // Só as bolas que mudaram de célula mudam de lista
+    private void atualizarGrelha() {
+        final double[] x = mundo.x, y = mundo.y;
+        for (int i = 0, n = mundo.quantidade; i < n; i++) {
+            int c = celulaDe(x[i], y[i]);
+            if (c != celula[i]) {
+                retirar(i);
+                inserir(i, c);
+            }
+        }
+    }
+
+    private void reconstruirGrelha() {
+        Arrays.fill(cabeca, NENHUMA);
+        for (int i = 0, n = mundo.quantidade; i < n; i++) {
+            inserir(i, celulaDe(mundo.x[i], mundo.y[i]));
+        }
+    }
+
+    // --- Contactos ---
+
+    /**
+     * Percorre cada bola contra a sua célula e as vizinhas. Cada par é
+     * tratado uma vez, pela bola de menor índice.
+     */
+    private void resolverContactos() {
+        for (int i = 0, n = mundo.quantidade; i < n; i++) {
+            int c = celula[i];
+            int cx = c % colunas;
+            int cy = c / colunas;
+            for (int vy = Math.max(0, cy - 1); vy <= Math.min(linhas - 1, cy + 1); vy++) {
+                for (int vx = Math.max(0, cx - 1); vx <= Math.min(colunas - 1, cx + 1); vx++) {
+                    for (int j = cabeca[vy * colunas + vx]; j != NENHUMA; j = proxima[j]) {
+                        if (j > i) resolverPar(i, j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Contacto elástico entre bolas de massa igual: separa as bolas ao longo
+     * da normal e troca as componentes normais das velocidades (com o
+     * coeficiente de restituição). As bolas paradas que são tocadas voltam a
+     * mexer-se, para o MundoBolas as voltar a assentar no chão.
+     */
+    private void resolverPar(int i, int j) {
+        final double[] x = mundo.x, y = mundo.y, velX = mundo.velX, velY = mundo.velY, mascara = mundo.mascara;
+        double dx = x[j] - x[i];
+        double dy = y[j] - y[i];
+        double distancia2 = dx * dx + dy * dy;
+        if (distancia2 >= DIAMETRO * DIAMETRO) return;
+
+        double distancia = Math.sqrt(distancia2);
+        if (mascara[i] == 0.0 && mascara[j] == 0.0 && DIAMETRO - distancia < FOLGA_REPOUSO) return;
+        double nx, ny;
+        if (distancia > 0) {
+            nx = dx / distancia;
+            ny = dy / distancia;
+        } else {
+            // Centros coincidentes: separa na horizontal
+            nx = 1;
+            ny = 0;
+        }
+
+        // Separação posicional (metade para cada bola)
+        double meiaSobreposicao = (DIAMETRO - distancia) / 2;
+        x[i] -= nx * meiaSobreposicao;
+        y[i] -= ny * meiaSobreposicao;
+        x[j] += nx * meiaSobreposicao;
+        y[j] += ny * meiaSobreposicao;
+
+        // Impulso apenas se as bolas se estão a aproximar
+        double vRelativa = (velX[j] - velX[i]) * nx + (velY[j] - velY[i]) * ny;
+        if (vRelativa < 0) {
+            double e = vRelativa < -VELOCIDADE_CONTACTO_REPOUSO ? COEF_RESTITUICAO_BOLAS : 0;
+            double impulso = -(1 + e) / 2 * vRelativa;
+            velX[i] -= impulso * nx;
+            velY[i] -= impulso * ny;
+            velX[j] += impulso * nx;
+            velY[j] += impulso * ny;
+        }
+        mascara[i] = 1.0;
+        mascara[j] = 1.0;
+        contactos++;
+    }
+
+    // --- Acesso ---
+
+    /**
+     * O mundo de bolas por baixo (desenho, copiarPara, colisão contínua com as formas estáticas).
+     */
+    public MundoBolas getMundo() { return mundo; }
+    public int getQuantidade() { return mundo.getQuantidade(); }
+    public long getCestas() { return mundo.getCestas(); }
+    public long getContactos() { return contactos; }
+
+    // --- Medição rápida: java MundoColisao [bolas] [passos] ---
+    public static void main(String[] args) {
+        int bolas = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int passos = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+
+        // O campo alarga com o número de bolas (~100 bolas por ecrã), com a altura do jogo
+        int largura = (int) (PainelJogo.LARGURA * Math.max(1, bolas / 100.0));
+        int altura = PainelJogo.ALTURA;
+        MundoColisao mundo = new MundoColisao(bolas, largura, altura, NivelDificuldade.MEDIO);
+        GeradorAleatorio random = new GeradorAleatorio(1);
+        for (int i = 0; i < bolas; i++) {
+            double x = RAIO + random.proximoDouble() * (largura - 2 * RAIO);
+            double y = RAIO + random.proximoDouble() * (altura - 10 - 2 * RAIO);
+            mundo.adicionar(x, y, random.proximoDouble() * 20 - 10, -12 - random.proximoDouble() * 12);
+        }
+
+        long inicio = System.nanoTime();
+        for (int p = 0; p < passos; p++) {
+            mundo.passo();
+        }
+        double ms = (System.nanoTime() - inicio) / 1e6;
+        System.out.printf(Locale.ROOT, "%d bolas, %d passos: %.3f ms/passo, %d contactos, %d cestas%n",
+            bolas, passos, ms / passos, mundo.getContactos(), mundo.getCestas());
+    }
+}
\ No newline at end of file
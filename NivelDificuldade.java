@@ -0,0 +1,25 @@
+// NivelDificuldade.java
+
+// Enumeração para os níveis de dificuldade (SEM ACENTOS para compatibilidade total)
+enum NivelDificuldade {
+    // FÁCIL EXTREMO: Quique alto (0.95), Mira sensível (3.0), Erro zero (0.0)
+    FACIL(3.0, 50, 0.0, 0.95), 
+    
+    // MÉDIO (Nível Padrão - Jogo Base: Quique médio (0.7), Mira 1.5, Erro Zero)
+    MEDIO(1.5, 35, 0.0, 0.7), 
+    
+    // DIFÍCIL EXTREMO: Quique baixo (0.4), Mira lenta (0.5), Erro ALTO (0.2)
+    DIFICIL(0.5, 20, 0.2, 0.4); 
+
+    final double fatorMira;
+    final double forcaMaxima;
+    final double erroLancamento; 
+    final double coefRestituicaoMapa; 
+
+    NivelDificuldade(double fatorMira, double forcaMaxima, double erroLancamento, double coefRestituicaoMapa) {
+        this.fatorMira = fatorMira;
+        this.forcaMaxima = forcaMaxima;
+        this.erroLancamento = erroLancamento;
+        this.coefRestituicaoMapa = coefRestituicaoMapa;
+    }
+}
\ No newline at end of file
@@ -4,35 +4,14 @@ import javax.swing.JPanel;
 import javax.swing.Timer;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.Point2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.io.*;
-import javax.sound.sampled.*;
-import java.util.ArrayList;
-import java.util.Random; 
-
-// Enumeração para os níveis de dificuldade (SEM ACENTOS para compatibilidade total)
-enum NivelDificuldade {
-    // FÁCIL EXTREMO: Quique alto (0.95), Mira sensível (3.0), Erro zero (0.0)
-    FACIL(3.0, 50, 0.0, 0.95), 
-    
-    // MÉDIO (Nível Padrão - Jogo Base: Quique médio (0.7), Mira 1.5, Erro Zero)
-    MEDIO(1.5, 35, 0.0, 0.7), 
-    
-    // DIFÍCIL EXTREMO: Quique baixo (0.4), Mira lenta (0.5), Erro ALTO (0.2)
-    DIFICIL(0.5, 20, 0.2, 0.4); 
-
-    final double fatorMira;
-    final double forcaMaxima;
-    final double erroLancamento; 
-    final double coefRestituicaoMapa; 
-
-    NivelDificuldade(double fatorMira, double forcaMaxima, double erroLancamento, double coefRestituicaoMapa) {
-        this.fatorMira = fatorMira;
-        this.forcaMaxima = forcaMaxima;
-        this.erroLancamento = erroLancamento;
-        this.coefRestituicaoMapa = coefRestituicaoMapa;
-    }
-}
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HexFormat;
+import java.util.List;
 
 /**
  * O painel onde o jogo é desenhado. Gerencia o loop, objetos de jogo e o Recorde.
@@ -40,27 +19,40 @@ enum NivelDificuldade {
 public class PainelJogo extends JPanel implements ActionListener, KeyListener {
 
     // --- Constantes do Jogo ---
+    // Tamanho da quadra padrão (a janela pode ter outro: o desenho é escalado)
     public static final int LARGURA = BasqueteFrame.LARGURA;
     public static final int ALTURA = BasqueteFrame.ALTURA;
     private static final int FPS = 60;
     private static final int DELAY = 1000 / FPS; 
+    // Recorde antigo (um só número), importado para o placar de líderes na primeira execução
     private static final String HIGH_SCORE_FILE = "highscore.txt";
-    private final int ALTURA_CHAO = ALTURA - 10;
-
-    // --- Constantes de Física e Mira (Inicia com MÉDIO) ---
-    private double fatorForcaMira = NivelDificuldade.MEDIO.fatorMira; 
-    private double forcaMaxima = NivelDificuldade.MEDIO.forcaMaxima; 
-    private double erroLancamento = NivelDificuldade.MEDIO.erroLancamento;
-    private double coefRestituicaoMapa = NivelDificuldade.MEDIO.coefRestituicaoMapa;
-    private static final int TEMPO_DE_VOO = 45; 
-    
-    // --- Variáveis de Estado ---
-    private NivelDificuldade dificuldadeAtual = NivelDificuldade.MEDIO; 
-    private Random random = new Random(); 
+    static final String FICHEIRO_PLACAR = "placar.dat";
+    // Nome com que as pontuações entram no placar de líderes
+    static final String JOGADOR = System.getProperty("basquete.jogador", System.getProperty("user.name", "jogador"));
+    // Ficheiro onde as entradas da sessão são gravadas (ver ReprodutorSessao)
+    static final String FICHEIRO_GRAVACAO = System.getProperty("basquete.gravacao", "sessao.bsq");
+    // Chave (hexadecimal) que sela os hashes da gravação, dada por quem a vai verificar
+    static final String CHAVE_GRAVACAO = System.getProperty("basquete.chave");
+    // Colisão contínua por omissão; -Dbasquete.colisao=discreta volta às regras antigas
+    private static final boolean COLISAO_CONTINUA = !"discreta".equals(System.getProperty("basquete.colisao"));
+    // Quadra carregada de ficheiro (-Dbasquete.quadra=quadras/exemplo.quadra); sem ela, a padrão
+    static final String FICHEIRO_QUADRA = System.getProperty("basquete.quadra");
+    // Jogo em rede contra outro jogador (-Dbasquete.servidor=anfitrião[:porta], ver ServidorJogo)
+    static final String SERVIDOR = System.getProperty("basquete.servidor");
+
+    // --- Quadra (espaço da simulação, independente do tamanho da janela) ---
+    private final Quadra quadra = carregarQuadra();
+    private final int larguraMundo = quadra.getLargura();
+    private final int alturaMundo = quadra.getAltura();
+    private final int ALTURA_CHAO = quadra.getAlturaChao();
+
+    private static final int TEMPO_DE_VOO = Simulacao.TEMPO_DE_VOO; 
     
     // --- Cores MODERNAS E RICAS ---
     private final Color BRANCO = new Color(255, 255, 255);
     private final Color PRETO = new Color(0, 0, 0);
+    // Barras à volta da quadra quando a janela não tem a mesma proporção
+    private final Color MOLDURA = new Color(30, 30, 35);
     
     // Cores para o Fundo (Gradiente)
     private final Color AZUL_CEU_CLARO = new Color(173, 216, 230); 
@@ -72,43 +64,165 @@ public class PainelJogo extends JPanel implements ActionListener, KeyListener {
     
     // Cor de destaque para o Placar (Ouro/Amarelo)
     private final Color DESTAQUE_PLACA = new Color(255, 223, 0); 
+    
+    private final Color DESTAQUE_PLACA_CLARO = DESTAQUE_PLACA.brighter(); 
+    
+    // Cor do alvo da linha de mira (verde quando o lançamento faz cesta limpa)
+    private final Color VERMELHO_ALVO = new Color(255, 0, 0);
+    private final Color VERDE_ALVO = new Color(0, 220, 0);
+
+    // Pontos e alvo da linha de mira pré-renderizados (o fillOval e o drawOval alocam a cada chamada)
+    private final BufferedImage pontoMira = criarSpriteMira(BRANCO, true);
+    private final BufferedImage alvoFalha = criarSpriteMira(VERMELHO_ALVO, false);
+    private final BufferedImage alvoCesta = criarSpriteMira(VERDE_ALVO, false);
+    
+    // Fontes do Placar (criadas uma vez, não a cada frame)
+    private final Font FONTE_RECORDE = new Font("Arial", Font.BOLD, 18);
+    private final Font FONTE_PONTUACAO = new Font("SansSerif", Font.BOLD, 60);
+    private final Font FONTE_ROTULO = new Font("Arial", Font.PLAIN, 14);
 
     // --- Objetos de Jogo ---
     private Timer timer; 
-    private Bola bola; 
-    private Cesto cesto; 
+    // Motor de física headless (Bola, Quadra e parâmetros de dificuldade)
+    private Simulacao simulacao; 
+    private long ultimoTickNanos; 
+    private GravadorSessao gravador; 
+    // Sons pré-carregados, tocados numa thread própria
+    private final GerenciadorAudio audio = new GerenciadorAudio(); 
+    // Melhores pontuações por jogador e nível (ficheiro mapeado em memória)
+    private PlacarLideres placar; 
+    // Tempos de frame e contadores; overlay com a tecla M
+    private final MetricasJogo metricas = new MetricasJogo(); 
+    private boolean mostrarMetricas = false; 
+    // Efeitos da cesta, do aro, do chão e do recorde (buffers circulares, sem alocações por frame)
+    private final SistemaParticulas particulas = new SistemaParticulas(larguraMundo, alturaMundo);
+    // Eventos da física: áudio, placar e métricas consomem-nos nas suas threads, os efeitos no frame
+    private final BarramentoEventos barramento = new BarramentoEventos();
+    private final BarramentoEventos.Leitor leitorEfeitos = barramento.novoLeitor();
+    private final Efeitos efeitos = new Efeitos();
+    // Ligação ao servidor no jogo em rede (null no jogo local)
+    private ClienteRede rede;
+    // Pasta do placar, do recorde antigo e da gravação (null = os caminhos de sempre)
+    private final Path pastaDados;
+
+    // --- Escala Mundo -> Ecrã (atualizada a cada frame, usada também pelo rato) ---
+    private int larguraEcra = 0, alturaEcra = 0;
+    private double escala = 1;
+    private int origemX = 0, origemY = 0;
+    // Quadra -> ecrã e o inverso, refeitos só quando a escala muda (o getTransform
+    // do Graphics2D devolve sempre uma cópia nova)
+    private final AffineTransform quadraParaEcra = new AffineTransform();
+    private final AffineTransform ecraParaQuadra = new AffineTransform();
+
+    // Fundo, obstáculos e cestos fixos não mudam entre frames: pintados uma vez
+    // numa VolatileImage, ao tamanho do ecrã (repintada se a janela mudar de tamanho)
+    private final CamadaEstatica fundo = new CamadaEstatica(LARGURA, ALTURA, g -> {
+        g.setColor(MOLDURA);
+        g.fillRect(0, 0, larguraEcra, alturaEcra);
+        g.translate(origemX, origemY);
+        g.scale(escala, escala);
+        desenharAmbiente(g);
+        quadra.desenharEstatico(g);
+    }); 
 
     // --- Variáveis de Estado de Pontuação/Mira ---
-    private int pontuacao = 0;
-    private int recorde = 0; 
-    private Point posRatoInicio;
+    // Recorde e posição são escritos também pelo consumidor do placar
+    private volatile int recorde = 0; 
+    // Posição do JOGADOR no placar do nível atual (0 se ainda não tem pontuação)
+    private volatile int posicaoJogador = 0; 
+    // Nível a que o recorde e a posição mostrados se referem
+    private volatile NivelDificuldade nivelNoRecorde = NivelDificuldade.MEDIO;
+    // Recorde a bater no jogo atual, para os confetes (só a thread do jogo)
+    private int recordeParaBater = 0;
+    // Posições do rato já em coordenadas da quadra
+    private double xRatoInicio, yRatoInicio;
+    private double xRatoAtual, yRatoAtual;
+    private final MeuMouseListener entradaRato = new MeuMouseListener();
     private boolean aPrepararLancamento = false;
+    
+    // Placar pré-renderizado (ver desenharPlacar)
+    private static final int ALTURA_PLACAR = 95;
+    private final BufferedImage imagemPlacar = new BufferedImage(larguraMundo, ALTURA_PLACAR, BufferedImage.TYPE_INT_ARGB);
+    private int pontuacaoNoPlacar = -1;
+    private int recordeNoPlacar = -1;
+    private int posicaoNoPlacar = -1;
+    private int adversarioNoPlacar = -1;
 
     public PainelJogo() {
-        this.setPreferredSize(new Dimension(LARGURA, ALTURA));
+        this(true);
+    }
+
+    /**
+     * @param usarTimer false quando o loop é conduzido de fora (ver TelaAtiva):
+     *                  nesse caso quem conduz chama atualizarJogo e desenharJogo.
+     */
+    public PainelJogo(boolean usarTimer) {
+        this(usarTimer, null);
+    }
+
+    /**
+     * @param pastaDados Onde ficam o placar, o recorde antigo e a gravação (pelo
+     *                   nome do ficheiro), em vez da pasta de trabalho; null = a de sempre.
+     *                   Para ferramentas que não podem mexer no placar do jogador (ver BenchmarkBasquete).
+     */
+    public PainelJogo(boolean usarTimer, Path pastaDados) {
+        this.pastaDados = pastaDados;
+        this.setPreferredSize(new Dimension(larguraMundo, alturaMundo));
         this.setFocusable(true); 
 
-        // Inicializar objetos de jogo no nível MÉDIO
-        this.bola = new Bola(100, ALTURA_CHAO - Bola.RAIO_BOLA, this.coefRestituicaoMapa); 
-        this.cesto = new Cesto();
+        // Inicializar a simulação no nível MÉDIO (a semente fica na gravação)
+        long semente = System.nanoTime();
+        this.simulacao = new Simulacao(quadra, NivelDificuldade.MEDIO, new GeradorAleatorio(semente)); 
+        simulacao.setColisaoContinua(COLISAO_CONTINUA);
+        if (!COLISAO_CONTINUA && simulacao.isColisaoContinua()) {
+            System.err.println("A colisão discreta só existe na quadra padrão: a usar a contínua.");
+        }
+        if (SERVIDOR != null && !SERVIDOR.isEmpty()) {
+            ligarServidor();
+        } else {
+            abrirGravacao(semente);
+        }
+        simulacao.setMetricas(metricas);
+        audio.setMetricas(metricas);
+        iniciarDespejoMetricas();
+        // Os lançamentos em rede são do servidor: a telemetria é só do jogo local
+        if (rede == null) iniciarTelemetria();
         
         carregarRecorde();
+        recordeParaBater = recorde;
+
+        // Consumidores dos eventos, registados antes do primeiro passo
+        barramento.iniciarConsumidor("eventos-audio", audio);
+        barramento.iniciarConsumidor("eventos-metricas", metricas);
+        // As partidas em rede não contam para o placar local
+        if (rede == null) barramento.iniciarConsumidor("eventos-placar", new RegistoPlacar());
+        simulacao.setBarramento(barramento);
+        // Os consumidores tratam os últimos eventos antes de o placar e o áudio fecharem
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            barramento.close();
+            if (placar != null) placar.close();
+            audio.close();
+        }));
 
         // Adicionar Listeners
-        MeuMouseListener listener = new MeuMouseListener();
-        this.addMouseListener(listener);
-        this.addMouseMotionListener(listener);
+        this.addMouseListener(entradaRato);
+        this.addMouseMotionListener(entradaRato);
         this.addKeyListener(this); 
         
-        // Iniciar Game Loop
-        timer = new Timer(DELAY, this);
-        timer.start();
+        // Iniciar Game Loop (o Timer apenas avança o acumulador e redesenha)
+        ultimoTickNanos = System.nanoTime();
+        if (usarTimer) {
+            timer = new Timer(DELAY, this);
+            timer.start();
+        }
     }
     
     // --- MÉTODOS PÚBLICOS PARA BasqueteFrame e DIFICULDADE ---
     
     // Implementação robusta para evitar o erro de nível desconhecido
     public void setDificuldade(String nivel) {
+        // Em rede o nível é o da partida
+        if (rede != null) return;
         try {
             // 1. Converte a string de entrada ("Fácil", "Médio", "Difícil") para maiúsculas (Ex: "FÁCIL")
             String nomeUpper = nivel.toUpperCase();
@@ -118,16 +232,13 @@ public class PainelJogo extends JPanel implements ActionListener, KeyListener {
             String nomeEnum = nomeUpper.replace('Á', 'A').replace('É', 'E').replace('Í', 'I').replace('Ó', 'O').replace('Ú', 'U');
             
             NivelDificuldade novoNivel = NivelDificuldade.valueOf(nomeEnum); 
-            this.dificuldadeAtual = novoNivel;
             
-            // Aplica os novos valores
-            this.fatorForcaMira = novoNivel.fatorMira;
-            this.forcaMaxima = novoNivel.forcaMaxima;
-            this.erroLancamento = novoNivel.erroLancamento;
-            this.coefRestituicaoMapa = novoNivel.coefRestituicaoMapa;
-            
-            // Reinicia a bola para aplicar as novas regras
-            reiniciarBola(); 
+            // Aplica os novos valores (a simulação também reinicia a bola)
+            if (gravador != null) gravador.registarDificuldade(simulacao.getTick(), novoNivel);
+            simulacao.setDificuldade(novoNivel);
+            atualizarRecorde(novoNivel);
+            recordeParaBater = recorde;
+            audio.tocar(GerenciadorAudio.Som.REINICIAR); 
             System.out.println("Dificuldade alterada para: " + nivel);
             
         } catch (IllegalArgumentException e) {
@@ -136,101 +247,338 @@ public class PainelJogo extends JPanel implements ActionListener, KeyListener {
     }
 
     public void reiniciarBola() {
-        // Passa o coeficiente de restituição atual para o construtor da Bola
-        this.bola = new Bola(100, ALTURA_CHAO - Bola.RAIO_BOLA, this.coefRestituicaoMapa); 
-        this.cesto.passouPeloAroTopo = false;
-        tocarSom("reiniciar.wav"); 
+        if (rede != null) return;
+        if (gravador != null) gravador.registarReiniciarBola(simulacao.getTick());
+        simulacao.reiniciarBola(); 
+        audio.tocar(GerenciadorAudio.Som.REINICIAR); 
     }
 
     public void reiniciarTudo() {
-        if (pontuacao > recorde) {
-            salvarRecorde(pontuacao);
-        }
-        this.pontuacao = 0; 
+        if (rede != null) return;
+        salvarRecorde(simulacao.getDificuldade(), simulacao.getPontuacao());
+        recordeParaBater = recorde;
+        if (gravador != null) gravador.registarZerarPontuacao(simulacao.getTick());
+        simulacao.zerarPontuacao(); 
         reiniciarBola(); 
     }
     
-    // --- Lógica de I/O (Recorde, Sons) ---
-    private void carregarRecorde() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(HIGH_SCORE_FILE))) {
-            recorde = Integer.parseInt(reader.readLine());
-        } catch (FileNotFoundException e) {
-            recorde = 0; 
-        } catch (IOException | NumberFormatException e) {
-            System.err.println("Erro ao carregar recorde: " + e.getMessage());
-            recorde = 0;
+    // --- Lógica de I/O (Quadra, Recorde, Sons, Gravação) ---
+    private static Quadra carregarQuadra() {
+        // As partidas do servidor são sempre na quadra padrão
+        if (SERVIDOR != null && !SERVIDOR.isEmpty()) return Quadra.padrao();
+        if (FICHEIRO_QUADRA == null || FICHEIRO_QUADRA.isEmpty()) return Quadra.padrao();
+        try {
+            return Quadra.carregar(Paths.get(FICHEIRO_QUADRA));
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar quadra: " + e.getMessage() + " (a usar a padrão)");
+            return Quadra.padrao();
         }
     }
 
-    private void salvarRecorde(int novoRecorde) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(HIGH_SCORE_FILE))) {
-            writer.write(String.valueOf(novoRecorde));
-            recorde = novoRecorde;
+    // -Dbasquete.metricas=ficheiro (.csv ou .json) liga o despejo; intervalo em segundos
+    private void iniciarDespejoMetricas() {
+        String ficheiro = System.getProperty("basquete.metricas");
+        if (ficheiro == null || ficheiro.isEmpty()) return;
+        long intervalo = Long.getLong("basquete.metricas.intervalo", 10L);
+        metricas.iniciarDespejo(Paths.get(ficheiro), Math.max(1, intervalo));
+    }
+
+    // -Dbasquete.telemetria=diretório liga a telemetria dos lançamentos (um ficheiro por sessão)
+    private void iniciarTelemetria() {
+        String diretorio = System.getProperty("basquete.telemetria");
+        if (diretorio == null || diretorio.isEmpty()) return;
+        try {
+            Path pasta = Paths.get(diretorio);
+            Files.createDirectories(pasta);
+            TelemetriaLancamentos telemetria = new TelemetriaLancamentos(
+                pasta.resolve("lancamentos-" + System.currentTimeMillis() + ".bqt"));
+            simulacao.setTelemetria(telemetria);
+            Runtime.getRuntime().addShutdownHook(new Thread(telemetria::close));
         } catch (IOException e) {
-            System.err.println("Erro ao salvar recorde: " + e.getMessage());
+            System.err.println("Erro ao abrir telemetria: " + e.getMessage());
         }
     }
-    
-    private void tocarSom(String nomeFicheiro) {
-        // (Código do som permanece o mesmo, por brevidade)
+
+    private void ligarServidor() {
         try {
-            File somFile = new File(nomeFicheiro);
-            if (somFile.exists()) {
-                AudioInputStream audioIn = AudioSystem.getAudioInputStream(somFile);
-                Clip clip = AudioSystem.getClip();
-                clip.open(audioIn);
-                clip.start();
+            rede = new ClienteRede(ClienteRede.endereco(SERVIDOR), NivelDificuldade.MEDIO, COLISAO_CONTINUA);
+            System.out.println("Ligado a " + SERVIDOR + ": à espera de adversário...");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erro ao ligar ao servidor " + SERVIDOR + ": " + e.getMessage() + " (a jogar sozinho)");
+            rede = null;
+        }
+    }
+
+    private Path ficheiroDados(String nome) {
+        Path caminho = Paths.get(nome);
+        return pastaDados == null ? caminho : pastaDados.resolve(caminho.getFileName());
+    }
+
+    private void abrirGravacao(long semente) {
+        try {
+            byte[] chave = CHAVE_GRAVACAO == null || CHAVE_GRAVACAO.isEmpty()
+                ? null : HexFormat.of().parseHex(CHAVE_GRAVACAO);
+            gravador = new GravadorSessao(ficheiroDados(FICHEIRO_GRAVACAO), semente, simulacao.getDificuldade(),
+                simulacao.isColisaoContinua(), quadra, chave);
+            // O evento de fim vem de terminarSessao, na thread do jogo; se o programa
+            // acabar de outra forma, o hook só despeja o que há (gravação sem fim)
+            GravadorSessao aberto = gravador;
+            Runtime.getRuntime().addShutdownHook(new Thread(aberto::close));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erro ao abrir gravação da sessão: " + e.getMessage());
+            gravador = null;
+        }
+    }
+
+    /**
+     * Fecha a telemetria com o último lançamento e a gravação com a pontuação
+     * e o hash finais, para o ReprodutorSessao a poder verificar. Só na thread
+     * do jogo, entre passos da simulação (o BasqueteFrame chama-o ao fechar a janela).
+     */
+    public void terminarSessao() {
+        simulacao.fecharTelemetria();
+        if (gravador == null) return;
+        gravador.terminar(simulacao.getTick(), simulacao.getPontuacao(), simulacao.hashEstado());
+        gravador = null;
+    }
+
+    private void carregarRecorde() {
+        try {
+            placar = new PlacarLideres(ficheiroDados(FICHEIRO_PLACAR));
+            if (placar.isVazio()) {
+                // O highscore.txt não dizia de quem nem em que nível: fica do jogador atual, no MÉDIO
+                placar.registar(JOGADOR, NivelDificuldade.MEDIO, PersistenciaRecorde.carregar(ficheiroDados(HIGH_SCORE_FILE)));
             }
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-             // Silencioso se o ficheiro não for encontrado
+        } catch (IOException e) {
+            System.err.println("Erro ao abrir placar de líderes: " + e.getMessage());
+            placar = null;
         }
+        atualizarRecorde(simulacao.getDificuldade());
+    }
+
+    // Recorde do nível e posição do jogador (só mudam quando o placar ou o nível mudam)
+    private void atualizarRecorde(NivelDificuldade nivel) {
+        nivelNoRecorde = nivel;
+        if (placar == null) return;
+        recorde = placar.getRecorde(nivel);
+        posicaoJogador = placar.posicao(JOGADOR, nivel);
     }
 
+    // Chamado pelo consumidor do placar e ao reiniciar (o PlacarLideres é sincronizado)
+    private void salvarRecorde(NivelDificuldade nivel, int pontuacao) {
+        if (placar == null) {
+            if (nivel == nivelNoRecorde) recorde = Math.max(recorde, pontuacao);
+        } else if (placar.registar(JOGADOR, nivel, pontuacao) && nivel == nivelNoRecorde) {
+            recorde = placar.getRecorde(nivel);
+            posicaoJogador = placar.posicao(JOGADOR, nivel);
+        }
+    }
+
+    /**
+     * Consumidor do placar: regista a melhor pontuação do jogador uma vez por
+     * lote (a última cesta do lote tem a pontuação mais alta).
+     */
+    private final class RegistoPlacar implements BarramentoEventos.Tratador {
+        private int pontuacao = -1;
+        private int nivel;
+
+        @Override
+        public void tratar(int eventos, long tick, double x, double y, double velX, double velY, int pontuacaoEvento, int nivelEvento) {
+            if ((eventos & Simulacao.EVENTO_PONTO) == 0) return;
+            if (pontuacao >= 0 && nivelEvento != nivel) fimDoLote();
+            pontuacao = pontuacaoEvento;
+            nivel = nivelEvento;
+        }
+
+        @Override
+        public void fimDoLote() {
+            if (pontuacao < 0) return;
+            salvarRecorde(NivelDificuldade.values()[nivel], pontuacao);
+            pontuacao = -1;
+        }
+    }
+    
     // --- O Game Loop ---
     @Override
     public void actionPerformed(ActionEvent e) {
-        if (bola.emMovimento) {
-            bola.atualizarPosicao(ALTURA_CHAO); 
-            
-            bola.verificarColisaoMapa(LARGURA, ALTURA, this.coefRestituicaoMapa); 
-            
-            double oldVelX = bola.velX; 
-            cesto.verificarColisao(bola); 
+        atualizarJogo();
+        repaint(); 
+    }
 
-            if (bola.velX != oldVelX) {
-                tocarSom("colisao.wav"); 
+    /**
+     * Avança a simulação pelo tempo real decorrido. Os eventos dos passos vão
+     * para o barramento: aqui só se tratam os efeitos (desenhados nesta thread)
+     * e se acordam os outros consumidores, uma vez por frame.
+     */
+    public void atualizarJogo() {
+        long agora = System.nanoTime();
+        double segundos = (agora - ultimoTickNanos) / 1e9;
+        ultimoTickNanos = agora;
+        int passos;
+        if (rede != null) {
+            passos = atualizarRede(segundos);
+        } else {
+            long tickAntes = simulacao.getTick();
+            simulacao.avancar(segundos);
+            passos = (int) (simulacao.getTick() - tickAntes);
+        }
+        particulas.atualizar(passos);
+        leitorEfeitos.drenar(efeitos);
+        barramento.sinalizar();
+        metricas.registarAtualizacao(agora, System.nanoTime());
+    }
+
+    // Jogo em rede: a bola do jogador é a da previsão, que passa a ser a simulação do painel
+    private int atualizarRede(double segundos) {
+        int passos = rede.atualizar(segundos);
+        PreditorCliente preditor = rede.getPreditor();
+        if (preditor != null && preditor.getSimulacao() != simulacao) {
+            simulacao.setBarramento(null);
+            simulacao.setMetricas(null);
+            simulacao = preditor.getSimulacao();
+            simulacao.setMetricas(metricas);
+            preditor.setBarramento(barramento);
+            atualizarRecorde(simulacao.getDificuldade());
+        }
+        return passos;
+    }
+
+    /**
+     * Consumidor dos efeitos, drenado no frame: as partículas de cada evento
+     * nascem onde a bola estava nesse passo (no ponto de contacto).
+     */
+    private final class Efeitos implements BarramentoEventos.Tratador {
+        @Override
+        public void tratar(int eventos, long tick, double x, double y, double velX, double velY, int pontuacao, int nivel) {
+            if ((eventos & Simulacao.EVENTO_PONTO) != 0) {
+                particulas.emitirCesta(x, y);
+                if (recordeParaBater > 0 && pontuacao > recordeParaBater) {
+                    particulas.emitirConfetes(400);
+                    recordeParaBater = Integer.MAX_VALUE;
+                }
             }
-            
-            if (cesto.verificarPontuacao(bola)) {
-                pontuacao++;
-                tocarSom("ponto.wav"); 
-                if (pontuacao > recorde) {
-                    salvarRecorde(pontuacao);
+            if ((eventos & (Simulacao.EVENTO_ARO | Simulacao.EVENTO_TABELA)) != 0) {
+                emitirFaiscasCesto(x, y, tick, (eventos & Simulacao.EVENTO_ARO) != 0);
+            }
+            if ((eventos & Simulacao.EVENTO_CHAO) != 0 && Math.abs(velY) > 2) {
+                particulas.emitirPo(x, ALTURA_CHAO, Math.abs(velY));
+            }
+        }
+    }
+
+    // Faíscas no ponto do cesto mais próximo da bola: a ponta do aro ou a face da tabela
+    private void emitirFaiscasCesto(double xBola, double yBola, long tick, boolean aro) {
+        double melhor = Double.POSITIVE_INFINITY, px = xBola, py = yBola;
+        for (Cesto cesto : quadra.getCestos()) {
+            double dx = cesto.deslocamentoX(tick), dy = cesto.deslocamentoY(tick);
+            if (aro) {
+                double yPonta = cesto.yAro + Cesto.ALTURA_ARO / 2.0 + dy;
+                for (int ponta = 0; ponta < 2; ponta++) {
+                    double xPonta = (ponta == 0 ? cesto.xAroInicio : cesto.xAroFim) + dx;
+                    double d = Math.hypot(xBola - xPonta, yBola - yPonta);
+                    if (d < melhor) {
+                        // Contacto: na superfície da bola, do lado da ponta
+                        melhor = d;
+                        double f = d > 0 ? Bola.RAIO_BOLA / d : 0;
+                        px = xBola + (xPonta - xBola) * f;
+                        py = yBola + (yPonta - yBola) * f;
+                    }
+                }
+            } else {
+                double xFace = (cesto.aroADireita ? cesto.xTabela + Cesto.LARGURA_TABELA : cesto.xTabela) + dx;
+                double d = Math.abs(xBola - xFace);
+                if (d < melhor) {
+                    melhor = d;
+                    px = xFace;
+                    py = Math.max(cesto.yTabela + dy, Math.min(cesto.yTabela + Cesto.ALTURA_TABELA + dy, yBola));
                 }
             }
         }
-        repaint(); 
+        particulas.emitirFaiscas(px, py, aro ? 24 : 12);
     }
     
     // --- Desenho (Graphics) - VISUAL APRIMORADO ---
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        // Sem super.paintComponent: a camada estática é opaca e cobre o painel
+        // inteiro (com as barras), e o super clona o Graphics a cada frame.
+        desenharJogo((Graphics2D) g, getGraphicsConfiguration(), getWidth(), getHeight());
         
-        Graphics2D g2d = (Graphics2D) g;
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * Desenha um frame completo do jogo (usado pelo paintComponent e pela TelaAtiva).
+     * A quadra é escalada para caber no destino, mantendo a proporção.
+     * @param gc Configuração do dispositivo de destino, para a camada estática.
+     * @param largura Largura do destino em pixels (a altura idem).
+     */
+    public void desenharJogo(Graphics2D g2d, GraphicsConfiguration gc, int largura, int altura) {
+        long inicio = System.nanoTime();
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        ajustarEscala(largura, altura);
 
-        desenharAmbiente(g2d);
+        // Camada estática (céu, chão, obstáculos e cestos fixos) pré-renderizada; por cima só o que se move
+        fundo.desenhar(g2d, gc);
+
+        g2d.transform(quadraParaEcra);
+        quadra.desenharMoveis(g2d, simulacao.getTick());
         
-        if (aPrepararLancamento && posRatoInicio != null) {
+        if (aPrepararLancamento) {
             desenharLinhaMira(g2d);
         }
 
-        cesto.desenhar(g2d, ALTURA);
-        bola.desenhar(g2d, ALTURA); 
+        PreditorCliente preditor = rede != null ? rede.getPreditor() : null;
+        if (preditor != null) {
+            desenharBolasRede(g2d, preditor);
+        } else {
+            simulacao.getBola().desenhar(g2d, alturaMundo, simulacao.getXInterpolado(), simulacao.getYInterpolado());
+        }
+        particulas.desenhar(g2d);
         desenharPlacar(g2d);
-        
-        Toolkit.getDefaultToolkit().sync();
+        g2d.transform(ecraParaQuadra);
+
+        if (mostrarMetricas) {
+            metricas.desenharOverlay(g2d, 10, alturaEcra - 20);
+        }
+        metricas.registarDesenho(System.nanoTime() - inicio);
+    }
+
+    // A bola do adversário meio transparente, por trás; as duas com a suavização das correções
+    private void desenharBolasRede(Graphics2D g, PreditorCliente preditor) {
+        double alfa = rede.getAlfa();
+        int lado = preditor.getLado();
+        int outro = 1 - lado;
+        Composite composicao = g.getComposite();
+        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.4f));
+        preditor.getPartida().getBola(outro).desenhar(g, alturaMundo, preditor.getXDesenho(outro, alfa), preditor.getYDesenho(outro, alfa));
+        g.setComposite(composicao);
+        simulacao.getBola().desenhar(g, alturaMundo, preditor.getXDesenho(lado, alfa), preditor.getYDesenho(lado, alfa));
+    }
+
+    // Maior escala que cabe no destino, com a quadra centrada (barras nos lados que sobram)
+    private void ajustarEscala(int largura, int altura) {
+        largura = Math.max(1, largura);
+        altura = Math.max(1, altura);
+        if (largura == larguraEcra && altura == alturaEcra) return;
+        larguraEcra = largura;
+        alturaEcra = altura;
+        escala = Math.min(largura / (double) larguraMundo, altura / (double) alturaMundo);
+        origemX = (int) ((largura - larguraMundo * escala) / 2);
+        origemY = (int) ((altura - alturaMundo * escala) / 2);
+        quadraParaEcra.setToTranslation(origemX, origemY);
+        quadraParaEcra.scale(escala, escala);
+        ecraParaQuadra.setToScale(1 / escala, 1 / escala);
+        ecraParaQuadra.translate(-origemX, -origemY);
+        fundo.setTamanho(largura, altura);
+    }
+
+    private double paraMundoX(int xEcra) {
+        return (xEcra - origemX) / escala;
+    }
+
+    private double paraMundoY(int yEcra) {
+        return (yEcra - origemY) / escala;
     }
     
     private void desenharAmbiente(Graphics2D g) {
@@ -240,102 +588,200 @@ public class PainelJogo extends JPanel implements ActionListener, KeyListener {
             0, ALTURA_CHAO, AZUL_CEU_ESCURO.darker()
         );
         g.setPaint(gp);
-        g.fillRect(0, 0, LARGURA, ALTURA_CHAO);
+        g.fillRect(0, 0, larguraMundo, ALTURA_CHAO);
         
         // Chão (Padrão de Madeira)
         g.setColor(CHAO_ESCURO);
-        g.fillRect(0, ALTURA_CHAO, LARGURA, 10);
+        g.fillRect(0, ALTURA_CHAO, larguraMundo, Quadra.MARGEM_CHAO);
         
         // Linhas verticais simulando tábuas (detalhe)
         g.setColor(CHAO_CLARO.darker().darker()); 
-        for (int i = 0; i < LARGURA; i += 50) {
-            g.drawLine(i, ALTURA_CHAO, i, ALTURA);
+        for (int i = 0; i < larguraMundo; i += 50) {
+            g.drawLine(i, ALTURA_CHAO, i, alturaMundo);
         }
         // Linha superior
         g.setColor(CHAO_CLARO.darker());
-        g.drawLine(0, ALTURA_CHAO, LARGURA, ALTURA_CHAO);
+        g.drawLine(0, ALTURA_CHAO, larguraMundo, ALTURA_CHAO);
     }
     
     private void desenharPlacar(Graphics2D g) {
+        // Os textos só são redesenhados quando a pontuação ou o recorde mudam
+        int pontuacao = simulacao.getPontuacao();
+        int adversario = pontuacaoAdversario();
+        if (pontuacao != pontuacaoNoPlacar || recorde != recordeNoPlacar || posicaoJogador != posicaoNoPlacar
+                || adversario != adversarioNoPlacar) {
+            renderizarPlacar(pontuacao, adversario);
+        }
+        g.drawImage(imagemPlacar, 0, 0, null);
+    }
+    
+    // Pontos do adversário no jogo em rede (-1 no jogo local ou à espera de adversário)
+    private int pontuacaoAdversario() {
+        PreditorCliente preditor = rede != null ? rede.getPreditor() : null;
+        if (preditor == null) return -1;
+        return preditor.getPartida().getPontuacao(1 - preditor.getLado());
+    }
+
+    private void renderizarPlacar(int pontuacao, int adversario) {
+        pontuacaoNoPlacar = pontuacao;
+        recordeNoPlacar = recorde;
+        posicaoNoPlacar = posicaoJogador;
+        adversarioNoPlacar = adversario;
+
+        Graphics2D g = imagemPlacar.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, imagemPlacar.getWidth(), imagemPlacar.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
         // --- Recorde ---
         // Sombra
+        String textoRecorde = "RECORDE: " + recorde;
         g.setColor(PRETO);
-        g.setFont(new Font("Arial", Font.BOLD, 18));
-        g.drawString("RECORDE: " + recorde, LARGURA - 162, 32); 
+        g.setFont(FONTE_RECORDE);
+        g.drawString(textoRecorde, larguraMundo - 162, 32); 
         
         // Texto
-        g.setColor(DESTAQUE_PLACA.brighter());
-        g.drawString("RECORDE: " + recorde, LARGURA - 160, 30);
+        g.setColor(DESTAQUE_PLACA_CLARO);
+        g.drawString(textoRecorde, larguraMundo - 160, 30);
+
+        // Posição do jogador no placar do nível
+        if (posicaoJogador > 0) {
+            g.setColor(BRANCO);
+            g.setFont(FONTE_ROTULO);
+            g.drawString(JOGADOR + ": #" + posicaoJogador, larguraMundo - 160, 50);
+        }
+
+        // Adversário (jogo em rede)
+        if (adversario >= 0) {
+            g.setColor(BRANCO);
+            g.setFont(FONTE_ROTULO);
+            g.drawString("ADVERSÁRIO: " + adversario, larguraMundo - 160, 70);
+        }
         
         // --- Pontuação Principal ---
         // Sombra (profundidade)
+        String textoPontuacao = String.valueOf(pontuacao);
         g.setColor(PRETO);
-        g.setFont(new Font("SansSerif", Font.BOLD, 60)); 
-        g.drawString("" + pontuacao, 32, 72); 
+        g.setFont(FONTE_PONTUACAO); 
+        g.drawString(textoPontuacao, 32, 72); 
         
         // Texto Principal
         g.setColor(BRANCO);
-        g.drawString("" + pontuacao, 30, 70);
+        g.drawString(textoPontuacao, 30, 70);
 
         // Rótulo "PONTOS"
         g.setColor(DESTAQUE_PLACA);
-        g.setFont(new Font("Arial", Font.PLAIN, 14));
+        g.setFont(FONTE_ROTULO);
         g.drawString("PONTOS", 32, 85);
+        g.dispose();
     }
     
     private void desenharLinhaMira(Graphics2D g) {
-        Point posAtual = getMousePosition();
-        if (posAtual == null) return;
-        
-        // 1. Cálculo do Alvo (código inalterado)
-        double dxArrasto = posAtual.getX() - posRatoInicio.getX();
-        double dyArrasto = posAtual.getY() - posRatoInicio.getY();
+        Bola bola = simulacao.getBola();
+        double fatorForcaMira = simulacao.getFatorForcaMira();
+        // 1. Cálculo do Alvo (posição do rato registada pelos eventos de arrasto)
+        double dxArrasto = xRatoAtual - xRatoInicio;
+        double dyArrasto = yRatoAtual - yRatoInicio;
 
         double xAlvo = bola.x + dxArrasto * fatorForcaMira;
         double yAlvo = bola.y + dyArrasto * fatorForcaMira;
         
         if (yAlvo < 50) yAlvo = 50;
         
-        // 2. Cálculo da Velocidade (código inalterado)
-        Point2D.Double velocidade = FisicaUtil.calcularVelocidadeParaAlvo(bola.x, bola.y, xAlvo, yAlvo, TEMPO_DE_VOO);
-        
-        // 3. Desenhar a Trajetória Parabólica (com toque visual)
-        java.util.List<Point> pontos = new ArrayList<>();
-        double xTemp = bola.x, yTemp = bola.y;
-        double vxTemp = velocidade.getX(), vyTemp = velocidade.getY();
-        
-        for (int t = 0; t < TEMPO_DE_VOO; t++) {
-            vyTemp += FisicaUtil.GRAVIDADE; 
-            xTemp += vxTemp;
-            yTemp += vyTemp;
-            pontos.add(new Point((int) xTemp, (int) yTemp));
-            
-            if (yTemp >= ALTURA_CHAO - Bola.RAIO_BOLA || xTemp <= 0 || xTemp >= LARGURA || yTemp <= 0) break;
+        // 2. Cálculo da Velocidade (sem alocar um Point2D)
+        double vx = FisicaUtil.velocidadeXParaAlvo(bola.x, xAlvo, TEMPO_DE_VOO);
+        double vy = FisicaUtil.velocidadeYParaAlvo(bola.y, yAlvo, TEMPO_DE_VOO);
+
+        // Limitação de Força, como no Simulacao.lancarArrasto (o erro de lançamento não se prevê)
+        double forcaTotal = Math.sqrt(vx * vx + vy * vy);
+        if (forcaTotal > simulacao.getForcaMaxima()) {
+            double fatorAjuste = simulacao.getForcaMaxima() / forcaTotal;
+            vx *= fatorAjuste;
+            vy *= fatorAjuste;
         }
         
-        // Desenha a linha pontilhada da mira
-        g.setColor(BRANCO);
-        for (int i = 0; i < pontos.size(); i++) {
-            if (i % 3 == 0) { 
-                g.fillOval(pontos.get(i).x - 2, pontos.get(i).y - 2, 4, 4);
+        // 3. Fim da Trajetória calculado analiticamente (chão, parede ou teto)
+        int passosMundo = FisicaUtil.passosAteDescer(bola.y, vy, ALTURA_CHAO - Bola.RAIO_BOLA);
+        passosMundo = Math.min(passosMundo, FisicaUtil.passosAteX(bola.x, vx, vx > 0 ? larguraMundo : 0));
+        passosMundo = Math.min(passosMundo, FisicaUtil.passosAteSubir(bola.y, vy, 0));
+
+        // 4. Primeiro cesto da quadra no caminho: toque na tabela ou no aro, ou cesta limpa.
+        // Regras discretas, com um cesto móvel na posição de cada passo a partir do tick
+        // atual. A colisão contínua tem outra geometria (pontas do aro redondas, cantos
+        // da tabela): aí a linha acaba no toque aproximado e o alvo não fica verde.
+        long tick = simulacao.getTick();
+        int passosCesto = FisicaUtil.SEM_IMPACTO;
+        boolean cesta = false;
+        List<Cesto> cestos = quadra.getCestos();
+        for (int i = 0; i < cestos.size(); i++) {
+            Cesto cesto = cestos.get(i);
+            int toque = Math.min(FisicaUtil.passosAteAro(cesto, tick, bola.x, bola.y, vx, vy, passosMundo),
+                                 FisicaUtil.passosAteTabela(cesto, tick, bola.x, bola.y, vx, vy, passosMundo));
+            int passosCesta = FisicaUtil.passosAteCesta(cesto, tick, bola.x, bola.y, vx, vy, larguraMundo, ALTURA_CHAO);
+            if (Math.min(toque, passosCesta) < passosCesto) {
+                passosCesto = Math.min(toque, passosCesta);
+                cesta = passosCesta < toque;
             }
         }
+        int passos = Math.min(TEMPO_DE_VOO, Math.min(passosMundo, passosCesto));
+        
+        // Desenha a linha pontilhada da mira (um ponto a cada 3 passos)
+        for (int n = 1; n <= passos; n += 3) {
+            int px = (int) FisicaUtil.posicaoX(bola.x, vx, n);
+            int py = (int) FisicaUtil.posicaoY(bola.y, vy, n);
+            g.drawImage(pontoMira, px - 2, py - 2, null);
+        }
 
         // Desenha o Alvo
-        if (!pontos.isEmpty()) {
-            Point alvo = pontos.get(pontos.size() - 1);
-            g.setColor(new Color(255, 0, 0));
-            g.drawOval(alvo.x - 4, alvo.y - 4, 8, 8);
+        int xFim = (int) FisicaUtil.posicaoX(bola.x, vx, passos);
+        int yFim = (int) FisicaUtil.posicaoY(bola.y, vy, passos);
+        boolean cestaPrevista = cesta && !simulacao.isColisaoContinua();
+        g.drawImage(cestaPrevista ? alvoCesta : alvoFalha, xFim - 5, yFim - 5, null);
+    }
+
+    // Ponto (4x4, cheio) ou alvo (anel de 8px com 1px de margem) da linha de mira
+    private static BufferedImage criarSpriteMira(Color cor, boolean cheio) {
+        int tamanho = cheio ? 4 : 10;
+        BufferedImage sprite = new BufferedImage(tamanho, tamanho, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sprite.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(cor);
+        if (cheio) {
+            g.fillOval(0, 0, 4, 4);
+        } else {
+            g.drawOval(1, 1, 8, 8);
         }
+        g.dispose();
+        return sprite;
     }
 
     // --- Processamento de Input (Mouse Listener e Key Listener) ---
+    
+    /**
+     * O listener de rato do jogo, para componentes que reencaminham o input (ver TelaAtiva).
+     */
+    public MouseAdapter getEntradaRato() {
+        return entradaRato;
+    }
+
+    // A simulação mostrada (no jogo em rede muda quando a partida começa)
+    Simulacao getSimulacao() {
+        return simulacao;
+    }
+
     private class MeuMouseListener extends MouseAdapter {
         @Override
         public void mousePressed(MouseEvent e) {
-            if (!bola.emMovimento && Math.hypot(e.getX() - bola.x, e.getY() - bola.y) < Bola.RAIO_BOLA * 2) {
+            Bola bola = simulacao.getBola();
+            double x = paraMundoX(e.getX());
+            double y = paraMundoY(e.getY());
+            if (!bola.emMovimento && Math.hypot(x - bola.x, y - bola.y) < Bola.RAIO_BOLA * 2) {
                 aPrepararLancamento = true;
-                posRatoInicio = e.getPoint();
+                xRatoInicio = x;
+                yRatoInicio = y;
+                xRatoAtual = x;
+                yRatoAtual = y;
             }
         }
 
@@ -344,43 +790,30 @@ public class PainelJogo extends JPanel implements ActionListener, KeyListener {
             if (aPrepararLancamento) {
                 aPrepararLancamento = false;
                 
-                double dxArrasto = e.getX() - posRatoInicio.getX();
-                double dyArrasto = e.getY() - posRatoInicio.getY();
-                
-                double xAlvo = bola.x + dxArrasto * fatorForcaMira;
-                double yAlvo = bola.y + dyArrasto * fatorForcaMira;
-                
-                if (yAlvo < 50) yAlvo = 50;
-
-                Point2D.Double velocidade = FisicaUtil.calcularVelocidadeParaAlvo(bola.x, bola.y, xAlvo, yAlvo, TEMPO_DE_VOO);
-                
-                double forcaX = velocidade.getX();
-                double forcaY = velocidade.getY();
-
-                // Implementar o Erro de Lançamento (DIFICULDADE EXTREMA)
-                if (erroLancamento > 0) {
-                    double fatorErro = random.nextDouble() * 2 * erroLancamento - erroLancamento;
-                    forcaX *= (1 + fatorErro); 
-                    forcaY *= (1 + fatorErro * 0.5); 
-                }
+                // Arrasto em pixels da quadra, arredondado: o que se lança é o que fica gravado
+                int dxArrasto = (int) Math.round(paraMundoX(e.getX()) - xRatoInicio);
+                int dyArrasto = (int) Math.round(paraMundoY(e.getY()) - yRatoInicio);
                 
-                // Limitação de Força
-                double forcaTotal = Math.hypot(forcaX, forcaY);
-                if (forcaTotal > forcaMaxima) { 
-                    double fatorAjuste = forcaMaxima / forcaTotal;
-                    forcaX *= fatorAjuste;
-                    forcaY *= fatorAjuste;
+                // Em rede o lançamento entra na previsão e segue para o servidor
+                if (rede != null) {
+                    rede.lancar(dxArrasto, dyArrasto);
+                    return;
                 }
-                
-                if (forcaTotal > 1) { 
-                    bola.lancar(forcaX, forcaY);
+
+                // Mira, erro de lançamento e limite de força ficam na Simulacao
+                if (gravador != null) {
+                    gravador.registarLancamento(simulacao.getTick(), dxArrasto, dyArrasto,
+                        simulacao.getRandom().getEstado(), simulacao.hashEstado());
                 }
+                simulacao.lancarArrasto(dxArrasto, dyArrasto);
             }
         }
         
         @Override
         public void mouseDragged(MouseEvent e) {
             if (aPrepararLancamento) {
+                xRatoAtual = paraMundoX(e.getX());
+                yRatoAtual = paraMundoY(e.getY());
                 repaint(); 
             }
         }
@@ -393,6 +826,9 @@ public class PainelJogo extends JPanel implements ActionListener, KeyListener {
     public void keyPressed(KeyEvent e) {
         if (e.getKeyCode() == KeyEvent.VK_R) {
             reiniciarBola();
+        } else if (e.getKeyCode() == KeyEvent.VK_M) {
+            mostrarMetricas = !mostrarMetricas;
+            repaint();
         }
     }
 
@@ -0,0 +1,187 @@
+// Partida.java
+
+/**
+ * Um jogo frente a frente simulado pelo servidor: dois jogadores, cada um com
+ * a sua Simulacao na quadra padrão (geradores derivados da mesma semente),
+ * avançadas com o mesmo relógio. Cada jogador tem LANCAMENTOS_POR_JOGADOR
+ * lançamentos, sempre da linha de partida: quando a bola pára (ou ao fim de
+ * MAX_PASSOS_LANCAMENTO) volta ao início. Ganha quem marcar mais.
+ */
+public class Partida {
+
+    public static final int JOGADORES = 2;
+    public static final int LANCAMENTOS_POR_JOGADOR = 10;
+    // Uma partida abandonada a meio acaba sozinha (3 minutos de jogo)
+    public static final int DURACAO_MAXIMA = 3 * 60 * Simulacao.PASSOS_POR_SEGUNDO;
+    // A cesta decide-se no primeiro voo; nos níveis fáceis a bola rola muito tempo antes de parar
+    public static final int MAX_PASSOS_LANCAMENTO = 5 * Simulacao.PASSOS_POR_SEGUNDO;
+    // Quanto um lançamento pode recuar no tempo para compensar a latência do cliente (0,5 s)
+    public static final int MAX_ATRASO_LANCAMENTO = 30;
+
+    private final int id;
+    private final NivelDificuldade nivel;
+    private final boolean colisaoContinua;
+    private final long semente;
+    private final Simulacao[] simulacoes = new Simulacao[JOGADORES];
+    private final int[] restantes = new int[JOGADORES];
+    // Passos do lançamento em curso de cada jogador (-1 sem lançamento)
+    private final int[] passosLancamento = new int[JOGADORES];
+    // Tick em que a bola de cada jogador voltou à linha (um lançamento não pode recuar para antes)
+    private final long[] tickParada = new long[JOGADORES];
+    private long tick = 0;
+    private boolean abandonada = false;
+
+    public Partida(int id, NivelDificuldade nivel, boolean colisaoContinua, long semente) {
+        this.id = id;
+        this.nivel = nivel;
+        this.colisaoContinua = colisaoContinua;
+        this.semente = semente;
+        for (int j = 0; j < JOGADORES; j++) {
+            GeradorAleatorio random = new GeradorAleatorio(GeradorAleatorio.derivarSemente(semente, j));
+            simulacoes[j] = new Simulacao(PainelJogo.LARGURA, PainelJogo.ALTURA, nivel, random);
+            simulacoes[j].setColisaoContinua(colisaoContinua);
+            restantes[j] = LANCAMENTOS_POR_JOGADOR;
+            passosLancamento[j] = -1;
+        }
+    }
+
+    /**
+     * Lança a bola do jogador agora, se estiver parada e ainda tiver lançamentos.
+     * @return true se o lançamento foi aceite.
+     */
+    public boolean lancar(int jogador, int dxArrasto, int dyArrasto) {
+        return lancar(jogador, dxArrasto, dyArrasto, tick);
+    }
+
+    /**
+     * Lança a bola do jogador como se o lançamento tivesse acontecido no tick
+     * indicado (o tick do cliente quando lançou): a bola estava parada desde
+     * então, por isso o relógio dela recua, a bola é lançada e os passos em
+     * falta são simulados logo. Assim o servidor chega ao mesmo voo que o
+     * cliente previu. O recuo é limitado a MAX_ATRASO_LANCAMENTO e ao tick em
+     * que a bola voltou à linha.
+     * @return true se o lançamento foi aceite.
+     */
+    public boolean lancar(int jogador, int dxArrasto, int dyArrasto, long tickLancamento) {
+        if (!podeLancar(jogador)) return false;
+        long inicio = Math.max(tickLancamento, Math.max(tickParada[jogador], tick - MAX_ATRASO_LANCAMENTO));
+        int atraso = (int) Math.max(0, tick - inicio);
+
+        Simulacao simulacao = simulacoes[jogador];
+        simulacao.recuarAteTick(tick - atraso);
+        if (!simulacao.lancarArrasto(dxArrasto, dyArrasto)) {
+            simulacao.simularAteTick(tick);
+            return false;
+        }
+        restantes[jogador]--;
+        passosLancamento[jogador] = 0;
+        for (int i = 0; i < atraso; i++) {
+            passoJogador(jogador, tick - atraso + i + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Avança um passo fixo as duas simulações.
+     */
+    public void passo() {
+        tick++;
+        for (int j = 0; j < JOGADORES; j++) {
+            passoJogador(j, tick);
+        }
+    }
+
+    private void passoJogador(int j, long tickDepois) {
+        Simulacao simulacao = simulacoes[j];
+        simulacao.passo();
+        if (passosLancamento[j] < 0) return;
+        if (!simulacao.getBola().emMovimento || ++passosLancamento[j] >= MAX_PASSOS_LANCAMENTO) {
+            simulacao.reiniciarBola();
+            passosLancamento[j] = -1;
+            tickParada[j] = tickDepois;
+        }
+    }
+
+    /**
+     * O jogador pode lançar: tem lançamentos e a bola está na linha.
+     */
+    public boolean podeLancar(int jogador) {
+        return !isTerminada() && restantes[jogador] > 0 && passosLancamento[jogador] < 0;
+    }
+
+    /**
+     * O jogador prescinde dos lançamentos que lhe faltam (a partida continua para o outro).
+     */
+    public void desistir(int jogador) {
+        restantes[jogador] = 0;
+    }
+
+    /**
+     * O jogador saiu: a partida acaba com os pontos que há.
+     */
+    public void abandonar() {
+        abandonada = true;
+    }
+
+    // --- Estado (rollback) ---
+
+    /**
+     * Copia o estado completo da partida (as duas simulações incluídas).
+     */
+    public void guardarEstado(EstadoJogo estado) {
+        estado.tick = tick;
+        estado.abandonada = abandonada;
+        for (int j = 0; j < JOGADORES; j++) {
+            simulacoes[j].guardarEstado(estado, j);
+            int i = j * EstadoJogo.INTEIROS;
+            estado.inteiros[i + EstadoJogo.RESTANTES] = restantes[j];
+            estado.inteiros[i + EstadoJogo.PASSOS_LANCAMENTO] = passosLancamento[j];
+            estado.inteiros[i + EstadoJogo.TICK_PARADA] = tickParada[j];
+        }
+    }
+
+    public void restaurarEstado(EstadoJogo estado) {
+        tick = estado.tick;
+        abandonada = estado.abandonada;
+        for (int j = 0; j < JOGADORES; j++) {
+            simulacoes[j].restaurarEstado(estado, j);
+            int i = j * EstadoJogo.INTEIROS;
+            restantes[j] = (int) estado.inteiros[i + EstadoJogo.RESTANTES];
+            passosLancamento[j] = (int) estado.inteiros[i + EstadoJogo.PASSOS_LANCAMENTO];
+            tickParada[j] = estado.inteiros[i + EstadoJogo.TICK_PARADA];
+        }
+    }
+
+    /**
+     * Hash do estado completo da partida (ver Simulacao.hashEstado).
+     */
+    public long hashEstado() {
+        long h = GeradorAleatorio.combinar(0, tick);
+        h = GeradorAleatorio.combinar(h, abandonada ? 1 : 0);
+        for (int j = 0; j < JOGADORES; j++) {
+            h = GeradorAleatorio.combinar(h, simulacoes[j].hashEstado());
+            h = GeradorAleatorio.combinar(h, restantes[j]);
+            h = GeradorAleatorio.combinar(h, passosLancamento[j]);
+            h = GeradorAleatorio.combinar(h, tickParada[j]);
+        }
+        return h;
+    }
+
+    public boolean isTerminada() {
+        if (abandonada || tick >= DURACAO_MAXIMA) return true;
+        for (int j = 0; j < JOGADORES; j++) {
+            if (restantes[j] > 0 || passosLancamento[j] >= 0) return false;
+        }
+        return true;
+    }
+
+    public int getId() { return id; }
+    public NivelDificuldade getNivel() { return nivel; }
+    public boolean isColisaoContinua() { return colisaoContinua; }
+    public long getSemente() { return semente; }
+    public long getTick() { return tick; }
+    public Simulacao getSimulacao(int jogador) { return simulacoes[jogador]; }
+    public Bola getBola(int jogador) { return simulacoes[jogador].getBola(); }
+    public int getPontuacao(int jogador) { return simulacoes[jogador].getPontuacao(); }
+    public int getRestantes(int jogador) { return restantes[jogador]; }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+// PersistenciaRecorde.java
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Leitura do recorde antigo (highscore.txt, só um número). O recorde agora
+ * vive no PlacarLideres; isto serve apenas para o importar na primeira vez
+ * que o placar é criado.
+ */
+public final class PersistenciaRecorde {
+
+    private PersistenciaRecorde() {}
+
+    /**
+     * Lê o recorde guardado. Um ficheiro inexistente, vazio ou corrompido vale 0.
+     */
+    public static int carregar(Path ficheiro) {
+        try {
+            String texto = new String(Files.readAllBytes(ficheiro), StandardCharsets.UTF_8).trim();
+            if (texto.isEmpty()) return 0;
+            return Math.max(0, Integer.parseInt(texto));
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Erro ao carregar recorde (a usar 0): " + e.getMessage());
+            return 0;
+        }
+    }
+}
\ No newline at end of file
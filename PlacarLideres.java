@@ -0,0 +1,555 @@
+// PlacarLideres.java
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Placar de líderes por jogador e por NivelDificuldade. Cada par
+ * (jogador, nível) tem um registo de tamanho fixo com a melhor pontuação,
+ * num ficheiro acedido por memory-mapped I/O: atualizar é escrever na memória,
+ * sem chamadas ao disco no game loop.
+ *
+ * Em memória, cada nível tem uma skip list indexável (com larguras), que dá o
+ * top N e a posição de um jogador em O(log n), e os nomes têm uma tabela de
+ * dispersão aberta que compara diretamente os bytes do ficheiro. Tudo vive em
+ * arrays de primitivos (como no MundoBolas), sem objetos por registo, por isso
+ * a reconstrução no arranque é rápida mesmo com centenas de milhares de registos.
+ *
+ * Formato (big-endian):
+ *   Cabeçalho (16 bytes): "PLCR" | versão (int) | quantidade (int) | reservado (int)
+ *   Registo   (32 bytes): nível (byte) | reservado (3) | pontuação (int) | instante ms (long) | jogador (16, UTF-8)
+ */
+public class PlacarLideres implements AutoCloseable {
+
+    // --- Formato do Ficheiro ---
+    static final int MAGIA = 0x504C4352; // "PLCR"
+    static final int VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 16;
+    static final int TAMANHO_REGISTO = 32;
+    static final int BYTES_NOME = 16;
+    private static final int POS_QUANTIDADE = 8;
+    private static final int POS_NOME = 16;
+    // O ficheiro cresce em blocos de registos (cada crescimento remapeia)
+    private static final int REGISTOS_POR_BLOCO = 4096;
+
+    // --- Skip List ---
+    private static final int NIVEIS_MAXIMOS = 16;
+    private static final int NUMERO_LISTAS = NivelDificuldade.values().length;
+    // Os nós 0..NUMERO_LISTAS-1 são as cabeças das listas; o registo r é o nó r + NUMERO_LISTAS
+    private static final int SEM_NO = -1;
+
+    private final FileChannel canal;
+    private MappedByteBuffer mapa;
+    private int capacidade;
+    private int quantidade;
+
+    // --- Nós (índice = nó) ---
+    private int[] pontuacoes;
+    private long[] instantes;
+    private byte[] alturas;
+    // Início das ligações do nó: ligacoes[inicio + 2i] = próximo no nível i, [inicio + 2i + 1] = largura do salto
+    private int[] inicioLigacoes;
+    private int[] ligacoes = new int[1024];
+    private int ligacoesUsadas = 0;
+
+    private final ListaOrdenada[] listas = new ListaOrdenada[NUMERO_LISTAS];
+
+    // --- Índice de Nomes (dispersão aberta: nó + 1, 0 = vazio) ---
+    private int[] indiceNomes;
+    private final byte[] nomeProcurado = new byte[BYTES_NOME];
+    private final byte[] nomeLido = new byte[BYTES_NOME];
+
+    public PlacarLideres(Path ficheiro) throws IOException {
+        this.canal = FileChannel.open(ficheiro,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (canal.size() == 0) {
+                mapear(REGISTOS_POR_BLOCO);
+                mapa.putInt(0, MAGIA).putInt(4, VERSAO).putInt(POS_QUANTIDADE, 0);
+            } else {
+                if (canal.size() < TAMANHO_CABECALHO) {
+                    throw new IOException("Ficheiro de placar truncado");
+                }
+                mapear((int) ((canal.size() - TAMANHO_CABECALHO) / TAMANHO_REGISTO));
+                if (mapa.getInt(0) != MAGIA) {
+                    throw new IOException("Ficheiro não é um placar de líderes");
+                }
+                if (mapa.getInt(4) != VERSAO) {
+                    throw new IOException("Versão de placar não suportada: " + mapa.getInt(4));
+                }
+                quantidade = Math.max(0, Math.min(mapa.getInt(POS_QUANTIDADE), capacidade));
+            }
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        reconstruirIndice();
+    }
+
+    // --- Consulta ---
+
+    public synchronized boolean isVazio() {
+        return quantidade == 0;
+    }
+
+    public synchronized int getQuantidade(NivelDificuldade nivel) {
+        return listas[nivel.ordinal()].tamanho;
+    }
+
+    /**
+     * Melhor pontuação do nível (0 se vazio).
+     */
+    public synchronized int getRecorde(NivelDificuldade nivel) {
+        int primeiro = proximo(nivel.ordinal(), 0);
+        return primeiro == SEM_NO ? 0 : pontuacoes[primeiro];
+    }
+
+    /**
+     * Melhor pontuação do jogador no nível (0 se não tiver registo).
+     */
+    public synchronized int getMelhor(String jogador, NivelDificuldade nivel) {
+        int no = procurarNome(jogador, nivel.ordinal());
+        return no == SEM_NO ? 0 : pontuacoes[no];
+    }
+
+    /**
+     * Posição (a partir de 1) do jogador no nível, ou 0 se não tiver registo.
+     */
+    public synchronized int posicao(String jogador, NivelDificuldade nivel) {
+        int no = procurarNome(jogador, nivel.ordinal());
+        return no == SEM_NO ? 0 : listas[nivel.ordinal()].posicao(no) + 1;
+    }
+
+    /**
+     * Preenche os arrays com os primeiros do nível, do melhor para o pior.
+     * @param jogadores Pode ser null se só interessarem as pontuações.
+     * @return Quantos foram preenchidos.
+     */
+    public synchronized int top(NivelDificuldade nivel, String[] jogadores, int[] pontuacoesTop) {
+        int n = 0;
+        for (int no = proximo(nivel.ordinal(), 0); no != SEM_NO && n < pontuacoesTop.length; no = proximo(no, 0)) {
+            if (jogadores != null) jogadores[n] = lerNome(no - NUMERO_LISTAS);
+            pontuacoesTop[n++] = pontuacoes[no];
+        }
+        return n;
+    }
+
+    // --- Atualização ---
+
+    /**
+     * Regista a pontuação se for a melhor do jogador nesse nível.
+     * @return true se o placar mudou.
+     */
+    public synchronized boolean registar(String jogador, NivelDificuldade nivel, int pontuacao) {
+        if (pontuacao <= 0) return false;
+        ListaOrdenada lista = listas[nivel.ordinal()];
+        long instante = System.currentTimeMillis();
+
+        int no = procurarNome(jogador, nivel.ordinal());
+        if (no != SEM_NO) {
+            if (pontuacao <= pontuacoes[no]) return false;
+            // A chave de ordenação muda: sai da lista e volta a entrar no novo lugar
+            lista.remover(no);
+            pontuacoes[no] = pontuacao;
+            instantes[no] = instante;
+            lista.inserir(no);
+            int pos = posicaoRegisto(no - NUMERO_LISTAS);
+            mapa.putInt(pos + 4, pontuacao).putLong(pos + 8, instante);
+            return true;
+        }
+
+        if (quantidade == capacidade) {
+            try {
+                mapear(capacidade + REGISTOS_POR_BLOCO);
+            } catch (IOException e) {
+                System.err.println("Erro ao aumentar placar: " + e.getMessage());
+                return false;
+            }
+            crescerNos();
+        }
+        // nomeProcurado ficou com o nome codificado pelo procurarNome
+        int registo = quantidade;
+        int pos = posicaoRegisto(registo);
+        mapa.put(pos, (byte) nivel.ordinal()).putInt(pos + 4, pontuacao).putLong(pos + 8, instante);
+        mapa.put(pos + POS_NOME, nomeProcurado);
+        // O registo fica completo antes de a quantidade o tornar visível
+        quantidade++;
+        mapa.putInt(POS_QUANTIDADE, quantidade);
+
+        no = registo + NUMERO_LISTAS;
+        pontuacoes[no] = pontuacao;
+        instantes[no] = instante;
+        criarLigacoes(no, lista.alturaAleatoria());
+        lista.inserir(no);
+        if (2 * quantidade > indiceNomes.length) {
+            reconstruirIndiceNomes(indiceNomes.length * 2);
+        } else {
+            indexarNome(no);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!canal.isOpen()) return;
+        try {
+            mapa.force();
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar placar: " + e.getMessage());
+        }
+    }
+
+    // --- Ficheiro ---
+
+    private void mapear(int registos) throws IOException {
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMANHO_CABECALHO + (long) registos * TAMANHO_REGISTO);
+        capacidade = registos;
+    }
+
+    private static int posicaoRegisto(int registo) {
+        return TAMANHO_CABECALHO + registo * TAMANHO_REGISTO;
+    }
+
+    private String lerNome(int registo) {
+        byte[] bytes = new byte[BYTES_NOME];
+        mapa.get(posicaoRegisto(registo) + POS_NOME, bytes);
+        int n = 0;
+        while (n < BYTES_NOME && bytes[n] != 0) {
+            n++;
+        }
+        return new String(bytes, 0, n, StandardCharsets.UTF_8);
+    }
+
+    // --- Índice de Nomes ---
+
+    // Codifica o nome em nomeProcurado (cortado aos bytes do registo, sem partir caracteres)
+    private void codificarNome(String jogador) {
+        String nome = jogador.trim();
+        byte[] bytes = nome.getBytes(StandardCharsets.UTF_8);
+        while (bytes.length > BYTES_NOME) {
+            nome = nome.substring(0, nome.length() - 1);
+            bytes = nome.getBytes(StandardCharsets.UTF_8);
+        }
+        Arrays.fill(nomeProcurado, (byte) 0);
+        System.arraycopy(bytes, 0, nomeProcurado, 0, bytes.length);
+    }
+
+    private static int dispersar(byte[] nome, int nivel) {
+        long h = 0xCBF29CE484222325L ^ nivel;
+        for (byte b : nome) {
+            h = (h ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        h ^= h >>> 29;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Nó do jogador no nível, ou SEM_NO. Deixa o nome codificado em nomeProcurado.
+     */
+    private int procurarNome(String jogador, int nivel) {
+        codificarNome(jogador);
+        int mascara = indiceNomes.length - 1;
+        for (int i = dispersar(nomeProcurado, nivel) & mascara; indiceNomes[i] != 0; i = (i + 1) & mascara) {
+            int no = indiceNomes[i] - 1;
+            int pos = posicaoRegisto(no - NUMERO_LISTAS);
+            if (mapa.get(pos) == nivel) {
+                mapa.get(pos + POS_NOME, nomeLido);
+                if (Arrays.equals(nomeLido, nomeProcurado)) return no;
+            }
+        }
+        return SEM_NO;
+    }
+
+    private void indexarNome(int no) {
+        int pos = posicaoRegisto(no - NUMERO_LISTAS);
+        mapa.get(pos + POS_NOME, nomeLido);
+        int mascara = indiceNomes.length - 1;
+        int i = dispersar(nomeLido, mapa.get(pos)) & mascara;
+        while (indiceNomes[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        indiceNomes[i] = no + 1;
+    }
+
+    private void reconstruirIndiceNomes(int tamanho) {
+        indiceNomes = new int[tamanho];
+        for (int r = 0; r < quantidade; r++) {
+            if (alturas[r + NUMERO_LISTAS] != 0) indexarNome(r + NUMERO_LISTAS);
+        }
+    }
+
+    // --- Reconstrução ---
+
+    /**
+     * Lê todos os registos e reconstrói as skip lists: ordena os nós de cada
+     * nível e acrescenta-os pela ordem, em tempo linear depois da ordenação.
+     */
+    private void reconstruirIndice() {
+        int nos = NUMERO_LISTAS + capacidade;
+        pontuacoes = new int[nos];
+        instantes = new long[nos];
+        alturas = new byte[nos];
+        inicioLigacoes = new int[nos];
+        for (int i = 0; i < NUMERO_LISTAS; i++) {
+            listas[i] = new ListaOrdenada(i, 0x9E3779B97F4A7C15L * (i + 1));
+        }
+
+        int[][] porNivel = new int[NUMERO_LISTAS][];
+        int[] contagem = new int[NUMERO_LISTAS];
+        for (int r = 0; r < quantidade; r++) {
+            int nivel = mapa.get(posicaoRegisto(r));
+            if (nivel >= 0 && nivel < NUMERO_LISTAS) contagem[nivel]++;
+        }
+        for (int i = 0; i < NUMERO_LISTAS; i++) {
+            porNivel[i] = new int[contagem[i]];
+            contagem[i] = 0;
+        }
+        for (int r = 0; r < quantidade; r++) {
+            int pos = posicaoRegisto(r);
+            int nivel = mapa.get(pos);
+            if (nivel < 0 || nivel >= NUMERO_LISTAS) continue; // registo inválido: ignorado
+            int no = r + NUMERO_LISTAS;
+            pontuacoes[no] = mapa.getInt(pos + 4);
+            instantes[no] = mapa.getLong(pos + 8);
+            criarLigacoes(no, listas[nivel].alturaAleatoria());
+            porNivel[nivel][contagem[nivel]++] = no;
+        }
+
+        for (int i = 0; i < NUMERO_LISTAS; i++) {
+            int[] ordenados = porNivel[i];
+            ordenar(ordenados, new int[ordenados.length], 0, ordenados.length);
+            for (int no : ordenados) {
+                listas[i].acrescentar(no);
+            }
+            listas[i].fecharAcrescentos();
+        }
+        reconstruirIndiceNomes(Integer.highestOneBit(Math.max(64, quantidade * 4) - 1) << 1);
+    }
+
+    // Ordenação por fusão dos nós pela ordem do placar (estável, sem comparadores em objetos)
+    private void ordenar(int[] nos, int[] auxiliar, int inicio, int fim) {
+        if (fim - inicio < 2) return;
+        int meio = (inicio + fim) >>> 1;
+        ordenar(nos, auxiliar, inicio, meio);
+        ordenar(nos, auxiliar, meio, fim);
+        if (comparar(nos[meio - 1], nos[meio]) <= 0) return;
+        System.arraycopy(nos, inicio, auxiliar, inicio, fim - inicio);
+        for (int i = inicio, a = inicio, b = meio; i < fim; i++) {
+            if (b >= fim || (a < meio && comparar(auxiliar[a], auxiliar[b]) <= 0)) {
+                nos[i] = auxiliar[a++];
+            } else {
+                nos[i] = auxiliar[b++];
+            }
+        }
+    }
+
+    private void crescerNos() {
+        int nos = NUMERO_LISTAS + capacidade;
+        pontuacoes = Arrays.copyOf(pontuacoes, nos);
+        instantes = Arrays.copyOf(instantes, nos);
+        alturas = Arrays.copyOf(alturas, nos);
+        inicioLigacoes = Arrays.copyOf(inicioLigacoes, nos);
+    }
+
+    // --- Nós e Ligações ---
+
+    private void criarLigacoes(int no, int altura) {
+        if (ligacoesUsadas + 2 * altura > ligacoes.length) {
+            ligacoes = Arrays.copyOf(ligacoes, Math.max(ligacoes.length * 2, ligacoesUsadas + 2 * altura));
+        }
+        alturas[no] = (byte) altura;
+        inicioLigacoes[no] = ligacoesUsadas;
+        for (int i = 0; i < altura; i++) {
+            ligacoes[ligacoesUsadas + 2 * i] = SEM_NO;
+            ligacoes[ligacoesUsadas + 2 * i + 1] = 0;
+        }
+        ligacoesUsadas += 2 * altura;
+    }
+
+    private int proximo(int no, int nivel) {
+        return ligacoes[inicioLigacoes[no] + 2 * nivel];
+    }
+
+    private void setProximo(int no, int nivel, int destino) {
+        ligacoes[inicioLigacoes[no] + 2 * nivel] = destino;
+    }
+
+    private int largura(int no, int nivel) {
+        return ligacoes[inicioLigacoes[no] + 2 * nivel + 1];
+    }
+
+    private void setLargura(int no, int nivel, int largura) {
+        ligacoes[inicioLigacoes[no] + 2 * nivel + 1] = largura;
+    }
+
+    // Negativo se a vem antes de b no placar: pontuação desc, instante asc, nó asc
+    private int comparar(int a, int b) {
+        if (pontuacoes[a] != pontuacoes[b]) return Integer.compare(pontuacoes[b], pontuacoes[a]);
+        if (instantes[a] != instantes[b]) return Long.compare(instantes[a], instantes[b]);
+        return Integer.compare(a, b);
+    }
+
+    // --- Skip List Indexável ---
+
+    /**
+     * Skip list de um nível de dificuldade sobre os arrays de nós. A largura de
+     * um salto é o número de posições que avança (até ao fim, se não tem destino).
+     */
+    private final class ListaOrdenada {
+        final int cabeca;
+        int tamanho = 0;
+        int niveis = 1;
+        private final GeradorAleatorio random;
+        // Caminho da procura, reutilizado entre operações
+        private final int[] caminho = new int[NIVEIS_MAXIMOS];
+        private final int[] posicaoCaminho = new int[NIVEIS_MAXIMOS];
+        // Usados pelo acrescentar (reconstrução): último nó e a sua posição em cada nível
+        private final int[] ultimo = new int[NIVEIS_MAXIMOS];
+        private final int[] posicaoUltimo = new int[NIVEIS_MAXIMOS];
+
+        ListaOrdenada(int cabeca, long semente) {
+            this.cabeca = cabeca;
+            this.random = new GeradorAleatorio(semente);
+            criarLigacoes(cabeca, NIVEIS_MAXIMOS);
+            Arrays.fill(ultimo, cabeca);
+            Arrays.fill(posicaoUltimo, -1);
+        }
+
+        // Altura geométrica com p = 1/4
+        int alturaAleatoria() {
+            int n = 1;
+            long bits = random.proximoLong();
+            while (n < NIVEIS_MAXIMOS && (bits & 3) == 0) {
+                n++;
+                bits >>>= 2;
+            }
+            return n;
+        }
+
+        // Preenche caminho[] com o último nó antes do nó dado em cada nível, e a sua posição
+        private void procurar(int chave) {
+            int atual = cabeca;
+            int posicao = -1;
+            for (int i = niveis - 1; i >= 0; i--) {
+                int seguinte;
+                while ((seguinte = proximo(atual, i)) != SEM_NO && comparar(seguinte, chave) < 0) {
+                    posicao += largura(atual, i);
+                    atual = seguinte;
+                }
+                caminho[i] = atual;
+                posicaoCaminho[i] = posicao;
+            }
+        }
+
+        void inserir(int no) {
+            procurar(no);
+            int alturaNo = alturas[no];
+            for (int i = niveis; i < alturaNo; i++) {
+                caminho[i] = cabeca;
+                posicaoCaminho[i] = -1;
+                setLargura(cabeca, i, tamanho + 1);
+            }
+            niveis = Math.max(niveis, alturaNo);
+
+            int posicaoNo = posicaoCaminho[0] + 1;
+            for (int i = 0; i < niveis; i++) {
+                int anterior = caminho[i];
+                if (i < alturaNo) {
+                    // O salto de anterior ganha uma posição e fica dividido em dois
+                    int salto = posicaoNo - posicaoCaminho[i];
+                    setProximo(no, i, proximo(anterior, i));
+                    setLargura(no, i, largura(anterior, i) - salto + 1);
+                    setProximo(anterior, i, no);
+                    setLargura(anterior, i, salto);
+                } else {
+                    setLargura(anterior, i, largura(anterior, i) + 1);
+                }
+            }
+            tamanho++;
+        }
+
+        void remover(int no) {
+            procurar(no);
+            for (int i = 0; i < niveis; i++) {
+                int anterior = caminho[i];
+                if (proximo(anterior, i) == no) {
+                    setLargura(anterior, i, largura(anterior, i) + largura(no, i) - 1);
+                    setProximo(anterior, i, proximo(no, i));
+                    setProximo(no, i, SEM_NO);
+                } else {
+                    setLargura(anterior, i, largura(anterior, i) - 1);
+                }
+            }
+            while (niveis > 1 && proximo(cabeca, niveis - 1) == SEM_NO) {
+                niveis--;
+            }
+            tamanho--;
+        }
+
+        // Acrescenta no fim (os nós chegam já por ordem); só usado na reconstrução
+        void acrescentar(int no) {
+            int posicaoNo = tamanho;
+            for (int i = 0; i < alturas[no]; i++) {
+                setProximo(ultimo[i], i, no);
+                setLargura(ultimo[i], i, posicaoNo - posicaoUltimo[i]);
+                ultimo[i] = no;
+                posicaoUltimo[i] = posicaoNo;
+            }
+            niveis = Math.max(niveis, alturas[no]);
+            tamanho++;
+        }
+
+        // Depois do último acrescentar: os saltos sem destino apontam para lá do fim
+        void fecharAcrescentos() {
+            for (int i = 0; i < NIVEIS_MAXIMOS; i++) {
+                setLargura(ultimo[i], i, tamanho - posicaoUltimo[i]);
+            }
+        }
+
+        // Posição (a partir de 0) de um nó que está na lista
+        int posicao(int no) {
+            procurar(no);
+            return posicaoCaminho[0] + 1;
+        }
+    }
+
+    // Uso: java PlacarLideres [ficheiro] [gerar N]
+    public static void main(String[] args) throws IOException {
+        Path ficheiro = Paths.get(args.length > 0 ? args[0] : PainelJogo.FICHEIRO_PLACAR);
+        long inicio = System.nanoTime();
+        try (PlacarLideres placar = new PlacarLideres(ficheiro)) {
+            System.out.printf(Locale.ROOT, "Aberto em %.1f ms%n", (System.nanoTime() - inicio) / 1e6);
+
+            if (args.length > 2 && args[1].equals("gerar")) {
+                int n = Integer.parseInt(args[2]);
+                GeradorAleatorio random = new GeradorAleatorio(7);
+                NivelDificuldade[] niveis = NivelDificuldade.values();
+                inicio = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    placar.registar("j" + (random.proximoLong() & 0xFFFFF),
+                        niveis[(int) ((random.proximoLong() >>> 1) % niveis.length)],
+                        1 + (int) (random.proximoDouble() * 500));
+                }
+                System.out.printf(Locale.ROOT, "%d registos em %.1f ms%n", n, (System.nanoTime() - inicio) / 1e6);
+            }
+
+            String[] jogadores = new String[10];
+            int[] pontuacoes = new int[10];
+            for (NivelDificuldade nivel : NivelDificuldade.values()) {
+                int n = placar.top(nivel, jogadores, pontuacoes);
+                System.out.println(nivel + " (" + placar.getQuantidade(nivel) + " jogadores)");
+                for (int i = 0; i < n; i++) {
+                    System.out.printf(Locale.ROOT, "  %2d. %-16s %d%n", i + 1, jogadores[i], pontuacoes[i]);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
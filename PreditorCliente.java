@@ -0,0 +1,301 @@
+// PreditorCliente.java
+
+/**
+ * Previsão do lado do cliente: corre a mesma Partida que o servidor (mesma
+ * semente, nível e colisão), por isso o lançamento do jogador começa a voar
+ * no próprio frame, sem esperar pela ida e volta à rede. O servidor aplica o
+ * lançamento no tick em que o cliente lançou (Partida.lancar com tick) e
+ * chega ao mesmo voo.
+ *
+ * Guarda um EstadoJogo por tick dos últimos HISTORIA ticks. Quando chega um
+ * instantâneo do servidor, compara-o com a previsão desse tick; se discordar
+ * (o adversário lançou, o servidor recusou um lançamento, ...), volta a esse
+ * tick, corrige com os valores do servidor e volta a simular até ao presente,
+ * reaplicando os lançamentos do jogador ainda não confirmados. A diferença
+ * entre o que estava desenhado e a nova previsão fica num erro de desenho que
+ * se desvanece em poucos passos, para a bola não saltar.
+ */
+public final class PreditorCliente {
+
+    // Ticks guardados (potência de 2): o máximo que uma correção pode recuar
+    public static final int HISTORIA = 64;
+    private static final int MASCARA = HISTORIA - 1;
+    // Diferenças aceites entre a previsão e o servidor, em unidades do InstantaneoRede
+    private static final int TOLERANCIA_POSICAO = InstantaneoRede.ESCALA_POSICAO;
+    private static final int TOLERANCIA_VELOCIDADE = InstantaneoRede.ESCALA_VELOCIDADE / 4;
+    // Fração do erro de desenho que sobra a cada passo (~10 passos até desaparecer)
+    private static final double SUAVIZACAO = 0.8;
+    // Correções maiores (a bola voltou à linha, por exemplo) aparecem logo, sem suavizar
+    private static final double SALTO_MAXIMO = 120;
+    private static final int MAX_PENDENTES = 16;
+
+    private final Partida partida;
+    private final int lado;
+    private final EstadoJogo[] historia = new EstadoJogo[HISTORIA];
+    private final EstadoJogo rascunho = new EstadoJogo();
+    private final InstantaneoRede previsto = new InstantaneoRede();
+    private BarramentoEventos barramento;
+
+    // --- Lançamentos do jogador ainda não confirmados (por ordem) ---
+    private final long[] tickPendente = new long[MAX_PENDENTES];
+    private final int[] dxPendente = new int[MAX_PENDENTES];
+    private final int[] dyPendente = new int[MAX_PENDENTES];
+    // Lançamentos que restam depois deste: o servidor confirma-o quando os seus restantes chegam aqui
+    private final int[] restantesPendente = new int[MAX_PENDENTES];
+    private int pendentes = 0;
+
+    // --- Desenho ---
+    private final double[] xAnterior = new double[Partida.JOGADORES];
+    private final double[] yAnterior = new double[Partida.JOGADORES];
+    private final double[] erroX = new double[Partida.JOGADORES];
+    private final double[] erroY = new double[Partida.JOGADORES];
+    // Posições antes de uma correção (reutilizadas)
+    private final double[] antesX = new double[Partida.JOGADORES];
+    private final double[] antesY = new double[Partida.JOGADORES];
+
+    // --- Estatísticas ---
+    private long correcoes = 0;
+    private long passosResimulados = 0;
+    private long nanosUltimaCorrecao = 0;
+    private long nanosMaximoCorrecao = 0;
+
+    /**
+     * @param partida A partida local, criada com os parâmetros da mensagem PARTIDA.
+     * @param lado    O jogador deste cliente.
+     */
+    public PreditorCliente(Partida partida, int lado) {
+        this.partida = partida;
+        this.lado = lado;
+        for (int i = 0; i < HISTORIA; i++) {
+            historia[i] = new EstadoJogo();
+            historia[i].tick = -1;
+        }
+        for (int j = 0; j < Partida.JOGADORES; j++) {
+            xAnterior[j] = partida.getBola(j).x;
+            yAnterior[j] = partida.getBola(j).y;
+        }
+        partida.guardarEstado(historia[(int) partida.getTick() & MASCARA]);
+    }
+
+    /**
+     * Publica os eventos da bola do jogador (áudio, efeitos) no barramento. Os
+     * passos simulados de novo numa correção não publicam: já foram ouvidos.
+     */
+    public void setBarramento(BarramentoEventos barramento) {
+        this.barramento = barramento;
+        partida.getSimulacao(lado).setBarramento(barramento);
+    }
+
+    // --- Previsão ---
+
+    /**
+     * Avança um passo fixo e guarda o estado na história.
+     */
+    public void avancar() {
+        passo();
+        for (int j = 0; j < Partida.JOGADORES; j++) {
+            erroX[j] *= SUAVIZACAO;
+            erroY[j] *= SUAVIZACAO;
+        }
+    }
+
+    private void passo() {
+        for (int j = 0; j < Partida.JOGADORES; j++) {
+            Bola bola = partida.getBola(j);
+            xAnterior[j] = bola.x;
+            yAnterior[j] = bola.y;
+        }
+        partida.passo();
+        partida.guardarEstado(historia[(int) partida.getTick() & MASCARA]);
+    }
+
+    /**
+     * Lança já a bola do jogador na previsão.
+     * @return O tick do lançamento (a enviar ao servidor), ou -1 se não foi aceite.
+     */
+    public long lancar(int dxArrasto, int dyArrasto) {
+        if (pendentes == MAX_PENDENTES) return -1;
+        long tick = partida.getTick();
+        if (!partida.lancar(lado, dxArrasto, dyArrasto)) return -1;
+        tickPendente[pendentes] = tick;
+        dxPendente[pendentes] = dxArrasto;
+        dyPendente[pendentes] = dyArrasto;
+        restantesPendente[pendentes] = partida.getRestantes(lado);
+        pendentes++;
+        return tick;
+    }
+
+    // --- Reconciliação ---
+
+    /**
+     * Compara um instantâneo do servidor com a previsão do mesmo tick e, se
+     * discordarem, volta atrás e simula de novo até ao tick atual.
+     * @return true se houve correção.
+     */
+    public boolean reconciliar(InstantaneoRede servidor) {
+        long t = servidor.tick;
+        // A previsão nunca fica atrás do servidor
+        while (partida.getTick() < t) avancar();
+        confirmarLancamentos(servidor);
+
+        EstadoJogo base = historia[(int) t & MASCARA];
+        boolean naHistoria = base.tick == t;
+        if (naHistoria) previsto.capturar(base);
+
+        int corrigir = 0;
+        for (int j = 0; j < Partida.JOGADORES; j++) {
+            // O servidor ainda não viu um lançamento anterior a t: vai aplicá-lo nesse tick, como aqui
+            if (j == lado && temPendenteAntes(t)) continue;
+            if (!naHistoria || difere(previsto, servidor, j)) corrigir |= 1 << j;
+        }
+        if (corrigir == 0) return false;
+
+        long inicio = System.nanoTime();
+        long atual = partida.getTick();
+        if (naHistoria) {
+            rascunho.copiarDe(base);
+        } else {
+            // Fora da história (só com atrasos enormes): os valores do servidor valem já para o presente
+            partida.guardarEstado(rascunho);
+        }
+        for (int j = 0; j < Partida.JOGADORES; j++) {
+            if ((corrigir & (1 << j)) != 0) aplicarServidor(rascunho, servidor, j);
+        }
+        resimular(rascunho, atual);
+        long nanos = System.nanoTime() - inicio;
+        correcoes++;
+        nanosUltimaCorrecao = nanos;
+        nanosMaximoCorrecao = Math.max(nanosMaximoCorrecao, nanos);
+        return true;
+    }
+
+    // Volta ao estado dado e simula até ao tick atual, com os lançamentos pendentes nos seus ticks
+    private void resimular(EstadoJogo estado, long atual) {
+        for (int j = 0; j < Partida.JOGADORES; j++) {
+            antesX[j] = partida.getBola(j).x;
+            antesY[j] = partida.getBola(j).y;
+        }
+
+        partida.restaurarEstado(estado);
+        historia[(int) estado.tick & MASCARA].copiarDe(estado);
+        Simulacao propria = partida.getSimulacao(lado);
+        propria.setBarramento(null);
+        int proximo = primeiroPendenteDesde(estado.tick);
+        while (true) {
+            long tick = partida.getTick();
+            while (proximo < pendentes && tickPendente[proximo] == tick) {
+                partida.lancar(lado, dxPendente[proximo], dyPendente[proximo]);
+                proximo++;
+            }
+            if (tick >= atual) break;
+            passo();
+            passosResimulados++;
+        }
+        propria.setBarramento(barramento);
+
+        for (int j = 0; j < Partida.JOGADORES; j++) {
+            suavizar(j, antesX[j], antesY[j]);
+        }
+    }
+
+    // O que estava desenhado passa a erro de desenho, que o avancar desvanece
+    private void suavizar(int j, double antesX, double antesY) {
+        Bola bola = partida.getBola(j);
+        double ex = erroX[j] + antesX - bola.x;
+        double ey = erroY[j] + antesY - bola.y;
+        if (Math.hypot(ex, ey) > SALTO_MAXIMO) {
+            ex = 0;
+            ey = 0;
+        }
+        erroX[j] = ex;
+        erroY[j] = ey;
+    }
+
+    // Põe no estado os valores do servidor para o jogador j (e o que se deduz deles)
+    private static void aplicarServidor(EstadoJogo estado, InstantaneoRede servidor, int j) {
+        double x = servidor.getX(j), y = servidor.getY(j);
+        estado.setReal(j, EstadoJogo.X, x);
+        estado.setReal(j, EstadoJogo.Y, y);
+        estado.setReal(j, EstadoJogo.VEL_X, servidor.getVelX(j));
+        estado.setReal(j, EstadoJogo.VEL_Y, servidor.getVelY(j));
+        estado.setReal(j, EstadoJogo.X_ANTERIOR, x);
+        estado.setReal(j, EstadoJogo.Y_ANTERIOR, y);
+
+        boolean movimento = servidor.get(j, InstantaneoRede.MOVIMENTO) != 0;
+        boolean previsto = estado.getInteiro(j, EstadoJogo.MOVIMENTO) != 0;
+        if (movimento && !previsto) {
+            // Um lançamento que a previsão não conhecia (a idade exata não vem no instantâneo)
+            estado.setInteiro(j, EstadoJogo.PASSOS_LANCAMENTO, 0);
+        } else if (!movimento && previsto) {
+            // O servidor já pôs a bola na linha
+            estado.setInteiro(j, EstadoJogo.PASSOS_LANCAMENTO, -1);
+            estado.setInteiro(j, EstadoJogo.TICK_PARADA, servidor.tick);
+            estado.setInteiro(j, EstadoJogo.PASSOU_ARO_TOPO, 0);
+        }
+        estado.setInteiro(j, EstadoJogo.MOVIMENTO, movimento ? 1 : 0);
+        estado.setInteiro(j, EstadoJogo.PONTOS, servidor.get(j, InstantaneoRede.PONTOS));
+        estado.setInteiro(j, EstadoJogo.RESTANTES, servidor.get(j, InstantaneoRede.RESTANTES));
+    }
+
+    private static boolean difere(InstantaneoRede a, InstantaneoRede b, int j) {
+        return Math.abs(a.get(j, InstantaneoRede.X) - b.get(j, InstantaneoRede.X)) > TOLERANCIA_POSICAO
+            || Math.abs(a.get(j, InstantaneoRede.Y) - b.get(j, InstantaneoRede.Y)) > TOLERANCIA_POSICAO
+            || Math.abs(a.get(j, InstantaneoRede.VEL_X) - b.get(j, InstantaneoRede.VEL_X)) > TOLERANCIA_VELOCIDADE
+            || Math.abs(a.get(j, InstantaneoRede.VEL_Y) - b.get(j, InstantaneoRede.VEL_Y)) > TOLERANCIA_VELOCIDADE
+            || a.get(j, InstantaneoRede.MOVIMENTO) != b.get(j, InstantaneoRede.MOVIMENTO)
+            || a.get(j, InstantaneoRede.PONTOS) != b.get(j, InstantaneoRede.PONTOS)
+            || a.get(j, InstantaneoRede.RESTANTES) != b.get(j, InstantaneoRede.RESTANTES);
+    }
+
+    // Tira os lançamentos que o servidor já contou; os muito antigos foram recusados
+    private void confirmarLancamentos(InstantaneoRede servidor) {
+        int restantes = servidor.get(lado, InstantaneoRede.RESTANTES);
+        int confirmados = 0;
+        while (confirmados < pendentes
+                && (restantes <= restantesPendente[confirmados] || servidor.tick - tickPendente[confirmados] >= HISTORIA)) {
+            confirmados++;
+        }
+        if (confirmados == 0) return;
+        pendentes -= confirmados;
+        System.arraycopy(tickPendente, confirmados, tickPendente, 0, pendentes);
+        System.arraycopy(dxPendente, confirmados, dxPendente, 0, pendentes);
+        System.arraycopy(dyPendente, confirmados, dyPendente, 0, pendentes);
+        System.arraycopy(restantesPendente, confirmados, restantesPendente, 0, pendentes);
+    }
+
+    private boolean temPendenteAntes(long tick) {
+        return pendentes > 0 && tickPendente[0] < tick;
+    }
+
+    private int primeiroPendenteDesde(long tick) {
+        int i = 0;
+        while (i < pendentes && tickPendente[i] < tick) i++;
+        return i;
+    }
+
+    // --- Desenho ---
+
+    /**
+     * Posição a desenhar: interpolada entre os dois últimos passos, mais o
+     * erro de desenho da última correção.
+     * @param alfa Fração do passo seguinte já decorrida.
+     */
+    public double getXDesenho(int jogador, double alfa) {
+        return xAnterior[jogador] + (partida.getBola(jogador).x - xAnterior[jogador]) * alfa + erroX[jogador];
+    }
+
+    public double getYDesenho(int jogador, double alfa) {
+        return yAnterior[jogador] + (partida.getBola(jogador).y - yAnterior[jogador]) * alfa + erroY[jogador];
+    }
+
+    // --- Acesso ao Estado ---
+
+    public Partida getPartida() { return partida; }
+    public int getLado() { return lado; }
+    public Simulacao getSimulacao() { return partida.getSimulacao(lado); }
+    public long getTick() { return partida.getTick(); }
+    public long getCorrecoes() { return correcoes; }
+    public long getPassosResimulados() { return passosResimulados; }
+    public long getNanosUltimaCorrecao() { return nanosUltimaCorrecao; }
+    public long getNanosMaximoCorrecao() { return nanosMaximoCorrecao; }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+// ProtocoloRede.java
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formato das mensagens entre o ServidorJogo e os clientes (TCP). Cada
+ * mensagem é [u8 comprimento][u8 tipo][conteúdo], com o comprimento a contar
+ * o tipo e o conteúdo. Os números variáveis são varints (LEB128), com zigzag
+ * quando podem ser negativos, para os deltas pequenos ocuparem um byte.
+ *
+ * Cliente -> servidor:
+ *   ENTRAR   [u8 versão][u8 nível][u8 colisão contínua]
+ *   LANCAR   [i16 dx][i16 dy][varint tick]  (o arrasto do rato, como na GravadorSessao, e o
+ *            tick do cliente quando lançou: ver Partida.lancar)
+ * Servidor -> cliente:
+ *   PARTIDA  [i32 id][u8 lado][u8 nível][u8 colisão contínua][i64 semente][u16 lançamentos por jogador]
+ *   INSTANTANEO  delta do estado (ver InstantaneoRede)
+ *   FIM      [u16 pontos do lado 0][u16 pontos do lado 1]
+ */
+public final class ProtocoloRede {
+
+    public static final int VERSAO = 2;
+    public static final int PORTA_PADRAO = 47_470;
+
+    // --- Tipos de Mensagem ---
+    public static final byte ENTRAR = 1;
+    public static final byte LANCAR = 2;
+    public static final byte PARTIDA = 10;
+    public static final byte INSTANTANEO = 11;
+    public static final byte FIM = 12;
+
+    // Maior mensagem possível (o comprimento é um byte)
+    public static final int TAMANHO_MAXIMO = 1 + 255;
+
+    private ProtocoloRede() {}
+
+    // --- Enquadramento ---
+
+    /**
+     * Começa uma mensagem: reserva o byte do comprimento e escreve o tipo.
+     * @return A posição do comprimento, para terminar.
+     */
+    public static int iniciar(ByteBuffer destino, byte tipo) {
+        int posicao = destino.position();
+        destino.put((byte) 0).put(tipo);
+        return posicao;
+    }
+
+    /**
+     * Preenche o comprimento da mensagem começada em posicao.
+     */
+    public static void terminar(ByteBuffer destino, int posicao) {
+        int comprimento = destino.position() - posicao - 1;
+        if (comprimento > 255) throw new IllegalStateException("Mensagem demasiado grande: " + comprimento);
+        destino.put(posicao, (byte) comprimento);
+    }
+
+    /**
+     * Comprimento da próxima mensagem completa no buffer (em modo leitura),
+     * sem o byte do comprimento, ou -1 se ainda não chegou toda.
+     */
+    public static int proximaMensagem(ByteBuffer origem) {
+        if (!origem.hasRemaining()) return -1;
+        int comprimento = origem.get(origem.position()) & 0xFF;
+        return origem.remaining() > comprimento ? comprimento : -1;
+    }
+
+    // --- Varints ---
+
+    public static void escreverVarint(ByteBuffer destino, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            destino.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        destino.put((byte) valor);
+    }
+
+    public static long lerVarint(ByteBuffer origem) {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            byte b = origem.get();
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if (b >= 0) return valor;
+        }
+        throw new IllegalArgumentException("Varint inválido");
+    }
+
+    // Zigzag: 0, -1, 1, -2, ... -> 0, 1, 2, 3, ...
+    public static void escreverVarintComSinal(ByteBuffer destino, long valor) {
+        escreverVarint(destino, (valor << 1) ^ (valor >> 63));
+    }
+
+    public static long lerVarintComSinal(ByteBuffer origem) {
+        long v = lerVarint(origem);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,259 @@
+// Quadra.java
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Descrição de uma quadra: tamanho do mundo, ponto de partida da bola, cestos
+ * (fixos ou móveis) e obstáculos. A quadra padrão é a do jogo original; as
+ * outras vêm de um ficheiro de texto compacto, uma instrução por linha:
+ *
+ *   # comentário
+ *   tamanho 1200 700
+ *   partida 100
+ *   cesto 1050 380                      (tabela em x, y; aro à esquerda)
+ *   cesto 150 300 direita 0 60 4        (aro à direita; oscila 60px na vertical em 4 s)
+ *   retangulo 500 420 120 20
+ *   circulo 760 250 18
+ *
+ * Uma quadra nova é só um ficheiro: é compilada uma vez para um LayoutColisao,
+ * por isso não custa nada por frame nem obriga a recompilar classes.
+ */
+public class Quadra {
+
+    // Margem do chão em relação ao fundo do mundo (como no jogo original)
+    public static final int MARGEM_CHAO = 10;
+    static final double COEF_RESTITUICAO_OBSTACULO = 0.7;
+    private static final Color CINZA_OBSTACULO = new Color(90, 90, 100);
+    private static final Color PRETO = new Color(0, 0, 0);
+
+    /**
+     * Obstáculo fixo: retângulo (x, y no canto superior esquerdo) ou círculo (x, y no centro).
+     */
+    public static final class Obstaculo {
+        final boolean circulo;
+        final double x, y;
+        final double largura, altura;
+        final double raio;
+
+        private Obstaculo(boolean circulo, double x, double y, double largura, double altura, double raio) {
+            this.circulo = circulo;
+            this.x = x;
+            this.y = y;
+            this.largura = largura;
+            this.altura = altura;
+            this.raio = raio;
+        }
+
+        static Obstaculo retangulo(double x, double y, double largura, double altura) {
+            return new Obstaculo(false, x, y, largura, altura, 0);
+        }
+
+        static Obstaculo circulo(double x, double y, double raio) {
+            return new Obstaculo(true, x, y, 0, 0, raio);
+        }
+
+        void desenhar(Graphics2D g) {
+            int gx = (int) Math.round(circulo ? x - raio : x);
+            int gy = (int) Math.round(circulo ? y - raio : y);
+            int gl = (int) Math.round(circulo ? 2 * raio : largura);
+            int ga = (int) Math.round(circulo ? 2 * raio : altura);
+            g.setColor(CINZA_OBSTACULO);
+            if (circulo) g.fillOval(gx, gy, gl, ga); else g.fillRect(gx, gy, gl, ga);
+            g.setColor(PRETO);
+            if (circulo) g.drawOval(gx, gy, gl, ga); else g.drawRect(gx, gy, gl, ga);
+        }
+    }
+
+    private final int largura;
+    private final int altura;
+    private final int xPartida;
+    private final List<Cesto> cestos;
+    private final List<Obstaculo> obstaculos;
+    // Texto de origem (null na quadra padrão), guardado nas gravações de sessão
+    private final String texto;
+
+    private Quadra(int largura, int altura, int xPartida, List<Cesto> cestos, List<Obstaculo> obstaculos, String texto) {
+        this.largura = largura;
+        this.altura = altura;
+        this.xPartida = xPartida;
+        this.cestos = Collections.unmodifiableList(cestos);
+        this.obstaculos = Collections.unmodifiableList(obstaculos);
+        this.texto = texto;
+    }
+
+    /**
+     * A quadra do jogo original: um cesto padrão, sem obstáculos. Noutro tamanho,
+     * o cesto fica à mesma distância da parede direita e do fundo (no tamanho
+     * do jogo é o new Cesto()).
+     */
+    public static Quadra padrao(int largura, int altura) {
+        List<Cesto> cestos = new ArrayList<>();
+        cestos.add(new Cesto(largura - (PainelJogo.LARGURA - Cesto.X_CESTO_POSTE),
+                             altura - (PainelJogo.ALTURA - Cesto.Y_CESTO_TOPO), false, 0, 0, 0));
+        return new Quadra(largura, altura, Simulacao.X_INICIAL, cestos, new ArrayList<>(), null);
+    }
+
+    public static Quadra padrao() {
+        return padrao(PainelJogo.LARGURA, PainelJogo.ALTURA);
+    }
+
+    public static Quadra carregar(Path ficheiro) throws IOException {
+        return ler(new String(Files.readAllBytes(ficheiro), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Interpreta o texto de uma quadra.
+     * @throws IOException se alguma linha não for válida (a mensagem indica qual).
+     */
+    public static Quadra ler(String texto) throws IOException {
+        int largura = PainelJogo.LARGURA;
+        int altura = PainelJogo.ALTURA;
+        int xPartida = Simulacao.X_INICIAL;
+        List<Cesto> cestos = new ArrayList<>();
+        List<Obstaculo> obstaculos = new ArrayList<>();
+
+        String[] linhas = texto.split("\r?\n");
+        for (int n = 0; n < linhas.length; n++) {
+            String linha = linhas[n];
+            int comentario = linha.indexOf('#');
+            if (comentario >= 0) linha = linha.substring(0, comentario);
+            linha = linha.trim();
+            if (linha.isEmpty()) continue;
+
+            String[] p = linha.split("\\s+");
+            try {
+                switch (p[0].toLowerCase(Locale.ROOT)) {
+                    case "tamanho":
+                        exigir(p, 3, 3);
+                        largura = inteiro(p[1]);
+                        altura = inteiro(p[2]);
+                        if (largura < 4 * Bola.RAIO_BOLA || altura < 4 * Bola.RAIO_BOLA + MARGEM_CHAO) {
+                            throw new IllegalArgumentException("quadra demasiado pequena");
+                        }
+                        break;
+                    case "partida":
+                        exigir(p, 2, 2);
+                        xPartida = inteiro(p[1]);
+                        break;
+                    case "cesto":
+                        exigir(p, 3, 7);
+                        boolean aroADireita = false;
+                        int i = 3;
+                        if (p.length > 3 && !Character.isDigit(p[3].charAt(0)) && p[3].charAt(0) != '-') {
+                            aroADireita = lado(p[3]);
+                            i = 4;
+                        }
+                        double ax = 0, ay = 0;
+                        int periodo = 0;
+                        if (p.length > i) {
+                            if (p.length != i + 3) throw new IllegalArgumentException("movimento precisa de amplitudeX amplitudeY periodo");
+                            ax = Double.parseDouble(p[i]);
+                            ay = Double.parseDouble(p[i + 1]);
+                            periodo = (int) Math.round(Double.parseDouble(p[i + 2]) * Simulacao.PASSOS_POR_SEGUNDO);
+                            if (periodo <= 0) throw new IllegalArgumentException("periodo tem de ser positivo");
+                        }
+                        cestos.add(new Cesto(inteiro(p[1]), inteiro(p[2]), aroADireita, ax, ay, periodo));
+                        break;
+                    case "retangulo":
+                        exigir(p, 5, 5);
+                        double l = Double.parseDouble(p[3]), a = Double.parseDouble(p[4]);
+                        if (l <= 0 || a <= 0) throw new IllegalArgumentException("dimensões têm de ser positivas");
+                        obstaculos.add(Obstaculo.retangulo(Double.parseDouble(p[1]), Double.parseDouble(p[2]), l, a));
+                        break;
+                    case "circulo":
+                        exigir(p, 4, 4);
+                        double r = Double.parseDouble(p[3]);
+                        if (r <= 0) throw new IllegalArgumentException("raio tem de ser positivo");
+                        obstaculos.add(Obstaculo.circulo(Double.parseDouble(p[1]), Double.parseDouble(p[2]), r));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("instrução desconhecida '" + p[0] + "'");
+                }
+            } catch (IllegalArgumentException e) {
+                // Inclui o NumberFormatException dos números mal escritos
+                throw new IOException("Quadra inválida, linha " + (n + 1) + ": " + e.getMessage());
+            }
+        }
+        if (cestos.isEmpty()) {
+            throw new IOException("Quadra inválida: sem nenhum cesto");
+        }
+        if (xPartida < Bola.RAIO_BOLA || xPartida > largura - Bola.RAIO_BOLA) {
+            throw new IOException("Quadra inválida: partida fora da quadra");
+        }
+        return new Quadra(largura, altura, xPartida, cestos, obstaculos, texto);
+    }
+
+    private static void exigir(String[] partes, int minimo, int maximo) {
+        if (partes.length < minimo || partes.length > maximo) {
+            throw new IllegalArgumentException("número de valores errado para '" + partes[0] + "'");
+        }
+    }
+
+    private static int inteiro(String texto) {
+        return (int) Math.round(Double.parseDouble(texto));
+    }
+
+    private static boolean lado(String texto) {
+        switch (texto.toLowerCase(Locale.ROOT)) {
+            case "direita": return true;
+            case "esquerda": return false;
+            default: throw new IllegalArgumentException("lado do aro desconhecido '" + texto + "'");
+        }
+    }
+
+    /**
+     * Compila a geometria para a fase de colisão. Cada Simulacao compila o seu
+     * (os cestos móveis reescrevem as posições do layout a cada passo).
+     */
+    public LayoutColisao compilar() {
+        return new LayoutColisao(this);
+    }
+
+    /**
+     * Pinta os obstáculos e os cestos fixos (o que vai para a camada estática).
+     */
+    public void desenharEstatico(Graphics2D g) {
+        for (Obstaculo obstaculo : obstaculos) {
+            obstaculo.desenhar(g);
+        }
+        for (Cesto cesto : cestos) {
+            if (!cesto.isMovel()) cesto.desenhar(g, altura);
+        }
+    }
+
+    /**
+     * Pinta os cestos móveis na posição do tick (a cada frame).
+     */
+    public void desenharMoveis(Graphics2D g, long tick) {
+        for (Cesto cesto : cestos) {
+            if (cesto.isMovel()) cesto.desenhar(g, altura, tick);
+        }
+    }
+
+    public boolean temCestosMoveis() {
+        for (Cesto cesto : cestos) {
+            if (cesto.isMovel()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * true para a quadra do jogo original, a única onde as regras discretas se aplicam.
+     */
+    public boolean isPadrao() { return texto == null; }
+    public int getLargura() { return largura; }
+    public int getAltura() { return altura; }
+    public int getAlturaChao() { return altura - MARGEM_CHAO; }
+    public int getXPartida() { return xPartida; }
+    public List<Cesto> getCestos() { return cestos; }
+    public List<Obstaculo> getObstaculos() { return obstaculos; }
+    public String getTexto() { return texto; }
+}
\ No newline at end of file
@@ -0,0 +1,199 @@
+// ReprodutorSessao.java
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+
+/**
+ * Repete headless, à velocidade máxima, uma sessão gravada pelo GravadorSessao
+ * e verifica a pontuação final. Serve para reproduzir relatos de jogadores e
+ * para testes de regressão da física. Nas gravações com hashes de estado
+ * (versão 4) verifica também o estado completo em cada lançamento e no fim:
+ * a física é determinista bit a bit, por isso qualquer diferença é uma
+ * gravação adulterada ou uma mudança na física.
+ *
+ * Nada do que vem na gravação além das entradas entra na simulação: o gerador
+ * do erro de lançamento nasce da semente gravada, como no PainelJogo, e o
+ * estado do gerador gravado em cada lançamento só é comparado. Os hashes
+ * selados (GravadorSessao.OPCAO_HASH_SELADO) só se verificam com a chave.
+ */
+public class ReprodutorSessao {
+
+    /**
+     * Resultado de uma reprodução.
+     */
+    public static class Resultado {
+        public final int pontuacaoObtida;
+        // -1 se a gravação não tem evento de fim (ex: o jogo terminou abruptamente)
+        public final int pontuacaoGravada;
+        public final long ticks;
+        public final int lancamentos;
+        public final long hashFinal;
+        // Primeiro tick em que o hash ou o gerador reproduzido difere do gravado (-1 se nunca)
+        public final long tickDivergencia;
+
+        Resultado(int pontuacaoObtida, int pontuacaoGravada, long ticks, int lancamentos, long hashFinal,
+                  long tickDivergencia) {
+            this.pontuacaoObtida = pontuacaoObtida;
+            this.pontuacaoGravada = pontuacaoGravada;
+            this.ticks = ticks;
+            this.lancamentos = lancamentos;
+            this.hashFinal = hashFinal;
+            this.tickDivergencia = tickDivergencia;
+        }
+
+        public boolean temFim() {
+            return pontuacaoGravada >= 0;
+        }
+
+        public boolean confere() {
+            return tickDivergencia < 0 && (!temFim() || pontuacaoObtida == pontuacaoGravada);
+        }
+    }
+
+    /**
+     * Lê e reproduz a sessão gravada no ficheiro.
+     * @throws IOException se o ficheiro não puder ser lido ou não for uma gravação válida.
+     */
+    public static Resultado reproduzir(Path ficheiro) throws IOException {
+        return reproduzir(ficheiro, null);
+    }
+
+    /**
+     * @param chave Chave de verificação dos hashes selados (null se a gravação não os tem).
+     */
+    public static Resultado reproduzir(Path ficheiro, byte[] chave) throws IOException {
+        ByteBuffer dados;
+        try (FileChannel canal = FileChannel.open(ficheiro, StandardOpenOption.READ)) {
+            dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        return reproduzir(dados, chave);
+    }
+
+    public static Resultado reproduzir(ByteBuffer dados) throws IOException {
+        return reproduzir(dados, null);
+    }
+
+    public static Resultado reproduzir(ByteBuffer dados, byte[] chave) throws IOException {
+        if (dados.remaining() < 14 || dados.getInt() != GravadorSessao.MAGIA) {
+            throw new IOException("Ficheiro não é uma gravação de sessão");
+        }
+        byte versao = dados.get();
+        if (versao != GravadorSessao.VERSAO && versao != GravadorSessao.VERSAO_SEM_HASH
+                && versao != GravadorSessao.VERSAO_SEM_QUADRA && versao != GravadorSessao.VERSAO_SEM_OPCOES) {
+            throw new IOException("Versão de gravação não suportada: " + versao);
+        }
+        long semente = dados.getLong();
+        NivelDificuldade[] niveis = NivelDificuldade.values();
+        NivelDificuldade nivelInicial = niveis[dados.get()];
+        byte opcoes = 0;
+        Quadra quadra = Quadra.padrao();
+        if (versao != GravadorSessao.VERSAO_SEM_OPCOES) {
+            if (!dados.hasRemaining()) throw new IOException("Cabeçalho de gravação incompleto");
+            opcoes = dados.get();
+        }
+        if ((opcoes & GravadorSessao.OPCAO_QUADRA) != 0) {
+            if (dados.remaining() < 4) throw new IOException("Cabeçalho de gravação incompleto");
+            byte[] texto = new byte[dados.getInt()];
+            if (texto.length > dados.remaining()) throw new IOException("Cabeçalho de gravação incompleto");
+            dados.get(texto);
+            quadra = Quadra.ler(new String(texto, StandardCharsets.UTF_8));
+        }
+        boolean selada = (opcoes & GravadorSessao.OPCAO_HASH_SELADO) != 0;
+        if (selada && chave == null) {
+            throw new IOException("Gravação com hashes selados: falta a chave de verificação");
+        }
+        if (!selada && chave != null) {
+            throw new IOException("A gravação não está selada: não pode ser verificada com a chave");
+        }
+        Mac selo = selada ? GravadorSessao.criarSelo(chave) : null;
+        Simulacao simulacao = new Simulacao(quadra, nivelInicial, new GeradorAleatorio(semente));
+        simulacao.setColisaoContinua((opcoes & GravadorSessao.OPCAO_COLISAO_CONTINUA) != 0);
+
+        boolean comHash = versao == GravadorSessao.VERSAO;
+        int pontuacaoGravada = -1;
+        int lancamentos = 0;
+        long tickDivergencia = -1;
+        try {
+            while (dados.hasRemaining() && pontuacaoGravada < 0) {
+                byte tipo = dados.get();
+                long tick = dados.getInt() & 0xFFFFFFFFL;
+                simulacao.simularAteTick(tick);
+
+                switch (tipo) {
+                    case GravadorSessao.EVENTO_LANCAMENTO:
+                        int dx = dados.getInt();
+                        int dy = dados.getInt();
+                        // O gerador gravado tem de ser o que a semente deu até aqui
+                        if (dados.getLong() != simulacao.getRandom().getEstado() && tickDivergencia < 0) {
+                            tickDivergencia = tick;
+                        }
+                        if (comHash && dados.getLong() != GravadorSessao.selar(selo, simulacao.hashEstado())
+                                && tickDivergencia < 0) {
+                            tickDivergencia = tick;
+                        }
+                        simulacao.lancarArrasto(dx, dy);
+                        lancamentos++;
+                        break;
+                    case GravadorSessao.EVENTO_DIFICULDADE:
+                        simulacao.setDificuldade(niveis[dados.get()]);
+                        break;
+                    case GravadorSessao.EVENTO_REINICIAR_BOLA:
+                        simulacao.reiniciarBola();
+                        break;
+                    case GravadorSessao.EVENTO_ZERAR_PONTUACAO:
+                        simulacao.zerarPontuacao();
+                        break;
+                    case GravadorSessao.EVENTO_FIM:
+                        pontuacaoGravada = dados.getInt();
+                        if (comHash && dados.getLong() != GravadorSessao.selar(selo, simulacao.hashEstado())
+                                && tickDivergencia < 0) {
+                            tickDivergencia = tick;
+                        }
+                        break;
+                    default:
+                        throw new IOException("Evento desconhecido na gravação: " + tipo);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // Gravação truncada: reproduz até ao último evento completo
+        }
+        // Sem evento de fim, deixa o último lançamento terminar
+        if (pontuacaoGravada < 0) {
+            simulacao.simularAteRepouso(Simulacao.MAX_PASSOS_LANCAMENTO);
+        }
+        return new Resultado(simulacao.getPontuacao(), pontuacaoGravada, simulacao.getTick(), lancamentos,
+            simulacao.hashEstado(), tickDivergencia);
+    }
+
+    // Uso: java ReprodutorSessao [ficheiro] [chave de verificação em hexadecimal]
+    public static void main(String[] args) throws IOException {
+        Path ficheiro = Paths.get(args.length > 0 ? args[0] : PainelJogo.FICHEIRO_GRAVACAO);
+        byte[] chave = args.length > 1 ? HexFormat.of().parseHex(args[1]) : null;
+
+        long inicio = System.nanoTime();
+        Resultado resultado = reproduzir(ficheiro, chave);
+        double ms = (System.nanoTime() - inicio) / 1e6;
+
+        System.out.println("Lançamentos: " + resultado.lancamentos + ", ticks: " + resultado.ticks
+            + ", tempo: " + String.format("%.1f ms", ms));
+        System.out.println("Pontuação reproduzida: " + resultado.pontuacaoObtida
+            + (resultado.temFim() ? ", gravada: " + resultado.pontuacaoGravada : " (gravação sem fim)"));
+        System.out.println("Hash do estado final: " + Long.toHexString(resultado.hashFinal));
+        if (resultado.tickDivergencia >= 0) {
+            System.err.println("DIVERGÊNCIA: o estado reproduzido difere do gravado no tick " + resultado.tickDivergencia + ".");
+            System.exit(1);
+        }
+        if (!resultado.confere()) {
+            System.err.println("DIVERGÊNCIA: a pontuação reproduzida não confere com a gravada.");
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,431 @@
+// ServidorJogo.java
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Servidor headless das partidas frente a frente: simula todas as Partidas
+ * com autoridade, num só thread com um Selector NIO não bloqueante. Os
+ * clientes mandam só os lançamentos (ProtocoloRede.LANCAR) e recebem
+ * instantâneos quantizados e em delta (InstantaneoRede) a 20 Hz, ou um por
+ * segundo quando nada muda, o que dá poucas centenas de bytes por segundo.
+ *
+ * Os clientes que pedem o mesmo nível e modo de colisão são emparelhados por
+ * ordem de chegada. Nada é alocado por passo: cada ligação tem buffers fixos
+ * e cada partida os seus dois instantâneos (o último enviado e o atual).
+ *
+ * Uso: java ServidorJogo [porta]
+ */
+public class ServidorJogo implements AutoCloseable {
+
+    private static final long NANOS_POR_PASSO = 1_000_000_000L / Simulacao.PASSOS_POR_SEGUNDO;
+    // 20 instantâneos por segundo; sem mudanças, só um por segundo (para o cliente saber o tick)
+    private static final int PASSOS_POR_INSTANTANEO = 3;
+    private static final int PASSOS_SEM_INSTANTANEO = Simulacao.PASSOS_POR_SEGUNDO;
+    // Atraso máximo recuperado de uma vez (o resto do atraso é descartado e contado)
+    private static final int MAX_PASSOS_POR_CICLO = 5;
+    // Saída por ligação: um cliente que não lê e a enche é desligado
+    private static final int TAMANHO_SAIDA = 8 * 1024;
+    private static final int TAMANHO_ENTRADA = 512;
+    private static final long INTERVALO_ESTATISTICAS_NANOS = 10_000_000_000L;
+
+    /**
+     * Um cliente ligado.
+     */
+    private static final class Ligacao {
+        final SocketChannel canal;
+        SelectionKey chave;
+        final ByteBuffer entrada = ByteBuffer.allocate(TAMANHO_ENTRADA);
+        final ByteBuffer saida = ByteBuffer.allocate(TAMANHO_SAIDA);
+        Sala sala;
+        int lado;
+        // Chave de emparelhamento enquanto espera (-1 se não está à espera)
+        int filaEspera = -1;
+        boolean pendente = false;
+        boolean fecharDepoisDeEnviar = false;
+        boolean fechada = false;
+
+        Ligacao(SocketChannel canal) {
+            this.canal = canal;
+        }
+    }
+
+    /**
+     * Uma partida em curso com os dois clientes e os instantâneos do delta.
+     */
+    private static final class Sala {
+        final Partida partida;
+        final Ligacao[] jogadores;
+        // O último estado enviado (a base dos deltas) e o atual; os dois clientes recebem o mesmo
+        final InstantaneoRede enviado = new InstantaneoRede();
+        final InstantaneoRede atual = new InstantaneoRede();
+        // Desfasamento dos instantâneos, para não caírem todos no mesmo passo
+        final int fase;
+        // Lançamento de um cliente adiantado em relação ao servidor, à espera do seu tick (-1 sem)
+        final long[] tickAgendado = { -1, -1 };
+        final int[] dxAgendado = new int[Partida.JOGADORES];
+        final int[] dyAgendado = new int[Partida.JOGADORES];
+
+        Sala(Partida partida, Ligacao[] jogadores) {
+            this.partida = partida;
+            this.jogadores = jogadores;
+            this.fase = partida.getId() % PASSOS_POR_INSTANTANEO;
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel servidor;
+    private final List<Sala> salas = new ArrayList<>();
+    private final List<Ligacao> pendentes = new ArrayList<>();
+    // Um cliente à espera por nível e modo de colisão
+    private final Ligacao[] aEspera = new Ligacao[NivelDificuldade.values().length * 2];
+    // Mensagem em construção (copiada para a saída de cada cliente)
+    private final ByteBuffer rascunho = ByteBuffer.allocate(ProtocoloRede.TAMANHO_MAXIMO);
+    // Estado da partida a enviar (copiado antes de quantizar)
+    private final EstadoJogo estado = new EstadoJogo();
+    private final GeradorAleatorio sementes = new GeradorAleatorio();
+    private int proximoId = 1;
+    private volatile boolean parado = false;
+
+    // --- Estatísticas (thread do servidor) ---
+    private int ligacoes = 0;
+    private long passosDados = 0, passosPerdidos = 0;
+    private long nanosEmPassos = 0;
+    private long bytesEnviados = 0;
+    private long partidasTerminadas = 0;
+    private boolean mostrarEstatisticas = false;
+
+    /**
+     * @param porta Porta TCP (0 escolhe uma livre; ver getPorta).
+     */
+    public ServidorJogo(int porta) throws IOException {
+        this.selector = Selector.open();
+        this.servidor = ServerSocketChannel.open();
+        servidor.bind(new InetSocketAddress(porta));
+        servidor.configureBlocking(false);
+        servidor.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPorta() {
+        return servidor.socket().getLocalPort();
+    }
+
+    public void setMostrarEstatisticas(boolean mostrar) {
+        this.mostrarEstatisticas = mostrar;
+    }
+
+    /**
+     * Corre o ciclo do servidor até parar: atende a rede e avança todas as
+     * partidas em passos fixos de 1/60 s.
+     */
+    public void executar() throws IOException {
+        long proximoPasso = System.nanoTime();
+        long proximasEstatisticas = proximoPasso + INTERVALO_ESTATISTICAS_NANOS;
+        while (!parado) {
+            long espera = proximoPasso - System.nanoTime();
+            if (espera > 1_000_000) {
+                selector.select(this::tratarChave, espera / 1_000_000);
+            } else {
+                selector.selectNow(this::tratarChave);
+            }
+
+            int passos = 0;
+            long agora = System.nanoTime();
+            while (agora - proximoPasso >= 0 && passos < MAX_PASSOS_POR_CICLO) {
+                passoPartidas();
+                proximoPasso += NANOS_POR_PASSO;
+                passos++;
+            }
+            if (agora - proximoPasso >= 0) {
+                // Atrasado demais: salta o tempo em falta em vez de acelerar o jogo
+                passosPerdidos += (agora - proximoPasso) / NANOS_POR_PASSO + 1;
+                proximoPasso = agora + NANOS_POR_PASSO;
+            }
+            nanosEmPassos += System.nanoTime() - agora;
+            despejarSaidas();
+
+            if (mostrarEstatisticas && agora - proximasEstatisticas >= 0) {
+                System.out.println(getEstatisticas());
+                proximasEstatisticas = agora + INTERVALO_ESTATISTICAS_NANOS;
+            }
+        }
+    }
+
+    /**
+     * Pede a paragem do ciclo (pode ser chamado de outra thread).
+     */
+    public void parar() {
+        parado = true;
+        selector.wakeup();
+    }
+
+    // --- Rede ---
+
+    private void tratarChave(SelectionKey chave) {
+        try {
+            if (chave.isAcceptable()) {
+                aceitar();
+                return;
+            }
+            Ligacao ligacao = (Ligacao) chave.attachment();
+            if (chave.isReadable()) ler(ligacao);
+            if (chave.isValid() && chave.isWritable()) marcarPendente(ligacao);
+        } catch (IOException e) {
+            Object anexo = chave.attachment();
+            if (anexo instanceof Ligacao) desligar((Ligacao) anexo);
+        }
+    }
+
+    private void aceitar() throws IOException {
+        SocketChannel canal;
+        while ((canal = servidor.accept()) != null) {
+            canal.configureBlocking(false);
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Ligacao ligacao = new Ligacao(canal);
+            ligacao.chave = canal.register(selector, SelectionKey.OP_READ, ligacao);
+            ligacoes++;
+        }
+    }
+
+    private void ler(Ligacao ligacao) throws IOException {
+        if (ligacao.canal.read(ligacao.entrada) < 0) {
+            desligar(ligacao);
+            return;
+        }
+        ByteBuffer entrada = ligacao.entrada;
+        entrada.flip();
+        int comprimento;
+        while (!ligacao.fechada && (comprimento = ProtocoloRede.proximaMensagem(entrada)) >= 0) {
+            int fim = entrada.position() + 1 + comprimento;
+            entrada.get();
+            if (comprimento == 0 || !tratarMensagem(ligacao, entrada.get(), entrada)) {
+                desligar(ligacao);
+                return;
+            }
+            entrada.position(fim);
+        }
+        entrada.compact();
+    }
+
+    // @return false se a mensagem não é válida (o cliente é desligado)
+    private boolean tratarMensagem(Ligacao ligacao, byte tipo, ByteBuffer conteudo) {
+        try {
+            switch (tipo) {
+                case ProtocoloRede.ENTRAR: {
+                    int versao = conteudo.get() & 0xFF;
+                    int nivel = conteudo.get() & 0xFF;
+                    boolean continua = conteudo.get() != 0;
+                    if (versao != ProtocoloRede.VERSAO || nivel >= NivelDificuldade.values().length) return false;
+                    if (ligacao.sala != null || ligacao.filaEspera >= 0) return false;
+                    emparelhar(ligacao, NivelDificuldade.values()[nivel], continua);
+                    return true;
+                }
+                case ProtocoloRede.LANCAR: {
+                    int dx = conteudo.getShort();
+                    int dy = conteudo.getShort();
+                    long tickCliente = ProtocoloRede.lerVarint(conteudo);
+                    // Fora de uma partida (ou já sem lançamentos) é ignorado
+                    if (ligacao.sala != null) lancar(ligacao.sala, ligacao.lado, dx, dy, tickCliente);
+                    return true;
+                }
+                default:
+                    return false;
+            }
+        } catch (BufferUnderflowException e) {
+            return false;
+        }
+    }
+
+    // O relógio do cliente pode ir uns passos à frente do servidor: esse lançamento espera pelo seu tick
+    private static void lancar(Sala sala, int lado, int dx, int dy, long tickCliente) {
+        long tick = sala.partida.getTick();
+        if (tickCliente > tick && tickCliente - tick <= Partida.MAX_ATRASO_LANCAMENTO) {
+            sala.tickAgendado[lado] = tickCliente;
+            sala.dxAgendado[lado] = dx;
+            sala.dyAgendado[lado] = dy;
+        } else {
+            sala.partida.lancar(lado, dx, dy, Math.min(tickCliente, tick));
+        }
+    }
+
+    private void emparelhar(Ligacao ligacao, NivelDificuldade nivel, boolean continua) {
+        int fila = nivel.ordinal() * 2 + (continua ? 1 : 0);
+        Ligacao outra = aEspera[fila];
+        if (outra == null) {
+            aEspera[fila] = ligacao;
+            ligacao.filaEspera = fila;
+            return;
+        }
+        aEspera[fila] = null;
+        outra.filaEspera = -1;
+
+        Partida partida = new Partida(proximoId++, nivel, continua, sementes.proximoLong());
+        Sala sala = new Sala(partida, new Ligacao[] { outra, ligacao });
+        salas.add(sala);
+        for (int lado = 0; lado < Partida.JOGADORES; lado++) {
+            Ligacao jogador = sala.jogadores[lado];
+            jogador.sala = sala;
+            jogador.lado = lado;
+            int inicio = ProtocoloRede.iniciar(rascunho.clear(), ProtocoloRede.PARTIDA);
+            rascunho.putInt(partida.getId()).put((byte) lado).put((byte) nivel.ordinal())
+                .put((byte) (continua ? 1 : 0)).putLong(partida.getSemente())
+                .putShort((short) Partida.LANCAMENTOS_POR_JOGADOR);
+            ProtocoloRede.terminar(rascunho, inicio);
+            enviar(jogador, rascunho.flip());
+        }
+        // O primeiro instantâneo é o delta a partir do estado zerado, igual nos dois lados
+        sala.enviado.zerar();
+        sala.enviado.tick = -1;
+        enviarInstantaneo(sala, true);
+    }
+
+    private void desligar(Ligacao ligacao) {
+        if (ligacao.fechada) return;
+        ligacao.fechada = true;
+        ligacoes--;
+        if (ligacao.filaEspera >= 0 && aEspera[ligacao.filaEspera] == ligacao) {
+            aEspera[ligacao.filaEspera] = null;
+        }
+        // A partida acaba no próximo passo e o outro jogador recebe o FIM
+        if (ligacao.sala != null) ligacao.sala.partida.abandonar();
+        ligacao.chave.cancel();
+        try {
+            ligacao.canal.close();
+        } catch (IOException e) {
+            // Já está fechada do lado de lá
+        }
+    }
+
+    // Copia a mensagem para a saída do cliente (o envio é feito no fim do ciclo)
+    private void enviar(Ligacao ligacao, ByteBuffer mensagem) {
+        if (ligacao.fechada) return;
+        if (ligacao.saida.remaining() < mensagem.remaining()) {
+            // Cliente lento: em vez de acumular estado antigo, sai
+            desligar(ligacao);
+            return;
+        }
+        ligacao.saida.put(mensagem.array(), mensagem.position(), mensagem.remaining());
+        marcarPendente(ligacao);
+    }
+
+    private void marcarPendente(Ligacao ligacao) {
+        if (ligacao.pendente) return;
+        ligacao.pendente = true;
+        pendentes.add(ligacao);
+    }
+
+    // Escreve o que cada cliente tem em espera; o que o socket não aceitar espera pelo OP_WRITE
+    private void despejarSaidas() {
+        for (int i = 0; i < pendentes.size(); i++) {
+            Ligacao ligacao = pendentes.get(i);
+            ligacao.pendente = false;
+            if (ligacao.fechada) continue;
+            ByteBuffer saida = ligacao.saida;
+            try {
+                saida.flip();
+                bytesEnviados += ligacao.canal.write(saida);
+                saida.compact();
+            } catch (IOException e) {
+                desligar(ligacao);
+                continue;
+            }
+            boolean resta = saida.position() > 0;
+            if (!resta && ligacao.fecharDepoisDeEnviar) {
+                desligar(ligacao);
+            } else {
+                ligacao.chave.interestOps(resta ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            }
+        }
+        pendentes.clear();
+    }
+
+    // --- Partidas ---
+
+    private void passoPartidas() {
+        for (int i = 0; i < salas.size(); i++) {
+            Sala sala = salas.get(i);
+            Partida partida = sala.partida;
+            for (int lado = 0; lado < Partida.JOGADORES; lado++) {
+                if (sala.tickAgendado[lado] >= 0 && sala.tickAgendado[lado] <= partida.getTick()) {
+                    partida.lancar(lado, sala.dxAgendado[lado], sala.dyAgendado[lado], sala.tickAgendado[lado]);
+                    sala.tickAgendado[lado] = -1;
+                }
+            }
+            partida.passo();
+
+            if (partida.isTerminada()) {
+                terminar(sala);
+                // Remoção por troca com a última (a ordem das salas não importa)
+                Sala ultima = salas.remove(salas.size() - 1);
+                if (ultima != sala) salas.set(i--, ultima);
+            } else if ((partida.getTick() + sala.fase) % PASSOS_POR_INSTANTANEO == 0) {
+                enviarInstantaneo(sala, false);
+            }
+        }
+        passosDados++;
+    }
+
+    private void enviarInstantaneo(Sala sala, boolean forcar) {
+        sala.partida.guardarEstado(estado);
+        sala.atual.capturar(estado);
+        int inicio = ProtocoloRede.iniciar(rascunho.clear(), ProtocoloRede.INSTANTANEO);
+        boolean mudou = sala.atual.escreverDelta(sala.enviado, rascunho);
+        if (!mudou && !forcar && sala.atual.tick - sala.enviado.tick < PASSOS_SEM_INSTANTANEO) return;
+        ProtocoloRede.terminar(rascunho, inicio);
+        rascunho.flip();
+        for (Ligacao jogador : sala.jogadores) {
+            enviar(jogador, rascunho.duplicate());
+        }
+        sala.enviado.copiarDe(sala.atual);
+    }
+
+    private void terminar(Sala sala) {
+        // Último estado (com os pontos finais) e o resultado
+        enviarInstantaneo(sala, true);
+        int inicio = ProtocoloRede.iniciar(rascunho.clear(), ProtocoloRede.FIM);
+        rascunho.putShort((short) sala.partida.getPontuacao(0)).putShort((short) sala.partida.getPontuacao(1));
+        ProtocoloRede.terminar(rascunho, inicio);
+        rascunho.flip();
+        for (Ligacao jogador : sala.jogadores) {
+            enviar(jogador, rascunho.duplicate());
+            jogador.sala = null;
+            jogador.fecharDepoisDeEnviar = true;
+        }
+        partidasTerminadas++;
+    }
+
+    // --- Estatísticas ---
+
+    public String getEstatisticas() {
+        double usPorPasso = passosDados == 0 ? 0 : nanosEmPassos / 1e3 / passosDados;
+        return String.format(Locale.ROOT,
+            "%d partidas, %d ligações, %d terminadas, %.1f us/passo, %d passos perdidos, %d bytes enviados",
+            salas.size(), ligacoes, partidasTerminadas, usPorPasso, passosPerdidos, bytesEnviados);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parar();
+        selector.close();
+        servidor.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : ProtocoloRede.PORTA_PADRAO;
+        try (ServidorJogo servidor = new ServidorJogo(porta)) {
+            servidor.setMostrarEstatisticas(true);
+            System.out.println("Servidor de partidas na porta " + servidor.getPorta());
+            servidor.executar();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,434 @@
+// Simulacao.java
+
+/**
+ * Motor de simulação headless com passo fixo. Possui a Bola, a Quadra (com
+ * os cestos e o seu LayoutColisao compilado) e os parâmetros do
+ * NivelDificuldade, sem depender do Timer do Swing: o painel apenas avança o
+ * acumulador, interpola e desenha.
+ */
+public class Simulacao {
+
+    // --- Constantes do Passo Fixo ---
+    public static final int PASSOS_POR_SEGUNDO = 60;
+    public static final double DT = 1.0 / PASSOS_POR_SEGUNDO;
+    // Limite de passos por avanço (evita a "espiral da morte" após uma pausa longa)
+    private static final int MAX_PASSOS_POR_AVANCO = 5;
+
+    // --- Constantes de Lançamento ---
+    public static final int TEMPO_DE_VOO = 45;
+    public static final int X_INICIAL = 100;
+    public static final int Y_ALVO_MINIMO = 50;
+    // Limite de passos de um lançamento headless (20 s de jogo)
+    public static final int MAX_PASSOS_LANCAMENTO = 20 * PASSOS_POR_SEGUNDO;
+
+    // --- Eventos do Passo (bitmask) ---
+    public static final int EVENTO_COLISAO = 1;
+    public static final int EVENTO_PONTO = 2;
+    // Detalhe dos impactos (só no modo de colisão contínua)
+    public static final int EVENTO_TABELA = 4;
+    public static final int EVENTO_ARO = 8;
+    public static final int EVENTO_CHAO = 16;
+    public static final int EVENTO_PAREDE = 32;
+    public static final int EVENTO_REPOUSO = 64;
+    public static final int EVENTO_OBSTACULO = 128;
+
+    // --- Dimensões do Mundo ---
+    private final Quadra quadra;
+    private final LayoutColisao layout;
+    private final int largura;
+    private final int altura;
+    private final int alturaChao;
+
+    // --- Parâmetros de Dificuldade ---
+    private NivelDificuldade dificuldadeAtual;
+    private double fatorForcaMira;
+    private double forcaMaxima;
+    private double erroLancamento;
+    private double coefRestituicaoMapa;
+    // Gerador próprio de cada simulação (usado no jitter do erroLancamento)
+    private final GeradorAleatorio random;
+
+    // --- Objetos e Estado ---
+    private Bola bola;
+    // Primeiro cesto da quadra (o único com as regras discretas, na quadra padrão)
+    private final Cesto cesto;
+    private int pontuacao = 0;
+    private long tick = 0;
+    private double acumulador = 0;
+    private double xAnterior, yAnterior;
+    // Instrumentação opcional (só o jogo interativo a liga)
+    private MetricasJogo metricas;
+    // Destino dos eventos dos passos (null nas ferramentas headless)
+    private BarramentoEventos barramento;
+    // Registo de cada lançamento para a TelemetriaLancamentos (null = desligada)
+    private TelemetriaLancamentos telemetria;
+    // Colisão contínua (null = regras discretas originais)
+    private ColisaoContinua colisaoContinua;
+
+    public Simulacao(Quadra quadra, NivelDificuldade nivel, GeradorAleatorio random) {
+        this.quadra = quadra;
+        this.layout = quadra.compilar();
+        this.largura = quadra.getLargura();
+        this.altura = quadra.getAltura();
+        this.alturaChao = quadra.getAlturaChao();
+        this.random = random;
+        this.cesto = quadra.getCestos().get(0);
+        setDificuldade(nivel);
+        // As regras discretas só conhecem o cesto padrão
+        if (!quadra.isPadrao()) setColisaoContinua(true);
+    }
+
+    public Simulacao(int largura, int altura, NivelDificuldade nivel, GeradorAleatorio random) {
+        this(Quadra.padrao(largura, altura), nivel, random);
+    }
+
+    public Simulacao(int largura, int altura, NivelDificuldade nivel) {
+        this(largura, altura, nivel, new GeradorAleatorio());
+    }
+
+    public Simulacao(NivelDificuldade nivel, long semente) {
+        this(PainelJogo.LARGURA, PainelJogo.ALTURA, nivel, new GeradorAleatorio(semente));
+    }
+
+    public Simulacao(NivelDificuldade nivel) {
+        this(PainelJogo.LARGURA, PainelJogo.ALTURA, nivel);
+    }
+
+    /**
+     * Liga (ou desliga, com null) a medição do tempo da colisão. As contagens
+     * de colisões e pontos chegam às métricas pelo BarramentoEventos.
+     */
+    public void setMetricas(MetricasJogo metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Publica os eventos de cada passo no barramento (ou deixa de publicar, com
+     * null). O passo passa a ser o único produtor do barramento.
+     */
+    public void setBarramento(BarramentoEventos barramento) {
+        this.barramento = barramento;
+    }
+
+    /**
+     * Regista cada lançamento na telemetria (ou deixa de registar, com null).
+     * Como no barramento, só a thread que corre os passos pode escrever.
+     */
+    public void setTelemetria(TelemetriaLancamentos telemetria) {
+        this.telemetria = telemetria;
+    }
+
+    /**
+     * Fecha a telemetria com o lançamento em curso e deixa de registar.
+     */
+    public void fecharTelemetria() {
+        if (telemetria == null) return;
+        telemetria.close(tick);
+        telemetria = null;
+    }
+
+    /**
+     * Escolhe entre a colisão contínua (ColisaoContinua, sem atravessar o aro
+     * nem a tabela em lançamentos rápidos) e as regras discretas originais,
+     * que continuam a ser o padrão das ferramentas headless e das gravações antigas.
+     * Numa quadra que não seja a padrão a colisão é sempre contínua.
+     */
+    public void setColisaoContinua(boolean ligada) {
+        if (!ligada && quadra.isPadrao()) {
+            colisaoContinua = null;
+        } else if (colisaoContinua == null) {
+            colisaoContinua = new ColisaoContinua(layout, coefRestituicaoMapa, coefRestituicaoMapa);
+        }
+    }
+
+    public boolean isColisaoContinua() {
+        return colisaoContinua != null;
+    }
+
+    // --- Dificuldade ---
+
+    /**
+     * Aplica os parâmetros do nível e reinicia a bola para usar as novas regras.
+     */
+    public void setDificuldade(NivelDificuldade nivel) {
+        this.dificuldadeAtual = nivel;
+        setParametros(nivel.fatorMira, nivel.forcaMaxima, nivel.erroLancamento, nivel.coefRestituicaoMapa);
+    }
+
+    /**
+     * Aplica parâmetros soltos, fora dos níveis do enum (ex: CalibradorDificuldade).
+     * O getDificuldade continua a indicar o último nível aplicado.
+     */
+    public void setParametros(double fatorMira, double forcaMaxima, double erroLancamento, double coefRestituicaoMapa) {
+        this.fatorForcaMira = fatorMira;
+        this.forcaMaxima = forcaMaxima;
+        this.erroLancamento = erroLancamento;
+        this.coefRestituicaoMapa = coefRestituicaoMapa;
+        if (colisaoContinua != null) {
+            colisaoContinua.setCoeficientes(coefRestituicaoMapa, coefRestituicaoMapa);
+        }
+        reiniciarBola();
+    }
+
+    public void reiniciarBola() {
+        this.bola = new Bola(quadra.getXPartida(), alturaChao - Bola.RAIO_BOLA, this.coefRestituicaoMapa);
+        this.cesto.passouPeloAroTopo = false;
+        this.xAnterior = bola.x;
+        this.yAnterior = bola.y;
+        if (telemetria != null) telemetria.reiniciou(tick);
+    }
+
+    public void zerarPontuacao() {
+        this.pontuacao = 0;
+    }
+
+    // --- Lançamento ---
+
+    /**
+     * Converte um vetor de arrasto do rato na velocidade de lançamento (mira,
+     * erro de lançamento e limite de força) e lança a bola.
+     * @return true se a força foi suficiente para lançar.
+     */
+    public boolean lancarArrasto(double dxArrasto, double dyArrasto) {
+        if (bola.emMovimento) return false;
+
+        double xAlvo = bola.x + dxArrasto * fatorForcaMira;
+        double yAlvo = bola.y + dyArrasto * fatorForcaMira;
+
+        if (yAlvo < Y_ALVO_MINIMO) yAlvo = Y_ALVO_MINIMO;
+
+        double forcaX = FisicaUtil.velocidadeXParaAlvo(bola.x, xAlvo, TEMPO_DE_VOO);
+        double forcaY = FisicaUtil.velocidadeYParaAlvo(bola.y, yAlvo, TEMPO_DE_VOO);
+
+        // Erro de Lançamento (DIFICULDADE EXTREMA)
+        if (erroLancamento > 0) {
+            double fatorErro = random.proximoDouble() * 2 * erroLancamento - erroLancamento;
+            forcaX *= (1 + fatorErro);
+            forcaY *= (1 + fatorErro * 0.5);
+        }
+
+        // Limitação de Força (sqrt é exato em todo o lado; o Math.hypot só garante 1 ulp)
+        double forcaTotal = Math.sqrt(forcaX * forcaX + forcaY * forcaY);
+        if (forcaTotal > forcaMaxima) {
+            double fatorAjuste = forcaMaxima / forcaTotal;
+            forcaX *= fatorAjuste;
+            forcaY *= fatorAjuste;
+        }
+
+        if (forcaTotal > 1) {
+            bola.lancar(forcaX, forcaY);
+            if (telemetria != null) telemetria.lancou(tick, dificuldadeAtual, dxArrasto, dyArrasto, forcaX, forcaY);
+            return true;
+        }
+        return false;
+    }
+
+    // --- Passo Fixo ---
+
+    /**
+     * Acumula o tempo real decorrido e executa quantos passos fixos couberem.
+     * @param segundos Tempo decorrido desde o último avanço.
+     * @return Os eventos (bitmask) de todos os passos executados.
+     */
+    public int avancar(double segundos) {
+        acumulador += Math.min(segundos, MAX_PASSOS_POR_AVANCO * DT);
+        int eventos = 0;
+        while (acumulador >= DT) {
+            eventos |= passo();
+            acumulador -= DT;
+        }
+        return eventos;
+    }
+
+    /**
+     * Executa um único passo de física de duração DT.
+     * @return Os eventos (bitmask) ocorridos neste passo.
+     */
+    public int passo() {
+        xAnterior = bola.x;
+        yAnterior = bola.y;
+        tick++;
+
+        int eventos = 0;
+        if (bola.emMovimento && colisaoContinua != null) {
+            eventos = passoContinuo();
+        } else if (bola.emMovimento) {
+            eventos |= bola.atualizarPosicao(alturaChao);
+
+            eventos |= bola.verificarColisaoMapa(largura, altura, this.coefRestituicaoMapa);
+
+            if (metricas != null) {
+                long inicio = System.nanoTime();
+                eventos |= cesto.verificarColisao(bola);
+                metricas.registarColisao(System.nanoTime() - inicio);
+            } else {
+                eventos |= cesto.verificarColisao(bola);
+            }
+
+            if (cesto.verificarPontuacao(bola)) {
+                pontuacao++;
+                eventos |= EVENTO_PONTO;
+            }
+        }
+        if (eventos != 0 && barramento != null) {
+            barramento.publicar(eventos, tick, bola.x, bola.y, bola.velX, bola.velY, pontuacao, dificuldadeAtual.ordinal());
+        }
+        if (eventos != 0 && telemetria != null) {
+            telemetria.eventos(tick, eventos);
+        }
+        return eventos;
+    }
+
+    // Passo com a ColisaoContinua: o kernel trata da integração, dos impactos e da linha do cesto
+    private int passoContinuo() {
+        layout.atualizar(tick);
+        colisaoContinua.carregar(bola);
+        int eventos;
+        if (metricas != null) {
+            long inicio = System.nanoTime();
+            eventos = colisaoContinua.avancar();
+            metricas.registarColisao(System.nanoTime() - inicio);
+        } else {
+            eventos = colisaoContinua.avancar();
+        }
+        colisaoContinua.descarregar(bola);
+
+        if ((eventos & EVENTO_PONTO) != 0) {
+            pontuacao++;
+        }
+        return eventos;
+    }
+
+    /**
+     * Simula o lançamento atual até a bola parar (ou até ao limite de passos),
+     * sem acumulador nem interpolação. Usado pelas ferramentas headless.
+     * @return Os pontos marcados durante o lançamento.
+     */
+    public int simularAteRepouso(int maxPassos) {
+        int pontosAntes = pontuacao;
+        for (int i = 0; i < maxPassos && bola.emMovimento; i++) {
+            passo();
+        }
+        return pontuacao - pontosAntes;
+    }
+
+    /**
+     * Avança a simulação até ao tick indicado. Com a bola parada os passos não
+     * mudam nada, por isso o contador salta diretamente para o alvo.
+     */
+    public void simularAteTick(long tickAlvo) {
+        while (tick < tickAlvo) {
+            if (!bola.emMovimento) {
+                tick = tickAlvo;
+                xAnterior = bola.x;
+                yAnterior = bola.y;
+                break;
+            }
+            passo();
+        }
+    }
+
+    /**
+     * Recua o contador para um tick anterior, com a bola parada (os passos
+     * parados não mudaram nada). A Partida usa-o para lançar no tick em que o
+     * cliente lançou.
+     */
+    public void recuarAteTick(long tickAlvo) {
+        if (bola.emMovimento) throw new IllegalStateException("A bola está em movimento");
+        tick = Math.min(tick, tickAlvo);
+        xAnterior = bola.x;
+        yAnterior = bola.y;
+    }
+
+    // --- Estado (rollback) ---
+
+    /**
+     * Copia o estado da simulação para o lugar do jogador no EstadoJogo (o
+     * tick fica a cargo da Partida). Os parâmetros do nível não entram: não
+     * mudam durante uma partida.
+     */
+    public void guardarEstado(EstadoJogo estado, int jogador) {
+        int r = jogador * EstadoJogo.REAIS;
+        double[] reais = estado.reais;
+        reais[r + EstadoJogo.X] = bola.x;
+        reais[r + EstadoJogo.Y] = bola.y;
+        reais[r + EstadoJogo.VEL_X] = bola.velX;
+        reais[r + EstadoJogo.VEL_Y] = bola.velY;
+        reais[r + EstadoJogo.X_ANTERIOR] = xAnterior;
+        reais[r + EstadoJogo.Y_ANTERIOR] = yAnterior;
+        int i = jogador * EstadoJogo.INTEIROS;
+        long[] inteiros = estado.inteiros;
+        inteiros[i + EstadoJogo.MOVIMENTO] = bola.emMovimento ? 1 : 0;
+        inteiros[i + EstadoJogo.PASSOU_ARO_TOPO] = cesto.passouPeloAroTopo ? 1 : 0;
+        inteiros[i + EstadoJogo.PONTOS] = pontuacao;
+        inteiros[i + EstadoJogo.GERADOR] = random.getEstado();
+    }
+
+    /**
+     * Repõe o estado guardado por guardarEstado, incluindo o tick do EstadoJogo.
+     */
+    public void restaurarEstado(EstadoJogo estado, int jogador) {
+        int r = jogador * EstadoJogo.REAIS;
+        double[] reais = estado.reais;
+        bola.x = reais[r + EstadoJogo.X];
+        bola.y = reais[r + EstadoJogo.Y];
+        bola.velX = reais[r + EstadoJogo.VEL_X];
+        bola.velY = reais[r + EstadoJogo.VEL_Y];
+        xAnterior = reais[r + EstadoJogo.X_ANTERIOR];
+        yAnterior = reais[r + EstadoJogo.Y_ANTERIOR];
+        int i = jogador * EstadoJogo.INTEIROS;
+        long[] inteiros = estado.inteiros;
+        bola.emMovimento = inteiros[i + EstadoJogo.MOVIMENTO] != 0;
+        cesto.passouPeloAroTopo = inteiros[i + EstadoJogo.PASSOU_ARO_TOPO] != 0;
+        pontuacao = (int) inteiros[i + EstadoJogo.PONTOS];
+        random.setEstado(inteiros[i + EstadoJogo.GERADOR]);
+        tick = estado.tick;
+    }
+
+    /**
+     * Hash de tudo o que decide os próximos passos (tick, bola, cesto,
+     * pontuação e gerador), bit a bit. A física só usa operações exatas do
+     * IEEE 754 (+, -, *, / e sqrt, estritas desde o Java 17) e StrictMath, por
+     * isso as mesmas entradas dão o mesmo hash em qualquer JVM e CPU: é o que
+     * a gravação guarda para o ReprodutorSessao verificar.
+     */
+    public long hashEstado() {
+        long h = GeradorAleatorio.combinar(0, tick);
+        h = GeradorAleatorio.combinar(h, Double.doubleToLongBits(bola.x));
+        h = GeradorAleatorio.combinar(h, Double.doubleToLongBits(bola.y));
+        h = GeradorAleatorio.combinar(h, Double.doubleToLongBits(bola.velX));
+        h = GeradorAleatorio.combinar(h, Double.doubleToLongBits(bola.velY));
+        h = GeradorAleatorio.combinar(h, (bola.emMovimento ? 1 : 0) | (cesto.passouPeloAroTopo ? 2 : 0));
+        h = GeradorAleatorio.combinar(h, pontuacao);
+        return GeradorAleatorio.combinar(h, random.getEstado());
+    }
+
+    /**
+     * Fração do passo ainda por simular, usada para interpolar o desenho.
+     */
+    public double getAlfa() {
+        return acumulador / DT;
+    }
+
+    public double getXInterpolado() {
+        return xAnterior + (bola.x - xAnterior) * getAlfa();
+    }
+
+    public double getYInterpolado() {
+        return yAnterior + (bola.y - yAnterior) * getAlfa();
+    }
+
+    // --- Acesso ao Estado ---
+
+    public Bola getBola() { return bola; }
+    public Cesto getCesto() { return cesto; }
+    public Quadra getQuadra() { return quadra; }
+    public GeradorAleatorio getRandom() { return random; }
+    public int getPontuacao() { return pontuacao; }
+    public long getTick() { return tick; }
+    public NivelDificuldade getDificuldade() { return dificuldadeAtual; }
+    public double getFatorForcaMira() { return fatorForcaMira; }
+    public double getForcaMaxima() { return forcaMaxima; }
+    public double getCoefRestituicaoMapa() { return coefRestituicaoMapa; }
+    public int getAlturaChao() { return alturaChao; }
+}
\ No newline at end of file
@@ -0,0 +1,325 @@
+// SistemaParticulas.java
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Efeitos de partículas (cesta, faíscas no aro e na tabela, pó no chão e
+ * confetes) guardados num buffer circular de arrays primitivos paralelos:
+ * não há um objeto por partícula e nada é alocado depois da construção.
+ *
+ * As partículas novas entram na cabeça do anel; com o anel cheio substituem
+ * as mais antigas. Como as vidas são parecidas, as mortas acumulam-se na
+ * cauda, que avança sozinha; as poucas que morrem no meio são só saltadas.
+ *
+ * A física avança em passos fixos (os mesmos da Simulacao) e o desenho é em
+ * lote: todas as partículas são pintadas diretamente nos pixels de uma imagem
+ * do tamanho da quadra, que vai para o ecrã com um único drawImage (só o
+ * retângulo que tem partículas).
+ */
+public class SistemaParticulas {
+
+    // Capacidade por omissão (potência de 2, para o índice do anel ser uma máscara)
+    public static final int CAPACIDADE = 1 << 15;
+
+    // --- Tipos de Partícula ---
+    public static final int CESTA = 0;
+    public static final int FAISCA = 1;
+    public static final int PO = 2;
+    public static final int CONFETE = 3;
+
+    // --- Parâmetros por Tipo (gravidade e atrito por passo, lado do quadrado, vida em passos) ---
+    private static final float[] GRAVIDADE = { 0.05f, 0.30f, -0.02f, 0.04f };
+    private static final float[] ATRITO = { 0.94f, 0.97f, 0.90f, 0.96f };
+    private static final int[] TAMANHO = { 2, 2, 3, 3 };
+    private static final int[] VIDA = { 30, 25, 45, 120 };
+
+    // --- Cores (RGB; o alfa vem do tempo de vida que resta) ---
+    private static final int[] CORES_CESTA = { 0xFFFFFF, 0xE0F4FF, 0xFFF5B0 };
+    private static final int[] CORES_FAISCA = { 0xFFD040, 0xFF9020, 0xFFF0A0 };
+    private static final int[] CORES_PO = { 0xC8A070, 0xA88058, 0xD8C0A0 };
+    private static final int[] CORES_CONFETE = { 0xFF3B30, 0x34C759, 0x007AFF, 0xFFCC00, 0xAF52DE, 0xFF9500 };
+
+    // --- Anel (um índice por partícula) ---
+    private final int mascara;
+    private final float[] x, y;
+    private final float[] velX, velY;
+    private final short[] vida;
+    private final short[] vidaTotal;
+    private final byte[] tipo;
+    private final int[] cor;
+    // Índice da partícula mais antiga e número de posições ocupadas a partir dela
+    private int cauda = 0;
+    private int quantidade = 0;
+    private int vivas = 0;
+
+    // --- Destino do Desenho (pixels em coordenadas da quadra) ---
+    private final int largura, altura;
+    private final BufferedImage imagem;
+    private final int[] pixels;
+    // Retângulo pintado no último frame (limpo antes do seguinte); vazio se xMax < xMin
+    private int xMin = 0, yMin = 0, xMax = -1, yMax = -1;
+
+    // Gerador próprio, para os efeitos não mexerem no da Simulacao (nem nas gravações)
+    private final GeradorAleatorio random = new GeradorAleatorio();
+
+    public SistemaParticulas(int largura, int altura) {
+        this(CAPACIDADE, largura, altura);
+    }
+
+    /**
+     * @param capacidade Número máximo de partículas (arredondado para uma potência de 2).
+     */
+    public SistemaParticulas(int capacidade, int largura, int altura) {
+        int tamanho = Integer.highestOneBit(Math.max(2, capacidade - 1)) << 1;
+        this.mascara = tamanho - 1;
+        this.x = new float[tamanho];
+        this.y = new float[tamanho];
+        this.velX = new float[tamanho];
+        this.velY = new float[tamanho];
+        this.vida = new short[tamanho];
+        this.vidaTotal = new short[tamanho];
+        this.tipo = new byte[tamanho];
+        this.cor = new int[tamanho];
+        this.largura = largura;
+        this.altura = altura;
+        this.imagem = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_ARGB_PRE);
+        this.pixels = ((DataBufferInt) imagem.getRaster().getDataBuffer()).getData();
+    }
+
+    // --- Emissão ---
+
+    /**
+     * Acrescenta uma partícula (substitui a mais antiga se o anel estiver cheio).
+     */
+    public void emitir(int tipoParticula, double px, double py, double vx, double vy, int rgb) {
+        if (quantidade > mascara) {
+            if (vida[cauda] > 0) vivas--;
+            cauda = (cauda + 1) & mascara;
+            quantidade--;
+        }
+        int i = (cauda + quantidade) & mascara;
+        quantidade++;
+        vivas++;
+
+        // Vida com ±25% de variação, para o efeito não desaparecer de uma vez
+        int duracao = (int) (VIDA[tipoParticula] * (0.75 + 0.5 * random.proximoDouble()));
+        x[i] = (float) px;
+        y[i] = (float) py;
+        velX[i] = (float) vx;
+        velY[i] = (float) vy;
+        vida[i] = (short) duracao;
+        vidaTotal[i] = (short) duracao;
+        tipo[i] = (byte) tipoParticula;
+        cor[i] = rgb;
+    }
+
+    /**
+     * Cesta: um jato de gotas claras para baixo, através da rede.
+     */
+    public void emitirCesta(double px, double py) {
+        for (int k = 0; k < 60; k++) {
+            double vx = random.proximoGaussiano() * 1.2;
+            double vy = 1.5 + random.proximoDouble() * 3;
+            emitir(CESTA, px + random.proximoGaussiano() * 6, py, vx, vy, escolher(CORES_CESTA));
+        }
+    }
+
+    /**
+     * Faíscas de um impacto no aro (ou na tabela), em todas as direções.
+     */
+    public void emitirFaiscas(double px, double py, int quantidadeFaiscas) {
+        for (int k = 0; k < quantidadeFaiscas; k++) {
+            double angulo = random.proximoDouble() * 2 * Math.PI;
+            double velocidade = 2 + random.proximoDouble() * 5;
+            emitir(FAISCA, px, py, Math.cos(angulo) * velocidade, Math.sin(angulo) * velocidade, escolher(CORES_FAISCA));
+        }
+    }
+
+    /**
+     * Pó levantado pela bola no chão, para os lados e um pouco para cima.
+     */
+    public void emitirPo(double px, double yChao, double intensidade) {
+        int n = (int) Math.min(40, 6 + intensidade * 3);
+        for (int k = 0; k < n; k++) {
+            double vx = random.proximoGaussiano() * (0.8 + intensidade * 0.15);
+            double vy = -random.proximoDouble() * (0.5 + intensidade * 0.1);
+            emitir(PO, px + random.proximoGaussiano() * 8, yChao - 2, vx, vy, escolher(CORES_PO));
+        }
+    }
+
+    /**
+     * Chuva de confetes pela largura da quadra (ex: novo recorde).
+     */
+    public void emitirConfetes(int quantidadeConfetes) {
+        for (int k = 0; k < quantidadeConfetes; k++) {
+            double px = random.proximoDouble() * largura;
+            double py = -random.proximoDouble() * 40;
+            emitir(CONFETE, px, py, random.proximoGaussiano() * 1.5, 1 + random.proximoDouble() * 2, escolher(CORES_CONFETE));
+        }
+    }
+
+    private int escolher(int[] cores) {
+        return cores[(int) (random.proximoDouble() * cores.length)];
+    }
+
+    // --- Atualização ---
+
+    /**
+     * Avança todas as partículas vivas pelo número de passos fixos indicado
+     * (o número de passos que a Simulacao deu neste frame).
+     */
+    public void atualizar(int passos) {
+        if (passos <= 0 || vivas == 0) return;
+        for (int k = 0; k < quantidade; k++) {
+            int i = (cauda + k) & mascara;
+            int v = vida[i];
+            if (v <= 0) continue;
+
+            int t = tipo[i];
+            float g = GRAVIDADE[t], atrito = ATRITO[t];
+            float px = x[i], py = y[i], vx = velX[i], vy = velY[i];
+            int n = Math.min(passos, v);
+            for (int p = 0; p < n; p++) {
+                vx *= atrito;
+                vy = vy * atrito + g;
+                px += vx;
+                py += vy;
+            }
+            if (t == CONFETE) {
+                // Os confetes balançam de um lado para o outro enquanto caem
+                px += (float) Math.sin((v + i) * 0.15) * 0.6f * n;
+            }
+            x[i] = px;
+            y[i] = py;
+            velX[i] = vx;
+            velY[i] = vy;
+            v -= n;
+            // Fora da quadra (ou abaixo do fundo) já não se vê
+            if (px < -8 || px > largura + 8 || py > altura + 8) v = 0;
+            vida[i] = (short) v;
+            if (v == 0) vivas--;
+        }
+        // A cauda salta as mortas mais antigas
+        while (quantidade > 0 && vida[cauda] <= 0) {
+            cauda = (cauda + 1) & mascara;
+            quantidade--;
+        }
+    }
+
+    /**
+     * Mata todas as partículas (ex: reiniciar o jogo).
+     */
+    public void limpar() {
+        cauda = 0;
+        quantidade = 0;
+        vivas = 0;
+        Arrays.fill(vida, (short) 0);
+    }
+
+    // --- Desenho ---
+
+    /**
+     * Pinta as partículas vivas nos pixels da imagem e desenha-a com um único
+     * drawImage. O Graphics2D deve estar em coordenadas da quadra.
+     */
+    public void desenhar(Graphics2D g) {
+        limparRetangulo();
+        if (vivas == 0) return;
+
+        int x0 = largura, y0 = altura, x1 = -1, y1 = -1;
+        for (int k = 0; k < quantidade; k++) {
+            int i = (cauda + k) & mascara;
+            int v = vida[i];
+            if (v <= 0) continue;
+
+            int lado = TAMANHO[tipo[i]];
+            int px = (int) x[i] - (lado >> 1);
+            int py = (int) y[i] - (lado >> 1);
+            int qx = px + lado, qy = py + lado;
+            if (px < 0) px = 0;
+            if (py < 0) py = 0;
+            if (qx > largura) qx = largura;
+            if (qy > altura) qy = altura;
+            if (px >= qx || py >= qy) continue;
+
+            // Alfa proporcional à vida que resta; cor pré-multiplicada para a mistura "over"
+            int alfa = 255 * v / vidaTotal[i];
+            int rgb = cor[i];
+            int r = ((rgb >> 16) & 0xFF) * alfa / 255;
+            int gr = ((rgb >> 8) & 0xFF) * alfa / 255;
+            int b = (rgb & 0xFF) * alfa / 255;
+            int inverso = 255 - alfa;
+            for (int yy = py; yy < qy; yy++) {
+                int linha = yy * largura;
+                for (int xx = px; xx < qx; xx++) {
+                    int destino = pixels[linha + xx];
+                    int da = destino >>> 24, dr = (destino >> 16) & 0xFF, dg = (destino >> 8) & 0xFF, db = destino & 0xFF;
+                    pixels[linha + xx] = ((alfa + da * inverso / 255) << 24)
+                        | ((r + dr * inverso / 255) << 16)
+                        | ((gr + dg * inverso / 255) << 8)
+                        | (b + db * inverso / 255);
+                }
+            }
+            if (px < x0) x0 = px;
+            if (py < y0) y0 = py;
+            if (qx > x1) x1 = qx;
+            if (qy > y1) y1 = qy;
+        }
+        if (x1 < 0) return;
+
+        xMin = x0;
+        yMin = y0;
+        xMax = x1;
+        yMax = y1;
+        g.drawImage(imagem, x0, y0, x1, y1, x0, y0, x1, y1, null);
+    }
+
+    // Apaga o que foi pintado no frame anterior (só esse retângulo)
+    private void limparRetangulo() {
+        if (xMax < xMin) return;
+        for (int yy = yMin; yy < yMax; yy++) {
+            Arrays.fill(pixels, yy * largura + xMin, yy * largura + xMax, 0);
+        }
+        xMax = -1;
+        xMin = 0;
+    }
+
+    public int getVivas() { return vivas; }
+    public int getCapacidade() { return mascara + 1; }
+
+    /**
+     * Mede o custo de atualizar e desenhar N partículas vivas por frame (sem janela).
+     */
+    public static void main(String[] args) {
+        int particulas = args.length > 0 ? Integer.parseInt(args[0]) : 30_000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+
+        SistemaParticulas sistema = new SistemaParticulas(particulas, PainelJogo.LARGURA, PainelJogo.ALTURA);
+        BufferedImage ecra = new BufferedImage(PainelJogo.LARGURA, PainelJogo.ALTURA, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = ecra.createGraphics();
+
+        long atualizacao = 0, desenho = 0, vivas = 0;
+        for (int f = 0; f < frames; f++) {
+            // Mantém o anel cheio: cada frame repõe as que morreram
+            while (sistema.getVivas() < particulas - 200) {
+                sistema.emitirFaiscas(200 + f % 400, 200 + f % 150, 100);
+                sistema.emitirConfetes(100);
+            }
+            long inicio = System.nanoTime();
+            sistema.atualizar(1);
+            long meio = System.nanoTime();
+            sistema.desenhar(g);
+            long fim = System.nanoTime();
+            atualizacao += meio - inicio;
+            desenho += fim - meio;
+            vivas += sistema.getVivas();
+        }
+        g.dispose();
+        System.out.printf(Locale.ROOT, "%d partículas (média %d vivas), %d frames: atualizar %.3f ms, desenhar %.3f ms por frame%n",
+            particulas, vivas / frames, frames, atualizacao / 1e6 / frames, desenho / 1e6 / frames);
+    }
+}
\ No newline at end of file
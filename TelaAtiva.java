@@ -0,0 +1,191 @@
+// TelaAtiva.java
+
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Alternativa ao Timer do Swing: uma Canvas com BufferStrategy (page flipping
+ * quando o sistema o permite) e uma thread própria que faz o loop
+ * atualizar/desenhar/mostrar, sem passar pelo repaint da EDT.
+ *
+ * O estado do jogo pertence à thread do loop. O input do rato e do teclado, e
+ * as ações dos botões (ver executarNoJogo), são postos numa fila e aplicados
+ * no início do frame seguinte, tal como o Timer fazia na EDT.
+ */
+public class TelaAtiva extends Canvas implements Runnable {
+
+    /**
+     * Como o loop espera entre frames.
+     */
+    public enum ModoSincronizacao {
+        // Ritmo da taxa de atualização do ecrã (60 Hz se não for conhecida)
+        VSYNC,
+        // Ritmo fixo dado pelo fpsAlvo
+        LIMITADO,
+        // Sem espera: desenha o mais depressa possível (para medir)
+        ILIMITADO
+    }
+
+    // Abaixo desta folga deixa de dormir e passa a espera ativa
+    private static final long FOLGA_SLEEP_NANOS = 2_000_000L;
+    // Se o loop se atrasar mais do que isto, desiste de recuperar os frames perdidos
+    private static final int FRAMES_ATRASO_MAXIMO = 3;
+
+    private final PainelJogo jogo;
+    private final ModoSincronizacao modo;
+    private final int fpsAlvo;
+    private final ConcurrentLinkedQueue<Runnable> tarefas = new ConcurrentLinkedQueue<>();
+
+    private BufferStrategy estrategia;
+    private Thread thread;
+    private volatile boolean aCorrer = false;
+
+    public TelaAtiva(PainelJogo jogo, ModoSincronizacao modo, int fpsAlvo) {
+        this.jogo = jogo;
+        this.modo = modo;
+        this.fpsAlvo = fpsAlvo;
+
+        // Tamanho inicial da quadra; a janela pode mudar de tamanho (o jogo escala o desenho)
+        this.setPreferredSize(jogo.getPreferredSize());
+        this.setIgnoreRepaint(true);
+        this.setFocusable(true);
+
+        // Reencaminha o input para a thread do loop
+        MouseAdapter rato = jogo.getEntradaRato();
+        this.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                executarNoJogo(() -> rato.mousePressed(e));
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                executarNoJogo(() -> rato.mouseReleased(e));
+            }
+        });
+        this.addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                executarNoJogo(() -> rato.mouseDragged(e));
+            }
+        });
+        this.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                executarNoJogo(() -> jogo.keyPressed(e));
+            }
+        });
+    }
+
+    /**
+     * Agenda uma ação sobre o jogo para o início do próximo frame.
+     */
+    public void executarNoJogo(Runnable tarefa) {
+        tarefas.add(tarefa);
+    }
+
+    /**
+     * Cria a BufferStrategy e arranca a thread do loop. A Canvas tem de estar já
+     * visível (chamar depois do setVisible da janela).
+     */
+    public void iniciar() {
+        if (aCorrer) return;
+        try {
+            BufferCapabilities flip = new BufferCapabilities(
+                new ImageCapabilities(true), new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED);
+            createBufferStrategy(2, flip);
+        } catch (AWTException e) {
+            // Sem page flipping: fica com a melhor estratégia disponível (blit)
+            createBufferStrategy(2);
+        }
+        estrategia = getBufferStrategy();
+
+        aCorrer = true;
+        thread = new Thread(this, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void parar() {
+        aCorrer = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        long periodo = periodoNanos();
+        long proximo = System.nanoTime();
+
+        while (aCorrer) {
+            Runnable tarefa;
+            while ((tarefa = tarefas.poll()) != null) {
+                tarefa.run();
+            }
+            jogo.atualizarJogo();
+            renderizar();
+
+            if (periodo == 0) continue;
+            proximo += periodo;
+            long agora = System.nanoTime();
+            if (agora - proximo > FRAMES_ATRASO_MAXIMO * periodo) {
+                // Muito atrasado (ex: janela minimizada): recomeça a contagem a partir de agora
+                proximo = agora;
+            } else if (!esperarAte(proximo)) {
+                return;
+            }
+        }
+    }
+
+    // Dorme em passos de 1 ms enquanto houver folga e acaba em espera ativa, pela precisão
+    private boolean esperarAte(long prazoNanos) {
+        long restante;
+        while ((restante = prazoNanos - System.nanoTime()) > 0) {
+            if (restante > FOLGA_SLEEP_NANOS) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return true;
+    }
+
+    private long periodoNanos() {
+        switch (modo) {
+            case ILIMITADO:
+                return 0;
+            case VSYNC:
+                int hz = DisplayMode.REFRESH_RATE_UNKNOWN;
+                GraphicsConfiguration gc = getGraphicsConfiguration();
+                if (gc != null) {
+                    hz = gc.getDevice().getDisplayMode().getRefreshRate();
+                }
+                return 1_000_000_000L / (hz > 0 ? hz : 60);
+            default:
+                return 1_000_000_000L / Math.max(1, fpsAlvo);
+        }
+    }
+
+    // Ciclo recomendado da BufferStrategy: repete se o buffer for restaurado ou perdido
+    private void renderizar() {
+        do {
+            do {
+                Graphics2D g = (Graphics2D) estrategia.getDrawGraphics();
+                try {
+                    jogo.desenharJogo(g, getGraphicsConfiguration(), getWidth(), getHeight());
+                } finally {
+                    g.dispose();
+                }
+            } while (estrategia.contentsRestored());
+            estrategia.show();
+            Toolkit.getDefaultToolkit().sync();
+        } while (estrategia.contentsLost());
+    }
+}
\ No newline at end of file
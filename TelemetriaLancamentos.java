@@ -0,0 +1,408 @@
+// TelemetriaLancamentos.java
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Telemetria dos lançamentos: cada lançamento (arrasto, velocidade de saída
+ * depois do limite de força e do erro, eventos, ressaltos e passos até parar)
+ * vira um registo num anel sem locks, como o BarramentoEventos mas com um só
+ * leitor: uma thread de fundo que junta os registos em blocos colunares,
+ * comprime cada coluna com o Deflater e acrescenta o bloco ao ficheiro.
+ *
+ * Os passos sem eventos não custam nada à Simulacao (a duração sai da
+ * diferença de ticks e os ressaltos dos ticks dos impactos); os passos com
+ * eventos atualizam dois campos, e cada lançamento escreve um registo no
+ * anel, sem alocar. O jogo não acorda ninguém: a thread de fundo acorda
+ * sozinha a cada INTERVALO_LEITURA_NANOS. Com o anel cheio o registo é
+ * descartado e contado.
+ *
+ * Formato (big-endian):
+ *   Cabeçalho: "BQTL" | versão (byte)
+ *   Bloco:     registos (int) | tamanho das colunas (int) | colunas
+ *   Coluna:    tamanho comprimido (int) | dados do Deflater
+ * As colunas vêm pela ordem das constantes COL_*; o AgregadorTelemetria lê-as.
+ */
+public final class TelemetriaLancamentos implements AutoCloseable {
+
+    static final int MAGIA = 0x4251544C; // "BQTL"
+    static final byte VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 5;
+    static final int TAMANHO_CABECALHO_BLOCO = 8;
+
+    // --- Colunas (pela ordem do bloco) ---
+    // long: ms desde a época (o primeiro do bloco inteiro, os outros em diferença ao anterior)
+    static final int COL_INSTANTE = 0;
+    // byte: ordinal do NivelDificuldade
+    static final int COL_NIVEL = 1;
+    // float: vetor de arrasto do rato
+    static final int COL_DX = 2;
+    static final int COL_DY = 3;
+    // float: velocidade de saída, em px por passo
+    static final int COL_VEL_X = 4;
+    static final int COL_VEL_Y = 5;
+    // int: Simulacao.EVENTO_* de todos os passos do lançamento (EVENTO_PONTO = cesto)
+    static final int COL_EVENTOS = 6;
+    // short: impactos (chão, paredes, tabela, aro, obstáculos)
+    static final int COL_RESSALTOS = 7;
+    // int: passos do lançamento até a bola parar ou ser reiniciada
+    static final int COL_PASSOS = 8;
+    // byte: 1 se a bola parou sozinha, 0 se foi reiniciada antes (nos níveis fáceis pode nunca parar)
+    static final int COL_PAROU = 9;
+    static final int COLUNAS = 10;
+    static final int[] BYTES_COLUNA = {8, 1, 4, 4, 4, 4, 4, 2, 4, 1};
+
+    static final int REGISTOS_POR_BLOCO = 4096;
+    // Um bloco incompleto é escrito ao fim deste tempo (perde-se pouco se o jogo morrer)
+    private static final long INTERVALO_BLOCO_NANOS = 60_000_000_000L;
+    private static final long INTERVALO_LEITURA_NANOS = 250_000_000L;
+    private static final int CAPACIDADE_ANEL = 1024;
+
+    // Eventos que contam como um ressalto (o primeiro passo de cada impacto)
+    static final int IMPACTOS = Simulacao.EVENTO_CHAO | Simulacao.EVENTO_PAREDE | Simulacao.EVENTO_TABELA
+        | Simulacao.EVENTO_ARO | Simulacao.EVENTO_OBSTACULO;
+
+    /**
+     * Um bloco de registos em colunas (arrays primitivos), com a codificação
+     * do formato. A thread de fundo enche um; o AgregadorTelemetria reutiliza
+     * um por thread para ler.
+     */
+    static final class Bloco {
+        final long[] instantes = new long[REGISTOS_POR_BLOCO];
+        final byte[] niveis = new byte[REGISTOS_POR_BLOCO];
+        final float[] dx = new float[REGISTOS_POR_BLOCO];
+        final float[] dy = new float[REGISTOS_POR_BLOCO];
+        final float[] velX = new float[REGISTOS_POR_BLOCO];
+        final float[] velY = new float[REGISTOS_POR_BLOCO];
+        final int[] eventos = new int[REGISTOS_POR_BLOCO];
+        final short[] ressaltos = new short[REGISTOS_POR_BLOCO];
+        final int[] passos = new int[REGISTOS_POR_BLOCO];
+        final byte[] parou = new byte[REGISTOS_POR_BLOCO];
+        int registos = 0;
+
+        // Coluna sem comprimir (do tamanho da maior)
+        private final ByteBuffer bruto = ByteBuffer.allocate(REGISTOS_POR_BLOCO * 8);
+
+        /**
+         * Comprime as colunas e escreve o bloco inteiro em saida (que cresce se for preciso).
+         * @return O buffer com o bloco, pronto a escrever.
+         */
+        ByteBuffer codificar(Deflater deflater, ByteBuffer saida) {
+            saida.clear();
+            saida.putInt(registos).putInt(0);
+            for (int coluna = 0; coluna < COLUNAS; coluna++) {
+                bruto.clear();
+                preencher(coluna);
+                bruto.flip();
+                deflater.reset();
+                deflater.setInput(bruto);
+                deflater.finish();
+                int inicio = saida.position();
+                saida.putInt(0);
+                while (!deflater.finished()) {
+                    if (!saida.hasRemaining()) saida = crescer(saida);
+                    deflater.deflate(saida);
+                }
+                saida.putInt(inicio, saida.position() - inicio - 4);
+            }
+            saida.putInt(4, saida.position() - TAMANHO_CABECALHO_BLOCO);
+            saida.flip();
+            return saida;
+        }
+
+        private void preencher(int coluna) {
+            switch (coluna) {
+                case COL_INSTANTE:
+                    long anterior = 0;
+                    for (int i = 0; i < registos; i++) {
+                        bruto.putLong(instantes[i] - anterior);
+                        anterior = instantes[i];
+                    }
+                    break;
+                case COL_NIVEL: bruto.put(niveis, 0, registos); break;
+                case COL_DX: for (int i = 0; i < registos; i++) bruto.putFloat(dx[i]); break;
+                case COL_DY: for (int i = 0; i < registos; i++) bruto.putFloat(dy[i]); break;
+                case COL_VEL_X: for (int i = 0; i < registos; i++) bruto.putFloat(velX[i]); break;
+                case COL_VEL_Y: for (int i = 0; i < registos; i++) bruto.putFloat(velY[i]); break;
+                case COL_EVENTOS: for (int i = 0; i < registos; i++) bruto.putInt(eventos[i]); break;
+                case COL_RESSALTOS: for (int i = 0; i < registos; i++) bruto.putShort(ressaltos[i]); break;
+                case COL_PASSOS: for (int i = 0; i < registos; i++) bruto.putInt(passos[i]); break;
+                default: bruto.put(parou, 0, registos); break;
+            }
+        }
+
+        private static ByteBuffer crescer(ByteBuffer saida) {
+            ByteBuffer maior = ByteBuffer.allocate(saida.capacity() * 2);
+            saida.flip();
+            return maior.put(saida);
+        }
+
+        /**
+         * Lê o bloco que começa na posição atual de dados (que fica no fim do bloco).
+         * @throws IOException se o bloco estiver corrompido.
+         */
+        void descodificar(ByteBuffer dados, Inflater inflater) throws IOException {
+            int n = dados.getInt();
+            int tamanho = dados.getInt();
+            if (n < 0 || n > REGISTOS_POR_BLOCO || tamanho < 0 || tamanho > dados.remaining()) {
+                throw new IOException("Bloco de telemetria inválido");
+            }
+            int fim = dados.position() + tamanho;
+            registos = n;
+            try {
+                for (int coluna = 0; coluna < COLUNAS; coluna++) {
+                    int comprimido = dados.getInt();
+                    if (comprimido < 0 || comprimido > fim - dados.position()) {
+                        throw new IOException("Coluna de telemetria inválida");
+                    }
+                    inflater.reset();
+                    inflater.setInput(dados.slice(dados.position(), comprimido));
+                    bruto.clear().limit(n * BYTES_COLUNA[coluna]);
+                    while (bruto.hasRemaining() && !inflater.finished()) {
+                        if (inflater.inflate(bruto) == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                    }
+                    if (bruto.hasRemaining()) throw new IOException("Coluna de telemetria truncada");
+                    bruto.flip();
+                    ler(coluna);
+                    dados.position(dados.position() + comprimido);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Coluna de telemetria corrompida", e);
+            }
+            dados.position(fim);
+        }
+
+        private void ler(int coluna) {
+            int n = registos;
+            switch (coluna) {
+                case COL_INSTANTE:
+                    long atual = 0;
+                    for (int i = 0; i < n; i++) instantes[i] = atual += bruto.getLong();
+                    break;
+                case COL_NIVEL: bruto.get(niveis, 0, n); break;
+                case COL_DX: for (int i = 0; i < n; i++) dx[i] = bruto.getFloat(); break;
+                case COL_DY: for (int i = 0; i < n; i++) dy[i] = bruto.getFloat(); break;
+                case COL_VEL_X: for (int i = 0; i < n; i++) velX[i] = bruto.getFloat(); break;
+                case COL_VEL_Y: for (int i = 0; i < n; i++) velY[i] = bruto.getFloat(); break;
+                case COL_EVENTOS: for (int i = 0; i < n; i++) eventos[i] = bruto.getInt(); break;
+                case COL_RESSALTOS: for (int i = 0; i < n; i++) ressaltos[i] = bruto.getShort(); break;
+                case COL_PASSOS: for (int i = 0; i < n; i++) passos[i] = bruto.getInt(); break;
+                default: bruto.get(parou, 0, n); break;
+            }
+        }
+    }
+
+    // --- Anel (um índice por registo; só a Simulacao escreve, só a thread de fundo lê) ---
+    private final int mascara = CAPACIDADE_ANEL - 1;
+    private final long[] anelInstantes = new long[CAPACIDADE_ANEL];
+    private final byte[] anelNiveis = new byte[CAPACIDADE_ANEL];
+    private final float[] anelDx = new float[CAPACIDADE_ANEL];
+    private final float[] anelDy = new float[CAPACIDADE_ANEL];
+    private final float[] anelVelX = new float[CAPACIDADE_ANEL];
+    private final float[] anelVelY = new float[CAPACIDADE_ANEL];
+    private final int[] anelEventos = new int[CAPACIDADE_ANEL];
+    private final short[] anelRessaltos = new short[CAPACIDADE_ANEL];
+    private final int[] anelPassos = new int[CAPACIDADE_ANEL];
+    private final byte[] anelParou = new byte[CAPACIDADE_ANEL];
+    private final AtomicLong publicado = new AtomicLong();
+    private final AtomicLong lido = new AtomicLong();
+    // Cursor do leitor visto pelo produtor (só é relido quando o anel parece cheio)
+    private long lidoCache = 0;
+    private final AtomicLong descartados = new AtomicLong();
+
+    // --- Lançamento em curso (só a thread da Simulacao) ---
+    private boolean aberto = false;
+    private byte nivel;
+    private float dxArrasto, dyArrasto, velXSaida, velYSaida;
+    private long tickLancamento;
+    private int eventosLancamento;
+    private int ressaltosLancamento;
+    // Tick do último passo com impacto (um impacto que dura vários passos conta uma vez)
+    private long tickImpacto;
+
+    // --- Escrita (só a thread de fundo) ---
+    private final FileChannel canal;
+    private final Bloco bloco = new Bloco();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private ByteBuffer saida = ByteBuffer.allocate(64 * 1024);
+    private long inicioBlocoNanos;
+    private long registosEscritos = 0;
+    private long bytesEscritos = TAMANHO_CABECALHO;
+    private final Thread escritor;
+    private volatile boolean fechado = false;
+
+    public TelemetriaLancamentos(Path ficheiro) throws IOException {
+        this.canal = FileChannel.open(ficheiro,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+        cabecalho.putInt(MAGIA).put(VERSAO).flip();
+        while (cabecalho.hasRemaining()) canal.write(cabecalho);
+        this.escritor = new Thread(this::escrever, "telemetria");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    // --- Produtor (a Simulacao) ---
+
+    /**
+     * A bola foi lançada. Um lançamento ainda aberto fecha-se como interrompido.
+     */
+    void lancou(long tick, NivelDificuldade nivelLancamento, double dx, double dy, double velX, double velY) {
+        if (aberto) fechar(tick, false);
+        aberto = true;
+        tickLancamento = tick;
+        nivel = (byte) nivelLancamento.ordinal();
+        dxArrasto = (float) dx;
+        dyArrasto = (float) dy;
+        velXSaida = (float) velX;
+        velYSaida = (float) velY;
+        eventosLancamento = 0;
+        ressaltosLancamento = 0;
+        tickImpacto = Long.MIN_VALUE;
+    }
+
+    /**
+     * Um passo com eventos (os passos sem eventos não chegam aqui).
+     */
+    void eventos(long tick, int eventos) {
+        if (!aberto) return;
+        eventosLancamento |= eventos;
+        if ((eventos & IMPACTOS) != 0) {
+            if (tick != tickImpacto + 1) ressaltosLancamento++;
+            tickImpacto = tick;
+        }
+        if ((eventos & Simulacao.EVENTO_REPOUSO) != 0) fechar(tick, true);
+    }
+
+    /**
+     * A bola voltou à linha de partida antes de parar.
+     */
+    void reiniciou(long tick) {
+        if (aberto) fechar(tick, false);
+    }
+
+    private void fechar(long tick, boolean parouSozinha) {
+        aberto = false;
+        long seq = publicado.get();
+        if (seq - lidoCache > mascara) {
+            lidoCache = lido.get();
+            if (seq - lidoCache > mascara) {
+                descartados.incrementAndGet();
+                return;
+            }
+        }
+        int i = (int) seq & mascara;
+        anelInstantes[i] = System.currentTimeMillis();
+        anelNiveis[i] = nivel;
+        anelDx[i] = dxArrasto;
+        anelDy[i] = dyArrasto;
+        anelVelX[i] = velXSaida;
+        anelVelY[i] = velYSaida;
+        anelEventos[i] = eventosLancamento;
+        anelRessaltos[i] = (short) Math.min(Short.MAX_VALUE, ressaltosLancamento);
+        anelPassos[i] = (int) Math.min(Integer.MAX_VALUE, tick - tickLancamento);
+        anelParou[i] = (byte) (parouSozinha ? 1 : 0);
+        // Release: os campos acima ficam visíveis a quem ler o cursor
+        publicado.lazySet(seq + 1);
+    }
+
+    // --- Thread de Fundo ---
+
+    private void escrever() {
+        try {
+            while (!fechado) {
+                drenar();
+                if (bloco.registos > 0 && System.nanoTime() - inicioBlocoNanos > INTERVALO_BLOCO_NANOS) {
+                    escreverBloco();
+                }
+                LockSupport.parkNanos(INTERVALO_LEITURA_NANOS);
+            }
+            drenar();
+            escreverBloco();
+            canal.force(false);
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar telemetria: " + e.getMessage());
+        } finally {
+            deflater.end();
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // Nada a fazer
+            }
+        }
+    }
+
+    private void drenar() throws IOException {
+        long proximo = lido.get();
+        long disponivel = publicado.get();
+        for (; proximo < disponivel; proximo++) {
+            int i = (int) proximo & mascara;
+            int r = bloco.registos;
+            if (r == 0) inicioBlocoNanos = System.nanoTime();
+            bloco.instantes[r] = anelInstantes[i];
+            bloco.niveis[r] = anelNiveis[i];
+            bloco.dx[r] = anelDx[i];
+            bloco.dy[r] = anelDy[i];
+            bloco.velX[r] = anelVelX[i];
+            bloco.velY[r] = anelVelY[i];
+            bloco.eventos[r] = anelEventos[i];
+            bloco.ressaltos[r] = anelRessaltos[i];
+            bloco.passos[r] = anelPassos[i];
+            bloco.parou[r] = anelParou[i];
+            bloco.registos = r + 1;
+            if (bloco.registos == REGISTOS_POR_BLOCO) escreverBloco();
+        }
+        lido.lazySet(proximo);
+    }
+
+    private void escreverBloco() throws IOException {
+        if (bloco.registos == 0) return;
+        saida = bloco.codificar(deflater, saida);
+        bytesEscritos += saida.remaining();
+        while (saida.hasRemaining()) canal.write(saida);
+        registosEscritos += bloco.registos;
+        bloco.registos = 0;
+    }
+
+    // --- Estado ---
+
+    public long getDescartados() { return descartados.get(); }
+    public long getPublicados() { return publicado.get(); }
+    // Registos e bytes já no ficheiro (só certos depois do close)
+    public long getRegistosEscritos() { return registosEscritos; }
+    public long getBytesEscritos() { return bytesEscritos; }
+
+    /**
+     * Fecha na thread da Simulacao: o lançamento ainda aberto fica registado
+     * como interrompido no tick dado, e depois fecha como o close().
+     */
+    public void close(long tick) {
+        if (aberto && !fechado) fechar(tick, false);
+        close();
+    }
+
+    /**
+     * Escreve o que falta e fecha o ficheiro (espera pela thread de fundo até 2 s).
+     * Pode ser chamado de qualquer thread, mas perde o lançamento ainda aberto:
+     * a sessão deve fechar com close(tick).
+     */
+    @Override
+    public void close() {
+        if (fechado) return;
+        fechado = true;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
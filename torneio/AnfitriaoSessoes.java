@@ -0,0 +1,268 @@
+// AnfitriaoSessoes.java
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Corre muitas partidas sem ecrã ao mesmo tempo (torneios e ligas de bots).
+ * Cada partida é uma sessão numa thread virtual, dentro de um EscopoTarefas e
+ * com prazo: pede os lançamentos às fontes de entrada dos jogadores (que
+ * podem demorar, como um bot a pensar ou um jogador remoto), simula, conta os
+ * pontos (Cesto.verificarPontuacao, na Simulacao) e grava o resultado.
+ *
+ * A física não corre nas threads virtuais: cada sessão entrega fatias de
+ * simulação a um executor com poucas threads de plataforma, e um semáforo
+ * limita as fatias em fila (as sessões esperam por vaga em vez de encherem a
+ * memória). As partidas correm em tempo simulado, sem um Timer por partida:
+ * uma fatia avança até um jogador poder voltar a lançar.
+ *
+ * Uma sessão parada (à espera da entrada) custa a Partida e a pilha da
+ * thread virtual, uns 7 KB; 100 000 partidas correm com 2 GB de heap.
+ *
+ * As threads virtuais precisam do JDK 21: por isso o anfitrião (com o
+ * EscopoTarefas e os ResultadosTorneio) fica na pasta torneio, fora do
+ * "javac *.java" do jogo, que continua a compilar no JDK 17. Com o JDK 21:
+ *   javac -d out *.java torneio/*.java
+ *   java -cp out AnfitriaoSessoes [partidas] [nível] ...
+ */
+public final class AnfitriaoSessoes implements AutoCloseable {
+
+    /**
+     * De onde vêm os lançamentos de um jogador. Pode bloquear (a sessão tem
+     * uma thread virtual só para si).
+     */
+    public interface FonteEntradas {
+        /**
+         * Escolhe o próximo lançamento: o arrasto vai para arrasto[0] (dx) e arrasto[1] (dy).
+         * @return false se o jogador desiste dos lançamentos que lhe faltam.
+         */
+        boolean proximoLancamento(Partida partida, int jogador, int[] arrasto) throws InterruptedException;
+    }
+
+    public interface FabricaFontes {
+        FonteEntradas criar(int partida, int jogador);
+    }
+
+    // Passos por fatia no máximo (5 s de jogo: um lançamento inteiro)
+    static final int MAX_PASSOS_POR_FATIA = Partida.MAX_PASSOS_LANCAMENTO;
+    // Fatias em fila por thread de física
+    private static final int FATIAS_POR_THREAD = 4;
+
+    private final ThreadPoolExecutor fisica;
+    private final Semaphore vagas;
+    private final ResultadosTorneio resultados;
+
+    // --- Estatísticas ---
+    private final AtomicInteger ativas = new AtomicInteger();
+    private final AtomicInteger maxAtivas = new AtomicInteger();
+    private final LongAdder terminadas = new LongAdder();
+    private final LongAdder expiradas = new LongAdder();
+    private final LongAdder falhadas = new LongAdder();
+    private final LongAdder fatias = new LongAdder();
+    private final LongAdder passos = new LongAdder();
+
+    /**
+     * @param threadsFisica Threads do executor de física (normalmente uma por núcleo).
+     * @param resultados Onde gravar o resultado de cada partida (null = não gravar).
+     */
+    public AnfitriaoSessoes(int threadsFisica, ResultadosTorneio resultados) {
+        AtomicInteger numero = new AtomicInteger();
+        this.fisica = new ThreadPoolExecutor(threadsFisica, threadsFisica, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "fisica-" + numero.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        this.vagas = new Semaphore(threadsFisica * FATIAS_POR_THREAD);
+        this.resultados = resultados;
+    }
+
+    /**
+     * Joga as partidas todas ao mesmo tempo e espera que acabem. Uma partida
+     * que falha ou passa do prazo fica registada como tal, sem parar as outras.
+     * @param prazoNanos Prazo de cada partida (0 = sem prazo).
+     */
+    public void jogar(int partidas, NivelDificuldade nivel, boolean colisaoContinua, long semente,
+                      FabricaFontes fabrica, long prazoNanos) throws InterruptedException, ExecutionException {
+        try (EscopoTarefas escopo = new EscopoTarefas()) {
+            for (int i = 0; i < partidas; i++) {
+                int id = i;
+                escopo.fork(() -> sessao(new Partida(id, nivel, colisaoContinua, GeradorAleatorio.derivarSemente(semente, id)),
+                    fabrica), prazoNanos);
+            }
+            escopo.juntar();
+        }
+    }
+
+    private void sessao(Partida partida, FabricaFontes fabrica) {
+        maxAtivas.accumulateAndGet(ativas.incrementAndGet(), Math::max);
+        byte estado = ResultadosTorneio.TERMINADA;
+        try {
+            FonteEntradas[] fontes = new FonteEntradas[Partida.JOGADORES];
+            for (int j = 0; j < Partida.JOGADORES; j++) {
+                fontes[j] = fabrica.criar(partida.getId(), j);
+            }
+            int[] arrasto = new int[2];
+            while (!partida.isTerminada()) {
+                for (int j = 0; j < Partida.JOGADORES; j++) {
+                    if (!partida.podeLancar(j)) continue;
+                    if (fontes[j].proximoLancamento(partida, j, arrasto)) {
+                        partida.lancar(j, arrasto[0], arrasto[1]);
+                    } else {
+                        partida.desistir(j);
+                    }
+                }
+                simularFatia(partida);
+            }
+            terminadas.increment();
+        } catch (InterruptedException e) {
+            // Prazo: a partida acaba com os pontos que tem
+            partida.abandonar();
+            estado = ResultadosTorneio.EXPIRADA;
+            expiradas.increment();
+        } catch (RuntimeException e) {
+            estado = ResultadosTorneio.FALHOU;
+            falhadas.increment();
+            System.err.println("Partida " + partida.getId() + " falhou: " + e);
+        } finally {
+            ativas.decrementAndGet();
+        }
+        // A interrupção do prazo pode chegar depois do fim; não pode estragar a gravação
+        Thread.interrupted();
+        if (resultados != null) resultados.registar(partida, estado);
+    }
+
+    /**
+     * Avança a partida no executor de física até um jogador poder lançar (ou
+     * a partida acabar), e espera. Se a espera for interrompida, a fatia
+     * acaba à mesma antes de a sessão voltar a mexer na partida.
+     */
+    private void simularFatia(Partida partida) throws InterruptedException {
+        vagas.acquire();
+        CompletableFuture<Void> feita;
+        try {
+            feita = CompletableFuture.runAsync(() -> avancar(partida), fisica);
+        } catch (RuntimeException e) {
+            vagas.release();
+            throw e;
+        }
+        feita.whenComplete((r, e) -> vagas.release());
+        try {
+            feita.get();
+        } catch (InterruptedException e) {
+            try {
+                feita.join();
+            } catch (RuntimeException ignorada) {
+                // A interrupção manda
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void avancar(Partida partida) {
+        int n = 0;
+        while (n < MAX_PASSOS_POR_FATIA && !partida.isTerminada()) {
+            partida.passo();
+            n++;
+            if (partida.podeLancar(0) || partida.podeLancar(1)) break;
+        }
+        fatias.increment();
+        passos.add(n);
+    }
+
+    // --- Estatísticas ---
+
+    public int getAtivas() { return ativas.get(); }
+    public long getConcluidas() { return terminadas.sum() + expiradas.sum() + falhadas.sum(); }
+
+    public String getEstatisticas() {
+        return String.format(Locale.ROOT,
+            "%d terminadas, %d expiradas, %d falhadas, máximo de %d ativas, %d fatias, %.1f passos por fatia",
+            terminadas.sum(), expiradas.sum(), falhadas.sum(), maxAtivas.get(), fatias.sum(),
+            passos.sum() / (double) Math.max(1, fatias.sum()));
+    }
+
+    @Override
+    public void close() {
+        fisica.shutdown();
+    }
+
+    /**
+     * Um bot que lança com um arrasto à volta do que costuma acertar na quadra
+     * padrão (como o ClienteScriptado) e pode demorar a pensar.
+     */
+    static final class BotAleatorio implements FonteEntradas {
+        private final GeradorAleatorio random;
+        private final long pensarMs;
+
+        BotAleatorio(long semente, long pensarMs) {
+            this.random = new GeradorAleatorio(semente);
+            this.pensarMs = pensarMs;
+        }
+
+        @Override
+        public boolean proximoLancamento(Partida partida, int jogador, int[] arrasto) throws InterruptedException {
+            if (pensarMs > 0) Thread.sleep((long) (pensarMs * (0.5 + random.proximoDouble())));
+            arrasto[0] = 170 + (int) (random.proximoDouble() * 80);
+            arrasto[1] = -210 - (int) (random.proximoDouble() * 80);
+            return true;
+        }
+    }
+
+    /**
+     * Torneio de bots: [partidas] [nível] [contínua] [pensar ms] [prazo s] [ficheiro de resultados]
+     */
+    public static void main(String[] args) throws Exception {
+        int partidas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        NivelDificuldade nivel = args.length > 1 ? NivelDificuldade.valueOf(args[1].toUpperCase()) : NivelDificuldade.FACIL;
+        boolean continua = args.length > 2 && Boolean.parseBoolean(args[2]);
+        long pensarMs = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        long prazoNanos = TimeUnit.SECONDS.toNanos(args.length > 4 ? Long.parseLong(args[4]) : 600);
+        Path ficheiro = args.length > 5 ? Paths.get(args[5]) : Files.createTempFile("torneio", ".bqr");
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long memoriaInicial = runtime.totalMemory() - runtime.freeMemory();
+        int threads = runtime.availableProcessors();
+        long inicio = System.nanoTime();
+        try (ResultadosTorneio resultados = new ResultadosTorneio(ficheiro);
+             AnfitriaoSessoes anfitriao = new AnfitriaoSessoes(threads, resultados)) {
+            Thread monitor = Thread.ofPlatform().daemon().name("torneio-monitor").start(() -> {
+                try {
+                    while (true) {
+                        Thread.sleep(2000);
+                        int ativasAgora = anfitriao.getAtivas();
+                        long memoria = runtime.totalMemory() - runtime.freeMemory() - memoriaInicial;
+                        System.out.printf(Locale.ROOT, "%6.1f s: %d ativas, %d concluídas, %.0f MB (%.1f KB por partida ativa)%n",
+                            (System.nanoTime() - inicio) / 1e9, ativasAgora, anfitriao.getConcluidas(),
+                            memoria / 1e6, ativasAgora == 0 ? 0 : memoria / 1024.0 / ativasAgora);
+                    }
+                } catch (InterruptedException e) {
+                    // Fim do torneio
+                }
+            });
+            anfitriao.jogar(partidas, nivel, continua, 42L,
+                (id, jogador) -> new BotAleatorio(GeradorAleatorio.derivarSemente(id, jogador), pensarMs), prazoNanos);
+            monitor.interrupt();
+            System.out.printf(Locale.ROOT, "%d partidas em %.1f s com %d threads de física%n",
+                partidas, (System.nanoTime() - inicio) / 1e9, threads);
+            System.out.println(anfitriao.getEstatisticas());
+        }
+        System.out.println("Resultados em " + ficheiro + ": " + ResultadosTorneio.resumir(ficheiro));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+// EscopoTarefas.java
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concorrência estruturada sobre threads virtuais: as tarefas abertas num
+ * escopo acabam antes de ele fechar, e a primeira falha interrompe as outras
+ * e é relançada por juntar (como o StructuredTaskScope.ShutdownOnFailure, que
+ * no JDK 21 ainda é preview). Cada tarefa pode ter um prazo: quando passa, a
+ * thread da tarefa é interrompida, e a tarefa decide como acabar.
+ *
+ * Os prazos de todas as tarefas partilham um só temporizador, e as esperas
+ * usam ReentrantLock, não synchronized: no JDK 21 um monitor prende a thread
+ * virtual à thread que a transporta. Precisa do JDK 21 (ver AnfitriaoSessoes).
+ */
+public final class EscopoTarefas implements AutoCloseable {
+
+    /**
+     * Uma tarefa do escopo. InterruptedException é o fim normal de uma tarefa
+     * cancelada (prazo ou falha de outra); as outras exceções são falhas.
+     */
+    public interface Tarefa {
+        void executar() throws Exception;
+    }
+
+    // Um temporizador para os prazos de todos os escopos (cancelar tira-o da fila)
+    private static final ScheduledThreadPoolExecutor TEMPORIZADOR = criarTemporizador();
+
+    private final ThreadFactory fabrica = Thread.ofVirtual().factory();
+    private final Set<Thread> ativas = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<Throwable> falha = new AtomicReference<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition terminaram = lock.newCondition();
+    private int pendentes = 0;
+    private volatile boolean fechado = false;
+
+    private static ScheduledThreadPoolExecutor criarTemporizador() {
+        ScheduledThreadPoolExecutor temporizador = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "escopo-prazos");
+            t.setDaemon(true);
+            return t;
+        });
+        temporizador.setRemoveOnCancelPolicy(true);
+        return temporizador;
+    }
+
+    /**
+     * Arranca a tarefa numa thread virtual nova, sem prazo.
+     */
+    public void fork(Tarefa tarefa) {
+        fork(tarefa, 0);
+    }
+
+    /**
+     * Arranca a tarefa numa thread virtual nova.
+     * @param prazoNanos Tempo até a tarefa ser interrompida (0 = sem prazo).
+     */
+    public void fork(Tarefa tarefa, long prazoNanos) {
+        lock.lock();
+        try {
+            if (fechado) throw new IllegalStateException("Escopo fechado");
+            pendentes++;
+        } finally {
+            lock.unlock();
+        }
+        fabrica.newThread(() -> correr(tarefa, prazoNanos)).start();
+    }
+
+    private void correr(Tarefa tarefa, long prazoNanos) {
+        Thread atual = Thread.currentThread();
+        ativas.add(atual);
+        ScheduledFuture<?> alarme = prazoNanos > 0
+            ? TEMPORIZADOR.schedule(atual::interrupt, prazoNanos, TimeUnit.NANOSECONDS)
+            : null;
+        try {
+            // Registada antes de olhar para o estado: ou vê o cancelamento, ou o cancelamento vê-a
+            if (falha.get() == null && !fechado) tarefa.executar();
+        } catch (InterruptedException e) {
+            // Cancelada: não é uma falha
+        } catch (Throwable e) {
+            if (falha.compareAndSet(null, e)) interromperTodas();
+        } finally {
+            if (alarme != null) alarme.cancel(false);
+            ativas.remove(atual);
+            lock.lock();
+            try {
+                if (--pendentes == 0) terminaram.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void interromperTodas() {
+        for (Thread t : ativas) t.interrupt();
+    }
+
+    /**
+     * Espera que todas as tarefas acabem.
+     * @throws ExecutionException com a primeira falha, se alguma tarefa falhou.
+     */
+    public void juntar() throws InterruptedException, ExecutionException {
+        lock.lock();
+        try {
+            while (pendentes > 0) terminaram.await();
+        } finally {
+            lock.unlock();
+        }
+        Throwable primeira = falha.get();
+        if (primeira != null) throw new ExecutionException(primeira);
+    }
+
+    public int getPendentes() {
+        lock.lock();
+        try {
+            return pendentes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Interrompe as tarefas que ainda correm e espera por elas: nenhuma sobrevive ao escopo.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            fechado = true;
+            if (pendentes > 0) interromperTodas();
+            while (pendentes > 0) {
+                terminaram.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+// ResultadosTorneio.java
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resultados das partidas de um torneio num ficheiro binário só de acrescento,
+ * com registos de tamanho fixo (como a GravadorSessao, através de um
+ * FileChannel com buffer). Muitas partidas escrevem ao mesmo tempo, cada uma
+ * na sua thread virtual: o lock é um ReentrantLock, que não prende a thread
+ * virtual à que a transporta enquanto espera.
+ *
+ * Formato (big-endian):
+ *   Cabeçalho: "BQRT" | versão (byte)
+ *   Registo:   id (int) | semente (long) | pontos 0 (short) | pontos 1 (short) | ticks (int) | estado (byte)
+ */
+public class ResultadosTorneio implements AutoCloseable {
+
+    static final int MAGIA = 0x42515254; // "BQRT"
+    static final byte VERSAO = 1;
+    static final int TAMANHO_REGISTO = 21;
+
+    // --- Estado da Partida ---
+    public static final byte TERMINADA = 0;
+    // O prazo da partida passou antes do fim (fica com os pontos que havia)
+    public static final byte EXPIRADA = 1;
+    public static final byte FALHOU = 2;
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long registos = 0;
+    private boolean fechado = false;
+
+    public ResultadosTorneio(Path ficheiro) throws IOException {
+        this.canal = FileChannel.open(ficheiro,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIA).put(VERSAO);
+    }
+
+    /**
+     * Acrescenta o resultado da partida (escrito em disco quando o buffer enche).
+     */
+    public void registar(Partida partida, byte estado) {
+        lock.lock();
+        try {
+            if (fechado) return;
+            if (buffer.remaining() < TAMANHO_REGISTO) despejar();
+            buffer.putInt(partida.getId()).putLong(partida.getSemente())
+                .putShort((short) partida.getPontuacao(0)).putShort((short) partida.getPontuacao(1))
+                .putInt((int) partida.getTick()).put(estado);
+            registos++;
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar resultados do torneio: " + e.getMessage());
+            fechado = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void despejar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) canal.write(buffer);
+        buffer.clear();
+    }
+
+    public long getRegistos() {
+        lock.lock();
+        try {
+            return registos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (fechado) return;
+            fechado = true;
+            despejar();
+            canal.force(false);
+            canal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lê um ficheiro de resultados e resume-o (partidas por estado, pontos e vitórias).
+     */
+    public static String resumir(Path ficheiro) throws IOException {
+        try (FileChannel leitura = FileChannel.open(ficheiro, StandardOpenOption.READ)) {
+            ByteBuffer dados = ByteBuffer.allocate((int) leitura.size());
+            while (dados.hasRemaining() && leitura.read(dados) >= 0) {
+                // Lê até ao fim
+            }
+            dados.flip();
+            if (dados.remaining() < 5 || dados.getInt() != MAGIA || dados.get() != VERSAO) {
+                throw new IOException("Não é um ficheiro de resultados: " + ficheiro);
+            }
+            long[] porEstado = new long[3];
+            long pontos = 0, vitorias0 = 0, vitorias1 = 0;
+            while (dados.remaining() >= TAMANHO_REGISTO) {
+                dados.getInt();
+                dados.getLong();
+                int p0 = dados.getShort(), p1 = dados.getShort();
+                dados.getInt();
+                porEstado[dados.get()]++;
+                pontos += p0 + p1;
+                if (p0 > p1) vitorias0++;
+                if (p1 > p0) vitorias1++;
+            }
+            long total = porEstado[TERMINADA] + porEstado[EXPIRADA] + porEstado[FALHOU];
+            return String.format(Locale.ROOT,
+                "%d partidas (%d terminadas, %d expiradas, %d falhadas), %.2f pontos por partida, vitórias %d-%d",
+                total, porEstado[TERMINADA], porEstado[EXPIRADA], porEstado[FALHOU],
+                total == 0 ? 0 : pontos / (double) total, vitorias0, vitorias1);
+        }
+    }
+}
\ No newline at end of file